@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import reactor.core.publisher.Mono;
+
+/**
+ * Works out how fresh commodity data is from when it was fetched, and records the freshness of the
+ * data served in metrics and in the {@link ServedFreshness} of the request, if there is one in the
+ * subscriber context.
+ */
+public class CommodityFreshnessTracker {
+
+  private final Duration refreshAfter;
+  private final Clock clock;
+  private final Map<Freshness, Counter> servedCommodities = new EnumMap<>(Freshness.class);
+  private final Timer commodityAge;
+
+  public CommodityFreshnessTracker(
+      Duration refreshAfter, Clock clock, String name, MeterRegistry meterRegistry) {
+    this.refreshAfter = refreshAfter;
+    this.clock = clock;
+    for (Freshness freshness : Freshness.values()) {
+      servedCommodities.put(
+          freshness,
+          Counter.builder("commodity_freshness")
+              .description("Commodities served, by how fresh they were")
+              .tag("name", name)
+              .tag("freshness", freshness.getValue())
+              .register(meterRegistry));
+    }
+    this.commodityAge =
+        Timer.builder("commodity_age")
+            .description("Time since the commodities served were fetched")
+            .tag("name", name)
+            .register(meterRegistry);
+  }
+
+  public Instant now() {
+    return clock.instant();
+  }
+
+  /** Commodities are stale once older than the refresh interval, if there is one. */
+  public Freshness getFreshness(Instant fetchedAt, boolean fallback) {
+    if (fallback) {
+      return Freshness.STALE_IF_ERROR;
+    }
+    if (refreshAfter != null && fetchedAt.plus(refreshAfter).isBefore(now())) {
+      return Freshness.STALE;
+    }
+    return Freshness.FRESH;
+  }
+
+  public Mono<Void> record(Freshness freshness, Instant fetchedAt) {
+    return Mono.deferContextual(
+        context -> {
+          Duration age = Duration.between(fetchedAt, now());
+          servedCommodities.get(freshness).increment();
+          commodityAge.record(age);
+          context
+              .<ServedFreshness>getOrEmpty(ServedFreshness.class)
+              .ifPresent(
+                  servedFreshness -> {
+                    servedFreshness.record(freshness, age);
+                    if (refreshAfter != null) {
+                      servedFreshness.recordFreshFor(refreshAfter.minus(age));
+                    }
+                  });
+          return Mono.empty();
+        });
+  }
+}
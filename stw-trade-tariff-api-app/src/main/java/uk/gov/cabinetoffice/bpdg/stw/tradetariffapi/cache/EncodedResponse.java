@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The encoded json of a response, kept gzip-compressed when memory matters more than cpu, and for
+ * no longer than its time to live, if it has one.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class EncodedResponse {
+
+  private final byte[] body;
+  @Getter private final boolean compressed;
+  private final String eTag;
+  private final Duration timeToLive;
+
+  public static EncodedResponse of(
+      byte[] json, String eTag, boolean compress, Duration timeToLive) {
+    return new EncodedResponse(compress ? gzip(json) : json, compress, eTag, timeToLive);
+  }
+
+  public Optional<String> getETag() {
+    return Optional.ofNullable(eTag);
+  }
+
+  public Optional<Duration> getTimeToLive() {
+    return Optional.ofNullable(timeToLive);
+  }
+
+  /** Gets the body as stored, which is gzip-compressed when the response is compressed. */
+  public byte[] getBody() {
+    return body;
+  }
+
+  /** Gets the encoded json, decompressing it when the response is compressed. */
+  public byte[] getJson() {
+    return compressed ? gunzip(body) : body;
+  }
+
+  public int getSize() {
+    return body.length;
+  }
+
+  private static byte[] gzip(byte[] bytes) {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return compressed.toByteArray();
+  }
+
+  private static byte[] gunzip(byte[] bytes) {
+    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+      return gzip.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Expires encoded responses at the start of the next tariff day, or at the end of their time to
+ * live if that is sooner, so that responses do not outlive the commodities they were built from.
+ */
+public class EncodedResponseExpiry extends TariffDayExpiry<String, EncodedResponse> {
+
+  public EncodedResponseExpiry(Clock clock) {
+    super(clock);
+  }
+
+  @Override
+  public long expireAfterCreate(String key, EncodedResponse value, long currentTime) {
+    return expireBy(value, super.expireAfterCreate(key, value, currentTime));
+  }
+
+  @Override
+  public long expireAfterUpdate(
+      String key, EncodedResponse value, long currentTime, long currentDuration) {
+    return expireBy(value, super.expireAfterUpdate(key, value, currentTime, currentDuration));
+  }
+
+  private static long expireBy(EncodedResponse response, long untilNextTariffDay) {
+    return response
+        .getTimeToLive()
+        .map(Duration::toNanos)
+        .map(timeToLive -> Math.min(timeToLive, untilNextTariffDay))
+        .orElse(untilNextTariffDay);
+  }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** How fresh the commodity data a response is built from is, from the freshest to the stalest. */
+@AllArgsConstructor
+@Getter
+public enum Freshness {
+  FRESH("fresh"),
+  // older than the refresh interval, served while it is refreshed in the background
+  STALE("stale-while-revalidate"),
+  // the last good data, served because the Online Trade Tariff API could not be reached
+  STALE_IF_ERROR("stale-if-error");
+
+  private final String value;
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Collects the freshness of the commodity data used by one request. Requests using several
+ * commodities are as fresh as their stalest commodity and as old as their oldest one, and stay
+ * fresh for as long as the first of them to go stale.
+ */
+public class ServedFreshness {
+
+  public static final String ATTRIBUTE = ServedFreshness.class.getName();
+
+  private Freshness freshness;
+  private Duration age = Duration.ZERO;
+  private Duration freshFor;
+
+  public synchronized void record(Freshness freshness, Duration age) {
+    if (this.freshness == null || freshness.compareTo(this.freshness) > 0) {
+      this.freshness = freshness;
+    }
+    if (age.compareTo(this.age) > 0) {
+      this.age = age;
+    }
+  }
+
+  public synchronized void recordFreshFor(Duration freshFor) {
+    if (this.freshFor == null || freshFor.compareTo(this.freshFor) < 0) {
+      this.freshFor = freshFor;
+    }
+  }
+
+  public synchronized Optional<Freshness> getFreshness() {
+    return Optional.ofNullable(freshness);
+  }
+
+  public synchronized Duration getAge() {
+    return age;
+  }
+
+  /** Returns how long until the commodity data used goes stale, if it used any which does. */
+  public synchronized Optional<Duration> getFreshFor() {
+    return Optional.ofNullable(freshFor);
+  }
+
+  /** Returns whether the request used fresh commodity data only, if it used any. */
+  public synchronized boolean isFresh() {
+    return freshness == null || freshness == Freshness.FRESH;
+  }
+}
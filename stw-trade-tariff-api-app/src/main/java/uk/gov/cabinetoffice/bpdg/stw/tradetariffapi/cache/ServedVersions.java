@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache;
+
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import reactor.core.publisher.Mono;
+
+/**
+ * Collects what the response to one request is built from: the versions of the measures of the
+ * commodities it uses, and whether any of its content lookups failed. A response built while a
+ * content lookup failed may be missing descriptions, so it cannot be told apart by its versions.
+ */
+public class ServedVersions {
+
+  public static final String ATTRIBUTE = ServedVersions.class.getName();
+
+  private final SortedSet<String> commodityVersions = new TreeSet<>();
+  private boolean missingContent;
+
+  /** Records the version of a commodity in the {@link ServedVersions} of the subscriber context. */
+  public static Mono<Void> recordCommodity(String commodityVersion) {
+    return Mono.deferContextual(
+        context -> {
+          context
+              .<ServedVersions>getOrEmpty(ServedVersions.class)
+              .ifPresent(servedVersions -> servedVersions.addCommodity(commodityVersion));
+          return Mono.empty();
+        });
+  }
+
+  /** Records a failed content lookup in the {@link ServedVersions} of the subscriber context. */
+  public static Mono<Void> recordMissingContent() {
+    return Mono.deferContextual(
+        context -> {
+          context
+              .<ServedVersions>getOrEmpty(ServedVersions.class)
+              .ifPresent(ServedVersions::setMissingContent);
+          return Mono.empty();
+        });
+  }
+
+  /** Returns the distinct versions of the commodities used, in order. */
+  public synchronized List<String> getCommodityVersions() {
+    return List.copyOf(commodityVersions);
+  }
+
+  /** Returns whether a content lookup failed, so descriptions may be missing from the response. */
+  public synchronized boolean isMissingContent() {
+    return missingContent;
+  }
+
+  private synchronized void addCommodity(String commodityVersion) {
+    commodityVersions.add(commodityVersion);
+  }
+
+  private synchronized void setMissingContent() {
+    missingContent = true;
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import reactor.core.publisher.Mono;
+
+/**
+ * Shares one in-flight call between all subscribers asking for the same key at the same time.
+ *
+ * <p>Only calls which are still running are shared; once a call terminates the next subscriber for
+ * that key starts a new one. Results are never retained, use a cache for that.
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, Mono<V>> inFlightCalls = new ConcurrentHashMap<>();
+  private final Counter executedCalls;
+  private final Counter deduplicatedCalls;
+
+  public SingleFlight(String name, MeterRegistry meterRegistry) {
+    this.executedCalls =
+        Counter.builder("single_flight_calls")
+            .description("Calls which were executed against the upstream")
+            .tag("name", name)
+            .tag("result", "executed")
+            .register(meterRegistry);
+    this.deduplicatedCalls =
+        Counter.builder("single_flight_calls")
+            .description("Calls which joined an identical call already in flight")
+            .tag("name", name)
+            .tag("result", "deduplicated")
+            .register(meterRegistry);
+    Gauge.builder("single_flight_in_flight", inFlightCalls, Map::size)
+        .description("Distinct calls currently in flight")
+        .tag("name", name)
+        .register(meterRegistry);
+  }
+
+  public Mono<V> execute(K key, Function<K, Mono<V>> call) {
+    return Mono.defer(
+        () -> {
+          AtomicBoolean leader = new AtomicBoolean();
+          Mono<V> sharedCall =
+              inFlightCalls.computeIfAbsent(
+                  key,
+                  k -> {
+                    leader.set(true);
+                    // only remove this call, a newer call for the key may have replaced it
+                    AtomicReference<Mono<V>> thisCall = new AtomicReference<>();
+                    thisCall.set(
+                        call.apply(k)
+                            .doFinally(signal -> inFlightCalls.remove(k, thisCall.get()))
+                            .cache());
+                    return thisCall.get();
+                  });
+          (leader.get() ? executedCalls : deduplicatedCalls).increment();
+          return sharedCall;
+        });
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+
+/**
+ * Expires cache entries at the start of the next tariff day, so that nothing cached today is
+ * served once the tariff has rolled over to tomorrow.
+ */
+public class TariffDayExpiry<K, V> implements Expiry<K, V> {
+
+  private final Clock clock;
+
+  public TariffDayExpiry(Clock clock) {
+    this.clock = clock;
+  }
+
+  public Duration timeUntilNextTariffDay() {
+    ZonedDateTime now = ZonedDateTime.now(clock);
+    ZonedDateTime startOfNextDay =
+        LocalDate.now(clock).plusDays(1).atStartOfDay(clock.getZone());
+    return Duration.between(now, startOfNextDay);
+  }
+
+  @Override
+  public long expireAfterCreate(K key, V value, long currentTime) {
+    return timeUntilNextTariffDay().toNanos();
+  }
+
+  @Override
+  public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+    return timeUntilNextTariffDay().toNanos();
+  }
+
+  @Override
+  public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+    return currentDuration;
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.SignalType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ConcurrencyLimitProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.UpstreamOverloadedException;
+
+/**
+ * Limits the calls in flight to an upstream, adapting the limit to the round trip times observed
+ * (additive increase, multiplicative decrease): the limit grows by one for each call which answers
+ * in time while the calls in flight use at least half of it, and is cut by the backoff ratio when a
+ * call takes longer than the tolerated multiple of the average round trip time, fails or is
+ * answered with 429 or a server error.
+ *
+ * <p>Calls beyond the limit wait in a bounded queue for a call in flight to finish. They are
+ * rejected with an {@link UpstreamOverloadedException} straight away when the queue is full, or
+ * once they have waited for the maximum queue time. The round trip time is measured to the
+ * response headers.
+ */
+public class AdaptiveConcurrencyLimiter implements ExchangeFilterFunction {
+
+  // the weight of each round trip time in the average it is compared with
+  private static final double RTT_SMOOTHING = 0.05;
+
+  private final String upstream;
+  private final ConcurrencyLimitProperties.Limit properties;
+  private final Counter rejections;
+  private final Deque<Waiter> waiters = new ArrayDeque<>();
+  private double limit;
+  private int inFlight;
+  private double averageRttNanos;
+
+  public AdaptiveConcurrencyLimiter(
+      String upstream, ConcurrencyLimitProperties.Limit properties, MeterRegistry meterRegistry) {
+    this.upstream = upstream;
+    this.properties = properties;
+    this.limit = properties.getInitialLimit();
+    this.rejections =
+        Counter.builder("concurrency_limit_rejections")
+            .description("Calls rejected as too many were in flight and waiting")
+            .tag("upstream", upstream)
+            .register(meterRegistry);
+    Gauge.builder("concurrency_limit", this, AdaptiveConcurrencyLimiter::getLimit)
+        .description("Calls allowed in flight at once")
+        .tag("upstream", upstream)
+        .register(meterRegistry);
+    Gauge.builder("concurrency_limit_in_flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+        .description("Calls in flight")
+        .tag("upstream", upstream)
+        .register(meterRegistry);
+    Gauge.builder("concurrency_limit_queued", this, AdaptiveConcurrencyLimiter::getQueued)
+        .description("Calls waiting for a call in flight to finish")
+        .tag("upstream", upstream)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+    if (!properties.isEnable()) {
+      return next.exchange(request);
+    }
+    return acquire()
+        .then(
+            Mono.defer(
+                () -> {
+                  long start = System.nanoTime();
+                  AtomicBoolean dropped = new AtomicBoolean(true);
+                  return next.exchange(request)
+                      .doOnNext(response -> dropped.set(isOverloaded(response.rawStatusCode())))
+                      .doFinally(
+                          signal -> {
+                            if (signal == SignalType.CANCEL) {
+                              release();
+                            } else {
+                              release(System.nanoTime() - start, dropped.get());
+                            }
+                          });
+                }));
+  }
+
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  public synchronized int getQueued() {
+    return waiters.size();
+  }
+
+  private static boolean isOverloaded(int statusCode) {
+    return statusCode == HttpStatus.TOO_MANY_REQUESTS.value() || statusCode >= 500;
+  }
+
+  private Mono<Void> acquire() {
+    return Mono.<Void>create(
+            sink -> {
+              Waiter waiter = new Waiter(sink);
+              boolean acquired = false;
+              boolean queued = false;
+              synchronized (this) {
+                if (inFlight < (int) limit) {
+                  inFlight++;
+                  acquired = true;
+                } else if (waiters.size() < properties.getMaximumQueueSize()) {
+                  waiters.add(waiter);
+                  queued = true;
+                }
+              }
+              if (acquired) {
+                sink.success();
+              } else if (queued) {
+                sink.onCancel(() -> leaveQueue(waiter));
+              } else {
+                rejections.increment();
+                sink.error(new UpstreamOverloadedException(upstream));
+              }
+            })
+        .timeout(
+            properties.getMaximumQueueTime(),
+            Mono.defer(
+                () -> {
+                  rejections.increment();
+                  return Mono.error(new UpstreamOverloadedException(upstream));
+                }));
+  }
+
+  private void leaveQueue(Waiter waiter) {
+    if (waiter.claim()) {
+      synchronized (this) {
+        waiters.remove(waiter);
+      }
+    } else {
+      // the call was handed the place of a finished call as it gave up waiting
+      release();
+    }
+  }
+
+  private void release(long rttNanos, boolean dropped) {
+    synchronized (this) {
+      adjustLimit(rttNanos, dropped);
+    }
+    release();
+  }
+
+  private void adjustLimit(long rttNanos, boolean dropped) {
+    boolean slow = averageRttNanos > 0 && rttNanos > averageRttNanos * properties.getRttTolerance();
+    averageRttNanos =
+        averageRttNanos > 0
+            ? averageRttNanos + (rttNanos - averageRttNanos) * RTT_SMOOTHING
+            : rttNanos;
+    if (dropped || slow) {
+      limit = Math.max(properties.getMinimumLimit(), limit * properties.getBackoffRatio());
+    } else if (inFlight * 2 >= limit) {
+      limit = Math.min(properties.getMaximumLimit(), limit + 1);
+    }
+  }
+
+  private void release() {
+    List<Waiter> admitted = new ArrayList<>();
+    synchronized (this) {
+      inFlight--;
+      while (inFlight < (int) limit && !waiters.isEmpty()) {
+        Waiter waiter = waiters.poll();
+        if (waiter.claim()) {
+          inFlight++;
+          admitted.add(waiter);
+        }
+      }
+    }
+    admitted.forEach(waiter -> waiter.sink.success());
+  }
+
+  /** A call waiting in the queue, which is either admitted or gives up, whichever comes first. */
+  private static final class Waiter {
+
+    private final MonoSink<Void> sink;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    private Waiter(MonoSink<Void> sink) {
+      this.sink = sink;
+    }
+
+    private boolean claim() {
+      return claimed.compareAndSet(false, true);
+    }
+  }
+}
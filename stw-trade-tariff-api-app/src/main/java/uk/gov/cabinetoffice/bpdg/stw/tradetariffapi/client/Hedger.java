@@ -0,0 +1,199 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.HedgingProperties;
+
+/**
+ * Sends a second, identical request when the first has not answered within a percentile of the
+ * latencies observed for the endpoint, and answers with whichever request answers first. A
+ * request only fails once the hedge, when sent, has failed as well.
+ *
+ * <p>Every request earns a share of a hedge, as set by the budget percentage, and every hedge sent
+ * spends a whole one, so hedging adds at most that share of extra requests. Only a few hedges can
+ * be saved up while requests are fast, so a slow spell afterwards cannot double the traffic.
+ */
+public class Hedger {
+
+  // the budget is kept in thousandths of a hedge
+  private static final long HEDGE = 1000;
+  private static final long MAXIMUM_BUDGET = 10 * HEDGE;
+
+  private final String name;
+  private final HedgingProperties hedgingProperties;
+  private final MeterRegistry meterRegistry;
+  private final long budgetPerRequest;
+  private final AtomicLong budget = new AtomicLong();
+  private final ConcurrentMap<String, EndpointMeters> endpointMeters = new ConcurrentHashMap<>();
+
+  public Hedger(String name, HedgingProperties hedgingProperties, MeterRegistry meterRegistry) {
+    this.name = name;
+    this.hedgingProperties = hedgingProperties;
+    this.meterRegistry = meterRegistry;
+    this.budgetPerRequest = Math.round(hedgingProperties.getBudgetPercent() * HEDGE / 100);
+  }
+
+  public <T> Mono<T> execute(String endpoint, Mono<T> request) {
+    if (!hedgingProperties.isEnable()) {
+      return request;
+    }
+    return Mono.defer(
+        () -> {
+          EndpointMeters meters = endpointMeters.computeIfAbsent(endpoint, this::endpointMeters);
+          earnBudget();
+          Optional<Duration> hedgeDelay = hedgeDelay(meters.latency);
+          Mono<T> first = timed(request, meters.latency);
+          if (hedgeDelay.isEmpty()) {
+            return first;
+          }
+          AtomicBoolean hedgeFired = new AtomicBoolean();
+          Sinks.Empty<Void> hedgeFailed = Sinks.empty();
+          Mono<Tuple2<T, Boolean>> hedge =
+              Mono.delay(hedgeDelay.get())
+                  .flatMap(
+                      tick -> {
+                        if (!spendBudget()) {
+                          meters.throttled.increment();
+                          return Mono.never();
+                        }
+                        meters.fired.increment();
+                        hedgeFired.set(true);
+                        // a hedge which fails, for instance as the upstream is overloaded, leaves
+                        // the first request to answer
+                        return timed(request, meters.latency)
+                            .map(answer -> Tuples.of(answer, true))
+                            .onErrorResume(
+                                error -> {
+                                  hedgeFailed.tryEmitEmpty();
+                                  return Mono.never();
+                                });
+                      });
+          // once the hedge is sent, a failed first request waits for the hedge to fail too
+          // before failing, as the hedge may still answer
+          Mono<Tuple2<T, Boolean>> firstOrHedgeFailure =
+              first
+                  .map(answer -> Tuples.of(answer, false))
+                  .onErrorResume(
+                      error ->
+                          hedgeFired.get()
+                              ? hedgeFailed.asMono().then(Mono.error(error))
+                              : Mono.error(error));
+          // the request which loses the race is cancelled
+          return Mono.firstWithSignal(firstOrHedgeFailure, hedge)
+              .doOnNext(
+                  answer -> {
+                    if (answer.getT2()) {
+                      meters.won.increment();
+                    }
+                  })
+              .map(Tuple2::getT1);
+        });
+  }
+
+  private void earnBudget() {
+    budget.accumulateAndGet(
+        budgetPerRequest, (saved, earned) -> Math.min(saved + earned, MAXIMUM_BUDGET));
+  }
+
+  private boolean spendBudget() {
+    return budget.getAndUpdate(saved -> saved >= HEDGE ? saved - HEDGE : saved) >= HEDGE;
+  }
+
+  private Optional<Duration> hedgeDelay(Timer latency) {
+    if (latency.count() < hedgingProperties.getMinimumSamples()) {
+      return Optional.empty();
+    }
+    ValueAtPercentile[] percentiles = latency.takeSnapshot().percentileValues();
+    Duration observed =
+        percentiles.length == 0
+            ? Duration.ZERO
+            : Duration.ofNanos((long) percentiles[0].value(TimeUnit.NANOSECONDS));
+    return Optional.of(
+        observed.compareTo(hedgingProperties.getMinimumDelay()) > 0
+            ? observed
+            : hedgingProperties.getMinimumDelay());
+  }
+
+  // an attempt which is cancelled, as it lost the race, took at least as long as it ran, so it is
+  // recorded too to keep the percentile from drifting down to the latency of the winners
+  private static <T> Mono<T> timed(Mono<T> request, Timer latency) {
+    return Mono.defer(
+        () -> {
+          long start = System.nanoTime();
+          AtomicBoolean recorded = new AtomicBoolean();
+          Runnable record =
+              () -> {
+                if (recorded.compareAndSet(false, true)) {
+                  latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+              };
+          return request.doOnNext(answer -> record.run()).doOnCancel(record);
+        });
+  }
+
+  private EndpointMeters endpointMeters(String endpoint) {
+    return new EndpointMeters(
+        Timer.builder("hedged_request_latency")
+            .description("Latency of the requests, hedges and cancelled losers included")
+            .tag("name", name)
+            .tag("endpoint", endpoint)
+            .publishPercentiles(hedgingProperties.getPercentile())
+            .register(meterRegistry),
+        hedges(endpoint, "fired", "Hedges sent as the first request was slow"),
+        hedges(endpoint, "won", "Hedges which answered before the first request"),
+        hedges(endpoint, "throttled", "Hedges not sent as the hedge budget was spent"));
+  }
+
+  private Counter hedges(String endpoint, String outcome, String description) {
+    return Counter.builder("hedged_requests")
+        .description(description)
+        .tag("name", name)
+        .tag("endpoint", endpoint)
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+
+  private static final class EndpointMeters {
+
+    private final Timer latency;
+    private final Counter fired;
+    private final Counter won;
+    private final Counter throttled;
+
+    private EndpointMeters(Timer latency, Counter fired, Counter won, Counter throttled) {
+      this.latency = latency;
+      this.fired = fired;
+      this.won = won;
+      this.throttled = throttled;
+    }
+  }
+}
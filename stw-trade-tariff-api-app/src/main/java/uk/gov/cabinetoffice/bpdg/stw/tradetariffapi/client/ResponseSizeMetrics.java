@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.LastHttpContent;
+import java.net.URI;
+import java.util.regex.Pattern;
+import reactor.netty.Connection;
+import reactor.netty.NettyPipeline;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientResponse;
+
+/**
+ * Counts the bytes of upstream response bodies as they arrive, before and after any content
+ * encoding has been undone, by upstream and endpoint. Ids in the paths of the endpoints, such as
+ * commodity codes, are left out so that there is one endpoint per api.
+ */
+public class ResponseSizeMetrics {
+
+  static final String RESPONSE_BYTES = "downstream_response_bytes";
+  static final String COMPRESSED = "compressed";
+  static final String UNCOMPRESSED = "uncompressed";
+
+  private static final String COMPRESSED_BYTES_HANDLER = "stw.compressedBytesCounter";
+  private static final String UNCOMPRESSED_BYTES_HANDLER = "stw.uncompressedBytesCounter";
+  private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+  private final MeterRegistry meterRegistry;
+
+  public ResponseSizeMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  public HttpClient instrument(HttpClient httpClient, String upstream) {
+    return httpClient.doOnResponse((response, connection) -> count(response, connection, upstream));
+  }
+
+  private void count(HttpClientResponse response, Connection connection, String upstream) {
+    ChannelPipeline pipeline = connection.channel().pipeline();
+    String codec =
+        pipeline.get(NettyPipeline.HttpCodec) != null
+            ? NettyPipeline.HttpCodec
+            : NettyPipeline.H2ToHttp11Codec;
+    if (pipeline.get(codec) == null) {
+      return;
+    }
+    String decompressor =
+        pipeline.get(NettyPipeline.HttpDecompressor) != null
+            ? NettyPipeline.HttpDecompressor
+            : codec;
+    String endpoint =
+        ID_SEGMENT.matcher(URI.create(response.uri()).getRawPath()).replaceAll("/{id}");
+    // the body arrives in http contents after the headers, so counting starts with this response
+    addCounter(
+        pipeline,
+        codec,
+        COMPRESSED_BYTES_HANDLER,
+        counter(upstream, response.method().name(), endpoint, COMPRESSED));
+    addCounter(
+        pipeline,
+        decompressor,
+        UNCOMPRESSED_BYTES_HANDLER,
+        counter(upstream, response.method().name(), endpoint, UNCOMPRESSED));
+  }
+
+  private Counter counter(String upstream, String method, String endpoint, String encoding) {
+    return Counter.builder(RESPONSE_BYTES)
+        .description("Bytes of upstream response bodies, before and after inflating them")
+        .baseUnit("bytes")
+        .tag("upstream", upstream)
+        .tag("method", method)
+        .tag("endpoint", endpoint)
+        .tag("encoding", encoding)
+        .register(meterRegistry);
+  }
+
+  private static void addCounter(
+      ChannelPipeline pipeline, String after, String name, Counter counter) {
+    // a response that was not read to the end may have left its counter behind on the connection
+    if (pipeline.get(name) != null) {
+      pipeline.remove(name);
+    }
+    pipeline.addAfter(after, name, new ByteCounter(counter));
+  }
+
+  /** Counts the bytes of the http contents of one response, then takes itself off the pipeline. */
+  private static final class ByteCounter extends ChannelInboundHandlerAdapter {
+
+    private final Counter counter;
+
+    private ByteCounter(Counter counter) {
+      this.counter = counter;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+      if (!(msg instanceof HttpContent)) {
+        ctx.fireChannelRead(msg);
+        return;
+      }
+      counter.increment(((HttpContent) msg).content().readableBytes());
+      boolean last = msg instanceof LastHttpContent;
+      ctx.fireChannelRead(msg);
+      if (last) {
+        ctx.pipeline().remove(this);
+      }
+    }
+  }
+}
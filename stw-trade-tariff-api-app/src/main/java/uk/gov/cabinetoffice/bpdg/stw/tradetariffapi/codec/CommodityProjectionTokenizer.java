@@ -0,0 +1,187 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.codec;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.util.Set;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
+
+/**
+ * Tokenises a commodity response buffer by buffer, keeping only the included entities the
+ * measures are built from.
+ *
+ * <p>Each entity of the top level {@code included} array is held back until its {@code type} has
+ * been read. Entities of a kept type are copied to the result, the tokens of any other entity are
+ * skipped without being materialised. Everything outside the {@code included} array is kept.
+ */
+class CommodityProjectionTokenizer {
+
+  static final Set<String> INCLUDED_TYPES =
+      Set.of(
+          "measure",
+          "measure_type",
+          "measure_condition",
+          "geographical_area",
+          "additional_code",
+          "duty_expression");
+
+  private static final String INCLUDED = "included";
+  private static final String TYPE = "type";
+
+  private enum EntityState {
+    NONE,
+    AWAITING_TYPE,
+    KEEPING,
+    SKIPPING
+  }
+
+  private final JsonParser parser;
+  private final ByteArrayFeeder inputFeeder;
+  private final int maxResponseSize;
+
+  private TokenBuffer projection;
+  private TokenBuffer entity;
+  private EntityState entityState = EntityState.NONE;
+  private int depth;
+  private int entityDepth;
+  private String rootFieldName;
+  private boolean inIncluded;
+  private long byteCount;
+
+  CommodityProjectionTokenizer(ObjectMapper objectMapper, int maxResponseSize) throws IOException {
+    this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+    this.inputFeeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    this.maxResponseSize = maxResponseSize;
+  }
+
+  void feed(DataBuffer dataBuffer) throws IOException {
+    try {
+      int readableByteCount = dataBuffer.readableByteCount();
+      byteCount += readableByteCount;
+      if (maxResponseSize >= 0 && byteCount > maxResponseSize) {
+        throw new DataBufferLimitException(
+            "Exceeded limit on max bytes to buffer : " + maxResponseSize);
+      }
+      byte[] bytes = new byte[readableByteCount];
+      dataBuffer.read(bytes);
+      inputFeeder.feedInput(bytes, 0, bytes.length);
+      parseAvailableTokens();
+    } finally {
+      DataBufferUtils.release(dataBuffer);
+    }
+  }
+
+  /** Returns the projected tokens, or {@code null} if the body was empty. */
+  @Nullable
+  TokenBuffer endOfInput() throws IOException {
+    inputFeeder.endOfInput();
+    parseAvailableTokens();
+    return projection;
+  }
+
+  private void parseAvailableTokens() throws IOException {
+    JsonToken token;
+    while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+      if (projection == null) {
+        projection = new TokenBuffer(parser);
+      }
+      process(token);
+    }
+  }
+
+  private void process(JsonToken token) throws IOException {
+    switch (entityState) {
+      case SKIPPING:
+        updateDepth(token);
+        endEntityIfClosed();
+        break;
+      case KEEPING:
+        projection.copyCurrentEvent(parser);
+        updateDepth(token);
+        endEntityIfClosed();
+        break;
+      case AWAITING_TYPE:
+        entity.copyCurrentEvent(parser);
+        updateDepth(token);
+        if (depth < entityDepth) {
+          // an entity without a type is kept as it is
+          entity.serialize(projection);
+          endEntity();
+        } else if (token == JsonToken.VALUE_STRING
+            && depth == entityDepth
+            && TYPE.equals(parser.currentName())) {
+          if (INCLUDED_TYPES.contains(parser.getText())) {
+            entity.serialize(projection);
+            entityState = EntityState.KEEPING;
+          } else {
+            entityState = EntityState.SKIPPING;
+          }
+          entity = null;
+        }
+        break;
+      default:
+        if (token == JsonToken.START_OBJECT && inIncluded && depth == 2) {
+          entity = new TokenBuffer(parser);
+          entity.copyCurrentEvent(parser);
+          updateDepth(token);
+          entityDepth = depth;
+          entityState = EntityState.AWAITING_TYPE;
+          return;
+        }
+        projection.copyCurrentEvent(parser);
+        trackIncluded(token);
+        updateDepth(token);
+    }
+  }
+
+  private void trackIncluded(JsonToken token) throws IOException {
+    if (token == JsonToken.FIELD_NAME && depth == 1) {
+      rootFieldName = parser.currentName();
+    } else if (token == JsonToken.START_ARRAY && depth == 1) {
+      inIncluded = INCLUDED.equals(rootFieldName);
+    } else if (token == JsonToken.END_ARRAY && depth == 2) {
+      inIncluded = false;
+    }
+  }
+
+  private void updateDepth(JsonToken token) {
+    if (token.isStructStart()) {
+      depth++;
+    } else if (token.isStructEnd()) {
+      depth--;
+    }
+  }
+
+  private void endEntityIfClosed() {
+    if (depth < entityDepth) {
+      endEntity();
+    }
+  }
+
+  private void endEntity() {
+    entity = null;
+    entityState = EntityState.NONE;
+  }
+}
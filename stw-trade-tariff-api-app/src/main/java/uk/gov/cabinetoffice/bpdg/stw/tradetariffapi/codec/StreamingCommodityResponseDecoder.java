@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.codec;
+
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.util.Map;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
+
+/**
+ * Decodes OTT commodity responses without aggregating the body first, binding only the parts the
+ * measures are built from.
+ *
+ * <p>The default json decoder joins every {@link DataBuffer} of a body into one buffer before
+ * binding it, so each large commodity briefly holds the whole body as bytes and chars. This decoder
+ * feeds each buffer to Jackson's non-blocking parser as it arrives and releases it straight away,
+ * binding the commodity once the last token has been read. {@code maxResponseSize} bounds the size
+ * of a commodity body rather than of an in-memory buffer.
+ *
+ * <p>Included entities other than measures, measure types, measure conditions, geographical areas,
+ * additional codes and duty expressions (footnotes, the section, chapter and heading, measure
+ * components and so on) are skipped while tokenising, see {@link CommodityProjectionTokenizer}.
+ */
+public class StreamingCommodityResponseDecoder extends Jackson2JsonDecoder {
+
+  public StreamingCommodityResponseDecoder(int maxResponseSize) {
+    setMaxInMemorySize(maxResponseSize);
+  }
+
+  @Override
+  public boolean canDecode(ResolvableType elementType, @Nullable MimeType mimeType) {
+    return TradeTariffCommodityResponse.class.equals(elementType.toClass())
+        && super.canDecode(elementType, mimeType);
+  }
+
+  @Override
+  public Mono<Object> decodeToMono(
+      Publisher<DataBuffer> input,
+      ResolvableType elementType,
+      @Nullable MimeType mimeType,
+      @Nullable Map<String, Object> hints) {
+    return Flux.from(input)
+        .collect(this::newTokenizer, this::feed)
+        .flatMap(tokenizer -> Mono.justOrEmpty(endOfInput(tokenizer)))
+        .map(tokens -> read(tokens, elementType))
+        .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+  }
+
+  private CommodityProjectionTokenizer newTokenizer() {
+    try {
+      return new CommodityProjectionTokenizer(getObjectMapper(), getMaxInMemorySize());
+    } catch (IOException ex) {
+      throw new DecodingException("Could not create JSON parser", ex);
+    }
+  }
+
+  private void feed(CommodityProjectionTokenizer tokenizer, DataBuffer dataBuffer) {
+    try {
+      tokenizer.feed(dataBuffer);
+    } catch (IOException ex) {
+      throw new DecodingException("JSON decoding error: " + ex.getMessage(), ex);
+    }
+  }
+
+  private TokenBuffer endOfInput(CommodityProjectionTokenizer tokenizer) {
+    try {
+      return tokenizer.endOfInput();
+    } catch (IOException ex) {
+      throw new DecodingException("JSON decoding error: " + ex.getMessage(), ex);
+    }
+  }
+
+  private Object read(TokenBuffer tokens, ResolvableType elementType) {
+    try {
+      return getObjectMapper()
+          .readerFor(getJavaType(elementType.getType(), null))
+          .readValue(tokens.asParser(getObjectMapper()));
+    } catch (InvalidDefinitionException ex) {
+      throw new CodecException("Type definition error: " + ex.getType(), ex);
+    } catch (IOException ex) {
+      throw new DecodingException("JSON decoding error: " + ex.getMessage(), ex);
+    }
+  }
+}
@@ -26,12 +26,19 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 import reactor.util.Metrics;
 import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.TradeTariffApi;
 import uk.gov.cabinetoffice.bpdg.stw.monitoring.prometheus.metrics.config.MetricsConfig;
 import uk.gov.cabinetoffice.bpdg.stw.monitoring.prometheus.metrics.downstream.DownstreamEndpointLabelNameResolver;
 import uk.gov.cabinetoffice.bpdg.stw.monitoring.prometheus.metrics.downstream.DownstreamRequestMetrics;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.client.AdaptiveConcurrencyLimiter;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.client.Hedger;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.client.ResponseSizeMetrics;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.codec.StreamingCommodityResponseDecoder;
 
 @Configuration
 @Import({MetricsConfig.class})
@@ -40,33 +47,121 @@ public class AppConfig {
   private final ApplicationProperties applicationProperties;
   private final DownstreamEndpointLabelNameResolver downstreamEndpointLabelNameResolver;
   private final DownstreamRequestMetrics downstreamRequestMetrics;
+  private final ConcurrencyLimitProperties concurrencyLimitProperties;
+  private final MeterRegistry meterRegistry;
 
   @Value("${STW_SIGNPOSTING_API_MAX_MEMORY_BUFFER_SIZE:5}")
   private Integer maxInMemorySize; // in MBs
 
+  @Value("${STW_SIGNPOSTING_API_MAX_COMMODITY_RESPONSE_SIZE:30}")
+  private Integer maxCommodityResponseSize; // in MBs
+
+  // asks the upstream apis for gzip responses, which are inflated as they stream in
+  @Value("${STW_SIGNPOSTING_API_UPSTREAM_COMPRESSION:true}")
+  private boolean upstreamCompression;
+
   @Autowired
   public AppConfig(
       ApplicationProperties applicationProperties,
       DownstreamEndpointLabelNameResolver downstreamEndpointLabelNameResolver,
       DownstreamRequestMetrics downstreamRequestMetrics,
+      ConcurrencyLimitProperties concurrencyLimitProperties,
       MeterRegistry meterRegistry) {
     this.applicationProperties = applicationProperties;
     this.downstreamEndpointLabelNameResolver = downstreamEndpointLabelNameResolver;
     this.downstreamRequestMetrics = downstreamRequestMetrics;
+    this.concurrencyLimitProperties = concurrencyLimitProperties;
+    this.meterRegistry = meterRegistry;
     Metrics.MicrometerConfiguration.useRegistry(meterRegistry);
   }
 
+  @Bean(destroyMethod = "dispose")
+  ConnectionProvider ottConnectionProvider(
+      OttConnectionPoolProperties ottConnectionPoolProperties) {
+    // metrics are published as reactor.netty.connection.provider.* tagged with the pool name
+    ConnectionProvider.Builder builder =
+        ConnectionProvider.builder(ottConnectionPoolProperties.getName())
+            .maxConnections(ottConnectionPoolProperties.getMaxConnections())
+            .pendingAcquireMaxCount(ottConnectionPoolProperties.getPendingAcquireMaxCount())
+            .pendingAcquireTimeout(ottConnectionPoolProperties.getPendingAcquireTimeout())
+            .maxIdleTime(ottConnectionPoolProperties.getMaxIdleTime())
+            .maxLifeTime(ottConnectionPoolProperties.getMaxLifeTime())
+            .metrics(true);
+    if (ottConnectionPoolProperties.getEvictInBackground() != null) {
+      builder.evictInBackground(ottConnectionPoolProperties.getEvictInBackground());
+    }
+    return builder.build();
+  }
+
+  @Bean
+  ResponseSizeMetrics responseSizeMetrics(MeterRegistry meterRegistry) {
+    return new ResponseSizeMetrics(meterRegistry);
+  }
+
+  @Bean
+  HttpClient ottHttpClient(
+      ConnectionProvider ottConnectionProvider,
+      OttConnectionPoolProperties ottConnectionPoolProperties,
+      ResponseSizeMetrics responseSizeMetrics) {
+    return responseSizeMetrics.instrument(
+        ottConnectionHttpClient(ottConnectionProvider, ottConnectionPoolProperties), "ott");
+  }
+
+  @Bean
+  OttConnectionWarmer ottConnectionWarmer(
+      ConnectionProvider ottConnectionProvider,
+      OttConnectionPoolProperties ottConnectionPoolProperties) {
+    return new OttConnectionWarmer(
+        ottConnectionHttpClient(ottConnectionProvider, ottConnectionPoolProperties),
+        ottConnectionPoolProperties,
+        applicationProperties.getTradeTariffApi().getUrl(),
+        applicationProperties.getTradeTariffApi().getTimeout());
+  }
+
+  /** The http client of the OTT api connection pool, without any instrumentation. */
+  HttpClient ottConnectionHttpClient(
+      ConnectionProvider ottConnectionProvider,
+      OttConnectionPoolProperties ottConnectionPoolProperties) {
+    HttpClient httpClient =
+        HttpClient.create(ottConnectionProvider)
+            .keepAlive(ottConnectionPoolProperties.isKeepAlive())
+            .compress(upstreamCompression);
+    if (ottConnectionPoolProperties.isHttp2()) {
+      return httpClient
+          .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+          .secure(spec -> spec.sslContext(Http2SslContextSpec.forClient()));
+    }
+    return httpClient;
+  }
+
+  @Bean
+  Hedger ottHedger(HedgingProperties hedgingProperties, MeterRegistry meterRegistry) {
+    return new Hedger("ottApi", hedgingProperties, meterRegistry);
+  }
+
   @Bean
-  TradeTariffApi tradeTariffApi(ReactiveCircuitBreaker reactiveCircuitBreaker) {
+  TradeTariffApi tradeTariffApi(
+      ReactiveCircuitBreaker reactiveCircuitBreaker, HttpClient ottHttpClient) {
     return new TradeTariffApi(
         WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(ottHttpClient))
+            .filter(
+                new AdaptiveConcurrencyLimiter(
+                    "ott", concurrencyLimitProperties.getOtt(), meterRegistry))
             .exchangeStrategies(
                 ExchangeStrategies.builder()
                     .codecs(
-                        configurer ->
-                            configurer
-                                .defaultCodecs()
-                                .maxInMemorySize(maxInMemorySize * 1024 * 1000))
+                        configurer -> {
+                          configurer
+                              .defaultCodecs()
+                              .maxInMemorySize(maxInMemorySize * 1024 * 1000);
+                          // commodities are decoded as they stream in rather than from one buffer
+                          configurer
+                              .customCodecs()
+                              .register(
+                                  new StreamingCommodityResponseDecoder(
+                                      maxCommodityResponseSize * 1024 * 1000));
+                        })
                     .build()),
         applicationProperties.getTradeTariffApi(),
         downstreamRequestMetrics,
@@ -75,9 +170,10 @@ public class AppConfig {
   }
 
   @Bean
-  public WebClient webClient() {
+  public WebClient webClient(ResponseSizeMetrics responseSizeMetrics) {
     var httpClient =
         HttpClient.create()
+            .compress(upstreamCompression)
             .option(
                 ChannelOption.CONNECT_TIMEOUT_MILLIS,
                 (int) applicationProperties.getContentApi().getTimeout().toMillis())
@@ -86,6 +182,13 @@ public class AppConfig {
                     c.addHandlerLast(
                         new ReadTimeoutHandler(
                             (int) applicationProperties.getContentApi().getTimeout().toSeconds())));
-    return WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    return WebClient.builder()
+        .clientConnector(
+            new ReactorClientHttpConnector(
+                responseSizeMetrics.instrument(httpClient, "contentApi")))
+        .filter(
+            new AdaptiveConcurrencyLimiter(
+                "contentApi", concurrencyLimitProperties.getContentApi(), meterRegistry))
+        .build();
   }
 }
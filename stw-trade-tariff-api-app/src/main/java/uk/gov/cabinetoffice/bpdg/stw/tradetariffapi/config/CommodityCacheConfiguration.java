@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Clock;
+import java.time.ZoneId;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.CachedCommodity;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.CommodityCacheKey;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.CommodityFreshnessTracker;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.SingleFlight;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.TariffDayExpiry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
+
+@Configuration
+public class CommodityCacheConfiguration {
+
+  public static final String COMMODITY_CACHE_NAME = "ottCommodities";
+  public static final String LAST_GOOD_COMMODITY_CACHE_NAME = "lastGoodOttCommodities";
+  public static final String MEASURE_VIEW_CACHE_NAME = "measureViews";
+
+  @Bean
+  public AsyncCache<CommodityCacheKey, CachedCommodity> commodityCache(
+      final CommodityCacheProperties commodityCacheProperties, final MeterRegistry meterRegistry) {
+    AsyncCache<CommodityCacheKey, CachedCommodity> commodityCache =
+        Caffeine.newBuilder()
+            .maximumSize(commodityCacheProperties.getMaximumSize())
+            .expireAfter(
+                new TariffDayExpiry<CommodityCacheKey, CachedCommodity>(
+                    Clock.system(ZoneId.of(commodityCacheProperties.getTariffDayZone()))))
+            .recordStats()
+            .buildAsync();
+    CaffeineCacheMetrics.monitor(meterRegistry, commodityCache.synchronous(), COMMODITY_CACHE_NAME);
+    return commodityCache;
+  }
+
+  // keeps the last good commodities beyond the tariff day, to serve when fetching them fails
+  @Bean
+  public Cache<CommodityCacheKey, CachedCommodity> lastGoodCommodityCache(
+      final CommodityCacheProperties commodityCacheProperties, final MeterRegistry meterRegistry) {
+    Cache<CommodityCacheKey, CachedCommodity> lastGoodCommodityCache =
+        Caffeine.newBuilder()
+            .maximumSize(commodityCacheProperties.getMaximumSize())
+            .expireAfterWrite(commodityCacheProperties.getMaximumStaleness())
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(
+        meterRegistry, lastGoodCommodityCache, LAST_GOOD_COMMODITY_CACHE_NAME);
+    return lastGoodCommodityCache;
+  }
+
+  @Bean
+  public CommodityFreshnessTracker commodityFreshnessTracker(
+      final CommodityCacheProperties commodityCacheProperties, final MeterRegistry meterRegistry) {
+    return new CommodityFreshnessTracker(
+        commodityCacheProperties.getRefreshAfter(),
+        Clock.systemUTC(),
+        COMMODITY_CACHE_NAME,
+        meterRegistry);
+  }
+
+  @Bean
+  public AsyncCache<CommodityCacheKey, MeasureView> measureViewCache(
+      final MeasureViewCacheProperties measureViewCacheProperties,
+      final MeterRegistry meterRegistry) {
+    AsyncCache<CommodityCacheKey, MeasureView> measureViewCache =
+        Caffeine.newBuilder()
+            .maximumSize(measureViewCacheProperties.getMaximumSize())
+            .expireAfter(
+                new TariffDayExpiry<CommodityCacheKey, MeasureView>(
+                    Clock.system(ZoneId.of(measureViewCacheProperties.getTariffDayZone()))))
+            .recordStats()
+            .buildAsync();
+    CaffeineCacheMetrics.monitor(
+        meterRegistry, measureViewCache.synchronous(), MEASURE_VIEW_CACHE_NAME);
+    return measureViewCache;
+  }
+
+  @Bean
+  public SingleFlight<CommodityCacheKey, TradeTariffCommodityResponse> commoditySingleFlight(
+      final MeterRegistry meterRegistry) {
+    return new SingleFlight<>(COMMODITY_CACHE_NAME, meterRegistry);
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@ConfigurationProperties(prefix = "stw.commodity-cache")
+@Data
+@Configuration
+public class CommodityCacheProperties {
+  private boolean enable;
+  private long maximumSize;
+  // cached commodities expire at the start of the next day in this zone
+  private String tariffDayZone = "Europe/London";
+  // cached commodities older than this are served while they are fetched again in the background;
+  // they are not refreshed when not set
+  private Duration refreshAfter;
+  // how long the last good commodity may be served for when fetching it again fails
+  private Duration maximumStaleness = Duration.ZERO;
+}
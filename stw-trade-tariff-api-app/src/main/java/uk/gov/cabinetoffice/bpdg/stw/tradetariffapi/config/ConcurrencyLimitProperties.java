@@ -0,0 +1,44 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@ConfigurationProperties(prefix = "stw.concurrency-limit")
+@Data
+@Configuration
+public class ConcurrencyLimitProperties {
+  private Limit ott = new Limit();
+  private Limit contentApi = new Limit();
+
+  @Data
+  public static class Limit {
+    private boolean enable;
+    private int initialLimit = 20;
+    private int minimumLimit = 4;
+    private int maximumLimit = 200;
+    // the limit is cut when a call takes this many times longer than the average call
+    private double rttTolerance = 2.0;
+    private double backoffRatio = 0.9;
+    // calls waiting for one in flight to finish; calls beyond these are rejected straight away
+    private int maximumQueueSize = 50;
+    private Duration maximumQueueTime = Duration.ofSeconds(1);
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@ConfigurationProperties(prefix = "stw.content-snapshot")
+@Data
+@Configuration
+public class ContentSnapshotProperties {
+  private boolean enable;
+  private Duration refreshInterval = Duration.ofMinutes(15);
+  // ids loaded at startup, ids first requested later on are added to the snapshot as they are seen
+  private List<String> preloadMeasureTypes = new ArrayList<>();
+  private List<String> preloadDocumentCodes = new ArrayList<>();
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@ConfigurationProperties(prefix = "stw.ott-hedging")
+@Data
+@Configuration
+public class HedgingProperties {
+  private boolean enable;
+  // a second request is sent once the first has taken longer than this percentile of the latencies
+  // observed for the endpoint
+  private double percentile = 0.95;
+  // the hedge is never sent sooner than this, however fast the endpoint has been
+  private Duration minimumDelay = Duration.ofMillis(200);
+  // latencies observed before requests to an endpoint are hedged at all
+  private long minimumSamples = 50;
+  // the most extra requests hedging may add, as a percentage of the requests
+  private double budgetPercent = 5;
+}
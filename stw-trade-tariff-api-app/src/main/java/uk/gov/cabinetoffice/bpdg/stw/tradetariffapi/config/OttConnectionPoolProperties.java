@@ -0,0 +1,45 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@ConfigurationProperties(prefix = "stw.ott-connection-pool")
+@Data
+@Configuration
+public class OttConnectionPoolProperties {
+  // the pool metrics are tagged with this name
+  private String name = "ottApi";
+  private int maxConnections = 50;
+  // requests waiting for a connection beyond this many fail straight away
+  private int pendingAcquireMaxCount = 500;
+  private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+  private Duration maxIdleTime = Duration.ofSeconds(30);
+  private Duration maxLifeTime = Duration.ofMinutes(5);
+  // how often idle and expired connections are closed in the background; only on acquire when not
+  // set
+  private Duration evictInBackground = Duration.ofSeconds(30);
+  private boolean keepAlive = true;
+  // negotiates HTTP/2 over TLS, falling back to HTTP/1.1, so needs an https OTT url
+  private boolean http2;
+  // connections opened to the OTT api once the application is ready
+  private int warmUpConnections;
+  private String warmUpPath = "/";
+}
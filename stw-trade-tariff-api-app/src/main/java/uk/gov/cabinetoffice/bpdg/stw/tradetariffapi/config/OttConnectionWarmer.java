@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config;
+
+import java.net.URI;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Opens connections to the OTT api once the application is ready, so that the first requests after
+ * a deploy find TLS connections in the pool rather than waiting on handshakes. The http client
+ * shares the pool of the OTT api but is not instrumented, so the warm-up responses are not counted
+ * as responses of the OTT api.
+ */
+@Slf4j
+public class OttConnectionWarmer {
+
+  private final HttpClient httpClient;
+  private final OttConnectionPoolProperties ottConnectionPoolProperties;
+  private final String url;
+  private final Duration timeout;
+
+  public OttConnectionWarmer(
+      HttpClient httpClient,
+      OttConnectionPoolProperties ottConnectionPoolProperties,
+      String url,
+      Duration timeout) {
+    this.httpClient = httpClient;
+    this.ottConnectionPoolProperties = ottConnectionPoolProperties;
+    this.url = url;
+    this.timeout = timeout;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    openConnections().subscribe();
+  }
+
+  /**
+   * Opens as many connections as configured, but no more than the pool holds, and emits how many
+   * were opened. Failures are only logged.
+   */
+  Mono<Long> openConnections() {
+    int connections =
+        Math.min(
+            ottConnectionPoolProperties.getWarmUpConnections(),
+            ottConnectionPoolProperties.getMaxConnections());
+    if (connections <= 0) {
+      return Mono.empty();
+    }
+    String uri = URI.create(url).resolve(ottConnectionPoolProperties.getWarmUpPath()).toString();
+    // the requests are all in flight at once so each one takes a connection of its own, which goes
+    // back to the pool once its response has been read
+    return httpClient
+        .warmup()
+        .thenMany(
+            Flux.range(0, connections)
+                .flatMap(
+                    i ->
+                        httpClient
+                            .head()
+                            .uri(uri)
+                            .responseSingle((response, body) -> body.thenReturn(response.status()))
+                            .timeout(timeout)
+                            .onErrorResume(
+                                e -> {
+                                  log.warn("Failed to open a connection to {}", uri, e);
+                                  return Mono.empty();
+                                }),
+                    connections))
+        .count()
+        .doOnNext(
+            opened -> log.info("Opened {} of {} connections to {}", opened, connections, uri));
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Clock;
+import java.time.ZoneId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.EncodedResponse;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.EncodedResponseExpiry;
+
+@Configuration
+@ConditionalOnProperty(value = "stw.response-cache.enable", havingValue = "true")
+public class ResponseCacheConfiguration {
+
+  public static final String RESPONSE_CACHE_NAME = "encodedResponses";
+
+  @Bean
+  public Cache<String, EncodedResponse> responseCache(
+      final ResponseCacheProperties responseCacheProperties, final MeterRegistry meterRegistry) {
+    Cache<String, EncodedResponse> responseCache =
+        Caffeine.newBuilder()
+            .maximumWeight(responseCacheProperties.getMaximumSize().toBytes())
+            .weigher((String key, EncodedResponse response) -> response.getSize())
+            .expireAfter(
+                new EncodedResponseExpiry(
+                    Clock.system(ZoneId.of(responseCacheProperties.getTariffDayZone()))))
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, responseCache, RESPONSE_CACHE_NAME);
+    return responseCache;
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config;
+
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "stw.response-cache")
+@Data
+@Configuration
+public class ResponseCacheProperties {
+  // serves the encoded json of responses to repeated requests from memory
+  private boolean enable;
+  // bounds the size of the encoded json held by the cache
+  private DataSize maximumSize = DataSize.ofMegabytes(64);
+  // keeps the encoded json gzip-compressed, trading cpu on misses for memory
+  private boolean compress;
+  // cached responses expire at the start of the next day in this zone
+  private String tariffDayZone = "Europe/London";
+  // paths of the GET requests whose responses are cached
+  private List<CachedPath> paths = List.of();
+
+  @Data
+  public static class CachedPath {
+    private String pattern;
+    // the query parameter of the date of trade bound by the controller of the path, if any
+    private String dateParameter;
+  }
+}
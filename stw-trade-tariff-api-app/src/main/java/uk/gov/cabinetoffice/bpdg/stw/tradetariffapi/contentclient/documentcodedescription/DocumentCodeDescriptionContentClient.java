@@ -18,21 +18,23 @@ package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.documentcoded
 
 import java.util.List;
 import java.util.stream.Collectors;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedVersions;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ApplicationProperties;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.DocumentCodeDescription;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.repository.DocumentCodeDescriptionRepository;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.UpstreamOverloadedException;
 
 @Component
-@AllArgsConstructor
 @Slf4j
 public class DocumentCodeDescriptionContentClient implements DocumentCodeDescriptionRepository {
 
@@ -42,45 +44,65 @@ public class DocumentCodeDescriptionContentClient implements DocumentCodeDescrip
   private static final String LOCALE = "locale";
   private static final String TRADE_TYPE = "tradeType";
   private final WebClient webClient;
-  private final ApplicationProperties applicationProperties;
+  private final String baseUrl;
+  // parsed once rather than on every call, which only fills in the query parameters
+  private final UriComponents uriTemplate;
+
+  public DocumentCodeDescriptionContentClient(
+      WebClient webClient, ApplicationProperties applicationProperties) {
+    this.webClient = webClient;
+    this.baseUrl = applicationProperties.getContentApi().getUrl();
+    this.uriTemplate =
+        UriComponentsBuilder.fromUriString(baseUrl)
+            .path(DOCUMENT_CODE_DESCRIPTION_API_ENDPOINT)
+            .queryParam(DOCUMENT_CODES, "{documentCodes}")
+            .queryParam(LOCALE, "{locale}")
+            .queryParam(TRADE_TYPE, "{tradeType}")
+            .build();
+  }
 
   public Flux<DocumentCodeDescription> findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale(
       List<String> documentCodes, TradeType tradeType, Locale locale) {
-    var contentApiConfiguration = applicationProperties.getContentApi();
+    // a rejection by the concurrency limit is answered with a 503 rather than with descriptions
+    // missing from a successful response
+    return fetchDocumentCodeDescriptions(documentCodes, tradeType, locale)
+        .onErrorResume(
+            ex -> !(ex instanceof UpstreamOverloadedException),
+            ex -> {
+              log.error(
+                  "Error occurred while fetching document codes: {} by tradeType: {} and locale : {}",
+                  documentCodes,
+                  tradeType,
+                  locale,
+                  ex);
+              return ServedVersions.recordMissingContent().thenMany(Flux.empty());
+            });
+  }
+
+  /**
+   * Same as {@link #findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale} but propagates
+   * errors from the content api to the caller.
+   */
+  public Flux<DocumentCodeDescription> fetchDocumentCodeDescriptions(
+      List<String> documentCodes, TradeType tradeType, Locale locale) {
     log.debug(
         "Calling the content api with baseUrl: {}, api path: {}, documentCodes: {}, tradeType: {} and locale: {}",
-        contentApiConfiguration.getUrl(),
+        baseUrl,
         DOCUMENT_CODE_DESCRIPTION_API_ENDPOINT,
         documentCodes,
         tradeType,
         locale);
     final Mono<DocumentCodeDescriptionResponseDTO> resultMono =
         webClient
-            .mutate()
-            .baseUrl(contentApiConfiguration.getUrl())
-            .build()
             .get()
             .uri(
-                uriBuilder ->
-                    uriBuilder
-                        .path(DOCUMENT_CODE_DESCRIPTION_API_ENDPOINT)
-                        .queryParam(DOCUMENT_CODES, String.join(",", documentCodes))
-                        .queryParam(LOCALE, locale.name())
-                        .queryParam(TRADE_TYPE, tradeType.name())
-                        .build())
+                uriTemplate
+                    .expand(String.join(",", documentCodes), locale.name(), tradeType.name())
+                    .encode()
+                    .toUri())
             .accept(MediaType.APPLICATION_JSON)
             .retrieve()
-            .bodyToMono(DocumentCodeDescriptionResponseDTO.class)
-            .onErrorResume(
-                ex -> {
-                  log.error(
-                      "Error occurred while fetching document codes: {} by tradeType: {} and locale : {}",
-                      documentCodes,
-                      tradeType,
-                      locale,
-                      ex);
-                  return Mono.empty();
-                });
+            .bodyToMono(DocumentCodeDescriptionResponseDTO.class);
 
     return resultMono.flatMapMany(
         response ->
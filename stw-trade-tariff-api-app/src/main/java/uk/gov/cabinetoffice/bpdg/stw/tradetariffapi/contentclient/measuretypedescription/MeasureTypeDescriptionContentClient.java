@@ -18,21 +18,23 @@ package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.measuretypede
 
 import java.util.List;
 import java.util.stream.Collectors;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedVersions;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ApplicationProperties;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.MeasureTypeDescription;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.repository.MeasureTypeDescriptionRepository;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.UpstreamOverloadedException;
 
 @Component
-@AllArgsConstructor
 @Slf4j
 public class MeasureTypeDescriptionContentClient implements MeasureTypeDescriptionRepository {
   private static final String MEASURE_TYPE_DESCRIPTIONS_API_ENDPOINT =
@@ -41,45 +43,65 @@ public class MeasureTypeDescriptionContentClient implements MeasureTypeDescripti
   private static final String LOCALE = "locale";
   private static final String TRADE_TYPE = "tradeType";
   private final WebClient webClient;
-  private final ApplicationProperties applicationProperties;
+  private final String baseUrl;
+  // parsed once rather than on every call, which only fills in the query parameters
+  private final UriComponents uriTemplate;
+
+  public MeasureTypeDescriptionContentClient(
+      WebClient webClient, ApplicationProperties applicationProperties) {
+    this.webClient = webClient;
+    this.baseUrl = applicationProperties.getContentApi().getUrl();
+    this.uriTemplate =
+        UriComponentsBuilder.fromUriString(baseUrl)
+            .path(MEASURE_TYPE_DESCRIPTIONS_API_ENDPOINT)
+            .queryParam(MEASURE_TYPES, "{measureTypes}")
+            .queryParam(LOCALE, "{locale}")
+            .queryParam(TRADE_TYPE, "{tradeType}")
+            .build();
+  }
 
   public Flux<MeasureTypeDescription> findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
       List<String> measureTypes, TradeType tradeType, Locale locale) {
-    var contentApiConfiguration = applicationProperties.getContentApi();
+    // a rejection by the concurrency limit is answered with a 503 rather than with descriptions
+    // missing from a successful response
+    return fetchMeasureTypeDescriptions(measureTypes, tradeType, locale)
+        .onErrorResume(
+            ex -> !(ex instanceof UpstreamOverloadedException),
+            ex -> {
+              log.error(
+                  "Error occurred while fetching measure type descriptions for measure types : {} by tradeType: {} and locale : {}",
+                  measureTypes,
+                  tradeType,
+                  locale,
+                  ex);
+              return ServedVersions.recordMissingContent().thenMany(Flux.empty());
+            });
+  }
+
+  /**
+   * Same as {@link #findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale} but propagates
+   * errors from the content api to the caller.
+   */
+  public Flux<MeasureTypeDescription> fetchMeasureTypeDescriptions(
+      List<String> measureTypes, TradeType tradeType, Locale locale) {
     log.debug(
         "Calling the content api with baseUrl: {}, api path: {}, measureTypes: {}, tradeType: {} and locale: {}",
-        contentApiConfiguration.getUrl(),
+        baseUrl,
         MEASURE_TYPE_DESCRIPTIONS_API_ENDPOINT,
         measureTypes,
         tradeType,
         locale);
     final Mono<MeasureTypeDescriptionResponseDTO> resultMono =
         webClient
-            .mutate()
-            .baseUrl(contentApiConfiguration.getUrl())
-            .build()
             .get()
             .uri(
-                uriBuilder ->
-                    uriBuilder
-                        .path(MEASURE_TYPE_DESCRIPTIONS_API_ENDPOINT)
-                        .queryParam(MEASURE_TYPES, String.join(",", measureTypes))
-                        .queryParam(LOCALE, locale.name())
-                        .queryParam(TRADE_TYPE, tradeType.name())
-                        .build())
+                uriTemplate
+                    .expand(String.join(",", measureTypes), locale.name(), tradeType.name())
+                    .encode()
+                    .toUri())
             .accept(MediaType.APPLICATION_JSON)
             .retrieve()
-            .bodyToMono(MeasureTypeDescriptionResponseDTO.class)
-            .onErrorResume(
-                ex -> {
-                  log.error(
-                      "Error occurred while fetching measure type descriptions for measure types : {} by tradeType: {} and locale : {}",
-                      measureTypes,
-                      tradeType,
-                      locale,
-                      ex);
-                  return Mono.empty();
-                });
+            .bodyToMono(MeasureTypeDescriptionResponseDTO.class);
 
     return resultMono.flatMapMany(
         response ->
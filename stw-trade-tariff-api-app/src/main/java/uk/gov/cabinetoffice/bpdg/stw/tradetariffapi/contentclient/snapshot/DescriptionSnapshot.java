@@ -0,0 +1,184 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.snapshot;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.Value;
+import org.springframework.util.DigestUtils;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+
+/**
+ * Immutable copy of content api descriptions keyed by trade type, locale and id. Ids which are
+ * known to have no description are kept with an empty list so that they are not looked up again.
+ */
+final class DescriptionSnapshot<T> {
+
+  private final Map<Partition, Map<String, List<T>>> descriptions;
+  private final Instant loadedAt;
+  private final String version;
+
+  private DescriptionSnapshot(
+      Map<Partition, Map<String, List<T>>> descriptions, Instant loadedAt, String version) {
+    this.descriptions = descriptions;
+    this.loadedAt = loadedAt;
+    this.version = version;
+  }
+
+  static <T> DescriptionSnapshot<T> empty() {
+    return new DescriptionSnapshot<>(Map.of(), null, fingerprint(Map.of()));
+  }
+
+  static <T> Builder<T> builder(Function<T, String> idOf) {
+    return new Builder<>(idOf);
+  }
+
+  /** When the snapshot was last loaded in full, empty if it has never been loaded. */
+  Optional<Instant> getLoadedAt() {
+    return Optional.ofNullable(loadedAt);
+  }
+
+  Set<String> getIds(TradeType tradeType, Locale locale) {
+    return partition(tradeType, locale).keySet();
+  }
+
+  boolean contains(TradeType tradeType, Locale locale, String id) {
+    return partition(tradeType, locale).containsKey(id);
+  }
+
+  List<T> get(TradeType tradeType, Locale locale, Collection<String> ids) {
+    Map<String, List<T>> partition = partition(tradeType, locale);
+    return ids.stream()
+        .distinct()
+        .flatMap(id -> partition.getOrDefault(id, List.of()).stream())
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  /**
+   * A fingerprint of the descriptions as last loaded in full, which changes whenever a load finds
+   * different descriptions. Descriptions read through since are left out, so that looking up ids
+   * for the first time doesn't change the version of every response.
+   */
+  String getVersion() {
+    return version;
+  }
+
+  int size() {
+    return descriptions.values().stream().mapToInt(Map::size).sum();
+  }
+
+  /** Returns a copy of this snapshot with the given ids of one trade type and locale replaced. */
+  DescriptionSnapshot<T> with(
+      TradeType tradeType,
+      Locale locale,
+      Collection<String> ids,
+      List<T> fetchedDescriptions,
+      Function<T, String> idOf) {
+    Map<Partition, Map<String, List<T>>> updatedDescriptions = new HashMap<>(descriptions);
+    Map<String, List<T>> updatedPartition = new HashMap<>(partition(tradeType, locale));
+    updatedPartition.putAll(index(ids, fetchedDescriptions, idOf));
+    updatedDescriptions.put(Partition.of(tradeType, locale), Map.copyOf(updatedPartition));
+    return new DescriptionSnapshot<>(Map.copyOf(updatedDescriptions), loadedAt, version);
+  }
+
+  /**
+   * Returns a copy of this snapshot with the ids held by the given snapshot which this one doesn't
+   * hold added, such as ids read through while this snapshot was being loaded.
+   */
+  DescriptionSnapshot<T> withIdsOnlyIn(DescriptionSnapshot<T> other) {
+    Map<Partition, Map<String, List<T>>> mergedDescriptions = new HashMap<>(descriptions);
+    other.descriptions.forEach(
+        (partition, otherDescriptions) -> {
+          Map<String, List<T>> mergedPartition = new HashMap<>(otherDescriptions);
+          mergedPartition.putAll(descriptions.getOrDefault(partition, Map.of()));
+          mergedDescriptions.put(partition, Map.copyOf(mergedPartition));
+        });
+    return new DescriptionSnapshot<>(Map.copyOf(mergedDescriptions), loadedAt, version);
+  }
+
+  private Map<String, List<T>> partition(TradeType tradeType, Locale locale) {
+    return descriptions.getOrDefault(Partition.of(tradeType, locale), Map.of());
+  }
+
+  private static <T> String fingerprint(Map<Partition, Map<String, List<T>>> descriptions) {
+    StringBuilder descriptionsInOrder = new StringBuilder();
+    descriptions.entrySet().stream()
+        .sorted(
+            Map.Entry.comparingByKey(
+                Comparator.comparing(Partition::getTradeType).thenComparing(Partition::getLocale)))
+        .forEach(
+            partition ->
+                descriptionsInOrder
+                    .append(partition.getKey())
+                    .append(new TreeMap<>(partition.getValue())));
+    return DigestUtils.md5DigestAsHex(
+        descriptionsInOrder.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static <T> Map<String, List<T>> index(
+      Collection<String> ids, List<T> fetchedDescriptions, Function<T, String> idOf) {
+    Map<String, List<T>> descriptionsById =
+        fetchedDescriptions.stream()
+            .collect(Collectors.groupingBy(idOf, Collectors.toUnmodifiableList()));
+    Map<String, List<T>> index = new HashMap<>();
+    ids.forEach(id -> index.put(id, descriptionsById.getOrDefault(id, List.of())));
+    return index;
+  }
+
+  @Value(staticConstructor = "of")
+  private static class Partition {
+    TradeType tradeType;
+    Locale locale;
+  }
+
+  static final class Builder<T> {
+
+    private final Function<T, String> idOf;
+    private final Map<Partition, Map<String, List<T>>> descriptions = new HashMap<>();
+
+    private Builder(Function<T, String> idOf) {
+      this.idOf = idOf;
+    }
+
+    Builder<T> add(
+        TradeType tradeType,
+        Locale locale,
+        Collection<String> ids,
+        List<T> fetchedDescriptions) {
+      descriptions.put(
+          Partition.of(tradeType, locale), Map.copyOf(index(ids, fetchedDescriptions, idOf)));
+      return this;
+    }
+
+    DescriptionSnapshot<T> build(Instant loadedAt) {
+      Map<Partition, Map<String, List<T>>> loadedDescriptions = Map.copyOf(descriptions);
+      return new DescriptionSnapshot<>(
+          loadedDescriptions, loadedAt, fingerprint(loadedDescriptions));
+    }
+  }
+}
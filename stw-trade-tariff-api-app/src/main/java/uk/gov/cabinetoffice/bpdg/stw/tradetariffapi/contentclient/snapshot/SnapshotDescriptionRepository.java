@@ -0,0 +1,209 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.snapshot;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedVersions;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ContentSnapshotProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.UpstreamOverloadedException;
+
+/**
+ * Serves content api descriptions from an in-memory {@link DescriptionSnapshot}.
+ *
+ * <p>The content api can only be queried by id, so the snapshot is loaded with the configured
+ * preload ids and every id requested since. Ids missing from the snapshot are fetched from the
+ * content api and added to it. {@link #refresh()} reloads every known id and swaps in the new
+ * snapshot in one go, keeping ids read through in the meantime; when a refresh fails the last good
+ * snapshot keeps being served.
+ */
+@Slf4j
+abstract class SnapshotDescriptionRepository<T> {
+
+  // the snapshots are refreshed on the schedule of the bound content snapshot properties
+  static final String REFRESH_INTERVAL_MILLIS =
+      "#{@contentSnapshotProperties.refreshInterval.toMillis()}";
+
+  private final String name;
+  private final Function<T, String> idOf;
+  private final ContentSnapshotProperties contentSnapshotProperties;
+  private final Clock clock;
+  private final AtomicReference<DescriptionSnapshot<T>> snapshot =
+      new AtomicReference<>(DescriptionSnapshot.empty());
+
+  SnapshotDescriptionRepository(
+      String name,
+      Function<T, String> idOf,
+      ContentSnapshotProperties contentSnapshotProperties,
+      MeterRegistry meterRegistry,
+      Clock clock) {
+    this.name = name;
+    this.idOf = idOf;
+    this.contentSnapshotProperties = contentSnapshotProperties;
+    this.clock = clock;
+    Gauge.builder("content_snapshot_age_seconds", this, r -> r.snapshotAgeInSeconds())
+        .description("Time since the content snapshot was last loaded in full")
+        .tag("name", name)
+        .register(meterRegistry);
+    Gauge.builder("content_snapshot_entries", this, r -> r.snapshot.get().size())
+        .description("Ids held in the content snapshot")
+        .tag("name", name)
+        .register(meterRegistry);
+  }
+
+  /** Fetches descriptions from the content api, propagating any error. */
+  protected abstract Flux<T> fetch(List<String> ids, TradeType tradeType, Locale locale);
+
+  /** Fetches descriptions from the content api, falling back to no descriptions on error. */
+  protected abstract Flux<T> fetchWithFallback(
+      List<String> ids, TradeType tradeType, Locale locale);
+
+  protected abstract List<String> preloadIds(ContentSnapshotProperties contentSnapshotProperties);
+
+  protected boolean isEnabled() {
+    return contentSnapshotProperties.isEnable();
+  }
+
+  protected Flux<T> find(List<String> ids, TradeType tradeType, Locale locale) {
+    if (!isEnabled()) {
+      return fetchWithFallback(ids, tradeType, locale);
+    }
+    DescriptionSnapshot<T> current = snapshot.get();
+    List<String> missingIds =
+        ids.stream()
+            .distinct()
+            .filter(id -> !current.contains(tradeType, locale, id))
+            .collect(Collectors.toList());
+    if (missingIds.isEmpty()) {
+      return Flux.fromIterable(current.get(tradeType, locale, ids));
+    }
+    return fetch(missingIds, tradeType, locale)
+        .collectList()
+        .map(
+            fetchedDescriptions ->
+                snapshot
+                    .updateAndGet(
+                        latest ->
+                            latest.with(tradeType, locale, missingIds, fetchedDescriptions, idOf))
+                    .get(tradeType, locale, ids))
+        // as with the content clients, an overloaded content api is not hidden by the snapshot
+        .onErrorResume(
+            ex -> !(ex instanceof UpstreamOverloadedException),
+            ex -> {
+              log.error(
+                  "Error occurred while fetching {} {} by tradeType: {} and locale : {}",
+                  name,
+                  missingIds,
+                  tradeType,
+                  locale,
+                  ex);
+              return ServedVersions.recordMissingContent()
+                  .then(Mono.just(current.get(tradeType, locale, ids)));
+            })
+        .flatMapIterable(Function.identity());
+  }
+
+  /**
+   * Returns the version of the snapshot currently served, or empty when the snapshot is disabled
+   * and descriptions come straight from the content api.
+   */
+  public Optional<String> getVersion() {
+    return isEnabled() ? Optional.of(snapshot.get().getVersion()) : Optional.empty();
+  }
+
+  /**
+   * Reloads every id held in the snapshot together with the preload ids, one content api call per
+   * trade type and locale, and swaps in the result. The current snapshot is kept on failure.
+   */
+  public Mono<Void> refresh() {
+    DescriptionSnapshot<T> current = snapshot.get();
+    return Flux.fromArray(TradeType.values())
+        .flatMap(tradeType -> Flux.fromArray(Locale.values()).map(l -> Tuples.of(tradeType, l)))
+        .concatMap(partition -> reload(current, partition.getT1(), partition.getT2()))
+        .reduceWith(
+            () -> DescriptionSnapshot.builder(idOf),
+            (builder, reloaded) ->
+                builder.add(
+                    reloaded.getTradeType(),
+                    reloaded.getLocale(),
+                    reloaded.getIds(),
+                    reloaded.getDescriptions()))
+        .map(builder -> builder.build(clock.instant()))
+        .doOnNext(
+            reloadedSnapshot -> {
+              // ids read through while reloading weren't part of the reload, so they are kept
+              DescriptionSnapshot<T> loaded =
+                  snapshot.updateAndGet(reloadedSnapshot::withIdsOnlyIn);
+              log.info("Loaded {} {} into the content snapshot", loaded.size(), name);
+            })
+        .onErrorResume(
+            ex -> {
+              log.error(
+                  "Error occurred while refreshing the {} content snapshot, keeping the snapshot"
+                      + " loaded at {}",
+                  name,
+                  current.getLoadedAt().orElse(null),
+                  ex);
+              return Mono.empty();
+            })
+        .then();
+  }
+
+  private Mono<ReloadedPartition<T>> reload(
+      DescriptionSnapshot<T> current, TradeType tradeType, Locale locale) {
+    Set<String> ids = new LinkedHashSet<>(preloadIds(contentSnapshotProperties));
+    ids.addAll(current.getIds(tradeType, locale));
+    if (ids.isEmpty()) {
+      return Mono.empty();
+    }
+    return fetch(List.copyOf(ids), tradeType, locale)
+        .collectList()
+        .map(descriptions -> new ReloadedPartition<>(tradeType, locale, ids, descriptions));
+  }
+
+  private double snapshotAgeInSeconds() {
+    return snapshot
+        .get()
+        .getLoadedAt()
+        .map(loadedAt -> (double) Duration.between(loadedAt, clock.instant()).toSeconds())
+        .orElse(Double.NaN);
+  }
+
+  @Value
+  private static class ReloadedPartition<D> {
+    TradeType tradeType;
+    Locale locale;
+    Set<String> ids;
+    List<D> descriptions;
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.snapshot;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ContentSnapshotProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.measuretypedescription.MeasureTypeDescriptionContentClient;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.MeasureTypeDescription;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.repository.MeasureTypeDescriptionRepository;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+
+/** Serves measure type descriptions from an in-memory snapshot of the content api. */
+@Component
+@Primary
+public class SnapshotMeasureTypeDescriptionRepository
+    extends SnapshotDescriptionRepository<MeasureTypeDescription>
+    implements MeasureTypeDescriptionRepository {
+
+  private final MeasureTypeDescriptionContentClient measureTypeDescriptionContentClient;
+
+  @Autowired
+  public SnapshotMeasureTypeDescriptionRepository(
+      MeasureTypeDescriptionContentClient measureTypeDescriptionContentClient,
+      ContentSnapshotProperties contentSnapshotProperties,
+      MeterRegistry meterRegistry) {
+    this(
+        measureTypeDescriptionContentClient,
+        contentSnapshotProperties,
+        meterRegistry,
+        Clock.systemUTC());
+  }
+
+  SnapshotMeasureTypeDescriptionRepository(
+      MeasureTypeDescriptionContentClient measureTypeDescriptionContentClient,
+      ContentSnapshotProperties contentSnapshotProperties,
+      MeterRegistry meterRegistry,
+      Clock clock) {
+    super(
+        "measureTypeDescriptions",
+        MeasureTypeDescription::getMeasureTypeId,
+        contentSnapshotProperties,
+        meterRegistry,
+        clock);
+    this.measureTypeDescriptionContentClient = measureTypeDescriptionContentClient;
+  }
+
+  @Override
+  public Flux<MeasureTypeDescription> findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+      List<String> measureTypeIds, TradeType tradeType, Locale locale) {
+    return find(measureTypeIds, tradeType, locale);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    if (isEnabled()) {
+      refresh().subscribe();
+    }
+  }
+
+  @Scheduled(
+      initialDelayString = REFRESH_INTERVAL_MILLIS,
+      fixedDelayString = REFRESH_INTERVAL_MILLIS)
+  public void scheduledRefresh() {
+    if (isEnabled()) {
+      refresh().subscribe();
+    }
+  }
+
+  @Override
+  protected Flux<MeasureTypeDescription> fetch(
+      List<String> ids, TradeType tradeType, Locale locale) {
+    return measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(ids, tradeType, locale);
+  }
+
+  @Override
+  protected Flux<MeasureTypeDescription> fetchWithFallback(
+      List<String> ids, TradeType tradeType, Locale locale) {
+    return measureTypeDescriptionContentClient
+        .findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(ids, tradeType, locale);
+  }
+
+  @Override
+  protected List<String> preloadIds(ContentSnapshotProperties contentSnapshotProperties) {
+    return contentSnapshotProperties.getPreloadMeasureTypes();
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain;
+
+import java.util.List;
+import java.util.Optional;
+import lombok.Builder;
+import lombok.Value;
+
+@Builder
+@Value
+public class BasketLineResult {
+  String commodityCode;
+  String additionalCode;
+  List<RestrictiveMeasure> measures;
+  TariffAndTaxes tariffAndTaxes;
+  // set instead of the measures and duties when they could not be found or fetched for the line
+  String error;
+
+  public Optional<String> getError() {
+    return Optional.ofNullable(error);
+  }
+}
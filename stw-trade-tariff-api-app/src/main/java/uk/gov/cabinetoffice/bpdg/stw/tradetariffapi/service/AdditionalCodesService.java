@@ -23,20 +23,18 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.AdditionalCode;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
-import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureBuilder;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
 
 @Service
 @Slf4j
 @AllArgsConstructor(onConstructor_ = {@Autowired})
 public class AdditionalCodesService {
 
-  private final TradeTariffApiGateway tradeTariffApiGateway;
-  private final MeasureBuilder measureBuilder;
+  private final MeasureViewService measureViewService;
   private final MeasureFilterer measureFilterer;
 
   public Mono<List<AdditionalCode>> getAdditionalCodes(
@@ -51,31 +49,30 @@ public class AdditionalCodesService {
             "fetching additional codes for [commodity: %s, tradeType: %s, originCountry: %s, destinationCountry: %s]",
             commodityCode, tradeType, originCountry, destinationCountry));
 
-    return this.tradeTariffApiGateway
-        .getCommodity(
+    return this.measureViewService
+        .getMeasureView(
             commodityCode,
             dateOfTrade,
             tradeType == TradeType.IMPORT
                 ? UkCountry.valueOf(destinationCountry)
                 : UkCountry.valueOf(originCountry))
         .flatMap(
-            response ->
+            measureView ->
                 Mono.just(
-                    extractAdditionalCodes(
-                        response,
-                        tradeType,
-                        tradeType == TradeType.IMPORT ? originCountry : destinationCountry,
-                        commodityCode)));
+                    getAdditionalCodes(measureView, tradeType, originCountry, destinationCountry)));
   }
 
-  private List<AdditionalCode> extractAdditionalCodes(
-      TradeTariffCommodityResponse response,
+  /** Gets the additional codes of a trade from the measure view of its commodity. */
+  List<AdditionalCode> getAdditionalCodes(
+      MeasureView measureView,
       TradeType tradeType,
-      String tradeDestinationCountry,
-      String commodityCode) {
+      String originCountry,
+      String destinationCountry) {
     List<Measure> filteredMeasures =
         measureFilterer.getRestrictiveMeasures(
-            measureBuilder.from(response, commodityCode), tradeType, tradeDestinationCountry);
+            measureView,
+            tradeType,
+            tradeType == TradeType.IMPORT ? originCountry : destinationCountry);
 
     return filteredMeasures.stream()
         .map(Measure::getAdditionalCode)
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.BasketProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.BasketLineResult;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Duty;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.RestrictiveMeasure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TariffAndTaxes;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.ResourceNotFoundException;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.BasketLine;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.BasketRequest;
+
+/**
+ * Gets the restrictive measures and duties of every line of a basket of commodities traded in the
+ * same context.
+ *
+ * <p>Identical lines are answered once. The distinct commodities of the basket are fetched
+ * concurrently, up to a configured limit, and the measure type and document code descriptions of
+ * the lines of each commodity are looked up together once it is fetched. The results of the lines
+ * of a commodity are emitted as soon as they are ready, without waiting for the other commodities.
+ * Lines of commodities which could not be found or fetched are answered with an error.
+ */
+@Service
+@Slf4j
+@AllArgsConstructor(onConstructor_ = {@Autowired})
+public class BasketService {
+
+  private static final String COMMODITY_NOT_FETCHED =
+      "Measures and duties of commodity '%s' could not be fetched";
+
+  private final MeasureViewService measureViewService;
+  private final MeasureFilterer measureFilterer;
+  private final MeasureTypeService measureTypeService;
+  private final ProhibitionContentService prohibitionContentService;
+  private final DutyMeasureService dutyMeasureService;
+  private final BasketProperties basketProperties;
+
+  public Flux<BasketLineResult> getBasket(BasketRequest basketRequest) {
+    Map<String, List<BasketLine>> linesByCommodityCode =
+        basketRequest.getLines().stream()
+            .distinct()
+            .collect(
+                Collectors.groupingBy(
+                    BasketLine::getCommodityCode, LinkedHashMap::new, Collectors.toList()));
+    UkCountry apiCountry =
+        basketRequest.getTradeType() == TradeType.IMPORT
+            ? UkCountry.valueOf(basketRequest.getDestinationCountry())
+            : UkCountry.valueOf(basketRequest.getOriginCountry());
+    return Flux.fromIterable(linesByCommodityCode.entrySet())
+        .flatMap(
+            linesOfCommodity ->
+                getBasketLineResults(
+                    linesOfCommodity.getKey(),
+                    linesOfCommodity.getValue(),
+                    apiCountry,
+                    basketRequest),
+            basketProperties.getCommodityConcurrency());
+  }
+
+  // the lines of a commodity are answered together, so a failure answers each of them once
+  private Flux<BasketLineResult> getBasketLineResults(
+      String commodityCode,
+      List<BasketLine> lines,
+      UkCountry apiCountry,
+      BasketRequest basketRequest) {
+    return this.measureViewService
+        .getMeasureView(commodityCode, basketRequest.getTradeDate(), apiCountry)
+        .flatMap(
+            measureView -> toBasketLineResults(lines, measureView, basketRequest).collectList())
+        .onErrorResume(
+            ex -> {
+              String error;
+              if (ex instanceof ResourceNotFoundException) {
+                log.info("Commodity {} of basket not found", commodityCode);
+                error = new ResourceNotFoundException("Commodity", commodityCode).getMessage();
+              } else {
+                log.warn("Failed to get commodity {} of basket", commodityCode, ex);
+                error = String.format(COMMODITY_NOT_FETCHED, commodityCode);
+              }
+              return Mono.just(
+                  lines.stream()
+                      .map(line -> toBasketLineError(line, error))
+                      .collect(Collectors.toList()));
+            })
+        .flatMapIterable(Function.identity());
+  }
+
+  private Flux<BasketLineResult> toBasketLineResults(
+      List<BasketLine> lines, MeasureView measureView, BasketRequest basketRequest) {
+    String partnerCountry =
+        basketRequest.getTradeType() == TradeType.IMPORT
+            ? basketRequest.getOriginCountry()
+            : basketRequest.getDestinationCountry();
+    boolean hasDuties =
+        basketRequest.getTradeType() == TradeType.IMPORT
+            && UkCountry.valueOf(basketRequest.getDestinationCountry()) == UkCountry.GB;
+
+    Map<BasketLine, List<Measure>> restrictiveMeasuresByLine = new LinkedHashMap<>();
+    Map<BasketLine, List<Measure>> dutyMeasuresByLine = new LinkedHashMap<>();
+    lines.forEach(
+        line -> {
+          restrictiveMeasuresByLine.put(
+              line,
+              measureFilterer.maybeFilterByAdditionalCode(
+                  measureFilterer.getRestrictiveMeasures(
+                      measureView, basketRequest.getTradeType(), partnerCountry),
+                  line.getAdditionalCode()));
+          dutyMeasuresByLine.put(
+              line,
+              hasDuties
+                  ? measureFilterer.getTaxAndDutyMeasures(
+                      measureView, basketRequest.getTradeType(), partnerCountry)
+                  : List.of());
+        });
+
+    return this.dutyMeasureService
+        .getTariffsAndTaxesMeasuresInBatch(
+            dutyMeasuresByLine, basketRequest.getTradeType(), basketRequest.getLocale())
+        .flatMapMany(
+            dutiesByLine ->
+                this.measureTypeService
+                    .getRestrictiveMeasuresInBatch(
+                        restrictiveMeasuresByLine,
+                        BasketLine::getCommodityCode,
+                        basketRequest.getTradeType(),
+                        basketRequest.getLocale())
+                    .flatMap(
+                        restrictiveMeasuresOfLine ->
+                            this.prohibitionContentService
+                                .getProhibitions(
+                                    restrictiveMeasuresByLine.get(
+                                        restrictiveMeasuresOfLine.getT1()),
+                                    partnerCountry,
+                                    basketRequest.getLocale(),
+                                    basketRequest.getTradeType())
+                                .map(
+                                    prohibitions ->
+                                        toBasketLineResult(
+                                            restrictiveMeasuresOfLine.getT1(),
+                                            restrictiveMeasuresOfLine.getT2(),
+                                            prohibitions,
+                                            dutiesByLine.get(restrictiveMeasuresOfLine.getT1())))));
+  }
+
+  private BasketLineResult toBasketLineError(BasketLine line, String error) {
+    return BasketLineResult.builder()
+        .commodityCode(line.getCommodityCode())
+        .additionalCode(line.getAdditionalCode().orElse(null))
+        .error(error)
+        .build();
+  }
+
+  private BasketLineResult toBasketLineResult(
+      BasketLine line,
+      List<RestrictiveMeasure> restrictiveMeasures,
+      List<? extends RestrictiveMeasure> prohibitions,
+      List<Duty> duties) {
+    List<RestrictiveMeasure> measures = new ArrayList<>(restrictiveMeasures);
+    measures.addAll(prohibitions);
+    return BasketLineResult.builder()
+        .commodityCode(line.getCommodityCode())
+        .additionalCode(line.getAdditionalCode().orElse(null))
+        .measures(measures)
+        .tariffAndTaxes(TariffAndTaxes.builder().duties(duties).build())
+        .build();
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.CommoditySummary;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TariffAndTaxes;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.CommoditySummaryRequest;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.MeasuresRequest;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.TariffAndTaxesRequest;
+
+/**
+ * Gets the additional codes, restrictive measures and duties of a commodity in one go, running
+ * the pipelines of the separate endpoints over a single measure view of the commodity.
+ */
+@Service
+@Slf4j
+@AllArgsConstructor(onConstructor_ = {@Autowired})
+public class CommoditySummaryService {
+
+  private final MeasureViewService measureViewService;
+  private final AdditionalCodesService additionalCodesService;
+  private final MeasuresService measuresService;
+  private final TariffAndTaxesService tariffAndTaxesService;
+
+  public Mono<CommoditySummary> getCommoditySummary(
+      CommoditySummaryRequest commoditySummaryRequest) {
+    return this.measureViewService
+        .getMeasureView(
+            commoditySummaryRequest.getCommodityCode(),
+            commoditySummaryRequest.getDateOfTrade(),
+            commoditySummaryRequest.getTradeType() == TradeType.IMPORT
+                ? UkCountry.valueOf(commoditySummaryRequest.getDestinationCountry())
+                : UkCountry.valueOf(commoditySummaryRequest.getOriginCountry()))
+        .flatMap(measureView -> toCommoditySummary(measureView, commoditySummaryRequest));
+  }
+
+  private Mono<CommoditySummary> toCommoditySummary(
+      MeasureView measureView, CommoditySummaryRequest commoditySummaryRequest) {
+    return Mono.zip(
+            this.measuresService
+                .getMeasures(measureView, toMeasuresRequest(commoditySummaryRequest))
+                .collectList(),
+            getTariffAndTaxes(measureView, commoditySummaryRequest))
+        .map(
+            measuresAndTariffAndTaxes ->
+                CommoditySummary.builder()
+                    .additionalCodes(
+                        this.additionalCodesService.getAdditionalCodes(
+                            measureView,
+                            commoditySummaryRequest.getTradeType(),
+                            commoditySummaryRequest.getOriginCountry(),
+                            commoditySummaryRequest.getDestinationCountry()))
+                    .measures(measuresAndTariffAndTaxes.getT1())
+                    .tariffAndTaxes(measuresAndTariffAndTaxes.getT2())
+                    .build());
+  }
+
+  private Mono<TariffAndTaxes> getTariffAndTaxes(
+      MeasureView measureView, CommoditySummaryRequest commoditySummaryRequest) {
+    // the duties endpoint only covers imports into the UK
+    if (commoditySummaryRequest.getTradeType() != TradeType.IMPORT) {
+      return Mono.just(TariffAndTaxes.builder().duties(List.of()).build());
+    }
+    return this.tariffAndTaxesService.getTariffAndTaxes(
+        measureView,
+        TariffAndTaxesRequest.builder()
+            .commodityCode(commoditySummaryRequest.getCommodityCode())
+            .originCountry(commoditySummaryRequest.getOriginCountry())
+            .destinationCountry(UkCountry.valueOf(commoditySummaryRequest.getDestinationCountry()))
+            .tradeType(commoditySummaryRequest.getTradeType())
+            .importDate(commoditySummaryRequest.getDateOfTrade())
+            .locale(commoditySummaryRequest.getLocale())
+            .build());
+  }
+
+  private MeasuresRequest toMeasuresRequest(CommoditySummaryRequest commoditySummaryRequest) {
+    return MeasuresRequest.builder()
+        .commodityCode(commoditySummaryRequest.getCommodityCode())
+        .originCountry(commoditySummaryRequest.getOriginCountry())
+        .destinationCountry(commoditySummaryRequest.getDestinationCountry())
+        .tradeType(commoditySummaryRequest.getTradeType())
+        .additionalCode(commoditySummaryRequest.getAdditionalCode().orElse(null))
+        .dateOfTrade(commoditySummaryRequest.getDateOfTrade())
+        .locale(commoditySummaryRequest.getLocale())
+        .build();
+  }
+}
@@ -14,14 +14,14 @@
 
 package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
 
-import static java.lang.String.format;
-
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.MeasureTypeDescription;
@@ -43,67 +43,74 @@ public class DutyMeasureService {
 
   public Flux<Duty> getTariffsAndTaxesMeasures(
       final List<Measure> measures, final TradeType tradeType, final Locale locale) {
-    return Flux.fromIterable(measures)
+    final List<Measure> dutyMeasures = dutyMeasures(measures);
+    return MeasureTypeDescriptionHelper.findMeasureTypeDescriptions(
+            measureTypeDescriptionRepository, dutyMeasures, tradeType, locale)
+        .flatMapIterable(
+            measureTypeDescriptions -> toDuties(measureTypeDescriptions, dutyMeasures));
+  }
+
+  /**
+   * Gets the duties of several groups of measures, such as those of different origin countries or
+   * commodities, looking up the descriptions of the measure types of all of them in a single call.
+   */
+  public <K> Mono<Map<K, List<Duty>>> getTariffsAndTaxesMeasuresInBatch(
+      final Map<K, List<Measure>> measuresByGroup, final TradeType tradeType, final Locale locale) {
+    final Map<K, List<Measure>> dutyMeasuresByGroup = new LinkedHashMap<>();
+    measuresByGroup.forEach(
+        (group, measures) -> dutyMeasuresByGroup.put(group, dutyMeasures(measures)));
+    final List<Measure> allDutyMeasures =
+        dutyMeasuresByGroup.values().stream().flatMap(List::stream).collect(Collectors.toList());
+    return MeasureTypeDescriptionHelper.findMeasureTypeDescriptions(
+            measureTypeDescriptionRepository, allDutyMeasures, tradeType, locale)
+        .map(
+            measureTypeDescriptions -> {
+              Map<K, List<Duty>> dutiesByGroup = new LinkedHashMap<>();
+              dutyMeasuresByGroup.forEach(
+                  (group, dutyMeasures) ->
+                      dutiesByGroup.put(group, toDuties(measureTypeDescriptions, dutyMeasures)));
+              return dutiesByGroup;
+            });
+  }
+
+  private List<Measure> dutyMeasures(List<Measure> measures) {
+    return measures.stream()
         .filter(measure -> measure.getDutyValue().isPresent())
-        .flatMap(
-            measure ->
-                measureTypeDescriptionRepository
-                    .findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
-                        List.of(measure.getMeasureType().getId()), tradeType, locale)
-                    .collectList()
-                    .flatMap(
-                        listOfMeasureTypeDescriptions -> {
-                          if (CollectionUtils.isEmpty(listOfMeasureTypeDescriptions)) {
-                            return Mono.empty();
-                          } else if (listOfMeasureTypeDescriptions.size() == 1) {
-                            return Mono.just(listOfMeasureTypeDescriptions.get(0));
-                          }
-                          return Mono.error(
-                              new RuntimeException(
-                                  format(
-                                      "More than one measure type descriptions configured for measure type %s, locale %s",
-                                      measure.getMeasureType().getId(), locale)));
-                        })
-                    .defaultIfEmpty(
-                        MeasureTypeDescription.builder()
-                            .measureTypeId(measure.getMeasureType().getId())
-                            .descriptionOverlay(measure.getMeasureType().getDescription())
-                            .build())
-                    .zipWith(Mono.defer(() -> Mono.just(measure))))
+        .collect(Collectors.toList());
+  }
+
+  private List<Duty> toDuties(
+      Map<String, MeasureTypeDescription> measureTypeDescriptions, List<Measure> dutyMeasures) {
+    return dutyMeasures.stream()
         .map(
-            measureTypeDescriptionWithOptions ->
-                measureTypeDescriptionWithOptions.getT2().isTaxMeasure()
-                    ? Tax.builder()
-                        .measureTypeId(measureTypeDescriptionWithOptions.getT1().getMeasureTypeId())
-                        .text(measureTypeDescriptionWithOptions.getT1().getDescriptionOverlay())
-                        .additionalCode(
-                            measureTypeDescriptionWithOptions
-                                .getT2()
-                                .getAdditionalCode()
-                                .orElse(null))
-                        .value(
-                            measureTypeDescriptionWithOptions.getT2().getDutyValue().orElse(null))
-                        .geographicalArea(
-                            measureTypeDescriptionWithOptions.getT2().getGeographicalArea())
-                        .build()
-                    : Tariff.builder()
-                        .measureTypeId(measureTypeDescriptionWithOptions.getT1().getMeasureTypeId())
-                        .text(measureTypeDescriptionWithOptions.getT1().getDescriptionOverlay())
-                        .additionalCode(
-                            measureTypeDescriptionWithOptions
-                                .getT2()
-                                .getAdditionalCode()
-                                .orElse(null))
-                        .value(
-                            measureTypeDescriptionWithOptions.getT2().getDutyValue().orElse(null))
-                        .quota(
-                            measureTypeDescriptionWithOptions
-                                .getT2()
-                                .getQuotaNumber()
-                                .map(quotaNumber -> Quota.builder().number(quotaNumber).build())
-                                .orElse(null))
-                        .geographicalArea(
-                            measureTypeDescriptionWithOptions.getT2().getGeographicalArea())
-                        .build());
+            measure ->
+                toDuty(
+                    MeasureTypeDescriptionHelper.measureTypeDescription(
+                        measureTypeDescriptions, measure),
+                    measure))
+        .collect(Collectors.toList());
+  }
+
+  private Duty toDuty(MeasureTypeDescription measureTypeDescription, Measure measure) {
+    return measure.isTaxMeasure()
+        ? Tax.builder()
+            .measureTypeId(measureTypeDescription.getMeasureTypeId())
+            .text(measureTypeDescription.getDescriptionOverlay())
+            .additionalCode(measure.getAdditionalCode().orElse(null))
+            .value(measure.getDutyValue().orElse(null))
+            .geographicalArea(measure.getGeographicalArea())
+            .build()
+        : Tariff.builder()
+            .measureTypeId(measureTypeDescription.getMeasureTypeId())
+            .text(measureTypeDescription.getDescriptionOverlay())
+            .additionalCode(measure.getAdditionalCode().orElse(null))
+            .value(measure.getDutyValue().orElse(null))
+            .quota(
+                measure
+                    .getQuotaNumber()
+                    .map(quotaNumber -> Quota.builder().number(quotaNumber).build())
+                    .orElse(null))
+            .geographicalArea(measure.getGeographicalArea())
+            .build();
   }
 }
@@ -16,114 +16,103 @@ package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
 
 import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.MeasureFilterConstantsConfig.MEASURE_TYPE_SERIES_ID_A;
 import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.MeasureFilterConstantsConfig.MEASURE_TYPE_SERIES_ID_B;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.ApplicableMeasures.Selection.RESTRICTIVE;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.ApplicableMeasures.Selection.TAX_AND_DUTY;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.stream.IntStream;
 import org.springframework.stereotype.Service;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
-import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureType;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.ApplicableMeasures;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.CompiledMeasures;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
 
 @Service
 public class MeasureFilterer {
 
-  private static final List<String> RESTRICTIVE_MEASURE_TYPE_ID_EXCLUSION_LIST =
-      List.of("464", "481", "482", "483", "484", "495", "496", "730");
-  private static final List<String> RESTRICTIVE_MEASURE_TYPE_SERIES_LIST =
-      List.of(MEASURE_TYPE_SERIES_ID_A, MEASURE_TYPE_SERIES_ID_B);
+  private static final Set<String> RESTRICTIVE_MEASURE_TYPE_ID_EXCLUSION_LIST =
+      Set.of("464", "481", "482", "483", "484", "495", "496", "730");
+  private static final Set<String> RESTRICTIVE_MEASURE_TYPE_SERIES_LIST =
+      Set.of(MEASURE_TYPE_SERIES_ID_A, MEASURE_TYPE_SERIES_ID_B);
 
-  private static final List<String> TAX_AND_DUTY_MEASURE_TYPE_SERIES_LIST =
-      List.of("C", "D", "J", "P", "Q");
+  private static final Set<String> TAX_AND_DUTY_MEASURE_TYPE_SERIES_LIST =
+      Set.of("C", "D", "J", "P", "Q");
 
   public List<Measure> getRestrictiveMeasures(
       List<Measure> measures, TradeType tradeType, String tradeDestinationCountry) {
-    List<Measure> filteredMeasuresByTradeTypeAndAllowedSeriesIdAndDisallowedMeasureId =
-        measures.stream()
-            .filter(
-                measureResponse -> measureResponse.getApplicableTradeTypes().contains(tradeType))
-            .filter(
-                measure ->
-                    RESTRICTIVE_MEASURE_TYPE_SERIES_LIST.contains(
-                        measure.getMeasureType().getSeriesId()))
-            .filter(
-                measure ->
-                    !RESTRICTIVE_MEASURE_TYPE_ID_EXCLUSION_LIST.contains(
-                        measure.getMeasureType().getId()))
-            .collect(Collectors.toList());
+    return getRestrictiveMeasures(MeasureView.of(measures), tradeType, tradeDestinationCountry);
+  }
 
+  /**
+   * Selects the restrictive measures of the trade type which apply to the country, either because
+   * they are assigned to it or because it belongs to their geographical area. A measure of a
+   * geographical area is left out when a measure of the same type is assigned to the country.
+   */
+  public List<Measure> getRestrictiveMeasures(
+      MeasureView measureView, TradeType tradeType, String tradeDestinationCountry) {
     String country = convertToEUIfNeeded(tradeDestinationCountry);
-
-    List<Measure> filteredMeasuresByTradeTypeAndAssignedToSameCountry =
-        filteredMeasuresByTradeTypeAndAllowedSeriesIdAndDisallowedMeasureId.stream()
-            .filter(
-                measureResponse -> measureResponse.getGeographicalArea().getId().equals(country))
-            .collect(Collectors.toList());
-
-    Set<MeasureType> measureTypeResponsesAssignedToSameCountry =
-        filteredMeasuresByTradeTypeAndAssignedToSameCountry.stream()
-            .map(Measure::getMeasureType)
-            .collect(Collectors.toSet());
-
-    List<Measure> filteredMeasuresByTradeTypeAndAssignedToGlobalAreas =
-        filteredMeasuresByTradeTypeAndAllowedSeriesIdAndDisallowedMeasureId.stream()
-            .filter(
-                measureResponse ->
-                    Optional.ofNullable(
-                            measureResponse.getGeographicalArea().getChildrenGeographicalAreas())
-                        .orElse(Set.of())
-                        .contains(country))
-            .filter(measureResponse -> !measureResponse.getExcludedCountries().contains(country))
-            .filter(
-                measureResponse ->
-                    !measureTypeResponsesAssignedToSameCountry.contains(
-                        measureResponse.getMeasureType()))
-            .collect(Collectors.toList());
-
-    return Stream.concat(
-            filteredMeasuresByTradeTypeAndAssignedToGlobalAreas.stream(),
-            filteredMeasuresByTradeTypeAndAssignedToSameCountry.stream())
-        .collect(Collectors.toList());
+    return measureView
+        .getApplicableMeasures()
+        .map(applicableMeasures -> applicableMeasures.get(RESTRICTIVE, tradeType, country))
+        .orElseGet(
+            () ->
+                measuresAt(
+                    measureView, filterRestrictiveMeasures(measureView, tradeType, country)));
   }
 
   public List<Measure> getTaxAndDutyMeasures(
       List<Measure> measures, TradeType tradeType, String tradeDestinationCountry) {
+    return getTaxAndDutyMeasures(MeasureView.of(measures), tradeType, tradeDestinationCountry);
+  }
 
-    List<Measure> filteredMeasuresByTradeTypeAndAllowedSeriesIdAndDisallowedMeasureId =
-        measures.stream()
-            .filter(
-                measureResponse -> measureResponse.getApplicableTradeTypes().contains(tradeType))
-            .filter(
-                measure ->
-                    TAX_AND_DUTY_MEASURE_TYPE_SERIES_LIST.contains(
-                        measure.getMeasureType().getSeriesId()))
-            .collect(Collectors.toList());
-
+  /**
+   * Selects the tax and duty measures of the trade type which apply to the country, either because
+   * they are assigned to it or because it belongs to their geographical area.
+   */
+  public List<Measure> getTaxAndDutyMeasures(
+      MeasureView measureView, TradeType tradeType, String tradeDestinationCountry) {
     String country = convertToEUIfNeeded(tradeDestinationCountry);
+    return measureView
+        .getApplicableMeasures()
+        .map(applicableMeasures -> applicableMeasures.get(TAX_AND_DUTY, tradeType, country))
+        .orElseGet(
+            () ->
+                measuresAt(measureView, filterTaxAndDutyMeasures(measureView, tradeType, country)));
+  }
 
-    List<Measure> filteredMeasuresByTradeTypeAndAssignedToCountry =
-        filteredMeasuresByTradeTypeAndAllowedSeriesIdAndDisallowedMeasureId.stream()
-            .filter(
-                measureResponse -> measureResponse.getGeographicalArea().getId().equals(country))
-            .collect(Collectors.toList());
-
-    List<Measure> filteredMeasuresByTradeTypeAndAssignedToGlobalAreas =
-        filteredMeasuresByTradeTypeAndAllowedSeriesIdAndDisallowedMeasureId.stream()
-            .filter(
-                measureResponse ->
-                    Optional.ofNullable(
-                            measureResponse.getGeographicalArea().getChildrenGeographicalAreas())
-                        .orElse(Set.of())
-                        .contains(country))
-            .filter(measureResponse -> !measureResponse.getExcludedCountries().contains(country))
-            .collect(Collectors.toList());
-
-    return Stream.concat(
-            filteredMeasuresByTradeTypeAndAssignedToGlobalAreas.stream(),
-            filteredMeasuresByTradeTypeAndAssignedToCountry.stream())
-        .collect(Collectors.toList());
+  /**
+   * Filters the measures of the view for every partner country and trade type up front, so that
+   * filtering the returned view for any country is a lookup.
+   */
+  public MeasureView precomputeApplicableMeasures(MeasureView measureView) {
+    ApplicableMeasures.Builder applicableMeasures =
+        ApplicableMeasures.builder(measureView.getMeasures());
+    for (String country : measureView.getCompiledMeasures().getCountries()) {
+      // members of the EU are looked up as the EU
+      if (!country.equals(convertToEUIfNeeded(country))) {
+        continue;
+      }
+      for (TradeType tradeType : TradeType.values()) {
+        applicableMeasures
+            .put(
+                RESTRICTIVE,
+                tradeType,
+                country,
+                filterRestrictiveMeasures(measureView, tradeType, country))
+            .put(
+                TAX_AND_DUTY,
+                tradeType,
+                country,
+                filterTaxAndDutyMeasures(measureView, tradeType, country));
+      }
+    }
+    return measureView.withApplicableMeasures(applicableMeasures.build());
   }
 
   public List<Measure> maybeFilterByAdditionalCode(
@@ -156,6 +145,68 @@ public class MeasureFilterer {
         .orElse(allFilteredMeasures);
   }
 
+  private int[] filterRestrictiveMeasures(
+      MeasureView measureView, TradeType tradeType, String country) {
+    CompiledMeasures compiledMeasures = measureView.getCompiledMeasures();
+    BitSet candidates = compiledMeasures.measuresOf(tradeType);
+    candidates.and(compiledMeasures.measuresOfSeries(RESTRICTIVE_MEASURE_TYPE_SERIES_LIST));
+    candidates.andNot(
+        compiledMeasures.measuresOfMeasureTypes(RESTRICTIVE_MEASURE_TYPE_ID_EXCLUSION_LIST));
+    return filterByCountry(compiledMeasures, candidates, country, true);
+  }
+
+  private int[] filterTaxAndDutyMeasures(
+      MeasureView measureView, TradeType tradeType, String country) {
+    CompiledMeasures compiledMeasures = measureView.getCompiledMeasures();
+    BitSet candidates = compiledMeasures.measuresOf(tradeType);
+    candidates.and(compiledMeasures.measuresOfSeries(TAX_AND_DUTY_MEASURE_TYPE_SERIES_LIST));
+    return filterByCountry(compiledMeasures, candidates, country, false);
+  }
+
+  /** Returns the positions of the measures, those of geographical areas first. */
+  private int[] filterByCountry(
+      CompiledMeasures compiledMeasures,
+      BitSet candidates,
+      String countryOrEU,
+      boolean excludeMeasureTypesAssignedToCountry) {
+    int country = compiledMeasures.countryId(countryOrEU);
+    if (country == CompiledMeasures.UNKNOWN) {
+      return new int[0];
+    }
+
+    BitSet measuresAssignedToCountry = new BitSet();
+    BitSet measureTypesAssignedToCountry = new BitSet();
+    BitSet measuresAssignedToGlobalAreas = new BitSet();
+    for (int measure = candidates.nextSetBit(0);
+        measure >= 0;
+        measure = candidates.nextSetBit(measure + 1)) {
+      if (compiledMeasures.isAssignedTo(measure, country)) {
+        measuresAssignedToCountry.set(measure);
+        measureTypesAssignedToCountry.set(compiledMeasures.measureTypeId(measure));
+      }
+      if (compiledMeasures.appliesToMemberCountry(measure, country)) {
+        measuresAssignedToGlobalAreas.set(measure);
+      }
+    }
+
+    IntStream.Builder filteredMeasures = IntStream.builder();
+    for (int measure = measuresAssignedToGlobalAreas.nextSetBit(0);
+        measure >= 0;
+        measure = measuresAssignedToGlobalAreas.nextSetBit(measure + 1)) {
+      if (!excludeMeasureTypesAssignedToCountry
+          || !measureTypesAssignedToCountry.get(compiledMeasures.measureTypeId(measure))) {
+        filteredMeasures.add(measure);
+      }
+    }
+    measuresAssignedToCountry.stream().forEach(filteredMeasures::add);
+    return filteredMeasures.build().toArray();
+  }
+
+  private static List<Measure> measuresAt(MeasureView measureView, int[] positions) {
+    List<Measure> measures = measureView.getMeasures();
+    return Arrays.stream(positions).mapToObj(measures::get).collect(Collectors.toList());
+  }
+
   private String convertToEUIfNeeded(String countryCode) {
     if (CountryHelper.isEUCountry(countryCode)) {
       return "EU";
@@ -0,0 +1,99 @@
+// Copyright 2021 Crown Copyright (Single Trade Window)
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
+
+import static java.lang.String.format;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import reactor.core.publisher.Mono;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.MeasureTypeDescription;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.repository.MeasureTypeDescriptionRepository;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+
+class MeasureTypeDescriptionHelper {
+
+  private MeasureTypeDescriptionHelper() {}
+
+  /**
+   * Looks up the descriptions of all distinct measure types of the given measures in a single call
+   * and returns them keyed by measure type id.
+   */
+  static Mono<Map<String, MeasureTypeDescription>> findMeasureTypeDescriptions(
+      MeasureTypeDescriptionRepository measureTypeDescriptionRepository,
+      List<Measure> measures,
+      TradeType tradeType,
+      Locale locale) {
+    List<String> measureTypeIds =
+        measures.stream()
+            .map(measure -> measure.getMeasureType().getId())
+            .distinct()
+            .collect(Collectors.toList());
+    if (measureTypeIds.isEmpty()) {
+      return Mono.just(Map.of());
+    }
+    return measureTypeDescriptionRepository
+        .findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+            measureTypeIds, tradeType, locale)
+        .collectMultimap(MeasureTypeDescription::getMeasureTypeId)
+        .flatMap(
+            measureTypeDescriptionsById -> {
+              Optional<String> measureTypeWithMoreThanOneDescription =
+                  measureTypeDescriptionsById.entrySet().stream()
+                      .filter(entry -> entry.getValue().size() > 1)
+                      .map(Map.Entry::getKey)
+                      .findFirst();
+              if (measureTypeWithMoreThanOneDescription.isPresent()) {
+                return Mono.error(
+                    new RuntimeException(
+                        format(
+                            "More than one measure type descriptions configured for measure type %s, locale %s",
+                            measureTypeWithMoreThanOneDescription.get(), locale)));
+              }
+              return Mono.just(
+                  measureTypeDescriptionsById.entrySet().stream()
+                      .collect(
+                          Collectors.toMap(
+                              Map.Entry::getKey, entry -> first(entry.getValue()))));
+            });
+  }
+
+  /**
+   * Returns the description configured for the measure type of the given measure, falling back to
+   * the description from the trade tariff when none has been configured.
+   */
+  static MeasureTypeDescription measureTypeDescription(
+      Map<String, MeasureTypeDescription> measureTypeDescriptions, Measure measure) {
+    MeasureTypeDescription measureTypeDescription =
+        measureTypeDescriptions.get(measure.getMeasureType().getId());
+    if (measureTypeDescription != null) {
+      return measureTypeDescription;
+    }
+    return MeasureTypeDescription.builder()
+        .measureTypeId(measure.getMeasureType().getId())
+        .descriptionOverlay(measure.getMeasureType().getDescription())
+        .build();
+  }
+
+  private static MeasureTypeDescription first(
+      Collection<MeasureTypeDescription> measureTypeDescriptions) {
+    return measureTypeDescriptions.iterator().next();
+  }
+}
@@ -14,15 +14,14 @@
 
 package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
 
-import static java.lang.String.format;
-
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.function.Tuple2;
@@ -34,6 +33,8 @@ import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.RestrictiveMeasure;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.measureoptions.DocumentCodeDescriptionLookup;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.measureoptions.DocumentCodeDescriptionPrefetcher;
 
 @Service
 @Slf4j
@@ -42,6 +43,7 @@ public class MeasureTypeService {
 
   private final MeasureTypeDescriptionRepository measureTypeDescriptionRepository;
   private final MeasureOptionService measureOptionService;
+  private final DocumentCodeDescriptionPrefetcher documentCodeDescriptionPrefetcher;
 
   private final Map<String, String> measureOverrideText =
       Map.of(
@@ -57,36 +59,79 @@ public class MeasureTypeService {
 
   public Flux<RestrictiveMeasure> getRestrictiveMeasures(
       List<Measure> measures, String commodityCode, TradeType tradeType, Locale locale) {
+    return findDescriptions(measures, tradeType, locale)
+        .flatMapMany(
+            measureTypeDescriptionsAndDocumentCodeDescriptions ->
+                toRestrictiveMeasures(
+                    measureTypeDescriptionsAndDocumentCodeDescriptions,
+                    measures,
+                    commodityCode,
+                    tradeType,
+                    locale));
+  }
+
+  /**
+   * Gets the restrictive measures of several groups of measures, such as those of different
+   * origin countries or commodities, looking up the descriptions of the measure types and document
+   * codes of all of them once. The restrictive measures of each group are emitted as soon as they
+   * are ready.
+   */
+  public <K> Flux<Tuple2<K, List<RestrictiveMeasure>>> getRestrictiveMeasuresInBatch(
+      Map<K, List<Measure>> measuresByGroup,
+      Function<K, String> commodityCodeOfGroup,
+      TradeType tradeType,
+      Locale locale) {
+    List<Measure> allMeasures =
+        measuresByGroup.values().stream().flatMap(List::stream).collect(Collectors.toList());
+    return findDescriptions(allMeasures, tradeType, locale)
+        .flatMapMany(
+            measureTypeDescriptionsAndDocumentCodeDescriptions ->
+                Flux.fromIterable(measuresByGroup.entrySet())
+                    .flatMap(
+                        measuresOfGroup ->
+                            toRestrictiveMeasures(
+                                    measureTypeDescriptionsAndDocumentCodeDescriptions,
+                                    measuresOfGroup.getValue(),
+                                    commodityCodeOfGroup.apply(measuresOfGroup.getKey()),
+                                    tradeType,
+                                    locale)
+                                .collectList()
+                                .map(
+                                    restrictiveMeasures ->
+                                        Tuples.of(measuresOfGroup.getKey(), restrictiveMeasures))));
+  }
+
+  private Mono<Tuple2<Map<String, MeasureTypeDescription>, DocumentCodeDescriptionLookup>>
+      findDescriptions(List<Measure> measures, TradeType tradeType, Locale locale) {
+    return Mono.zip(
+        MeasureTypeDescriptionHelper.findMeasureTypeDescriptions(
+            measureTypeDescriptionRepository, measures, tradeType, locale),
+        documentCodeDescriptionPrefetcher.prefetch(measures, tradeType, locale));
+  }
+
+  private Flux<RestrictiveMeasure> toRestrictiveMeasures(
+      Tuple2<Map<String, MeasureTypeDescription>, DocumentCodeDescriptionLookup>
+          measureTypeDescriptionsAndDocumentCodeDescriptions,
+      List<Measure> measures,
+      String commodityCode,
+      TradeType tradeType,
+      Locale locale) {
     return Flux.fromIterable(measures)
         .flatMap(
             measure ->
                 Mono.zip(
-                    this.measureTypeDescriptionRepository
-                        .findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
-                            List.of(measure.getMeasureType().getId()), tradeType, locale)
-                        .collectList()
-                        .flatMap(
-                            listOfMeasureTypeDescriptions -> {
-                              if (CollectionUtils.isEmpty(listOfMeasureTypeDescriptions)) {
-                                return Mono.empty();
-                              } else if (listOfMeasureTypeDescriptions.size() == 1) {
-                                return Mono.just(listOfMeasureTypeDescriptions.get(0));
-                              }
-                              return Mono.error(
-                                  new RuntimeException(
-                                      format(
-                                          "More than one measure type descriptions configured for measure type %s, locale %s",
-                                          measure.getMeasureType().getId(), locale)));
-                            })
-                        .defaultIfEmpty(
-                            MeasureTypeDescription.builder()
-                                .measureTypeId(measure.getMeasureType().getId())
-                                .descriptionOverlay(measure.getMeasureType().getDescription())
-                                .build()),
+                    Mono.just(
+                        MeasureTypeDescriptionHelper.measureTypeDescription(
+                            measureTypeDescriptionsAndDocumentCodeDescriptions.getT1(), measure)),
                     this.measureOptionService
                         .getMeasureOptions(measure.getMeasureConditions(), tradeType, locale)
                         .collectList(),
                     Mono.just(measure)))
+        .contextWrite(
+            context ->
+                context.put(
+                    DocumentCodeDescriptionLookup.CONTEXT_KEY,
+                    measureTypeDescriptionsAndDocumentCodeDescriptions.getT2()))
         .filter(
             measureTypeDescriptionWithOptions ->
                 !measureTypeDescriptionWithOptions.getT2().isEmpty())
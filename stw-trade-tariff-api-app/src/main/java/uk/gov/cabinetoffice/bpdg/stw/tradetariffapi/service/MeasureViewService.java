@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.CachedCommodity;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.CommodityCacheKey;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.CommodityFreshnessTracker;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.Freshness;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedVersions;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.MeasureViewCacheProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureBuilder;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
+
+/**
+ * Builds the measures of a commodity once per commodity, trade date and UK country, so requests
+ * for the same commodity from different origin countries go straight to filtering. Measures built
+ * from a stale commodity are served while they are built again from a refreshed one.
+ */
+@Service
+@Slf4j
+@AllArgsConstructor(onConstructor_ = {@Autowired})
+public class MeasureViewService {
+
+  private final TradeTariffApiGateway tradeTariffApiGateway;
+  private final MeasureBuilder measureBuilder;
+  private final MeasureFilterer measureFilterer;
+  private final AsyncCache<CommodityCacheKey, MeasureView> measureViewCache;
+  private final MeasureViewCacheProperties measureViewCacheProperties;
+  private final CommodityFreshnessTracker commodityFreshnessTracker;
+
+  public Mono<MeasureView> getMeasureView(
+      String commodityCode, LocalDate dateOfTrade, UkCountry apiCountry) {
+    CommodityCacheKey commodityCacheKey =
+        CommodityCacheKey.of(commodityCode, dateOfTrade, apiCountry);
+    if (!measureViewCacheProperties.isEnable()) {
+      return buildMeasureView(commodityCacheKey).flatMap(this::recordServed);
+    }
+    // as for the commodity cache, failed lookups are not cached and each subscriber gets a copy
+    // of the shared future
+    return Mono.defer(
+            () ->
+                Mono.fromFuture(
+                    measureViewCache
+                        .get(commodityCacheKey, (key, executor) -> buildMeasureView(key).toFuture())
+                        .copy()))
+        .doOnNext(measureView -> revalidate(commodityCacheKey, measureView))
+        .flatMap(this::recordServed);
+  }
+
+  private void revalidate(CommodityCacheKey commodityCacheKey, MeasureView measureView) {
+    Freshness freshness = getFreshness(measureView);
+    if (freshness == Freshness.STALE) {
+      tradeTariffApiGateway
+          .refreshCommodity(commodityCacheKey)
+          .map(cachedCommodity -> toMeasureView(commodityCacheKey, cachedCommodity))
+          .subscribe(
+              refreshed ->
+                  measureViewCache.put(
+                      commodityCacheKey, CompletableFuture.completedFuture(refreshed)),
+              error ->
+                  log.warn(
+                      "Failed to refresh the measures of {}: {}",
+                      commodityCacheKey,
+                      error.getMessage()));
+    } else if (freshness == Freshness.STALE_IF_ERROR) {
+      // measures built from the last good commodity are not kept, the next lookup tries again
+      measureViewCache.synchronous().invalidate(commodityCacheKey);
+    }
+  }
+
+  // the version of the measures tells apart responses built from them
+  private Mono<MeasureView> recordServed(MeasureView measureView) {
+    return measureView
+        .getFetchedAt()
+        .map(fetchedAt -> commodityFreshnessTracker.record(getFreshness(measureView), fetchedAt))
+        .orElseGet(Mono::empty)
+        .then(ServedVersions.recordCommodity(measureView.getFingerprint()))
+        .thenReturn(measureView);
+  }
+
+  private Freshness getFreshness(MeasureView measureView) {
+    return measureView
+        .getFetchedAt()
+        .map(
+            fetchedAt ->
+                commodityFreshnessTracker.getFreshness(fetchedAt, measureView.isFallback()))
+        .orElse(Freshness.FRESH);
+  }
+
+  private Mono<MeasureView> buildMeasureView(CommodityCacheKey commodityCacheKey) {
+    return tradeTariffApiGateway
+        .getCommodity(
+            commodityCacheKey.getCommodityCode(),
+            commodityCacheKey.getDateOfTrade(),
+            commodityCacheKey.getUkCountry())
+        .map(cachedCommodity -> toMeasureView(commodityCacheKey, cachedCommodity));
+  }
+
+  private MeasureView toMeasureView(
+      CommodityCacheKey commodityCacheKey, CachedCommodity cachedCommodity) {
+    MeasureView measureView =
+        MeasureView.of(
+                measureBuilder.from(
+                    cachedCommodity.getCommodity(), commodityCacheKey.getCommodityCode()))
+            .withFetchedAt(cachedCommodity.getFetchedAt(), cachedCommodity.isFallback());
+    return measureViewCacheProperties.isPrecomputeApplicableMeasures()
+        ? measureFilterer.precomputeApplicableMeasures(measureView)
+        : measureView;
+  }
+}
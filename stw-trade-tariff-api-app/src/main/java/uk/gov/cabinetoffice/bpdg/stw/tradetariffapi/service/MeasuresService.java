@@ -22,14 +22,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
-import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Prohibition;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.RestrictiveMeasure;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
-import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureBuilder;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.MeasuresRequest;
 
 @Service
@@ -37,37 +35,27 @@ import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.MeasuresReque
 @AllArgsConstructor
 public class MeasuresService {
 
-  private final TradeTariffApiGateway tradeTariffApiGateway;
+  private final MeasureViewService measureViewService;
   private final MeasureFilterer measureFilterer;
-  private final MeasureBuilder measureBuilder;
   private final MeasureTypeService measureTypeService;
   private final ProhibitionContentService prohibitionContentService;
 
   public Flux<RestrictiveMeasure> getMeasures(MeasuresRequest measuresRequest) {
-    return this.tradeTariffApiGateway
-        .getCommodity(
+    return this.measureViewService
+        .getMeasureView(
             measuresRequest.getCommodityCode(),
             measuresRequest.getDateOfTrade(),
             measuresRequest.getTradeType() == TradeType.IMPORT
                 ? UkCountry.valueOf(measuresRequest.getDestinationCountry())
                 : UkCountry.valueOf(measuresRequest.getOriginCountry()))
-        .flatMapMany(
-            response ->
-                toMeasuresResponse(
-                    response,
-                    measuresRequest,
-                    measuresRequest.getCommodityCode(),
-                    measuresRequest.getLocale()));
+        .flatMapMany(measureView -> getMeasures(measureView, measuresRequest));
   }
 
-  private Flux<RestrictiveMeasure> toMeasuresResponse(
-      TradeTariffCommodityResponse tradeTariffCommodityResponse,
-      MeasuresRequest measuresRequest,
-      String commodityCode,
-      Locale locale) {
+  /** Gets the restrictive measures of a request from the measure view of its commodity. */
+  Flux<RestrictiveMeasure> getMeasures(MeasureView measureView, MeasuresRequest measuresRequest) {
     List<Measure> restrictiveMeasures =
         measureFilterer.getRestrictiveMeasures(
-            measureBuilder.from(tradeTariffCommodityResponse, commodityCode),
+            measureView,
             measuresRequest.getTradeType(),
             measuresRequest.getTradeType() == TradeType.IMPORT
                 ? measuresRequest.getOriginCountry()
@@ -82,7 +70,7 @@ public class MeasuresService {
             measuresRequest.getTradeType() == TradeType.IMPORT
                 ? measuresRequest.getOriginCountry()
                 : measuresRequest.getDestinationCountry(),
-            locale,
+            measuresRequest.getLocale(),
             measuresRequest.getTradeType());
 
     return this.measureTypeService
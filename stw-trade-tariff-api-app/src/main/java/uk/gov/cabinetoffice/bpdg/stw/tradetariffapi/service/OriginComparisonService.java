@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Duty;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.OriginComparison;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.RestrictiveMeasure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TariffAndTaxes;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.OriginComparisonRequest;
+
+/**
+ * Compares the restrictive measures and duties of importing a commodity from several origin
+ * countries. The commodity is fetched and its measures built once, and the measure type and
+ * document code descriptions of all origin countries are looked up together.
+ */
+@Service
+@Slf4j
+@AllArgsConstructor(onConstructor_ = {@Autowired})
+public class OriginComparisonService {
+
+  private final MeasureViewService measureViewService;
+  private final MeasureFilterer measureFilterer;
+  private final MeasureTypeService measureTypeService;
+  private final ProhibitionContentService prohibitionContentService;
+  private final DutyMeasureService dutyMeasureService;
+
+  public Mono<Map<String, OriginComparison>> getOriginComparison(
+      OriginComparisonRequest originComparisonRequest) {
+    return this.measureViewService
+        .getMeasureView(
+            originComparisonRequest.getCommodityCode(),
+            originComparisonRequest.getDateOfTrade(),
+            originComparisonRequest.getDestinationCountry())
+        .flatMap(measureView -> compareOriginCountries(measureView, originComparisonRequest));
+  }
+
+  private Mono<Map<String, OriginComparison>> compareOriginCountries(
+      MeasureView measureView, OriginComparisonRequest originComparisonRequest) {
+    Map<String, List<Measure>> restrictiveMeasuresByOriginCountry = new LinkedHashMap<>();
+    Map<String, List<Measure>> dutyMeasuresByOriginCountry = new LinkedHashMap<>();
+    originComparisonRequest
+        .getOriginCountries()
+        .forEach(
+            originCountry -> {
+              restrictiveMeasuresByOriginCountry.put(
+                  originCountry,
+                  measureFilterer.maybeFilterByAdditionalCode(
+                      measureFilterer.getRestrictiveMeasures(
+                          measureView, TradeType.IMPORT, originCountry),
+                      originComparisonRequest.getAdditionalCode()));
+              dutyMeasuresByOriginCountry.put(
+                  originCountry,
+                  originComparisonRequest.getDestinationCountry() == UkCountry.XI
+                      ? List.of()
+                      : measureFilterer.getTaxAndDutyMeasures(
+                          measureView, TradeType.IMPORT, originCountry));
+            });
+
+    return Mono.zip(
+            this.measureTypeService
+                .getRestrictiveMeasuresInBatch(
+                    restrictiveMeasuresByOriginCountry,
+                    originCountry -> originComparisonRequest.getCommodityCode(),
+                    TradeType.IMPORT,
+                    originComparisonRequest.getLocale())
+                .collectMap(Tuple2::getT1, Tuple2::getT2),
+            this.dutyMeasureService.getTariffsAndTaxesMeasuresInBatch(
+                dutyMeasuresByOriginCountry, TradeType.IMPORT, originComparisonRequest.getLocale()))
+        .flatMap(
+            restrictiveMeasuresAndDuties ->
+                Flux.fromIterable(originComparisonRequest.getOriginCountries())
+                    .concatMap(
+                        originCountry ->
+                            this.prohibitionContentService
+                                .getProhibitions(
+                                    restrictiveMeasuresByOriginCountry.get(originCountry),
+                                    originCountry,
+                                    originComparisonRequest.getLocale(),
+                                    TradeType.IMPORT)
+                                .map(
+                                    prohibitions ->
+                                        Tuples.of(
+                                            originCountry,
+                                            toOriginComparison(
+                                                restrictiveMeasuresAndDuties
+                                                    .getT1()
+                                                    .get(originCountry),
+                                                prohibitions,
+                                                restrictiveMeasuresAndDuties
+                                                    .getT2()
+                                                    .get(originCountry)))))
+                    .collectMap(Tuple2::getT1, Tuple2::getT2, LinkedHashMap::new));
+  }
+
+  private OriginComparison toOriginComparison(
+      List<RestrictiveMeasure> restrictiveMeasures,
+      List<? extends RestrictiveMeasure> prohibitions,
+      List<Duty> duties) {
+    List<RestrictiveMeasure> measures = new ArrayList<>(restrictiveMeasures);
+    measures.addAll(prohibitions);
+    return OriginComparison.builder()
+        .measures(measures)
+        .tariffAndTaxes(TariffAndTaxes.builder().duties(duties).build())
+        .build();
+  }
+}
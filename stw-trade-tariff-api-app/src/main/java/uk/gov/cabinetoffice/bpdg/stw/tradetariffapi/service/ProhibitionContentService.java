@@ -18,7 +18,6 @@ import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.MeasureFilterC
 import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.MeasureFilterConstantsConfig.MEASURE_TYPE_SERIES_ID_B;
 
 import java.util.List;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
@@ -27,7 +26,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 import reactor.util.function.Tuple2;
 import reactor.util.function.Tuples;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.ProhibitionDescription;
@@ -43,12 +41,15 @@ import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
 public class ProhibitionContentService {
 
   private final ProhibitionContentRepository prohibitionContentRepository;
-  private Mono<List<ProhibitionDescription>> prohibitionDescriptions;
+  private volatile ProhibitionDescriptionIndex prohibitionDescriptionIndex =
+      ProhibitionDescriptionIndex.of(List.of());
 
   @PostConstruct
   public void initializeProhibitionContent() {
-    prohibitionDescriptions =
-        prohibitionContentRepository.findAll().collectList().subscribeOn(Schedulers.single());
+    // the content is read and indexed once at startup, so lookups never wait on the repository
+    List<ProhibitionDescription> prohibitionDescriptions =
+        prohibitionContentRepository.findAll().collectList().block();
+    prohibitionDescriptionIndex = ProhibitionDescriptionIndex.of(prohibitionDescriptions);
   }
 
   public Mono<List<Prohibition>> getProhibitions(
@@ -56,34 +57,18 @@ public class ProhibitionContentService {
       final String originCountry,
       final Locale locale,
       TradeType tradeType) {
-    Mono<Tuple2<List<Measure>, List<ProhibitionDescription>>>
-        measureAndProhibitionDescriptionTuple2Mono =
-            Mono.zip(
-                Mono.just(
-                    restrictedMeasures.stream()
-                        .filter(this::filterProhibitiveMeasures)
-                        .collect(Collectors.toList())),
-                prohibitionDescriptions);
-
-    return measureAndProhibitionDescriptionTuple2Mono.flatMap(
-        measureAndProhibitionDescriptionTuple2 -> {
-          var prohibitedMeasures = measureAndProhibitionDescriptionTuple2.getT1();
-          var prohibitionDescriptions = measureAndProhibitionDescriptionTuple2.getT2();
-          return Mono.just(
-              prohibitedMeasures.stream()
-                  .map(
-                      measure ->
-                          Tuples.of(
-                              measure,
-                              this.getProhibitionDescription(
-                                  measure,
-                                  prohibitionDescriptions,
-                                  originCountry,
-                                  locale,
-                                  tradeType)))
-                  .map(this::prohibition)
-                  .collect(Collectors.toList()));
-        });
+    return Mono.fromSupplier(
+        () ->
+            restrictedMeasures.stream()
+                .filter(this::filterProhibitiveMeasures)
+                .map(
+                    measure ->
+                        Tuples.of(
+                            measure,
+                            this.getProhibitionDescription(
+                                measure, originCountry, locale, tradeType)))
+                .map(this::prohibition)
+                .collect(Collectors.toList()));
   }
 
   private Prohibition prohibition(
@@ -108,55 +93,17 @@ public class ProhibitionContentService {
   }
 
   private ProhibitionDescription getProhibitionDescription(
-      Measure measure,
-      List<ProhibitionDescription> prohibitionDescriptions,
-      String originCountry,
-      Locale locale,
-      TradeType tradeType) {
-    return StringUtils.isBlank(measure.getLegalActId())
-        ? defaultProhibitionDescription(originCountry, null)
-        : prohibitionDescription(
-            prohibitionDescriptions, originCountry, locale, measure.getLegalActId(), tradeType);
-  }
-
-  private ProhibitionDescription prohibitionDescription(
-      List<ProhibitionDescription> prohibitionDescriptions,
-      String originCountry,
-      Locale locale,
-      String legalAct,
-      TradeType tradeType) {
-    List<ProhibitionDescription> prohibitionDescriptionsByTradeType =
-        prohibitionDescriptions.stream()
-            .filter(
-                prohibitionDescription ->
-                    prohibitionDescription.getApplicableTradeTypes().contains(tradeType))
-            .collect(Collectors.toList());
-    return prohibitionDescriptionsByTradeType.stream()
-        .filter(byOriginCountryAndLocaleAndLegalAct(originCountry, locale, legalAct))
-        .findFirst()
-        .orElse(
-            prohibitionDescriptionsByTradeType.stream()
-                .filter(byLocaleAndLegalAct(locale, legalAct))
-                .findFirst()
-                .orElse(defaultProhibitionDescription(originCountry, legalAct)));
+      Measure measure, String originCountry, Locale locale, TradeType tradeType) {
+    if (StringUtils.isBlank(measure.getLegalActId())) {
+      return defaultProhibitionDescription(originCountry, null);
+    }
+    return prohibitionDescriptionIndex
+        .find(tradeType, locale, measure.getLegalActId(), originCountry)
+        .orElseGet(() -> defaultProhibitionDescription(originCountry, measure.getLegalActId()));
   }
 
   private ProhibitionDescription defaultProhibitionDescription(
       String originCountry, String legalAct) {
     return ProhibitionDescription.builder().legalAct(legalAct).originCountry(originCountry).build();
   }
-
-  private Predicate<ProhibitionDescription> byLocaleAndLegalAct(Locale locale, String legalAct) {
-    return (ProhibitionDescription prohibitionDescription) ->
-        prohibitionDescription.getLegalAct().contains(legalAct)
-            && prohibitionDescription.getLocale().equals(locale);
-  }
-
-  private Predicate<ProhibitionDescription> byOriginCountryAndLocaleAndLegalAct(
-      String originCountry, Locale locale, String legalAct) {
-    return (ProhibitionDescription prohibitionDescription) ->
-        prohibitionDescription.getLegalAct().contains(legalAct)
-            && originCountry.equals(prohibitionDescription.getOriginCountry())
-            && prohibitionDescription.getLocale().equals(locale);
-  }
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import lombok.Value;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.ProhibitionDescription;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+
+/**
+ * Lookups over the prohibition descriptions, built once when the content is loaded.
+ *
+ * <p>Descriptions are found by trade type, locale, legal act and origin country, falling back to
+ * the first description for the trade type, locale and legal act of any origin country. As with
+ * the scans this replaces, the first matching description wins. A description may name several
+ * legal acts separated by commas or whitespace.
+ */
+final class ProhibitionDescriptionIndex {
+
+  private static final Pattern LEGAL_ACT_SEPARATOR = Pattern.compile("[,\\s]+");
+
+  private final Map<Key, ProhibitionDescription> byOriginCountry = new HashMap<>();
+  private final Map<Key, ProhibitionDescription> byLegalAct = new HashMap<>();
+
+  private ProhibitionDescriptionIndex(List<ProhibitionDescription> prohibitionDescriptions) {
+    for (ProhibitionDescription prohibitionDescription : prohibitionDescriptions) {
+      if (prohibitionDescription.getLegalAct() == null
+          || prohibitionDescription.getApplicableTradeTypes() == null) {
+        continue;
+      }
+      for (TradeType tradeType : prohibitionDescription.getApplicableTradeTypes()) {
+        for (String legalAct :
+            LEGAL_ACT_SEPARATOR.split(prohibitionDescription.getLegalAct().trim())) {
+          Key key = Key.of(tradeType, prohibitionDescription.getLocale(), legalAct, null);
+          byLegalAct.putIfAbsent(key, prohibitionDescription);
+          if (prohibitionDescription.getOriginCountry() != null) {
+            byOriginCountry.putIfAbsent(
+                key.withOriginCountry(prohibitionDescription.getOriginCountry()),
+                prohibitionDescription);
+          }
+        }
+      }
+    }
+  }
+
+  static ProhibitionDescriptionIndex of(List<ProhibitionDescription> prohibitionDescriptions) {
+    return new ProhibitionDescriptionIndex(prohibitionDescriptions);
+  }
+
+  Optional<ProhibitionDescription> find(
+      TradeType tradeType, Locale locale, String legalAct, String originCountry) {
+    Key key = Key.of(tradeType, locale, legalAct, null);
+    return Optional.ofNullable(byOriginCountry.get(key.withOriginCountry(originCountry)))
+        .or(() -> Optional.ofNullable(byLegalAct.get(key)));
+  }
+
+  @Value(staticConstructor = "of")
+  private static class Key {
+    TradeType tradeType;
+    Locale locale;
+    String legalAct;
+    String originCountry;
+
+    Key withOriginCountry(String originCountry) {
+      return Key.of(tradeType, locale, legalAct, originCountry);
+    }
+  }
+}
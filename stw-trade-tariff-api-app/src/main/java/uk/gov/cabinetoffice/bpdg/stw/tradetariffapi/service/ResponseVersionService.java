@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.info.BuildProperties;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.TariffDayExpiry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.HttpCachingProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.snapshot.SnapshotDocumentCodeDescriptionRepository;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.snapshot.SnapshotMeasureTypeDescriptionRepository;
+
+/**
+ * Works out the version of responses as a fingerprint of the build of the service, the versions of
+ * the measures of the commodities and the content snapshots they are built from. Responses to the
+ * same request with the same version are the same, so the version can be used as a strong ETag.
+ */
+@Service
+public class ResponseVersionService {
+
+  private static final String NO_COMMODITY = "-";
+  // the content api is called for every request, so its descriptions have no version
+  private static final String NO_SNAPSHOT = "-";
+  private static final String UNKNOWN_BUILD = "unknown";
+
+  private final SnapshotMeasureTypeDescriptionRepository measureTypeDescriptionRepository;
+  private final SnapshotDocumentCodeDescriptionRepository documentCodeDescriptionRepository;
+  private final String buildVersion;
+  private final TariffDayExpiry<?, ?> tariffDayExpiry;
+
+  @Autowired
+  public ResponseVersionService(
+      SnapshotMeasureTypeDescriptionRepository measureTypeDescriptionRepository,
+      SnapshotDocumentCodeDescriptionRepository documentCodeDescriptionRepository,
+      ObjectProvider<BuildProperties> buildProperties,
+      HttpCachingProperties httpCachingProperties) {
+    this(
+        measureTypeDescriptionRepository,
+        documentCodeDescriptionRepository,
+        buildProperties,
+        Clock.system(ZoneId.of(httpCachingProperties.getTariffDayZone())));
+  }
+
+  ResponseVersionService(
+      SnapshotMeasureTypeDescriptionRepository measureTypeDescriptionRepository,
+      SnapshotDocumentCodeDescriptionRepository documentCodeDescriptionRepository,
+      ObjectProvider<BuildProperties> buildProperties,
+      Clock clock) {
+    this.measureTypeDescriptionRepository = measureTypeDescriptionRepository;
+    this.documentCodeDescriptionRepository = documentCodeDescriptionRepository;
+    // the build time tells apart builds of the same snapshot version
+    BuildProperties build = buildProperties.getIfAvailable();
+    this.buildVersion = build == null ? UNKNOWN_BUILD : build.getVersion() + "@" + build.getTime();
+    this.tariffDayExpiry = new TariffDayExpiry<>(clock);
+  }
+
+  /** Gets the version of responses built from measures with the given fingerprints, if any. */
+  public String getVersion(Collection<String> commodityVersions) {
+    return version(
+        commodityVersions.isEmpty()
+            ? NO_COMMODITY
+            : commodityVersions.stream().sorted().collect(Collectors.joining(",")));
+  }
+
+  /** Gets the version of responses which are not built from any commodity. */
+  public String getVersion() {
+    return version(NO_COMMODITY);
+  }
+
+  /** Gets how long a response may be cached for, which is until the next tariff day. */
+  public Duration getTimeToLive() {
+    return tariffDayExpiry.timeUntilNextTariffDay();
+  }
+
+  private String version(String commodityVersions) {
+    String versions =
+        String.join(
+            "|",
+            buildVersion,
+            commodityVersions,
+            measureTypeDescriptionRepository.getVersion().orElse(NO_SNAPSHOT),
+            documentCodeDescriptionRepository.getVersion().orElse(NO_SNAPSHOT));
+    return DigestUtils.md5DigestAsHex(versions.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -20,11 +20,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TariffAndTaxes;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
-import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureBuilder;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.TariffAndTaxesRequest;
 
 @Service
@@ -32,31 +31,41 @@ import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.TariffAndTaxe
 @AllArgsConstructor(onConstructor_ = {@Autowired})
 public class TariffAndTaxesService {
 
-  private final TradeTariffApiGateway tradeTariffApiGateway;
+  private final MeasureViewService measureViewService;
   private final MeasureFilterer measureFilterer;
-  private final MeasureBuilder measureBuilder;
   private final DutyMeasureService dutyMeasureService;
 
   public Mono<TariffAndTaxes> getTariffAndTaxes(TariffAndTaxesRequest tariffAndTaxesRequest) {
 
     if (tariffAndTaxesRequest.getDestinationCountry() == UkCountry.XI) {
-      return Mono.just(TariffAndTaxes.builder().duties(List.of()).build());
+      return Mono.just(noDuties());
     }
-    return this.tradeTariffApiGateway
-        .getCommodity(
+    return this.measureViewService
+        .getMeasureView(
             tariffAndTaxesRequest.getCommodityCode(),
             tariffAndTaxesRequest.getImportDate(),
             tariffAndTaxesRequest.getDestinationCountry())
-        .flatMap(response -> handleMeasures(response, tariffAndTaxesRequest));
+        .flatMap(measureView -> handleMeasures(measureView, tariffAndTaxesRequest));
+  }
+
+  /** Gets the tariffs and taxes of a request from the measure view of its commodity. */
+  Mono<TariffAndTaxes> getTariffAndTaxes(
+      MeasureView measureView, TariffAndTaxesRequest tariffAndTaxesRequest) {
+    if (tariffAndTaxesRequest.getDestinationCountry() == UkCountry.XI) {
+      return Mono.just(noDuties());
+    }
+    return handleMeasures(measureView, tariffAndTaxesRequest);
+  }
+
+  private static TariffAndTaxes noDuties() {
+    return TariffAndTaxes.builder().duties(List.of()).build();
   }
 
   private Mono<TariffAndTaxes> handleMeasures(
-      TradeTariffCommodityResponse tradeTariffCommodityResponse,
-      TariffAndTaxesRequest tariffAndTaxesRequest) {
+      MeasureView measureView, TariffAndTaxesRequest tariffAndTaxesRequest) {
     List<Measure> dutyMeasures =
         measureFilterer.getTaxAndDutyMeasures(
-            measureBuilder.from(
-                tradeTariffCommodityResponse, tariffAndTaxesRequest.getCommodityCode()),
+            measureView,
             tariffAndTaxesRequest.getTradeType(),
             tariffAndTaxesRequest.getOriginCountry());
 
@@ -16,7 +16,10 @@
 
 package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
 import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +28,13 @@ import reactor.core.publisher.Mono;
 import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.CommoditiesApiVersion;
 import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.TradeTariffApi;
 import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.CachedCommodity;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.CommodityCacheKey;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.CommodityFreshnessTracker;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.Freshness;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.SingleFlight;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.client.Hedger;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.CommodityCacheProperties;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.ResourceNotFoundException;
 
@@ -34,16 +44,103 @@ import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.ResourceNotFoundEx
 public class TradeTariffApiGateway {
 
   private final TradeTariffApi tradeTariffApi;
+  private final AsyncCache<CommodityCacheKey, CachedCommodity> commodityCache;
+  private final Cache<CommodityCacheKey, CachedCommodity> lastGoodCommodityCache;
+  private final CommodityCacheProperties commodityCacheProperties;
+  private final SingleFlight<CommodityCacheKey, TradeTariffCommodityResponse> singleFlight;
+  private final CommodityFreshnessTracker commodityFreshnessTracker;
+  private final Hedger ottHedger;
 
-  public Mono<TradeTariffCommodityResponse> getCommodity(
+  public Mono<CachedCommodity> getCommodity(
       String commodityCode, LocalDate dateOfTrade, UkCountry apiCountry) {
+    CommodityCacheKey commodityCacheKey =
+        CommodityCacheKey.of(commodityCode, dateOfTrade, apiCountry);
+    if (!commodityCacheProperties.isEnable()) {
+      return singleFlight
+          .execute(commodityCacheKey, this::fetchCommodity)
+          .map(commodity -> CachedCommodity.of(commodity, commodityFreshnessTracker.now(), false));
+    }
+    // concurrent misses for the same key share the future of the first caller; failed lookups
+    // are not cached. A copy is handed to each subscriber so that a cancelled request does not
+    // cancel the shared lookup.
+    return Mono.defer(
+            () ->
+                Mono.fromFuture(
+                    commodityCache
+                        .get(commodityCacheKey, (key, executor) -> fetchAndKeep(key).toFuture())
+                        .copy()))
+        .doOnNext(
+            cachedCommodity -> {
+              if (commodityFreshnessTracker.getFreshness(
+                      cachedCommodity.getFetchedAt(), cachedCommodity.isFallback())
+                  == Freshness.STALE) {
+                refreshInBackground(commodityCacheKey);
+              }
+            })
+        .onErrorResume(
+            error -> !(error instanceof ResourceNotFoundException),
+            error -> fallBack(commodityCacheKey, error));
+  }
+
+  /** Fetches a commodity again and replaces the cached commodity with it. */
+  public Mono<CachedCommodity> refreshCommodity(CommodityCacheKey commodityCacheKey) {
+    return fetchAndKeep(commodityCacheKey)
+        .doOnNext(
+            cachedCommodity -> {
+              if (commodityCacheProperties.isEnable()) {
+                commodityCache.put(
+                    commodityCacheKey, CompletableFuture.completedFuture(cachedCommodity));
+              }
+            });
+  }
+
+  private void refreshInBackground(CommodityCacheKey commodityCacheKey) {
+    refreshCommodity(commodityCacheKey)
+        .subscribe(
+            cachedCommodity -> log.debug("Refreshed commodity {}", commodityCacheKey),
+            error ->
+                log.warn(
+                    "Failed to refresh commodity {}: {}", commodityCacheKey, error.getMessage()));
+  }
+
+  private Mono<CachedCommodity> fetchAndKeep(CommodityCacheKey commodityCacheKey) {
+    return singleFlight
+        .execute(commodityCacheKey, this::fetchCommodity)
+        .map(commodity -> CachedCommodity.of(commodity, commodityFreshnessTracker.now(), false))
+        .doOnNext(
+            cachedCommodity -> lastGoodCommodityCache.put(commodityCacheKey, cachedCommodity));
+  }
+
+  // the last good commodity is only kept for the maximum staleness
+  private Mono<CachedCommodity> fallBack(CommodityCacheKey commodityCacheKey, Throwable error) {
+    CachedCommodity lastGood = lastGoodCommodityCache.getIfPresent(commodityCacheKey);
+    if (lastGood == null) {
+      return Mono.error(error);
+    }
+    log.warn(
+        "Serving commodity {} fetched at {} as fetching it failed: {}",
+        commodityCacheKey,
+        lastGood.getFetchedAt(),
+        error.getMessage());
+    return Mono.just(lastGood.asFallback());
+  }
 
+  private Mono<TradeTariffCommodityResponse> fetchCommodity(CommodityCacheKey commodityCacheKey) {
+    final String commodityCode = commodityCacheKey.getCommodityCode();
     final CommoditiesApiVersion commoditiesApiVersion =
-        apiCountry == UkCountry.GB
+        commodityCacheKey.getUkCountry() == UkCountry.GB
             ? CommoditiesApiVersion.COMMODITIES_GB_V2
             : CommoditiesApiVersion.COMMODITIES_XI_V2;
-    return this.tradeTariffApi
-        .getCommodity(commodityCode, dateOfTrade, commoditiesApiVersion)
+    // named as in the outbound request metrics
+    final String endpoint =
+        commodityCacheKey.getUkCountry() == UkCountry.GB ? "getCommodityGB" : "getCommodityXI";
+    return ottHedger
+        .execute(
+            endpoint,
+            Mono.defer(
+                () ->
+                    this.tradeTariffApi.getCommodity(
+                        commodityCode, commodityCacheKey.getDateOfTrade(), commoditiesApiVersion)))
         .flatMap(
             response -> {
               if (response.resultFound() == null || !response.resultFound()) {
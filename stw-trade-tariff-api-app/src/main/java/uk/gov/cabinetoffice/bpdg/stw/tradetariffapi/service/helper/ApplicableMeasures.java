@@ -0,0 +1,116 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import lombok.Value;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+
+/**
+ * The measures applicable to every partner country of a commodity, computed once when the
+ * measures of the commodity are built so that filtering for any country is a lookup.
+ *
+ * <p>The measures are kept as their positions in the measures of the commodity. Most countries end
+ * up with the same measures, so equal positions share one list, which reads the measures of the
+ * commodity at those positions.
+ */
+public final class ApplicableMeasures {
+
+  public enum Selection {
+    RESTRICTIVE,
+    TAX_AND_DUTY
+  }
+
+  private final Map<Key, List<Measure>> measuresByCountry;
+
+  private ApplicableMeasures(Map<Key, List<Measure>> measuresByCountry) {
+    this.measuresByCountry = measuresByCountry;
+  }
+
+  public static Builder builder(List<Measure> measures) {
+    return new Builder(measures);
+  }
+
+  /** Returns the measures applicable to the country, which are none for an unknown country. */
+  public List<Measure> get(Selection selection, TradeType tradeType, String country) {
+    return measuresByCountry.getOrDefault(Key.of(selection, tradeType, country), List.of());
+  }
+
+  public static final class Builder {
+
+    private final List<Measure> measures;
+    private final Map<Key, List<Measure>> measuresByCountry = new HashMap<>();
+    private final Map<Positions, List<Measure>> distinctResults = new HashMap<>();
+
+    private Builder(List<Measure> measures) {
+      this.measures = measures;
+    }
+
+    /** Puts the measures at the positions, in their order, which must not change afterwards. */
+    public Builder put(Selection selection, TradeType tradeType, String country, int[] positions) {
+      if (positions.length > 0) {
+        measuresByCountry.put(
+            Key.of(selection, tradeType, country),
+            distinctResults.computeIfAbsent(
+                Positions.of(positions), p -> new MeasuresAt(measures, p.getPositions())));
+      }
+      return this;
+    }
+
+    public ApplicableMeasures build() {
+      return new ApplicableMeasures(Map.copyOf(measuresByCountry));
+    }
+  }
+
+  @Value(staticConstructor = "of")
+  private static class Key {
+    Selection selection;
+    TradeType tradeType;
+    String country;
+  }
+
+  @Value(staticConstructor = "of")
+  private static class Positions {
+    int[] positions;
+  }
+
+  private static final class MeasuresAt extends AbstractList<Measure> implements RandomAccess {
+
+    private final List<Measure> measures;
+    private final int[] positions;
+
+    private MeasuresAt(List<Measure> measures, int[] positions) {
+      this.measures = measures;
+      this.positions = positions;
+    }
+
+    @Override
+    public Measure get(int index) {
+      return measures.get(positions[index]);
+    }
+
+    @Override
+    public int size() {
+      return positions.length;
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponseData;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommodityAdditionalCode;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommodityGeographicalArea;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommodityMeasureCondition;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommodityMeasureType;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.DutyExpression;
+
+/**
+ * Id lookups over the entities included in one commodity response, built once so that resolving
+ * the references of every measure does not scan the whole response again.
+ *
+ * <p>When an id occurs more than once the first entity wins, as it did with the linear scans.
+ */
+final class CommodityResponseIndex {
+
+  private final Map<String, CommodityMeasureType> measureTypes;
+  private final Map<String, CommodityGeographicalArea> geographicalAreas;
+  private final Map<String, CommodityMeasureCondition> measureConditions;
+  private final Map<String, CommodityAdditionalCode> additionalCodes;
+  private final Map<String, DutyExpression> dutyRates;
+  private final Map<String, String> additionalCodeOverlays;
+
+  private CommodityResponseIndex(TradeTariffCommodityResponse tradeTariffCommodityResponse) {
+    this.measureTypes =
+        indexById(tradeTariffCommodityResponse.getMeasureTypes(), CommodityMeasureType::getId);
+    this.geographicalAreas =
+        indexById(
+            tradeTariffCommodityResponse.getGeographicalAreas(), CommodityGeographicalArea::getId);
+    this.measureConditions =
+        indexById(
+            tradeTariffCommodityResponse.getMeasureConditions(), CommodityMeasureCondition::getId);
+    this.additionalCodes =
+        indexById(
+            tradeTariffCommodityResponse.getAdditionalCodes(), CommodityAdditionalCode::getId);
+    this.dutyRates = indexById(tradeTariffCommodityResponse.getDutyRates(), DutyExpression::getId);
+    this.additionalCodeOverlays = new HashMap<>();
+    Optional.ofNullable(tradeTariffCommodityResponse.getData())
+        .map(TradeTariffCommodityResponseData::getDutyCalculatorAdditionalCodes)
+        .orElse(List.of())
+        .forEach(
+            overlay ->
+                additionalCodeOverlays.putIfAbsent(overlay.getCode(), overlay.getOverlay()));
+  }
+
+  static CommodityResponseIndex of(TradeTariffCommodityResponse tradeTariffCommodityResponse) {
+    return new CommodityResponseIndex(tradeTariffCommodityResponse);
+  }
+
+  Optional<CommodityMeasureType> findMeasureType(String measureTypeId) {
+    return Optional.ofNullable(measureTypes.get(measureTypeId));
+  }
+
+  Optional<CommodityGeographicalArea> findGeographicalArea(String geographicalAreaId) {
+    return Optional.ofNullable(geographicalAreas.get(geographicalAreaId));
+  }
+
+  Optional<CommodityMeasureCondition> findMeasureCondition(String measureConditionId) {
+    return Optional.ofNullable(measureConditions.get(measureConditionId));
+  }
+
+  Optional<CommodityAdditionalCode> findAdditionalCode(String additionalCodeId) {
+    return Optional.ofNullable(additionalCodes.get(additionalCodeId));
+  }
+
+  Optional<DutyExpression> findDutyRate(String dutyExpressionId) {
+    return Optional.ofNullable(dutyRates.get(dutyExpressionId));
+  }
+
+  Optional<String> findAdditionalCodeOverlay(String additionalCode) {
+    return Optional.ofNullable(additionalCodeOverlays.get(additionalCode));
+  }
+
+  private static <T> Map<String, T> indexById(List<T> entities, Function<T, String> idOf) {
+    Map<String, T> index = new HashMap<>();
+    entities.forEach(entity -> index.putIfAbsent(idOf.apply(entity), entity));
+    return index;
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.GeographicalArea;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+
+/**
+ * The measures of a {@link MeasureView} compiled for filtering by country.
+ *
+ * <p>Every country and geographical area the measures refer to is given a dense id, and the
+ * members and excluded countries of each measure's geographical area are kept as bitsets of those
+ * ids. Measures are selected by trade type, series or measure type as bitsets of their positions
+ * in {@link MeasureView#getMeasures()}, so a filter can narrow the measures with a few word-wide
+ * operations and then check each remaining measure against one country id.
+ */
+public final class CompiledMeasures {
+
+  public static final int UNKNOWN = -1;
+
+  private final Map<String, Integer> countryIds = new HashMap<>();
+  private final int[] geographicalAreaIds;
+  private final BitSet[] memberCountries;
+  private final BitSet[] excludedCountries;
+  private final int[] measureTypeIds;
+  private final Map<TradeType, BitSet> measuresByTradeType = new EnumMap<>(TradeType.class);
+  private final Map<String, BitSet> measuresBySeriesId = new HashMap<>();
+  private final Map<String, BitSet> measuresByMeasureTypeId = new HashMap<>();
+
+  private CompiledMeasures(List<Measure> measures) {
+    int size = measures.size();
+    geographicalAreaIds = new int[size];
+    memberCountries = new BitSet[size];
+    excludedCountries = new BitSet[size];
+    measureTypeIds = new int[size];
+    Map<MeasureType, Integer> distinctMeasureTypes = new HashMap<>();
+    for (int measure = 0; measure < size; measure++) {
+      Measure m = measures.get(measure);
+      GeographicalArea geographicalArea = m.getGeographicalArea();
+      geographicalAreaIds[measure] =
+          geographicalArea == null ? UNKNOWN : internCountry(geographicalArea.getId());
+      memberCountries[measure] =
+          internCountries(
+              geographicalArea == null ? null : geographicalArea.getChildrenGeographicalAreas());
+      excludedCountries[measure] = internCountries(m.getExcludedCountries());
+      measureTypeIds[measure] =
+          m.getMeasureType() == null
+              ? UNKNOWN
+              : distinctMeasureTypes.computeIfAbsent(
+                  m.getMeasureType(), type -> distinctMeasureTypes.size());
+      if (m.getApplicableTradeTypes() != null) {
+        for (TradeType tradeType : m.getApplicableTradeTypes()) {
+          measuresByTradeType.computeIfAbsent(tradeType, t -> new BitSet(size)).set(measure);
+        }
+      }
+      if (m.getMeasureType() != null) {
+        set(measuresBySeriesId, m.getMeasureType().getSeriesId(), measure, size);
+        set(measuresByMeasureTypeId, m.getMeasureType().getId(), measure, size);
+      }
+    }
+  }
+
+  static CompiledMeasures of(List<Measure> measures) {
+    return new CompiledMeasures(measures);
+  }
+
+  /** Returns the ids of all countries and geographical areas the measures refer to. */
+  public Set<String> getCountries() {
+    return Collections.unmodifiableSet(countryIds.keySet());
+  }
+
+  /** Returns the dense id of a country or geographical area, or {@link #UNKNOWN}. */
+  public int countryId(String countryOrGeographicalAreaId) {
+    return countryIds.getOrDefault(countryOrGeographicalAreaId, UNKNOWN);
+  }
+
+  public BitSet measuresOf(TradeType tradeType) {
+    return copy(measuresByTradeType.get(tradeType));
+  }
+
+  public BitSet measuresOfSeries(Collection<String> seriesIds) {
+    return union(measuresBySeriesId, seriesIds);
+  }
+
+  public BitSet measuresOfMeasureTypes(Collection<String> measureTypeIds) {
+    return union(measuresByMeasureTypeId, measureTypeIds);
+  }
+
+  /** Whether the measure is assigned to the geographical area with the given id itself. */
+  public boolean isAssignedTo(int measure, int country) {
+    return country != UNKNOWN && geographicalAreaIds[measure] == country;
+  }
+
+  /** Whether the country is a member of the measure's geographical area and not excluded. */
+  public boolean appliesToMemberCountry(int measure, int country) {
+    return country != UNKNOWN
+        && memberCountries[measure].get(country)
+        && !excludedCountries[measure].get(country);
+  }
+
+  /** Returns an id shared by all measures with an equal measure type, or {@link #UNKNOWN}. */
+  public int measureTypeId(int measure) {
+    return measureTypeIds[measure];
+  }
+
+  private int internCountry(String countryOrGeographicalAreaId) {
+    if (countryOrGeographicalAreaId == null) {
+      return UNKNOWN;
+    }
+    return countryIds.computeIfAbsent(countryOrGeographicalAreaId, id -> countryIds.size());
+  }
+
+  private BitSet internCountries(Set<String> countryOrGeographicalAreaIds) {
+    BitSet countries = new BitSet();
+    if (countryOrGeographicalAreaIds != null) {
+      countryOrGeographicalAreaIds.stream()
+          .mapToInt(this::internCountry)
+          .filter(country -> country != UNKNOWN)
+          .forEach(countries::set);
+    }
+    return countries;
+  }
+
+  private static void set(Map<String, BitSet> measuresByKey, String key, int measure, int size) {
+    if (key != null) {
+      measuresByKey.computeIfAbsent(key, k -> new BitSet(size)).set(measure);
+    }
+  }
+
+  private static BitSet union(Map<String, BitSet> measuresByKey, Collection<String> keys) {
+    BitSet measures = new BitSet();
+    keys.stream().map(measuresByKey::get).filter(bits -> bits != null).forEach(measures::or);
+    return measures;
+  }
+
+  private static BitSet copy(BitSet measures) {
+    return measures == null ? new BitSet() : (BitSet) measures.clone();
+  }
+}
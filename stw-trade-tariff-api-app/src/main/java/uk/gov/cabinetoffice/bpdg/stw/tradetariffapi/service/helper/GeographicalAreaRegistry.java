@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.GeographicalArea;
+
+/**
+ * Process wide registry of the geographical areas of built measures, so that all measures
+ * referring to the same area share one {@link GeographicalArea} and one set of member countries
+ * instead of a copy per measure and request.
+ *
+ * <p>An area is shared as long as the OTT api returns the same description and members for it. An
+ * area which comes back with different members, as it may between the GB and XI tariffs or after
+ * a change upstream, is registered as another variant of that area, and only the most recently
+ * registered variants are kept.
+ */
+@Component
+public class GeographicalAreaRegistry {
+
+  static final int MAX_VARIANTS_PER_AREA = 4;
+
+  private final Map<String, List<GeographicalArea>> geographicalAreas = new ConcurrentHashMap<>();
+
+  public GeographicalArea get(
+      String id, String description, Collection<String> childrenGeographicalAreas) {
+    Collection<String> children =
+        childrenGeographicalAreas == null ? Set.of() : childrenGeographicalAreas;
+    GeographicalArea geographicalArea =
+        find(geographicalAreas.getOrDefault(id, List.of()), description, children);
+    return geographicalArea != null ? geographicalArea : register(id, description, children);
+  }
+
+  int size() {
+    return geographicalAreas.values().stream().mapToInt(List::size).sum();
+  }
+
+  private synchronized GeographicalArea register(
+      String id, String description, Collection<String> children) {
+    List<GeographicalArea> variants = geographicalAreas.getOrDefault(id, List.of());
+    GeographicalArea geographicalArea = find(variants, description, children);
+    if (geographicalArea != null) {
+      return geographicalArea;
+    }
+    geographicalArea =
+        GeographicalArea.builder()
+            .id(id)
+            .description(description)
+            .childrenGeographicalAreas(children)
+            .build();
+    List<GeographicalArea> updatedVariants = new ArrayList<>(MAX_VARIANTS_PER_AREA);
+    updatedVariants.add(geographicalArea);
+    variants.stream().limit(MAX_VARIANTS_PER_AREA - 1L).forEach(updatedVariants::add);
+    geographicalAreas.put(id, List.copyOf(updatedVariants));
+    return geographicalArea;
+  }
+
+  private static GeographicalArea find(
+      List<GeographicalArea> variants, String description, Collection<String> children) {
+    for (GeographicalArea variant : variants) {
+      if (Objects.equals(variant.getDescription(), description)
+          && hasMembers(variant, children)) {
+        return variant;
+      }
+    }
+    return null;
+  }
+
+  private static boolean hasMembers(GeographicalArea variant, Collection<String> children) {
+    Set<String> members = variant.getChildrenGeographicalAreas();
+    if (children.size() < members.size() || !members.containsAll(children)) {
+      return false;
+    }
+    // any other collection than a set may repeat a member, so its size alone doesn't tell whether
+    // it covers all members
+    return children instanceof Set
+        ? members.size() == children.size()
+        : members.equals(Set.copyOf(children));
+  }
+}
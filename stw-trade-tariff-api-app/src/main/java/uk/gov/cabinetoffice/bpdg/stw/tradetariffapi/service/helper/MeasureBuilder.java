@@ -14,21 +14,17 @@
 
 package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponseData.DutyCalculatorAdditionalCode;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommodityAdditionalCode;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommodityGeographicalArea;
 import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommodityMeasure;
 import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommodityMeasureCondition;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommodityMeasureType;
 import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.DutyExpression;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.AdditionalCode;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.DocumentaryMeasureCondition;
@@ -45,10 +41,14 @@ import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.WeightOrVolumeOrUnitB
 
 @Component
 @Slf4j
+@AllArgsConstructor(onConstructor_ = {@Autowired})
 public class MeasureBuilder {
 
+  private final GeographicalAreaRegistry geographicalAreaRegistry;
+
   public List<Measure> from(
       TradeTariffCommodityResponse tradeTariffCommodityResponse, String commodityCode) {
+    CommodityResponseIndex index = CommodityResponseIndex.of(tradeTariffCommodityResponse);
     return tradeTariffCommodityResponse.getMeasures().stream()
         .filter(m -> m.isImport() || m.isExport())
         .map(
@@ -56,23 +56,13 @@ public class MeasureBuilder {
                 Measure.builder()
                     .id(m.getId())
                     .taxMeasure(m.isVAT() || m.isExcise())
-                    .measureType(findMeasureType(m, tradeTariffCommodityResponse.getMeasureTypes()))
-                    .geographicalArea(
-                        findGeographicalArea(
-                            m, tradeTariffCommodityResponse.getGeographicalAreas(), commodityCode))
-                    .measureConditions(
-                        findMeasureConditions(
-                            m, tradeTariffCommodityResponse.getMeasureConditions()))
+                    .measureType(findMeasureType(m, index))
+                    .geographicalArea(findGeographicalArea(m, index, commodityCode))
+                    .measureConditions(findMeasureConditions(m, index))
                     .excludedCountries(m.getExcludedCountries())
-                    .additionalCode(
-                        maybeFindAdditionalCode(
-                            m,
-                            tradeTariffCommodityResponse.getAdditionalCodes(),
-                            tradeTariffCommodityResponse
-                                .getData()
-                                .getDutyCalculatorAdditionalCodes()))
+                    .additionalCode(maybeFindAdditionalCode(m, index))
                     .legalActId(m.getLegalActId())
-                    .dutyValue(findDutyRate(m, tradeTariffCommodityResponse))
+                    .dutyValue(findDutyRate(m, index))
                     .applicableTradeTypes(
                         m.isImport() && m.isExport()
                             ? List.of(TradeType.IMPORT, TradeType.EXPORT)
@@ -82,33 +72,26 @@ public class MeasureBuilder {
         .collect(Collectors.toList());
   }
 
-  private String findDutyRate(
-      CommodityMeasure m, TradeTariffCommodityResponse tradeTariffCommodityResponse) {
-    Optional<DutyExpression> dutyExpression =
-        tradeTariffCommodityResponse.getDutyRates().stream()
-            .filter(rate -> rate.getId().equals(m.getDutyExpressionId()))
-            .findFirst();
-    return dutyExpression.map(DutyExpression::getBase).orElse(null);
+  private String findDutyRate(CommodityMeasure m, CommodityResponseIndex index) {
+    return index.findDutyRate(m.getDutyExpressionId()).map(DutyExpression::getBase).orElse(null);
   }
 
   private AdditionalCode maybeFindAdditionalCode(
-      CommodityMeasure measure,
-      List<CommodityAdditionalCode> additionalCodes,
-      List<DutyCalculatorAdditionalCode> additionalCodesOverlay) {
+      CommodityMeasure measure, CommodityResponseIndex index) {
 
     AdditionalCode maybeAdditionalCode = null;
 
     if (StringUtils.isNotBlank(measure.getAdditionalCodeId())) {
       maybeAdditionalCode =
-          additionalCodes.stream()
-              .filter(ac -> ac.getId().equals(measure.getAdditionalCodeId()))
-              .findFirst()
+          index
+              .findAdditionalCode(measure.getAdditionalCodeId())
               .map(
                   cac ->
                       AdditionalCode.builder()
                           .code(cac.getCode())
                           .description(
-                              findOverlayIfDefined(cac.getCode(), additionalCodesOverlay)
+                              index
+                                  .findAdditionalCodeOverlay(cac.getCode())
                                   .orElse(cac.getDescription()))
                           .build())
               .orElseThrow(
@@ -122,22 +105,13 @@ public class MeasureBuilder {
     return maybeAdditionalCode;
   }
 
-  private Optional<String> findOverlayIfDefined(
-      String additionalCodeId, List<DutyCalculatorAdditionalCode> additionalCodesOverlay) {
-    return Optional.ofNullable(additionalCodesOverlay).orElse(List.of()).stream()
-        .filter(overlay -> additionalCodeId.equals(overlay.getCode()))
-        .map(DutyCalculatorAdditionalCode::getOverlay)
-        .findFirst();
-  }
-
   private List<MeasureCondition> findMeasureConditions(
-      CommodityMeasure measure, List<CommodityMeasureCondition> measureConditions) {
+      CommodityMeasure measure, CommodityResponseIndex index) {
     return measure.getMeasureConditionIds().stream()
         .map(
             measureConditionId ->
-                measureConditions.stream()
-                    .filter(m -> m.getId().equals(measureConditionId))
-                    .findFirst()
+                index
+                    .findMeasureCondition(measureConditionId)
                     .orElseThrow(
                         () ->
                             new IllegalArgumentException(
@@ -206,10 +180,9 @@ public class MeasureBuilder {
         .build();
   }
 
-  private MeasureType findMeasureType(CommodityMeasure m, List<CommodityMeasureType> measureTypes) {
-    return measureTypes.stream()
-        .filter(measureType -> measureType.getId().equals(m.getMeasureTypeId()))
-        .findFirst()
+  private MeasureType findMeasureType(CommodityMeasure m, CommodityResponseIndex index) {
+    return index
+        .findMeasureType(m.getMeasureTypeId())
         .map(
             tradeTariffMeasureType ->
                 MeasureType.builder()
@@ -224,18 +197,15 @@ public class MeasureBuilder {
   }
 
   private GeographicalArea findGeographicalArea(
-      CommodityMeasure m, List<CommodityGeographicalArea> geographicalAreas, String commodityCode) {
-    return geographicalAreas.stream()
-        .filter(geographicalArea -> geographicalArea.getId().equals(m.getGeographicalAreaId()))
-        .findFirst()
+      CommodityMeasure m, CommodityResponseIndex index, String commodityCode) {
+    return index
+        .findGeographicalArea(m.getGeographicalAreaId())
         .map(
             geographicalArea ->
-                GeographicalArea.builder()
-                    .id(geographicalArea.getId())
-                    .description(geographicalArea.getDescription())
-                    .childrenGeographicalAreas(
-                        new HashSet<>(geographicalArea.getChildrenGeographicalAreas()))
-                    .build())
+                geographicalAreaRegistry.get(
+                    geographicalArea.getId(),
+                    geographicalArea.getDescription(),
+                    geographicalArea.getChildrenGeographicalAreas()))
         .orElseGet(
             () -> {
               log.warn(
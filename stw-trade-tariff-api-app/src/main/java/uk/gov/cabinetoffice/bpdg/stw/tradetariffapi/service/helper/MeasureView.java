@@ -0,0 +1,172 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.util.DigestUtils;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.GeographicalArea;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+
+/**
+ * The measures built from one commodity response, together with lookups by trade type, measure
+ * type series and geographical area derived from them once. A view is immutable, so one view can
+ * be shared by every request for the same commodity.
+ */
+public class MeasureView {
+
+  private final List<Measure> measures;
+  private final Map<TradeType, List<Measure>> measuresByTradeType;
+  private final Map<String, List<Measure>> measuresBySeriesId;
+  private final Map<String, List<Measure>> measuresByGeographicalAreaId;
+  private final CompiledMeasures compiledMeasures;
+  private final ApplicableMeasures applicableMeasures;
+  private final Instant fetchedAt;
+  private final boolean fallback;
+  private volatile String fingerprint;
+
+  private MeasureView(List<Measure> measures) {
+    this.measures = List.copyOf(measures);
+    this.measuresByTradeType = index(this.measures, Measure::getApplicableTradeTypes);
+    this.measuresBySeriesId =
+        index(
+            this.measures,
+            measure ->
+                Optional.ofNullable(measure.getMeasureType())
+                    .map(MeasureType::getSeriesId)
+                    .map(List::of)
+                    .orElse(null));
+    this.measuresByGeographicalAreaId =
+        index(
+            this.measures,
+            measure ->
+                Optional.ofNullable(measure.getGeographicalArea())
+                    .map(GeographicalArea::getId)
+                    .map(List::of)
+                    .orElse(null));
+    this.compiledMeasures = CompiledMeasures.of(this.measures);
+    this.applicableMeasures = null;
+    this.fetchedAt = null;
+    this.fallback = false;
+  }
+
+  private MeasureView(
+      MeasureView measureView,
+      ApplicableMeasures applicableMeasures,
+      Instant fetchedAt,
+      boolean fallback) {
+    this.measures = measureView.measures;
+    this.measuresByTradeType = measureView.measuresByTradeType;
+    this.measuresBySeriesId = measureView.measuresBySeriesId;
+    this.measuresByGeographicalAreaId = measureView.measuresByGeographicalAreaId;
+    this.compiledMeasures = measureView.compiledMeasures;
+    this.applicableMeasures = applicableMeasures;
+    this.fetchedAt = fetchedAt;
+    this.fallback = fallback;
+    this.fingerprint = measureView.fingerprint;
+  }
+
+  public static MeasureView of(List<Measure> measures) {
+    return new MeasureView(measures);
+  }
+
+  public List<Measure> getMeasures() {
+    return measures;
+  }
+
+  public List<Measure> getMeasures(TradeType tradeType) {
+    return measuresByTradeType.getOrDefault(tradeType, List.of());
+  }
+
+  public List<Measure> getMeasuresOfSeries(String seriesId) {
+    return measuresBySeriesId.getOrDefault(seriesId, List.of());
+  }
+
+  public List<Measure> getMeasuresForGeographicalArea(String geographicalAreaId) {
+    return measuresByGeographicalAreaId.getOrDefault(geographicalAreaId, List.of());
+  }
+
+  public CompiledMeasures getCompiledMeasures() {
+    return compiledMeasures;
+  }
+
+  /**
+   * Returns a fingerprint of the measures, which is the same for views built from equal measures
+   * on any instance of the service. It is an md5 digest of the string form of the measures, which
+   * names enums rather than hashing them, worked out on first use.
+   */
+  public String getFingerprint() {
+    String result = fingerprint;
+    if (result == null) {
+      result = DigestUtils.md5DigestAsHex(measures.toString().getBytes(StandardCharsets.UTF_8));
+      fingerprint = result;
+    }
+    return result;
+  }
+
+  /** Returns the measures precomputed for every partner country, if they were precomputed. */
+  public Optional<ApplicableMeasures> getApplicableMeasures() {
+    return Optional.ofNullable(applicableMeasures);
+  }
+
+  public MeasureView withApplicableMeasures(ApplicableMeasures applicableMeasures) {
+    return new MeasureView(this, applicableMeasures, fetchedAt, fallback);
+  }
+
+  /** Returns when the commodity the measures were built from was fetched, if known. */
+  public Optional<Instant> getFetchedAt() {
+    return Optional.ofNullable(fetchedAt);
+  }
+
+  /** Returns whether the measures were built from a commodity served for a failed lookup. */
+  public boolean isFallback() {
+    return fallback;
+  }
+
+  public MeasureView withFetchedAt(Instant fetchedAt, boolean fallback) {
+    return new MeasureView(this, applicableMeasures, fetchedAt, fallback);
+  }
+
+  // keeps the order of the measures within each key
+  private static <K> Map<K, List<Measure>> index(
+      List<Measure> measures, Function<Measure, Collection<K>> keys) {
+    Map<K, List<Measure>> index = new HashMap<>();
+    for (Measure measure : measures) {
+      Collection<K> measureKeys = keys.apply(measure);
+      if (measureKeys == null) {
+        continue;
+      }
+      for (K key : measureKeys) {
+        if (key != null) {
+          index.computeIfAbsent(key, k -> new ArrayList<>()).add(measure);
+        }
+      }
+    }
+    index.replaceAll((key, keyMeasures) -> Collections.unmodifiableList(keyMeasures));
+    return Collections.unmodifiableMap(index);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.measureoptions;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.DocumentCodeDescription;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.DocumentaryMeasureCondition;
+
+/**
+ * Document code descriptions fetched up front for all measures of a request. It is made available
+ * to the measure option handlers through the reactor context under {@link #CONTEXT_KEY} so that
+ * they don't need to call the content API for every measure condition.
+ */
+public class DocumentCodeDescriptionLookup {
+
+  public static final Class<DocumentCodeDescriptionLookup> CONTEXT_KEY =
+      DocumentCodeDescriptionLookup.class;
+
+  private final Set<String> requestedDocumentCodes;
+  private final Map<String, DocumentCodeDescription> documentCodeDescriptions;
+
+  public DocumentCodeDescriptionLookup(
+      Set<String> requestedDocumentCodes,
+      Map<String, DocumentCodeDescription> documentCodeDescriptions) {
+    this.requestedDocumentCodes = Set.copyOf(requestedDocumentCodes);
+    this.documentCodeDescriptions = Map.copyOf(documentCodeDescriptions);
+  }
+
+  public boolean covers(List<DocumentaryMeasureCondition> measureConditions) {
+    return measureConditions.stream()
+        .map(DocumentaryMeasureCondition::getDocumentCode)
+        .allMatch(requestedDocumentCodes::contains);
+  }
+
+  /**
+   * Returns the description for each measure condition, falling back to the description from the
+   * trade tariff when none has been configured for its document code.
+   */
+  public List<DocumentCodeDescription> getDocumentCodeDescriptions(
+      List<DocumentaryMeasureCondition> measureConditions) {
+    return measureConditions.stream()
+        .map(
+            mc ->
+                documentCodeDescriptions.getOrDefault(
+                    mc.getDocumentCode(),
+                    DocumentCodeDescription.builder()
+                        .documentCode(mc.getDocumentCode())
+                        .descriptionOverlay(mc.getDescription())
+                        .build()))
+        .collect(Collectors.toList());
+  }
+}
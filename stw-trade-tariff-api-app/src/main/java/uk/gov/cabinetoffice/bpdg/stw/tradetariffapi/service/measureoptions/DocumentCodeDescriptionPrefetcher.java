@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.measureoptions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.DocumentCodeDescription;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.repository.DocumentCodeDescriptionRepository;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.DocumentaryMeasureCondition;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+
+@Component
+@AllArgsConstructor
+public class DocumentCodeDescriptionPrefetcher {
+
+  // keeps the content api query string well below common URL length limits
+  static final int MAX_DOCUMENT_CODES_PER_CALL = 50;
+
+  private final DocumentCodeDescriptionRepository documentCodeDescriptionRepository;
+
+  public Mono<DocumentCodeDescriptionLookup> prefetch(
+      List<Measure> measures, TradeType tradeType, Locale locale) {
+    Set<String> documentCodes =
+        measures.stream()
+            .flatMap(measure -> measure.getMeasureConditions().stream())
+            .filter(DocumentaryMeasureCondition.class::isInstance)
+            .map(DocumentaryMeasureCondition.class::cast)
+            .map(DocumentaryMeasureCondition::getDocumentCode)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+
+    return Flux.fromIterable(chunked(documentCodes))
+        .concatMap(
+            documentCodesChunk ->
+                documentCodeDescriptionRepository
+                    .findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale(
+                        documentCodesChunk, tradeType, locale))
+        .collect(
+            HashMap<String, DocumentCodeDescription>::new,
+            (documentCodeDescriptions, documentCodeDescription) ->
+                documentCodeDescriptions.putIfAbsent(
+                    documentCodeDescription.getDocumentCode(), documentCodeDescription))
+        .map(
+            documentCodeDescriptions ->
+                new DocumentCodeDescriptionLookup(documentCodes, documentCodeDescriptions));
+  }
+
+  private List<List<String>> chunked(Set<String> documentCodes) {
+    List<List<String>> chunks = new ArrayList<>();
+    List<String> chunk = new ArrayList<>();
+    for (String documentCode : documentCodes) {
+      chunk.add(documentCode);
+      if (chunk.size() == MAX_DOCUMENT_CODES_PER_CALL) {
+        chunks.add(chunk);
+        chunk = new ArrayList<>();
+      }
+    }
+    if (!chunk.isEmpty()) {
+      chunks.add(chunk);
+    }
+    return chunks;
+  }
+}
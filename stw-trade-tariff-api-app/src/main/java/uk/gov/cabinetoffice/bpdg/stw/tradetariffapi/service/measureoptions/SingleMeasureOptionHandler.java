@@ -176,6 +176,19 @@ public class SingleMeasureOptionHandler {
 
   protected Mono<List<DocumentCodeDescription>> getDocumentCodeDescriptions(
       List<DocumentaryMeasureCondition> measureConditions, TradeType tradeType, Locale locale) {
+    return Mono.deferContextual(
+        context ->
+            context
+                .<DocumentCodeDescriptionLookup>getOrEmpty(
+                    DocumentCodeDescriptionLookup.CONTEXT_KEY)
+                .filter(lookup -> lookup.covers(measureConditions))
+                .map(lookup -> Mono.just(lookup.getDocumentCodeDescriptions(measureConditions)))
+                .orElseGet(
+                    () -> fetchDocumentCodeDescriptions(measureConditions, tradeType, locale)));
+  }
+
+  private Mono<List<DocumentCodeDescription>> fetchDocumentCodeDescriptions(
+      List<DocumentaryMeasureCondition> measureConditions, TradeType tradeType, Locale locale) {
     return documentCodeDescriptionRepository
         .findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale(
             measureConditions.stream()
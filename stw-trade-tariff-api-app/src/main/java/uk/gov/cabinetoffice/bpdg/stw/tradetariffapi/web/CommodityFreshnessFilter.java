@@ -0,0 +1,63 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedFreshness;
+
+/**
+ * Tells clients how fresh the commodity data of a response is. Responses built from commodities
+ * carry the freshness of the stalest commodity and the age in seconds of the oldest one.
+ */
+@Component
+@Order(ResponseCacheFilter.ORDER - 1)
+public class CommodityFreshnessFilter implements WebFilter {
+
+  public static final String FRESHNESS_HEADER = "X-Commodity-Freshness";
+  public static final String AGE_HEADER = "X-Commodity-Age";
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange serverWebExchange, WebFilterChain webFilterChain) {
+    final ServedFreshness servedFreshness = new ServedFreshness();
+    serverWebExchange.getAttributes().put(ServedFreshness.ATTRIBUTE, servedFreshness);
+    serverWebExchange
+        .getResponse()
+        .beforeCommit(
+            () -> {
+              final HttpHeaders headers = serverWebExchange.getResponse().getHeaders();
+              servedFreshness
+                  .getFreshness()
+                  .ifPresent(
+                      freshness -> {
+                        headers.set(FRESHNESS_HEADER, freshness.getValue());
+                        headers.set(
+                            AGE_HEADER, String.valueOf(servedFreshness.getAge().toSeconds()));
+                      });
+              return Mono.empty();
+            });
+    return webFilterChain
+        .filter(serverWebExchange)
+        .contextWrite(Context.of(ServedFreshness.class, servedFreshness));
+  }
+}
@@ -18,6 +18,7 @@ import java.util.Objects;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
@@ -30,6 +31,7 @@ import uk.gov.cabinetoffice.bpdg.stw.monitoring.prometheus.metrics.application.R
 
 @Component
 @Slf4j
+@Order(ResponseCacheFilter.ORDER - 1)
 public class MetricRecordingFilter implements WebFilter {
 
   private final InboundRequestMetrics inboundRequestMetrics;
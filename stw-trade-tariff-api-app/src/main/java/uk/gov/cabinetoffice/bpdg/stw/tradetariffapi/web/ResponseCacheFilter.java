@@ -0,0 +1,280 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web;
+
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.CommodityHelper.tidyCommodityCode;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.EncodedResponse;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedFreshness;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedVersions;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ResponseCacheProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.ResponseVersionService;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.time.Clock;
+
+/**
+ * Serves the encoded json of responses to repeated GET requests from memory, so neither the
+ * measures nor the json of a response are built again for the same request. Requests are
+ * normalised before they are looked up, so defaulted and explicit parameters share a response, and
+ * responses are kept for the content snapshots they were built from until the next tariff day, or
+ * until the commodities they were built from are due to be refreshed if that is sooner.
+ */
+@Component
+@Slf4j
+@Order(ResponseCacheFilter.ORDER)
+@ConditionalOnProperty(value = "stw.response-cache.enable", havingValue = "true")
+public class ResponseCacheFilter implements WebFilter {
+
+  // runs after every other filter, so cached responses are still recorded by the metrics
+  public static final int ORDER = Ordered.LOWEST_PRECEDENCE;
+
+  private static final String COMMODITY_CODE = "commodityCode";
+  private static final String LOCALE = "locale";
+  // parameters converted to enums regardless of their case
+  private static final Set<String> ENUM_PARAMETERS = Set.of(LOCALE, "tradeType");
+
+  private final Cache<String, EncodedResponse> responseCache;
+  private final ResponseCacheProperties responseCacheProperties;
+  private final ResponseVersionService responseVersionService;
+  private final Clock clock;
+  private final List<CachedPathPattern> pathPatterns;
+
+  @Autowired
+  public ResponseCacheFilter(
+      Cache<String, EncodedResponse> responseCache,
+      ResponseCacheProperties responseCacheProperties,
+      ResponseVersionService responseVersionService,
+      Clock clock) {
+    this.responseCache = responseCache;
+    this.responseCacheProperties = responseCacheProperties;
+    this.responseVersionService = responseVersionService;
+    this.clock = clock;
+    this.pathPatterns =
+        responseCacheProperties.getPaths().stream()
+            .map(
+                path ->
+                    CachedPathPattern.of(
+                        PathPatternParser.defaultInstance.parse(path.getPattern()),
+                        path.getDateParameter()))
+            .collect(Collectors.toList());
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange serverWebExchange, WebFilterChain webFilterChain) {
+    final ServerHttpRequest request = serverWebExchange.getRequest();
+    if (request.getMethod() != HttpMethod.GET) {
+      return webFilterChain.filter(serverWebExchange);
+    }
+    final Optional<String> cacheKey = getCacheKey(request);
+    if (cacheKey.isEmpty()) {
+      return webFilterChain.filter(serverWebExchange);
+    }
+    final EncodedResponse cachedResponse = responseCache.getIfPresent(cacheKey.get());
+    if (cachedResponse != null) {
+      log.debug("Serving cached response of {}", cacheKey.get());
+      return writeCachedResponse(serverWebExchange, cacheKey.get(), cachedResponse);
+    }
+    return webFilterChain.filter(
+        serverWebExchange
+            .mutate()
+            .response(
+                new CachingResponse(
+                    serverWebExchange.getResponse(),
+                    cacheKey.get(),
+                    serverWebExchange.getAttributes()))
+            .build());
+  }
+
+  private Optional<String> getCacheKey(ServerHttpRequest request) {
+    final PathContainer path = request.getPath().pathWithinApplication();
+    for (CachedPathPattern pathPattern : pathPatterns) {
+      final PathPattern.PathMatchInfo pathMatchInfo =
+          pathPattern.getPathPattern().matchAndExtract(path);
+      if (pathMatchInfo != null) {
+        return Optional.of(getCacheKey(pathPattern, pathMatchInfo, request));
+      }
+    }
+    return Optional.empty();
+  }
+
+  private String getCacheKey(
+      CachedPathPattern pathPattern,
+      PathPattern.PathMatchInfo pathMatchInfo,
+      ServerHttpRequest request) {
+    final Map<String, String> uriVariables = new TreeMap<>(pathMatchInfo.getUriVariables());
+    uriVariables.computeIfPresent(COMMODITY_CODE, (name, code) -> tidyCommodityCode(code));
+
+    final Map<String, List<String>> queryParams = new TreeMap<>(request.getQueryParams());
+    // only the date parameter the controller binds defaults to today, others are left as they are
+    if (pathPattern.getDateParameter() != null) {
+      queryParams.putIfAbsent(
+          pathPattern.getDateParameter(), List.of(clock.currentLocalDate().toString()));
+    }
+    queryParams.putIfAbsent(LOCALE, List.of(Locale.EN.name()));
+    ENUM_PARAMETERS.forEach(
+        name ->
+            queryParams.computeIfPresent(
+                name,
+                (key, values) ->
+                    values.stream().map(String::toUpperCase).collect(Collectors.toList())));
+
+    // responses depend on the content snapshots as well as on the request
+    return String.join(
+        "|",
+        pathPattern.getPathPattern().getPatternString(),
+        uriVariables.toString(),
+        queryParams.toString(),
+        responseVersionService.getVersion());
+  }
+
+  private Mono<Void> writeCachedResponse(
+      ServerWebExchange serverWebExchange, String cacheKey, EncodedResponse cachedResponse) {
+    final ServerHttpResponse response = serverWebExchange.getResponse();
+    final HttpHeaders headers = response.getHeaders();
+    if (cachedResponse.getETag().isPresent()) {
+      headers.setETag(cachedResponse.getETag().get());
+      // clients may keep the response for as long as it is kept here
+      final Duration maxAge =
+          responseCache
+              .policy()
+              .expireVariably()
+              .flatMap(expiration -> expiration.getExpiresAfter(cacheKey))
+              .orElseGet(responseVersionService::getTimeToLive);
+      headers.setCacheControl(CacheControl.maxAge(maxAge).cachePublic());
+      if (serverWebExchange.checkNotModified(cachedResponse.getETag().get())) {
+        return response.setComplete();
+      }
+    }
+
+    final byte[] body;
+    if (!cachedResponse.isCompressed()) {
+      body = cachedResponse.getBody();
+    } else if (acceptsGzip(serverWebExchange.getRequest())) {
+      headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+      headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+      body = cachedResponse.getBody();
+    } else {
+      headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+      body = cachedResponse.getJson();
+    }
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    headers.setContentLength(body.length);
+    return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body)));
+  }
+
+  private static boolean acceptsGzip(ServerHttpRequest request) {
+    return request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING).stream()
+        .anyMatch(acceptEncoding -> acceptEncoding.contains("gzip"));
+  }
+
+  /**
+   * Keeps the encoded json of successful responses built from fresh commodities and complete
+   * content. What a response was built from is only known once it is written, so it is looked up
+   * in the attributes of the exchange then.
+   */
+  private class CachingResponse extends ServerHttpResponseDecorator {
+
+    private final String cacheKey;
+    private final Map<String, Object> attributes;
+
+    CachingResponse(ServerHttpResponse delegate, String cacheKey, Map<String, Object> attributes) {
+      super(delegate);
+      this.cacheKey = cacheKey;
+      this.attributes = attributes;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+      if (!isCacheable()) {
+        return super.writeWith(body);
+      }
+      return DataBufferUtils.join(body)
+          .flatMap(
+              buffer -> {
+                byte[] json = new byte[buffer.readableByteCount()];
+                buffer.read(json);
+                DataBufferUtils.release(buffer);
+                // the commodities are only refreshed once read again after going stale
+                responseCache.put(
+                    cacheKey,
+                    EncodedResponse.of(
+                        json,
+                        getHeaders().getETag(),
+                        responseCacheProperties.isCompress(),
+                        getServedFreshness().flatMap(ServedFreshness::getFreshFor).orElse(null)));
+                return super.writeWith(Mono.just(bufferFactory().wrap(json)));
+              });
+    }
+
+    private boolean isCacheable() {
+      final MediaType contentType = getHeaders().getContentType();
+      final ServedVersions servedVersions =
+          (ServedVersions) attributes.get(ServedVersions.ATTRIBUTE);
+      return (getStatusCode() == null || getStatusCode() == HttpStatus.OK)
+          && contentType != null
+          && MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+          && !getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)
+          // responses built from stale commodities are not kept for the rest of the day
+          && getServedFreshness().map(ServedFreshness::isFresh).orElse(true)
+          // nor are responses which may be missing descriptions
+          && (servedVersions == null || !servedVersions.isMissingContent());
+    }
+
+    private Optional<ServedFreshness> getServedFreshness() {
+      return Optional.ofNullable((ServedFreshness) attributes.get(ServedFreshness.ATTRIBUTE));
+    }
+  }
+
+  @Value(staticConstructor = "of")
+  private static class CachedPathPattern {
+    PathPattern pathPattern;
+    String dateParameter;
+  }
+}
@@ -30,12 +30,14 @@ import javax.validation.constraints.Pattern;
 import org.apache.commons.lang3.ObjectUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
@@ -50,11 +52,16 @@ public class AdditionalCodesController {
 
   private final AdditionalCodesService additionalCodesService;
   private final Clock clock;
+  private final ConditionalResponses conditionalResponses;
 
   @Autowired
-  public AdditionalCodesController(AdditionalCodesService additionalCodesService, Clock clock) {
+  public AdditionalCodesController(
+      AdditionalCodesService additionalCodesService,
+      Clock clock,
+      ConditionalResponses conditionalResponses) {
     this.additionalCodesService = additionalCodesService;
     this.clock = clock;
+    this.conditionalResponses = conditionalResponses;
   }
 
   @GetMapping("/commodities/{commodityCode}/additional-codes")
@@ -73,7 +80,7 @@ public class AdditionalCodesController {
           "Gets additional codes for a given commodity, filtered by trade type and country of origin.",
       description =
           "Gets additional codes for a given commodity, filtered by trade type and country of origin.")
-  public Mono<AdditionalCodesResponse> getAdditionalCodes(
+  public Mono<ResponseEntity<AdditionalCodesResponse>> getAdditionalCodes(
       @Parameter(description = "The code of the commodity", required = true, example = "1006101000")
           @PathVariable("commodityCode")
           @Pattern(regexp = "^\\d{8}|\\d{10}$")
@@ -102,7 +109,8 @@ public class AdditionalCodesController {
       @Parameter(description = "Date of Trade", example = "2021-09-30")
           @DateTimeFormat(pattern = "yyyy-MM-dd")
           @RequestParam(required = false)
-          LocalDate tradeDate) {
+          LocalDate tradeDate,
+      ServerWebExchange exchange) {
     if (tradeType == TradeType.IMPORT
         && Arrays.stream(UkCountry.values())
             .noneMatch(ukCountry -> destinationCountry.equals(ukCountry.name()))) {
@@ -121,13 +129,13 @@ public class AdditionalCodesController {
               format("Origin country %s is not a valid UK country", originCountry)));
     }
 
-    return additionalCodesService
-        .getAdditionalCodes(
-            commodityCode,
-            tradeType,
-            originCountry,
-            destinationCountry,
-            ObjectUtils.firstNonNull(importDate, tradeDate, clock.currentLocalDate()))
-        .map(AdditionalCodesResponse::new);
+    LocalDate dateOfTrade =
+        ObjectUtils.firstNonNull(importDate, tradeDate, clock.currentLocalDate());
+    return conditionalResponses.respond(
+        exchange,
+        additionalCodesService
+            .getAdditionalCodes(
+                commodityCode, tradeType, originCountry, destinationCountry, dateOfTrade)
+            .map(AdditionalCodesResponse::new));
   }
 }
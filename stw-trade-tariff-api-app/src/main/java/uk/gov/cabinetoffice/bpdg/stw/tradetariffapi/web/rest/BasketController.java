@@ -0,0 +1,151 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest;
+
+import static java.lang.String.format;
+import static java.util.Optional.ofNullable;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ApplicationProperties.CONTEXT_ROOT;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.CommodityHelper.tidyCommodityCode;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import javax.validation.Valid;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.BasketProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.BasketLineResult;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.BasketService;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.time.Clock;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.BasketRequest;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.response.BasketLineResponse;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.response.TariffAndTaxesResponse;
+
+@RestController
+@RequestMapping(value = CONTEXT_ROOT)
+@Validated
+@AllArgsConstructor
+public class BasketController {
+
+  private final BasketService basketService;
+  private final BasketProperties basketProperties;
+  private final Clock clock;
+
+  @PostMapping(
+      value = "/v1/basket",
+      produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Measures and duties for each line of a basket.",
+            content =
+                @Content(
+                    mediaType = "application/x-ndjson",
+                    array =
+                        @ArraySchema(schema = @Schema(implementation = BasketLineResponse.class))))
+      })
+  @Operation(
+      summary = "Gets measures and duties for a basket of commodities.",
+      description =
+          "Gets restrictive measures, tariffs and taxes for each line of a basket of commodities"
+              + " traded in the same context. Identical lines are answered once and, when"
+              + " requested as application/x-ndjson, the lines of each commodity are streamed as"
+              + " soon as that commodity is ready. Lines of commodities which could not be found"
+              + " or fetched are answered with an error.")
+  public Flux<BasketLineResponse> getBasket(@Valid @RequestBody BasketRequest basketRequest) {
+    if (basketRequest.getLines().size() > basketProperties.getMaxLines()) {
+      return Flux.error(
+          new ValidationException(
+              "lines",
+              format("A basket can have at most %d lines", basketProperties.getMaxLines())));
+    }
+
+    if (basketRequest.getTradeType() == TradeType.IMPORT
+        && isNotUkCountry(basketRequest.getDestinationCountry())) {
+      return Flux.error(
+          new ValidationException(
+              "destinationCountry",
+              format(
+                  "Destination country %s is not a valid UK country",
+                  basketRequest.getDestinationCountry())));
+    }
+
+    if (basketRequest.getTradeType() == TradeType.EXPORT
+        && isNotUkCountry(basketRequest.getOriginCountry())) {
+      return Flux.error(
+          new ValidationException(
+              "originCountry",
+              format(
+                  "Origin country %s is not a valid UK country",
+                  basketRequest.getOriginCountry())));
+    }
+
+    BasketRequest request =
+        basketRequest.toBuilder()
+            .lines(
+                basketRequest.getLines().stream()
+                    .map(
+                        line ->
+                            line.toBuilder()
+                                .commodityCode(tidyCommodityCode(line.getCommodityCode()))
+                                .build())
+                    .collect(Collectors.toList()))
+            .tradeDate(ofNullable(basketRequest.getTradeDate()).orElse(clock.currentLocalDate()))
+            .locale(ofNullable(basketRequest.getLocale()).orElse(Locale.EN))
+            .build();
+    return this.basketService.getBasket(request).map(this::transformToResponse);
+  }
+
+  private boolean isNotUkCountry(String country) {
+    return Arrays.stream(UkCountry.values())
+        .noneMatch(ukCountry -> country.equals(ukCountry.name()));
+  }
+
+  private BasketLineResponse transformToResponse(BasketLineResult basketLineResult) {
+    if (basketLineResult.getError().isPresent()) {
+      return BasketLineResponse.builder()
+          .commodityCode(basketLineResult.getCommodityCode())
+          .additionalCode(basketLineResult.getAdditionalCode())
+          .error(basketLineResult.getError().get())
+          .build();
+    }
+    TariffAndTaxesResponse tariffAndTaxes =
+        TariffAndTaxesController.convertToResponse(basketLineResult.getTariffAndTaxes());
+    return BasketLineResponse.builder()
+        .commodityCode(basketLineResult.getCommodityCode())
+        .additionalCode(basketLineResult.getAdditionalCode())
+        .measures(basketLineResult.getMeasures())
+        .tariffs(tariffAndTaxes.getTariffs())
+        .taxes(tariffAndTaxes.getTaxes())
+        .build();
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest;
+
+import static java.lang.String.format;
+import static java.util.Optional.ofNullable;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ApplicationProperties.CONTEXT_ROOT;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.CommodityHelper.tidyCommodityCode;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Optional;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.CommoditySummary;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.CommoditySummaryService;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.time.Clock;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.CommoditySummaryRequest;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.response.AdditionalCodesResponse;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.response.CommoditySummaryResponse;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.response.MeasuresResponse;
+
+@RestController
+@RequestMapping(value = CONTEXT_ROOT)
+@Validated
+@AllArgsConstructor
+public class CommoditySummaryController {
+
+  private final CommoditySummaryService commoditySummaryService;
+  private final Clock clock;
+  private final ConditionalResponses conditionalResponses;
+
+  @GetMapping("/v1/commodities/{commodityCode}/summary")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Additional codes, measures and duties for a given commodity code.",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = CommoditySummaryResponse.class)))
+      })
+  @Operation(
+      summary = "Gets a summary of a given commodity.",
+      description =
+          "Gets additional codes, restrictive measures, tariffs and taxes for a given commodity"
+              + " code based on trade type and country of origin. Tariffs and taxes are only"
+              + " given for imports.")
+  public Mono<ResponseEntity<CommoditySummaryResponse>> getCommoditySummary(
+      @Parameter(description = "The code of the commodity", required = true, example = "1006101000")
+          @PathVariable("commodityCode")
+          @Pattern(regexp = "^\\d{8}|\\d{10}$")
+          String commodityCode,
+      @Parameter(
+              description = "The type of trade (import/export)",
+              required = true,
+              example = "import")
+          @NotNull
+          @RequestParam(required = false)
+          TradeType tradeType,
+      @Parameter(description = "ISO 3166-1 Origin Country code", required = true, example = "GB")
+          @NotNull
+          @Pattern(regexp = "^\\w{2}$")
+          @RequestParam(required = false)
+          String originCountry,
+      @Parameter(
+              description = "ISO 3166-1 Destination Country code",
+              required = true,
+              example = "GB")
+          @NotNull
+          @Pattern(regexp = "^\\w{2}$")
+          @RequestParam(required = false)
+          String destinationCountry,
+      @Parameter(description = "Additional code", example = "4204")
+          @Pattern(regexp = "^\\d{4}$")
+          @RequestParam(required = false)
+          String additionalCode,
+      @Parameter(description = "Date of Trade", example = "2021-09-30")
+          @DateTimeFormat(pattern = "yyyy-MM-dd")
+          @RequestParam(required = false)
+          LocalDate tradeDate,
+      @Parameter(description = "Locale", example = "EN or CY") @RequestParam(required = false)
+          Locale locale,
+      ServerWebExchange exchange) {
+    if (tradeType == TradeType.IMPORT
+        && Arrays.stream(UkCountry.values())
+            .noneMatch(ukCountry -> destinationCountry.equals(ukCountry.name()))) {
+      return Mono.error(
+          new ValidationException(
+              "destinationCountry",
+              format("Destination country %s is not a valid UK country", destinationCountry)));
+    }
+
+    if (tradeType == TradeType.EXPORT
+        && Arrays.stream(UkCountry.values())
+            .noneMatch(ukCountry -> originCountry.equals(ukCountry.name()))) {
+      return Mono.error(
+          new ValidationException(
+              "originCountry",
+              format("Origin country %s is not a valid UK country", originCountry)));
+    }
+
+    CommoditySummaryRequest request =
+        CommoditySummaryRequest.builder()
+            .commodityCode(tidyCommodityCode(commodityCode))
+            .originCountry(originCountry)
+            .destinationCountry(destinationCountry)
+            .tradeType(tradeType)
+            .additionalCode(additionalCode)
+            .dateOfTrade(ofNullable(tradeDate).orElse(clock.currentLocalDate()))
+            .locale(Optional.ofNullable(locale).orElse(Locale.EN))
+            .build();
+    return conditionalResponses.respond(
+        exchange,
+        this.commoditySummaryService.getCommoditySummary(request).map(this::transformToResponse));
+  }
+
+  private CommoditySummaryResponse transformToResponse(CommoditySummary commoditySummary) {
+    return CommoditySummaryResponse.builder()
+        .additionalCodes(new AdditionalCodesResponse(commoditySummary.getAdditionalCodes()))
+        .restrictiveMeasures(
+            MeasuresResponse.builder().measures(commoditySummary.getMeasures()).build())
+        .duties(TariffAndTaxesController.convertToResponse(commoditySummary.getTariffAndTaxes()))
+        .build();
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest;
+
+import java.time.Duration;
+import java.util.Optional;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedFreshness;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedVersions;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.HttpCachingProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.ResponseVersionService;
+
+/**
+ * Answers conditional GETs. Responses carry their version as a strong ETag and may be cached until
+ * the next tariff day, or until the commodities they were built from are due to be refreshed if
+ * that is sooner. The version is worked out once a response is built, from the versions of
+ * the measures it was built from, and when it matches the If-None-Match header of the request a
+ * 304 is returned without serialising the response. Responses built while a content lookup failed
+ * may be missing descriptions, and responses built from stale commodities may change as soon as the
+ * commodities are refreshed, so neither has a version nor is to be cached.
+ */
+@Component
+@AllArgsConstructor(onConstructor_ = {@Autowired})
+public class ConditionalResponses {
+
+  private final ResponseVersionService responseVersionService;
+  private final HttpCachingProperties httpCachingProperties;
+
+  public <T> Mono<ResponseEntity<T>> respond(ServerWebExchange exchange, Mono<T> response) {
+    return Mono.defer(
+        () -> {
+          ServedVersions servedVersions = new ServedVersions();
+          exchange.getAttributes().put(ServedVersions.ATTRIBUTE, servedVersions);
+          Mono<T> builtResponse =
+              response.contextWrite(Context.of(ServedVersions.class, servedVersions));
+          if (!httpCachingProperties.isEnable()) {
+            return builtResponse.map(ResponseEntity::ok);
+          }
+          return builtResponse.map(body -> respond(exchange, servedVersions, body));
+        });
+  }
+
+  private <T> ResponseEntity<T> respond(
+      ServerWebExchange exchange, ServedVersions servedVersions, T body) {
+    ServedFreshness servedFreshness = exchange.getAttribute(ServedFreshness.ATTRIBUTE);
+    if (servedVersions.isMissingContent()
+        || (servedFreshness != null && !servedFreshness.isFresh())) {
+      return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(body);
+    }
+    String eTag =
+        "\"" + responseVersionService.getVersion(servedVersions.getCommodityVersions()) + "\"";
+    Duration timeToLive = responseVersionService.getTimeToLive();
+    Duration maxAge =
+        Optional.ofNullable(servedFreshness)
+            .flatMap(ServedFreshness::getFreshFor)
+            .filter(freshFor -> freshFor.compareTo(timeToLive) < 0)
+            .orElse(timeToLive);
+    CacheControl cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+    if (exchange.checkNotModified(eTag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(eTag)
+          .cacheControl(cacheControl)
+          .build();
+    }
+    return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).body(body);
+  }
+}
@@ -23,8 +23,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 import org.springframework.web.server.ServerWebInputException;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.ResourceNotFoundException;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.UpstreamOverloadedException;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.error.ErrorResponse;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.error.ValidationError;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.error.ValidationErrorResponse;
@@ -40,6 +42,13 @@ public class GlobalExceptionHandler {
     return ErrorResponse.builder().message(ex.getMessage()).build();
   }
 
+  @ExceptionHandler(UpstreamOverloadedException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  public ErrorResponse handleUpstreamOverloadedException(UpstreamOverloadedException ex) {
+    log.warn("Handling UpstreamOverloadedException", ex);
+    return ErrorResponse.builder().message(ex.getMessage()).build();
+  }
+
   @ExceptionHandler(ConstraintViolationException.class)
   @ResponseStatus(HttpStatus.BAD_REQUEST)
   public ValidationErrorResponse handleConstraintViolationException(
@@ -63,6 +72,23 @@ public class GlobalExceptionHandler {
         .build();
   }
 
+  @ExceptionHandler(WebExchangeBindException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public ValidationErrorResponse handleWebExchangeBindException(WebExchangeBindException ex) {
+    log.error("Handling WebExchangeBindException", ex);
+    return ValidationErrorResponse.builder()
+        .validationErrors(
+            ex.getFieldErrors().stream()
+                .map(
+                    fieldError ->
+                        ValidationError.builder()
+                            .fieldName(fieldError.getField())
+                            .message(fieldError.getDefaultMessage())
+                            .build())
+                .collect(Collectors.toList()))
+        .build();
+  }
+
   @ExceptionHandler(ServerWebInputException.class)
   @ResponseStatus(HttpStatus.BAD_REQUEST)
   public ValidationErrorResponse handleServerWebInputException(ServerWebInputException ex) {
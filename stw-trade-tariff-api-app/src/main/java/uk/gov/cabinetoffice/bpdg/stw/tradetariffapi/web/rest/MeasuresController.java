@@ -35,12 +35,14 @@ import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.RestrictiveMeasure;
@@ -59,6 +61,7 @@ public class MeasuresController {
 
   private final MeasuresService measuresService;
   private final Clock clock;
+  private final ConditionalResponses conditionalResponses;
 
   @GetMapping("/v1/commodities/{commodityCode}/restrictive-measures")
   @ApiResponses(
@@ -75,7 +78,7 @@ public class MeasuresController {
       summary = "Gets measures for a given commodity.",
       description =
           "Gets measures for a given commodity code based on trade type and country of origin.")
-  public Mono<MeasuresResponse> getCommodityMeasures(
+  public Mono<ResponseEntity<MeasuresResponse>> getCommodityMeasures(
       @Parameter(description = "The code of the commodity", required = true, example = "1006101000")
           @PathVariable("commodityCode")
           @Pattern(regexp = "^\\d{8}|\\d{10}$")
@@ -109,7 +112,8 @@ public class MeasuresController {
           @RequestParam(required = false)
           LocalDate tradeDate,
       @Parameter(description = "Locale", example = "EN or CY") @RequestParam(required = false)
-          Locale locale) {
+          Locale locale,
+      ServerWebExchange exchange) {
     if (tradeType == TradeType.IMPORT
         && Arrays.stream(UkCountry.values())
             .noneMatch(ukCountry -> destinationCountry.equals(ukCountry.name()))) {
@@ -138,7 +142,9 @@ public class MeasuresController {
             .dateOfTrade(ofNullable(tradeDate).orElse(clock.currentLocalDate()))
             .locale(Optional.ofNullable(locale).orElse(Locale.EN))
             .build();
-    return this.measuresService.getMeasures(request).collectList().map(this::transformToResponse);
+    return conditionalResponses.respond(
+        exchange,
+        this.measuresService.getMeasures(request).collectList().map(this::transformToResponse));
   }
 
   private MeasuresResponse transformToResponse(List<RestrictiveMeasure> restrictiveMeasures) {
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest;
+
+import static java.lang.String.format;
+import static java.util.Optional.ofNullable;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ApplicationProperties.CONTEXT_ROOT;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.CommodityHelper.tidyCommodityCode;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.OriginComparison;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.OriginComparisonService;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.time.Clock;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.OriginComparisonRequest;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.response.OriginComparisonResponse;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.response.OriginCountryResponse;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.response.TariffAndTaxesResponse;
+
+@RestController
+@RequestMapping(value = CONTEXT_ROOT)
+@Validated
+@AllArgsConstructor
+public class OriginComparisonController {
+
+  static final int MAX_ORIGIN_COUNTRIES = 20;
+
+  private final OriginComparisonService originComparisonService;
+  private final Clock clock;
+  private final ConditionalResponses conditionalResponses;
+
+  @GetMapping("/v1/commodities/{commodityCode}/origin-comparison")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Measures and duties for a given commodity code per origin country.",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = OriginComparisonResponse.class)))
+      })
+  @Operation(
+      summary = "Compares measures and duties of a commodity across origin countries.",
+      description =
+          "Gets restrictive measures, tariffs and taxes for importing a given commodity code from"
+              + " each of the given countries of origin.")
+  public Mono<ResponseEntity<OriginComparisonResponse>> getOriginComparison(
+      @Parameter(description = "The code of the commodity", required = true, example = "1006101000")
+          @PathVariable("commodityCode")
+          @Pattern(regexp = "^\\d{8}|\\d{10}$")
+          String commodityCode,
+      @Parameter(
+              description = "ISO 3166-1 Origin Country codes, at most 20",
+              required = true,
+              example = "CN,US,FR")
+          @RequestParam(required = false)
+          List<String> originCountries,
+      @Parameter(
+              description = "ISO 3166-1 Destination Country code",
+              required = true,
+              example = "GB or XI")
+          @NotNull
+          @RequestParam(required = false)
+          UkCountry destinationCountry,
+      @Parameter(description = "Additional code", example = "4204")
+          @Pattern(regexp = "^\\d{4}$")
+          @RequestParam(required = false)
+          String additionalCode,
+      @Parameter(description = "Date of Trade", example = "2021-09-30")
+          @DateTimeFormat(pattern = "yyyy-MM-dd")
+          @RequestParam(required = false)
+          LocalDate tradeDate,
+      @Parameter(description = "Locale", example = "EN or CY") @RequestParam(required = false)
+          Locale locale,
+      ServerWebExchange exchange) {
+    if (originCountries == null || originCountries.isEmpty()) {
+      return Mono.error(
+          new ValidationException("originCountries", "At least one origin country is required"));
+    }
+
+    List<String> distinctOriginCountries =
+        originCountries.stream().distinct().collect(Collectors.toList());
+    if (distinctOriginCountries.size() > MAX_ORIGIN_COUNTRIES) {
+      return Mono.error(
+          new ValidationException(
+              "originCountries",
+              format("At most %d origin countries can be compared", MAX_ORIGIN_COUNTRIES)));
+    }
+
+    Optional<String> invalidOriginCountry =
+        distinctOriginCountries.stream()
+            .filter(originCountry -> !originCountry.matches("^\\w{2}$"))
+            .findFirst();
+    if (invalidOriginCountry.isPresent()) {
+      return Mono.error(
+          new ValidationException(
+              "originCountries",
+              format("Origin country %s is not a valid country code", invalidOriginCountry.get())));
+    }
+
+    OriginComparisonRequest request =
+        OriginComparisonRequest.builder()
+            .commodityCode(tidyCommodityCode(commodityCode))
+            .originCountries(distinctOriginCountries)
+            .destinationCountry(destinationCountry)
+            .additionalCode(additionalCode)
+            .dateOfTrade(ofNullable(tradeDate).orElse(clock.currentLocalDate()))
+            .locale(Optional.ofNullable(locale).orElse(Locale.EN))
+            .build();
+    return conditionalResponses.respond(
+        exchange,
+        this.originComparisonService.getOriginComparison(request).map(this::transformToResponse));
+  }
+
+  private OriginComparisonResponse transformToResponse(
+      Map<String, OriginComparison> originComparisons) {
+    Map<String, OriginCountryResponse> originCountries = new LinkedHashMap<>();
+    originComparisons.forEach(
+        (originCountry, originComparison) -> {
+          TariffAndTaxesResponse tariffAndTaxes =
+              TariffAndTaxesController.convertToResponse(originComparison.getTariffAndTaxes());
+          originCountries.put(
+              originCountry,
+              OriginCountryResponse.builder()
+                  .measures(originComparison.getMeasures())
+                  .tariffs(tariffAndTaxes.getTariffs())
+                  .taxes(tariffAndTaxes.getTaxes())
+                  .build());
+        });
+    return OriginComparisonResponse.builder().originCountries(originCountries).build();
+  }
+}
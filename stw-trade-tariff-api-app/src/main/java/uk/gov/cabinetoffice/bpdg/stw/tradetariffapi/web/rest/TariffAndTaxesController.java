@@ -35,12 +35,14 @@ import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.AdditionalCode;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Duty;
@@ -82,10 +84,13 @@ public class TariffAndTaxesController {
               .compare(o1, o2);
 
   private final TariffAndTaxesService tariffAndTaxesService;
+  private final ConditionalResponses conditionalResponses;
 
   @Autowired
-  public TariffAndTaxesController(TariffAndTaxesService tariffAndTaxesService) {
+  public TariffAndTaxesController(
+      TariffAndTaxesService tariffAndTaxesService, ConditionalResponses conditionalResponses) {
     this.tariffAndTaxesService = tariffAndTaxesService;
+    this.conditionalResponses = conditionalResponses;
   }
 
   @GetMapping("/commodities/{commodityCode}/duties")
@@ -103,7 +108,7 @@ public class TariffAndTaxesController {
       summary = "Gets Duties for a given commodity.",
       description =
           "Gets tariffs and taxes for a given commodity code based on trade type and country of origin.")
-  public Mono<TariffAndTaxesResponse> getTariffAndTaxes(
+  public Mono<ResponseEntity<TariffAndTaxesResponse>> getTariffAndTaxes(
       @Parameter(description = "The code of the commodity", required = true, example = "1006101000")
           @PathVariable("commodityCode")
           @Pattern(regexp = "^\\d{8}|\\d{10}$")
@@ -132,7 +137,8 @@ public class TariffAndTaxesController {
       @Parameter(description = "Import date", example = "2021-09-30")
           @DateTimeFormat(pattern = "yyyy-MM-dd")
           @RequestParam(required = false, defaultValue = "#{T(java.time.LocalDate).now()}")
-          LocalDate importDate) {
+          LocalDate importDate,
+      ServerWebExchange exchange) {
     TariffAndTaxesRequest request =
         TariffAndTaxesRequest.builder()
             .commodityCode(tidyCommodityCode(commodityCode))
@@ -142,10 +148,14 @@ public class TariffAndTaxesController {
             .importDate(importDate)
             .locale(Optional.ofNullable(locale).orElse(Locale.EN))
             .build();
-    return tariffAndTaxesService.getTariffAndTaxes(request).map(this::convertToResponse);
+    Mono<TariffAndTaxesResponse> response =
+        tariffAndTaxesService
+            .getTariffAndTaxes(request)
+            .map(TariffAndTaxesController::convertToResponse);
+    return conditionalResponses.respond(exchange, response);
   }
 
-  private TariffAndTaxesResponse convertToResponse(TariffAndTaxes tariffAndTaxes) {
+  static TariffAndTaxesResponse convertToResponse(TariffAndTaxes tariffAndTaxes) {
     Map<Boolean, List<Duty>> collect =
         tariffAndTaxes.getDuties().stream()
             .collect(Collectors.partitioningBy(Tariff.class::isInstance));
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+class CommodityFreshnessTrackerTest {
+
+  private static final Instant NOW = Instant.parse("2022-05-10T12:00:00Z");
+  private static final Clock CLOCK = Clock.fixed(NOW, ZoneOffset.UTC);
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final CommodityFreshnessTracker commodityFreshnessTracker =
+      new CommodityFreshnessTracker(Duration.ofHours(1), CLOCK, "ottCommodities", meterRegistry);
+
+  @Test
+  @DisplayName("should treat commodities as stale once older than the refresh interval")
+  void shouldWorkOutFreshness() {
+    assertThat(commodityFreshnessTracker.getFreshness(NOW.minus(Duration.ofMinutes(60)), false))
+        .isEqualTo(Freshness.FRESH);
+    assertThat(commodityFreshnessTracker.getFreshness(NOW.minus(Duration.ofMinutes(61)), false))
+        .isEqualTo(Freshness.STALE);
+    assertThat(commodityFreshnessTracker.getFreshness(NOW, true))
+        .isEqualTo(Freshness.STALE_IF_ERROR);
+  }
+
+  @Test
+  @DisplayName("should never treat commodities as stale without a refresh interval")
+  void shouldNotGoStaleWithoutRefreshInterval() {
+    CommodityFreshnessTracker withoutRefresh =
+        new CommodityFreshnessTracker(null, CLOCK, "ottCommodities", meterRegistry);
+
+    assertThat(withoutRefresh.getFreshness(NOW.minus(Duration.ofDays(1)), false))
+        .isEqualTo(Freshness.FRESH);
+    ServedFreshness servedFreshness = new ServedFreshness();
+    StepVerifier.create(
+            withoutRefresh
+                .record(Freshness.FRESH, NOW.minus(Duration.ofDays(1)))
+                .contextWrite(Context.of(ServedFreshness.class, servedFreshness)))
+        .verifyComplete();
+    assertThat(servedFreshness.getFreshFor()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("should record the freshness and age of served commodities")
+  void shouldRecordServedCommodities() {
+    ServedFreshness servedFreshness = new ServedFreshness();
+
+    StepVerifier.create(
+            commodityFreshnessTracker
+                .record(Freshness.STALE, NOW.minus(Duration.ofHours(2)))
+                .then(commodityFreshnessTracker.record(Freshness.FRESH, NOW))
+                .contextWrite(Context.of(ServedFreshness.class, servedFreshness)))
+        .verifyComplete();
+    StepVerifier.create(commodityFreshnessTracker.record(Freshness.STALE_IF_ERROR, NOW))
+        .verifyComplete();
+
+    assertThat(servedFreshness.getFreshness()).contains(Freshness.STALE);
+    assertThat(servedFreshness.getAge()).isEqualTo(Duration.ofHours(2));
+    assertThat(servedFreshness.isFresh()).isFalse();
+    assertThat(servedFreshness.getFreshFor()).contains(Duration.ofHours(-1));
+    assertThat(meterRegistry.get("commodity_freshness").tag("freshness", "fresh").counter().count())
+        .isEqualTo(1);
+    assertThat(
+            meterRegistry
+                .get("commodity_freshness")
+                .tag("freshness", "stale-while-revalidate")
+                .counter()
+                .count())
+        .isEqualTo(1);
+    assertThat(
+            meterRegistry
+                .get("commodity_freshness")
+                .tag("freshness", "stale-if-error")
+                .counter()
+                .count())
+        .isEqualTo(1);
+    assertThat(meterRegistry.get("commodity_age").timer().max(TimeUnit.HOURS)).isEqualTo(2);
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class EncodedResponseExpiryTest {
+
+  private static final byte[] JSON = "{}".getBytes(StandardCharsets.UTF_8);
+
+  private final EncodedResponseExpiry expiry =
+      new EncodedResponseExpiry(
+          Clock.fixed(Instant.parse("2022-01-10T22:30:00Z"), ZoneId.of("Europe/London")));
+
+  @Test
+  @DisplayName("should expire responses at the end of their time to live when before midnight")
+  void shouldExpireAtTheEndOfTheTimeToLive() {
+    EncodedResponse response = EncodedResponse.of(JSON, null, false, Duration.ofMinutes(40));
+
+    assertThat(expiry.expireAfterCreate("key", response, 0L))
+        .isEqualTo(Duration.ofMinutes(40).toNanos());
+    assertThat(expiry.expireAfterUpdate("key", response, 0L, 1L))
+        .isEqualTo(Duration.ofMinutes(40).toNanos());
+  }
+
+  @Test
+  @DisplayName("should expire responses at the next midnight otherwise")
+  void shouldExpireAtNextMidnight() {
+    assertThat(
+            expiry.expireAfterCreate(
+                "key", EncodedResponse.of(JSON, null, false, Duration.ofHours(2)), 0L))
+        .isEqualTo(Duration.ofMinutes(90).toNanos());
+    assertThat(expiry.expireAfterCreate("key", EncodedResponse.of(JSON, null, false, null), 0L))
+        .isEqualTo(Duration.ofMinutes(90).toNanos());
+  }
+}
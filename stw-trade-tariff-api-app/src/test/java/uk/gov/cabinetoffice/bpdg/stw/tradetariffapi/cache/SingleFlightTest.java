@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class SingleFlightTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final SingleFlight<String, String> singleFlight =
+      new SingleFlight<>("test", meterRegistry);
+
+  @Test
+  @DisplayName("should share one call between concurrent subscribers with the same key")
+  void shouldShareInFlightCall() {
+    AtomicInteger calls = new AtomicInteger();
+    Sinks.One<String> result = Sinks.one();
+
+    StepVerifier.create(
+            Mono.zip(
+                singleFlight.execute("key", key -> countedCall(calls, result.asMono())),
+                singleFlight.execute("key", key -> countedCall(calls, result.asMono()))))
+        .then(() -> assertThat(inFlight()).isEqualTo(1.0))
+        .then(() -> result.tryEmitValue("value"))
+        .expectNextMatches(
+            values -> "value".equals(values.getT1()) && "value".equals(values.getT2()))
+        .verifyComplete();
+
+    assertThat(calls).hasValue(1);
+    assertThat(callCount("executed")).isEqualTo(1.0);
+    assertThat(callCount("deduplicated")).isEqualTo(1.0);
+    assertThat(inFlight()).isZero();
+  }
+
+  @Test
+  @DisplayName("should not share calls between different keys")
+  void shouldNotShareCallsForDifferentKeys() {
+    StepVerifier.create(
+            Mono.zip(
+                singleFlight.execute("first", key -> Mono.just(key)),
+                singleFlight.execute("second", key -> Mono.just(key))))
+        .expectNextMatches(
+            values -> "first".equals(values.getT1()) && "second".equals(values.getT2()))
+        .verifyComplete();
+
+    assertThat(callCount("executed")).isEqualTo(2.0);
+    assertThat(callCount("deduplicated")).isZero();
+  }
+
+  @Test
+  @DisplayName("should start a new call once the previous call for the key has completed")
+  void shouldNotRetainCompletedCalls() {
+    AtomicInteger calls = new AtomicInteger();
+
+    StepVerifier.create(
+            singleFlight.execute("key", key -> countedCall(calls, Mono.just("first"))))
+        .expectNext("first")
+        .verifyComplete();
+    StepVerifier.create(
+            singleFlight.execute("key", key -> countedCall(calls, Mono.just("second"))))
+        .expectNext("second")
+        .verifyComplete();
+
+    assertThat(calls).hasValue(2);
+    assertThat(callCount("deduplicated")).isZero();
+  }
+
+  @Test
+  @DisplayName("should propagate errors to every subscriber and not retain the failed call")
+  void shouldPropagateErrorsAndNotRetainFailedCall() {
+    Sinks.One<String> result = Sinks.one();
+
+    StepVerifier.create(
+            Mono.zip(
+                singleFlight.execute("key", key -> result.asMono()),
+                singleFlight.execute("key", key -> result.asMono()).onErrorReturn("fallback")))
+        .then(() -> result.tryEmitError(new IllegalStateException("upstream failed")))
+        .expectError(IllegalStateException.class)
+        .verify();
+
+    StepVerifier.create(singleFlight.execute("key", key -> Mono.just("value")))
+        .expectNext("value")
+        .verifyComplete();
+  }
+
+  private Mono<String> countedCall(AtomicInteger calls, Mono<String> result) {
+    return Mono.defer(
+        () -> {
+          calls.incrementAndGet();
+          return result;
+        });
+  }
+
+  private double callCount(String result) {
+    return meterRegistry
+        .get("single_flight_calls")
+        .tag("name", "test")
+        .tag("result", result)
+        .counter()
+        .count();
+  }
+
+  private double inFlight() {
+    return meterRegistry.get("single_flight_in_flight").tag("name", "test").gauge().value();
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TariffDayExpiryTest {
+
+  private static final ZoneId LONDON = ZoneId.of("Europe/London");
+
+  @Test
+  @DisplayName("should expire entries created during the day at the following midnight")
+  void shouldExpireAtNextMidnight() {
+    TariffDayExpiry<String, String> expiry =
+        new TariffDayExpiry<>(Clock.fixed(Instant.parse("2022-01-10T22:30:00Z"), LONDON));
+
+    assertThat(expiry.expireAfterCreate("key", "value", 0L))
+        .isEqualTo(Duration.ofMinutes(90).toNanos());
+  }
+
+  @Test
+  @DisplayName("should use the local tariff day rather than UTC during daylight saving time")
+  void shouldUseTariffDayZone() {
+    TariffDayExpiry<String, String> expiry =
+        new TariffDayExpiry<>(Clock.fixed(Instant.parse("2022-07-10T22:30:00Z"), LONDON));
+
+    assertThat(expiry.expireAfterCreate("key", "value", 0L))
+        .isEqualTo(Duration.ofMinutes(30).toNanos());
+  }
+
+  @Test
+  @DisplayName("should reset expiry to the next midnight on update and keep it on read")
+  void shouldResetOnUpdateAndKeepOnRead() {
+    TariffDayExpiry<String, String> expiry =
+        new TariffDayExpiry<>(Clock.fixed(Instant.parse("2022-01-10T12:00:00Z"), LONDON));
+
+    assertThat(expiry.expireAfterUpdate("key", "value", 0L, 1L))
+        .isEqualTo(Duration.ofHours(12).toNanos());
+    assertThat(expiry.expireAfterRead("key", "value", 0L, 1L)).isEqualTo(1L);
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ConcurrencyLimitProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.UpstreamOverloadedException;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  private static final ClientRequest REQUEST =
+      ClientRequest.create(HttpMethod.GET, URI.create("http://ott/api/v2/commodities/0101210000"))
+          .build();
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ConcurrencyLimitProperties.Limit properties =
+      new ConcurrencyLimitProperties.Limit();
+
+  private AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+    properties.setEnable(true);
+    properties.setInitialLimit(initialLimit);
+    properties.setMinimumLimit(1);
+    properties.setMaximumQueueSize(1);
+    return new AdaptiveConcurrencyLimiter("ott", properties, meterRegistry);
+  }
+
+  // the response is built up front so that building it does not count towards the round trip
+  private static ExchangeFunction answering(HttpStatus status) {
+    ClientResponse response = ClientResponse.create(status).build();
+    return request -> Mono.just(response);
+  }
+
+  private double gauge(String name) {
+    return meterRegistry.get(name).tag("upstream", "ott").gauge().value();
+  }
+
+  @Test
+  @DisplayName("should queue calls beyond the limit and reject calls beyond the queue")
+  void shouldQueueAndThenRejectCalls() {
+    AdaptiveConcurrencyLimiter limiter = limiter(1);
+    Sinks.One<ClientResponse> firstResponse = Sinks.one();
+    AtomicInteger exchanges = new AtomicInteger();
+    ExchangeFunction exchange =
+        request ->
+            exchanges.incrementAndGet() == 1
+                ? firstResponse.asMono()
+                : Mono.just(ClientResponse.create(HttpStatus.OK).build());
+
+    limiter.filter(REQUEST, exchange).subscribe();
+    Mono<ClientResponse> queued = limiter.filter(REQUEST, exchange).cache();
+    queued.subscribe();
+
+    assertThat(gauge("concurrency_limit_in_flight")).isEqualTo(1);
+    assertThat(gauge("concurrency_limit_queued")).isEqualTo(1);
+    StepVerifier.create(limiter.filter(REQUEST, exchange))
+        .expectError(UpstreamOverloadedException.class)
+        .verify();
+    assertThat(meterRegistry.get("concurrency_limit_rejections").counter().count()).isEqualTo(1);
+    assertThat(exchanges).hasValue(1);
+
+    firstResponse.tryEmitValue(ClientResponse.create(HttpStatus.OK).build());
+
+    StepVerifier.create(queued)
+        .assertNext(response -> assertThat(response.statusCode()).isEqualTo(HttpStatus.OK))
+        .verifyComplete();
+    assertThat(exchanges).hasValue(2);
+    assertThat(gauge("concurrency_limit_in_flight")).isZero();
+    assertThat(gauge("concurrency_limit_queued")).isZero();
+  }
+
+  @Test
+  @DisplayName("should reject queued calls which wait longer than the maximum queue time")
+  void shouldRejectCallsWaitingTooLong() {
+    AdaptiveConcurrencyLimiter limiter = limiter(1);
+
+    StepVerifier.withVirtualTime(
+            () -> {
+              limiter.filter(REQUEST, request -> Mono.never()).subscribe();
+              return limiter.filter(REQUEST, answering(HttpStatus.OK));
+            })
+        .expectSubscription()
+        .expectNoEvent(properties.getMaximumQueueTime().minusMillis(1))
+        .thenAwait(Duration.ofMillis(1))
+        .expectError(UpstreamOverloadedException.class)
+        .verify();
+
+    assertThat(gauge("concurrency_limit_queued")).isZero();
+    assertThat(gauge("concurrency_limit_in_flight")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should raise the limit by one when a call answers in time using the limit")
+  void shouldRaiseTheLimit() {
+    AdaptiveConcurrencyLimiter limiter = limiter(2);
+
+    StepVerifier.create(limiter.filter(REQUEST, answering(HttpStatus.OK)))
+        .expectNextCount(1)
+        .verifyComplete();
+
+    assertThat(gauge("concurrency_limit")).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("should cut the limit when the upstream answers with a server error")
+  void shouldCutTheLimitOnServerErrors() {
+    AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+    StepVerifier.create(limiter.filter(REQUEST, answering(HttpStatus.SERVICE_UNAVAILABLE)))
+        .expectNextCount(1)
+        .verifyComplete();
+
+    assertThat(gauge("concurrency_limit")).isEqualTo(9);
+  }
+
+  @Test
+  @DisplayName("should cut the limit when a call takes much longer than the average")
+  void shouldCutTheLimitOnSlowCalls() {
+    AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+    ExchangeFunction exchange = answering(HttpStatus.OK);
+    limiter.filter(REQUEST, exchange).block();
+    limiter
+        .filter(
+            REQUEST, request -> Mono.delay(Duration.ofMillis(100)).then(exchange.exchange(request)))
+        .block();
+
+    assertThat(gauge("concurrency_limit")).isEqualTo(9);
+  }
+
+  @Test
+  @DisplayName("should free the place of a call which is cancelled")
+  void shouldReleaseCancelledCalls() {
+    AdaptiveConcurrencyLimiter limiter = limiter(1);
+
+    Disposable call = limiter.filter(REQUEST, request -> Mono.never()).subscribe();
+    assertThat(gauge("concurrency_limit_in_flight")).isEqualTo(1);
+    call.dispose();
+
+    assertThat(gauge("concurrency_limit_in_flight")).isZero();
+    assertThat(gauge("concurrency_limit")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should pass calls straight through when disabled")
+  void shouldNotLimitWhenDisabled() {
+    Mono<ClientResponse> response = Mono.just(ClientResponse.create(HttpStatus.OK).build());
+
+    assertThat(
+            new AdaptiveConcurrencyLimiter("ott", properties, meterRegistry)
+                .filter(REQUEST, request -> response))
+        .isSameAs(response);
+  }
+}
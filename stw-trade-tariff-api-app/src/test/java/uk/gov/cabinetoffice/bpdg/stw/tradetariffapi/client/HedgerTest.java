@@ -0,0 +1,272 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.HedgingProperties;
+
+class HedgerTest {
+
+  private static final String ENDPOINT = "getCommodityGB";
+  private static final Duration MINIMUM_DELAY = Duration.ofMillis(200);
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final HedgingProperties hedgingProperties = new HedgingProperties();
+  private final AtomicInteger attempts = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    hedgingProperties.setEnable(true);
+    hedgingProperties.setMinimumDelay(MINIMUM_DELAY);
+    hedgingProperties.setMinimumSamples(1);
+    hedgingProperties.setBudgetPercent(100);
+  }
+
+  // the first attempt never answers and any later attempt answers straight away
+  private Mono<String> slowFirstAttempt() {
+    return Mono.defer(() -> attempts.incrementAndGet() == 1 ? Mono.never() : Mono.just("hedge"));
+  }
+
+  private static Mono<String> failAfter(long millis, RuntimeException error) {
+    return Mono.delay(Duration.ofMillis(millis)).then(Mono.error(error));
+  }
+
+  private Hedger warmedUpHedger() {
+    Hedger hedger = new Hedger("ottApi", hedgingProperties, meterRegistry);
+    assertThat(hedger.execute(ENDPOINT, Mono.just("warm up")).block()).isEqualTo("warm up");
+    return hedger;
+  }
+
+  private double hedges(String outcome) {
+    return meterRegistry
+        .get("hedged_requests")
+        .tag("name", "ottApi")
+        .tag("endpoint", ENDPOINT)
+        .tag("outcome", outcome)
+        .counter()
+        .count();
+  }
+
+  @Test
+  @DisplayName("should send a hedge once the first request is slower than the delay")
+  void shouldAnswerWithTheHedge() {
+    Hedger hedger = warmedUpHedger();
+
+    StepVerifier.withVirtualTime(() -> hedger.execute(ENDPOINT, slowFirstAttempt()))
+        .expectSubscription()
+        .expectNoEvent(MINIMUM_DELAY.minusMillis(1))
+        .thenAwait(Duration.ofMillis(1))
+        .expectNext("hedge")
+        .verifyComplete();
+
+    assertThat(attempts).hasValue(2);
+    assertThat(hedges("fired")).isEqualTo(1);
+    assertThat(hedges("won")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should answer with the first request when the hedge fails")
+  void shouldIgnoreFailedHedges() {
+    Hedger hedger = warmedUpHedger();
+
+    StepVerifier.withVirtualTime(
+            () ->
+                hedger.execute(
+                    ENDPOINT,
+                    Mono.defer(
+                        () ->
+                            attempts.incrementAndGet() == 1
+                                ? Mono.delay(Duration.ofMillis(300)).thenReturn("first")
+                                : Mono.error(new IllegalStateException("overloaded")))))
+        .expectSubscription()
+        .thenAwait(Duration.ofMillis(300))
+        .expectNext("first")
+        .verifyComplete();
+
+    assertThat(attempts).hasValue(2);
+    assertThat(hedges("fired")).isEqualTo(1);
+    assertThat(hedges("won")).isZero();
+  }
+
+  @Test
+  @DisplayName("should let a hedge already sent answer when the first request fails")
+  void shouldWaitForTheHedgeWhenTheFirstRequestFails() {
+    Hedger hedger = warmedUpHedger();
+
+    StepVerifier.withVirtualTime(
+            () ->
+                hedger.execute(
+                    ENDPOINT,
+                    Mono.defer(
+                        () ->
+                            attempts.incrementAndGet() == 1
+                                ? failAfter(300, new IllegalStateException("timed out"))
+                                : Mono.delay(Duration.ofMillis(200)).thenReturn("hedge"))))
+        .expectSubscription()
+        .expectNoEvent(Duration.ofMillis(399))
+        .thenAwait(Duration.ofMillis(1))
+        .expectNext("hedge")
+        .verifyComplete();
+
+    assertThat(attempts).hasValue(2);
+    assertThat(hedges("won")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should fail with the error of the first request once the hedge failed too")
+  void shouldFailOnceBothRequestsFailed() {
+    Hedger hedger = warmedUpHedger();
+
+    StepVerifier.withVirtualTime(
+            () ->
+                hedger.execute(
+                    ENDPOINT,
+                    Mono.defer(
+                        () ->
+                            attempts.incrementAndGet() == 1
+                                ? failAfter(300, new IllegalStateException("timed out"))
+                                : failAfter(200, new IllegalArgumentException("hedge")))))
+        .expectSubscription()
+        .expectNoEvent(Duration.ofMillis(399))
+        .thenAwait(Duration.ofMillis(1))
+        .expectErrorMessage("timed out")
+        .verify();
+
+    assertThat(attempts).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("should fail straight away when the first request fails before the hedge is sent")
+  void shouldFailWithoutHedging() {
+    Hedger hedger = warmedUpHedger();
+
+    StepVerifier.withVirtualTime(
+            () ->
+                hedger.execute(
+                    ENDPOINT,
+                    Mono.defer(
+                        () -> {
+                          attempts.incrementAndGet();
+                          return failAfter(100, new IllegalStateException("failed"));
+                        })))
+        .expectSubscription()
+        .thenAwait(Duration.ofMillis(100))
+        .expectErrorMessage("failed")
+        .verify();
+
+    assertThat(attempts).hasValue(1);
+    assertThat(hedges("fired")).isZero();
+  }
+
+  @Test
+  @DisplayName("should record the latency of the request which lost to the hedge")
+  void shouldRecordTheCancelledRequest() {
+    Hedger hedger = warmedUpHedger();
+
+    StepVerifier.withVirtualTime(() -> hedger.execute(ENDPOINT, slowFirstAttempt()))
+        .expectSubscription()
+        .thenAwait(MINIMUM_DELAY)
+        .expectNext("hedge")
+        .verifyComplete();
+
+    // the warm up, the hedge and the cancelled first request
+    assertThat(
+            meterRegistry
+                .get("hedged_request_latency")
+                .tag("name", "ottApi")
+                .tag("endpoint", ENDPOINT)
+                .timer()
+                .count())
+        .isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("should not send a hedge when the first request answers within the delay")
+  void shouldAnswerWithTheFirstRequest() {
+    Hedger hedger = warmedUpHedger();
+
+    StepVerifier.withVirtualTime(
+            () ->
+                hedger.execute(
+                    ENDPOINT,
+                    Mono.defer(
+                        () -> {
+                          attempts.incrementAndGet();
+                          return Mono.delay(Duration.ofMillis(100)).thenReturn("first");
+                        })))
+        .expectSubscription()
+        .thenAwait(Duration.ofMillis(100))
+        .expectNext("first")
+        .verifyComplete();
+
+    assertThat(attempts).hasValue(1);
+    assertThat(hedges("fired")).isZero();
+    assertThat(hedges("won")).isZero();
+  }
+
+  @Test
+  @DisplayName("should not send a hedge once the hedge budget is spent")
+  void shouldNotHedgeBeyondTheBudget() {
+    hedgingProperties.setBudgetPercent(10);
+    Hedger hedger = warmedUpHedger();
+
+    StepVerifier.withVirtualTime(() -> hedger.execute(ENDPOINT, slowFirstAttempt()))
+        .expectSubscription()
+        .thenAwait(Duration.ofSeconds(1))
+        .expectNoEvent(Duration.ofSeconds(1))
+        .thenCancel()
+        .verify();
+
+    assertThat(attempts).hasValue(1);
+    assertThat(hedges("fired")).isZero();
+    assertThat(hedges("throttled")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should not hedge before enough latencies have been observed")
+  void shouldNotHedgeWithoutEnoughSamples() {
+    hedgingProperties.setMinimumSamples(2);
+    Hedger hedger = warmedUpHedger();
+
+    StepVerifier.withVirtualTime(() -> hedger.execute(ENDPOINT, slowFirstAttempt()))
+        .expectSubscription()
+        .expectNoEvent(Duration.ofSeconds(1))
+        .thenCancel()
+        .verify();
+
+    assertThat(attempts).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("should pass requests straight through when disabled")
+  void shouldNotHedgeWhenDisabled() {
+    hedgingProperties.setEnable(false);
+    Mono<String> request = Mono.just("first");
+
+    assertThat(new Hedger("ottApi", hedgingProperties, meterRegistry).execute(ENDPOINT, request))
+        .isSameAs(request);
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.client.ResponseSizeMetrics.COMPRESSED;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.client.ResponseSizeMetrics.RESPONSE_BYTES;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.client.ResponseSizeMetrics.UNCOMPRESSED;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import lombok.SneakyThrows;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import reactor.netty.http.client.HttpClient;
+
+class ResponseSizeMetricsTest {
+
+  private static final String BODY = "{\"measures\":[" + "{\"id\":\"1\"},".repeat(500) + "{}]}";
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ResponseSizeMetrics responseSizeMetrics = new ResponseSizeMetrics(meterRegistry);
+  private MockWebServer mockWebServer;
+
+  @BeforeEach
+  @SneakyThrows
+  void beforeEach() {
+    mockWebServer = new MockWebServer();
+    mockWebServer.start();
+  }
+
+  @AfterEach
+  @SneakyThrows
+  void afterEach() {
+    mockWebServer.shutdown();
+  }
+
+  @Test
+  @SneakyThrows
+  @DisplayName("should ask for gzip and count the bytes before and after inflating the body")
+  void shouldCountCompressedAndUncompressedBytes() {
+    byte[] gzipped = gzip(BODY);
+    mockWebServer.enqueue(
+        new MockResponse()
+            .setHeader(HttpHeaders.CONTENT_ENCODING, "gzip")
+            .setBody(new Buffer().write(gzipped)));
+
+    assertThat(get("/api/v2/commodities/0101210000?as_of=2022-05-10")).isEqualTo(BODY);
+
+    assertThat(mockWebServer.takeRequest().getHeader(HttpHeaders.ACCEPT_ENCODING))
+        .isEqualTo("gzip");
+    assertThat(responseBytes("/api/v2/commodities/{id}", COMPRESSED)).isEqualTo(gzipped.length);
+    assertThat(responseBytes("/api/v2/commodities/{id}", UNCOMPRESSED))
+        .isEqualTo(BODY.getBytes(StandardCharsets.UTF_8).length);
+  }
+
+  @Test
+  @DisplayName("should count uncompressed bodies alike before and after inflating them")
+  void shouldCountUncompressedBodiesAlike() {
+    mockWebServer.enqueue(new MockResponse().setBody(BODY));
+    mockWebServer.enqueue(new MockResponse().setBody(BODY));
+
+    assertThat(get("/xi/api/v2/commodities/0101210000")).isEqualTo(BODY);
+    // the second response comes over the same connection
+    assertThat(get("/xi/api/v2/commodities/0202000000")).isEqualTo(BODY);
+
+    int bodySize = BODY.getBytes(StandardCharsets.UTF_8).length;
+    assertThat(responseBytes("/xi/api/v2/commodities/{id}", COMPRESSED)).isEqualTo(2 * bodySize);
+    assertThat(responseBytes("/xi/api/v2/commodities/{id}", UNCOMPRESSED)).isEqualTo(2 * bodySize);
+  }
+
+  private String get(String path) {
+    return responseSizeMetrics
+        .instrument(HttpClient.create().compress(true), "ott")
+        .get()
+        .uri(mockWebServer.url(path).toString())
+        .responseContent()
+        .aggregate()
+        .asString()
+        .block();
+  }
+
+  private double responseBytes(String endpoint, String encoding) {
+    return meterRegistry
+        .get(RESPONSE_BYTES)
+        .tag("upstream", "ott")
+        .tag("method", "GET")
+        .tag("endpoint", endpoint)
+        .tag("encoding", encoding)
+        .counter()
+        .count();
+  }
+
+  @SneakyThrows
+  private static byte[] gzip(String body) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+      gzip.write(body.getBytes(StandardCharsets.UTF_8));
+    }
+    return bytes.toByteArray();
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommodityChapter;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommodityMeasureType;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommoditySection;
+
+class StreamingCommodityResponseDecoderTest {
+
+  private static final ResolvableType COMMODITY_RESPONSE =
+      ResolvableType.forClass(TradeTariffCommodityResponse.class);
+
+  private static byte[] commodityBody;
+
+  @BeforeAll
+  static void readCommodityBody() throws IOException {
+    try (InputStream inputStream =
+        new ClassPathResource("stubs/commodity_with_prohibitions.json").getInputStream()) {
+      commodityBody = inputStream.readAllBytes();
+    }
+  }
+
+  @Test
+  @DisplayName("should decode the measures of a commodity split across many buffers")
+  void shouldDecodeCommodityFromManyBuffers() throws IOException {
+    TradeTariffCommodityResponse expected =
+        Jackson2ObjectMapperBuilder.json()
+            .build()
+            .readValue(commodityBody, TradeTariffCommodityResponse.class);
+    StreamingCommodityResponseDecoder decoder =
+        new StreamingCommodityResponseDecoder(commodityBody.length);
+
+    StepVerifier.create(
+            decoder.decodeToMono(
+                chunked(commodityBody, 1024), COMMODITY_RESPONSE, MediaType.APPLICATION_JSON, null))
+        .assertNext(
+            decoded -> {
+              TradeTariffCommodityResponse response = (TradeTariffCommodityResponse) decoded;
+              assertThat(response.getData())
+                  .usingRecursiveComparison()
+                  .isEqualTo(expected.getData());
+              assertThat(response.getMeasures())
+                  .usingRecursiveFieldByFieldElementComparator()
+                  .containsExactlyElementsOf(expected.getMeasures());
+              assertThat(response.getMeasureTypes())
+                  .usingRecursiveFieldByFieldElementComparator()
+                  .containsExactlyElementsOf(expected.getMeasureTypes());
+              assertThat(response.getMeasureConditions())
+                  .usingRecursiveFieldByFieldElementComparator()
+                  .containsExactlyElementsOf(expected.getMeasureConditions());
+              assertThat(response.getGeographicalAreas())
+                  .usingRecursiveFieldByFieldElementComparator()
+                  .containsExactlyElementsOf(expected.getGeographicalAreas());
+              assertThat(response.getAdditionalCodes())
+                  .usingRecursiveFieldByFieldElementComparator()
+                  .containsExactlyElementsOf(expected.getAdditionalCodes());
+              assertThat(response.getDutyRates())
+                  .usingRecursiveFieldByFieldElementComparator()
+                  .containsExactlyElementsOf(expected.getDutyRates());
+            })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("should skip included entities the measures are not built from")
+  void shouldSkipUnusedIncludedEntities() {
+    StreamingCommodityResponseDecoder decoder =
+        new StreamingCommodityResponseDecoder(commodityBody.length);
+
+    StepVerifier.create(
+            decoder.decodeToMono(
+                chunked(commodityBody, 1024), COMMODITY_RESPONSE, MediaType.APPLICATION_JSON, null))
+        .assertNext(
+            decoded ->
+                // 70 measures, 14 measure types, 47 conditions, 254 geographical areas,
+                // 9 additional codes and 70 duty expressions
+                assertThat(((TradeTariffCommodityResponse) decoded).getIncluded())
+                    .hasSize(464)
+                    .noneMatch(
+                        entity ->
+                            entity instanceof CommoditySection
+                                || entity instanceof CommodityChapter))
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("should project included entities whose type follows their attributes")
+  void shouldProjectEntitiesWithTypeAfterAttributes() {
+    byte[] body =
+        ("{\"data\":{\"id\":\"1\",\"type\":\"commodity\"},\"included\":["
+                + "{\"attributes\":{\"title\":\"Section I\"},\"id\":\"1\",\"type\":\"section\"},"
+                + "{\"attributes\":{\"description\":\"Import control\"},\"type\":\"measure_type\","
+                + "\"id\":\"277\"}]}")
+            .getBytes(StandardCharsets.UTF_8);
+    StreamingCommodityResponseDecoder decoder = new StreamingCommodityResponseDecoder(body.length);
+
+    StepVerifier.create(
+            decoder.decodeToMono(
+                chunked(body, 16), COMMODITY_RESPONSE, MediaType.APPLICATION_JSON, null))
+        .assertNext(
+            decoded -> {
+              TradeTariffCommodityResponse response = (TradeTariffCommodityResponse) decoded;
+              assertThat(response.getIncluded()).hasSize(1);
+              assertThat(response.getMeasureTypes())
+                  .extracting(CommodityMeasureType::getId)
+                  .containsExactly("277");
+            })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("should decode an empty body to nothing")
+  void shouldDecodeEmptyBodyToNothing() {
+    StreamingCommodityResponseDecoder decoder = new StreamingCommodityResponseDecoder(4096);
+
+    StepVerifier.create(
+            decoder.decodeToMono(
+                Flux.empty(), COMMODITY_RESPONSE, MediaType.APPLICATION_JSON, null))
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("should fail commodities larger than the maximum response size")
+  void shouldFailCommoditiesLargerThanMaximumResponseSize() {
+    StreamingCommodityResponseDecoder decoder = new StreamingCommodityResponseDecoder(4096);
+
+    StepVerifier.create(
+            decoder.decodeToMono(
+                chunked(commodityBody, 1024), COMMODITY_RESPONSE, MediaType.APPLICATION_JSON, null))
+        .expectError(DataBufferLimitException.class)
+        .verify();
+  }
+
+  @Test
+  @DisplayName("should only decode commodity responses")
+  void shouldOnlyDecodeCommodityResponses() {
+    StreamingCommodityResponseDecoder decoder = new StreamingCommodityResponseDecoder(4096);
+
+    assertThat(decoder.canDecode(COMMODITY_RESPONSE, MediaType.APPLICATION_JSON)).isTrue();
+    assertThat(decoder.canDecode(ResolvableType.forClass(Map.class), MediaType.APPLICATION_JSON))
+        .isFalse();
+    assertThat(decoder.canDecode(COMMODITY_RESPONSE, MediaType.TEXT_HTML)).isFalse();
+  }
+
+  private static Flux<DataBuffer> chunked(byte[] body, int chunkSize) {
+    List<DataBuffer> chunks = new ArrayList<>();
+    for (int offset = 0; offset < body.length; offset += chunkSize) {
+      chunks.add(
+          DefaultDataBufferFactory.sharedInstance.wrap(
+              Arrays.copyOfRange(body, offset, Math.min(body.length, offset + chunkSize))));
+    }
+    return Flux.fromIterable(chunks);
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.client.ResponseSizeMetrics;
+
+class AppConfigTest {
+
+  private static final String RESPONSE_BYTES = "downstream_response_bytes";
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AppConfig appConfig = new AppConfig(null, null, null, null, meterRegistry);
+  private final OttConnectionPoolProperties ottConnectionPoolProperties =
+      new OttConnectionPoolProperties();
+  private ConnectionProvider ottConnectionProvider;
+  private MockWebServer mockWebServer;
+
+  @BeforeEach
+  @SneakyThrows
+  void beforeEach() {
+    mockWebServer = new MockWebServer();
+    mockWebServer.start();
+  }
+
+  @AfterEach
+  @SneakyThrows
+  void afterEach() {
+    if (ottConnectionProvider != null) {
+      ottConnectionProvider.dispose();
+    }
+    mockWebServer.shutdown();
+  }
+
+  @Test
+  @DisplayName("should hold no more connections to the OTT api than configured")
+  void shouldLimitTheConnectionsOfTheOttPool() {
+    ottConnectionPoolProperties.setMaxConnections(3);
+
+    ottConnectionProvider = appConfig.ottConnectionProvider(ottConnectionPoolProperties);
+
+    assertThat(ottConnectionProvider.maxConnections()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("should count the responses of the OTT api but not those of the warm-up")
+  void shouldCountTheResponsesOfTheOttApiButNotThoseOfTheWarmUp() {
+    mockWebServer.enqueue(new MockResponse().setBody("{}"));
+    mockWebServer.enqueue(new MockResponse().setBody("{}"));
+    ottConnectionProvider = appConfig.ottConnectionProvider(ottConnectionPoolProperties);
+
+    get(appConfig.ottConnectionHttpClient(ottConnectionProvider, ottConnectionPoolProperties));
+
+    assertThat(meterRegistry.find(RESPONSE_BYTES).counters()).isEmpty();
+
+    get(
+        appConfig.ottHttpClient(
+            ottConnectionProvider,
+            ottConnectionPoolProperties,
+            new ResponseSizeMetrics(meterRegistry)));
+
+    assertThat(meterRegistry.find(RESPONSE_BYTES).tag("upstream", "ott").counters()).isNotEmpty();
+  }
+
+  private void get(HttpClient httpClient) {
+    httpClient.get().uri(mockWebServer.url("/api/v2/sections").toString()).response().block();
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import lombok.SneakyThrows;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.test.StepVerifier;
+
+class OttConnectionWarmerTest {
+
+  private final OttConnectionPoolProperties ottConnectionPoolProperties =
+      new OttConnectionPoolProperties();
+  private ConnectionProvider connectionProvider;
+  private MockWebServer mockWebServer;
+
+  @BeforeEach
+  @SneakyThrows
+  void beforeEach() {
+    connectionProvider = ConnectionProvider.create("ottConnectionWarmerTest");
+    mockWebServer = new MockWebServer();
+    mockWebServer.start();
+  }
+
+  @AfterEach
+  @SneakyThrows
+  void afterEach() {
+    connectionProvider.dispose();
+    mockWebServer.shutdown();
+  }
+
+  @Test
+  @SneakyThrows
+  @DisplayName("should open no more connections than the pool holds")
+  void shouldOpenNoMoreConnectionsThanThePoolHolds() {
+    ottConnectionPoolProperties.setWarmUpConnections(5);
+    ottConnectionPoolProperties.setMaxConnections(2);
+    for (int i = 0; i < 5; i++) {
+      mockWebServer.enqueue(new MockResponse());
+    }
+
+    StepVerifier.create(warmer(mockWebServer.url("/").toString()).openConnections())
+        .expectNext(2L)
+        .verifyComplete();
+
+    assertThat(mockWebServer.getRequestCount()).isEqualTo(2);
+    // each request is the first one on its connection
+    assertThat(mockWebServer.takeRequest().getSequenceNumber()).isZero();
+    assertThat(mockWebServer.takeRequest().getSequenceNumber()).isZero();
+  }
+
+  @Test
+  @SneakyThrows
+  @DisplayName("should only log the connections which could not be opened")
+  void shouldOnlyLogFailures() {
+    ottConnectionPoolProperties.setWarmUpConnections(2);
+    String url = mockWebServer.url("/").toString();
+    mockWebServer.shutdown();
+
+    StepVerifier.create(warmer(url).openConnections()).expectNext(0L).verifyComplete();
+  }
+
+  @Test
+  @DisplayName("should open no connections when none are to be warmed up")
+  void shouldDoNothingWithoutWarmUpConnections() {
+    ottConnectionPoolProperties.setWarmUpConnections(0);
+
+    StepVerifier.create(warmer(mockWebServer.url("/").toString()).openConnections())
+        .verifyComplete();
+
+    assertThat(mockWebServer.getRequestCount()).isZero();
+  }
+
+  private OttConnectionWarmer warmer(String url) {
+    return new OttConnectionWarmer(
+        HttpClient.create(connectionProvider),
+        ottConnectionPoolProperties,
+        url,
+        Duration.ofSeconds(5));
+  }
+}
@@ -16,6 +16,7 @@
 
 package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.documentcodedescription;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale.EN;
 import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType.EXPORT;
@@ -41,14 +42,19 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedVersions;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ApplicationProperties;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.ContentApiConfiguration;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.DocumentCodeDescription;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.repository.DocumentCodeDescriptionRepository;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.UpstreamOverloadedException;
 
 @ExtendWith(MockitoExtension.class)
 class DocumentCodeDescriptionContentClientTest {
@@ -63,6 +69,9 @@ class DocumentCodeDescriptionContentClientTest {
   void beforeEach() {
     mockWebServer = new MockWebServer();
     mockWebServer.start();
+    var url = mockWebServer.url("/").toString();
+    var baseUrl = url.substring(0, url.lastIndexOf("/"));
+    when(contentApiConfiguration.getUrl()).thenReturn(baseUrl);
     applicationProperties = new ApplicationProperties(null, contentApiConfiguration);
     documentCodeDescriptionRepository =
         new DocumentCodeDescriptionContentClient(
@@ -110,10 +119,6 @@ class DocumentCodeDescriptionContentClientTest {
             .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
             .setBody(response));
 
-    var url = mockWebServer.url("/").toString();
-    var baseUrl = url.substring(0, url.lastIndexOf("/"));
-    when(contentApiConfiguration.getUrl()).thenReturn(baseUrl);
-
     Flux<DocumentCodeDescription> result =
         documentCodeDescriptionRepository.findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale(
             Arrays.asList("9111", "9100"), IMPORT, EN);
@@ -156,10 +161,6 @@ class DocumentCodeDescriptionContentClientTest {
             .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
             .setBody(response));
 
-    var url = mockWebServer.url("/").toString();
-    var baseUrl = url.substring(0, url.lastIndexOf("/"));
-    when(contentApiConfiguration.getUrl()).thenReturn(baseUrl);
-
     Flux<DocumentCodeDescription> result =
         documentCodeDescriptionRepository.findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale(
             Arrays.asList("9111", "9100"), EXPORT, EN);
@@ -180,10 +181,6 @@ class DocumentCodeDescriptionContentClientTest {
             .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
             .setBody(new ObjectMapper().writeValueAsString(resp)));
 
-    var url = mockWebServer.url("/").toString();
-    var baseUrl = url.substring(0, url.lastIndexOf("/"));
-    when(contentApiConfiguration.getUrl()).thenReturn(baseUrl);
-
     Flux<DocumentCodeDescription> result =
         documentCodeDescriptionRepository.findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale(
             Arrays.asList("9111", "9100"), tradeType, locale);
@@ -202,14 +199,63 @@ class DocumentCodeDescriptionContentClientTest {
             .setResponseCode(500)
             .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE));
 
-    var url = mockWebServer.url("/").toString();
-    var baseUrl = url.substring(0, url.lastIndexOf("/"));
-    when(contentApiConfiguration.getUrl()).thenReturn(baseUrl);
-
     Flux<DocumentCodeDescription> result =
         documentCodeDescriptionRepository.findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale(
             Arrays.asList("9111", "9100"), tradeType, locale);
 
-    StepVerifier.create(result).verifyComplete();
+    ServedVersions servedVersions = new ServedVersions();
+    StepVerifier.create(result.contextWrite(Context.of(ServedVersions.class, servedVersions)))
+        .verifyComplete();
+    assertThat(servedVersions.isMissingContent()).isTrue();
+  }
+
+  @SneakyThrows
+  @Test
+  void shouldFillInTheQueryParametersOfEachCall() {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+    mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+
+    StepVerifier.create(
+            documentCodeDescriptionRepository.findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale(
+                List.of("9111", "9100"), IMPORT, Locale.EN))
+        .verifyComplete();
+    StepVerifier.create(
+            documentCodeDescriptionRepository.findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale(
+                List.of("C644"), EXPORT, Locale.CY))
+        .verifyComplete();
+
+    assertThat(mockWebServer.takeRequest().getPath())
+        .isEqualTo("/api/v1/document-code-descriptions?documentCodes=9111,9100&locale=EN&tradeType=IMPORT");
+    assertThat(mockWebServer.takeRequest().getPath())
+        .isEqualTo("/api/v1/document-code-descriptions?documentCodes=C644&locale=CY&tradeType=EXPORT");
+  }
+
+  @Test
+  void shouldPropagateRejectionsByTheConcurrencyLimit() {
+    WebClient overloadedWebClient =
+        WebClient.builder()
+            .filter((request, next) -> Mono.error(new UpstreamOverloadedException("contentApi")))
+            .build();
+
+    StepVerifier.create(
+            new DocumentCodeDescriptionContentClient(overloadedWebClient, applicationProperties)
+                .findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale(
+                    List.of("C644"), IMPORT, EN))
+        .expectError(UpstreamOverloadedException.class)
+        .verify();
+  }
+
+  @Test
+  void shouldPropagateErrorsWhenFetchingWithoutFallback() {
+    mockWebServer.enqueue(
+        new MockResponse()
+            .setResponseCode(500)
+            .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE));
+
+    StepVerifier.create(
+            new DocumentCodeDescriptionContentClient(WebClient.builder().build(), applicationProperties)
+                .fetchDocumentCodeDescriptions(List.of("C644"), IMPORT, EN))
+        .expectError(WebClientResponseException.class)
+        .verify();
   }
 }
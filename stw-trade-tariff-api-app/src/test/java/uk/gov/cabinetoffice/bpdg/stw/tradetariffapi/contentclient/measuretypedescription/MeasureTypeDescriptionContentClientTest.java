@@ -16,6 +16,7 @@
 
 package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.measuretypedescription;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType.EXPORT;
 import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType.IMPORT;
@@ -39,14 +40,19 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedVersions;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ApplicationProperties;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.ContentApiConfiguration;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.MeasureTypeDescription;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.repository.MeasureTypeDescriptionRepository;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.UpstreamOverloadedException;
 
 @ExtendWith(MockitoExtension.class)
 class MeasureTypeDescriptionContentClientTest {
@@ -61,6 +67,9 @@ class MeasureTypeDescriptionContentClientTest {
   void beforeEach() {
     mockWebServer = new MockWebServer();
     mockWebServer.start();
+    var url = mockWebServer.url("/").toString();
+    var baseUrl = url.substring(0, url.lastIndexOf("/"));
+    when(contentApiConfiguration.getUrl()).thenReturn(baseUrl);
     applicationProperties = new ApplicationProperties(null, contentApiConfiguration);
     measureTypeDescriptionRepository =
         new MeasureTypeDescriptionContentClient(WebClient.builder().build(), applicationProperties);
@@ -98,10 +107,6 @@ class MeasureTypeDescriptionContentClientTest {
             .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
             .setBody(response));
 
-    var url = mockWebServer.url("/").toString();
-    var baseUrl = url.substring(0, url.lastIndexOf("/"));
-    when(contentApiConfiguration.getUrl()).thenReturn(baseUrl);
-
     Flux<MeasureTypeDescription> result =
         measureTypeDescriptionRepository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
             List.of("750"), IMPORT, Locale.EN);
@@ -135,10 +140,6 @@ class MeasureTypeDescriptionContentClientTest {
             .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
             .setBody(response));
 
-    var url = mockWebServer.url("/").toString();
-    var baseUrl = url.substring(0, url.lastIndexOf("/"));
-    when(contentApiConfiguration.getUrl()).thenReturn(baseUrl);
-
     Flux<MeasureTypeDescription> result =
         measureTypeDescriptionRepository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
             List.of("750"), EXPORT, Locale.EN);
@@ -159,10 +160,6 @@ class MeasureTypeDescriptionContentClientTest {
             .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
             .setBody(new ObjectMapper().writeValueAsString(resp)));
 
-    var url = mockWebServer.url("/").toString();
-    var baseUrl = url.substring(0, url.lastIndexOf("/"));
-    when(contentApiConfiguration.getUrl()).thenReturn(baseUrl);
-
     Flux<MeasureTypeDescription> result =
         measureTypeDescriptionRepository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
             List.of("355"), tradeType, locale);
@@ -181,14 +178,63 @@ class MeasureTypeDescriptionContentClientTest {
             .setResponseCode(500)
             .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE));
 
-    var url = mockWebServer.url("/").toString();
-    var baseUrl = url.substring(0, url.lastIndexOf("/"));
-    when(contentApiConfiguration.getUrl()).thenReturn(baseUrl);
-
     Flux<MeasureTypeDescription> result =
         measureTypeDescriptionRepository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
             List.of("355"), tradeType, locale);
 
-    StepVerifier.create(result).verifyComplete();
+    ServedVersions servedVersions = new ServedVersions();
+    StepVerifier.create(result.contextWrite(Context.of(ServedVersions.class, servedVersions)))
+        .verifyComplete();
+    assertThat(servedVersions.isMissingContent()).isTrue();
+  }
+
+  @SneakyThrows
+  @Test
+  void shouldFillInTheQueryParametersOfEachCall() {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+    mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+
+    StepVerifier.create(
+            measureTypeDescriptionRepository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                List.of("750", "760"), IMPORT, Locale.EN))
+        .verifyComplete();
+    StepVerifier.create(
+            measureTypeDescriptionRepository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                List.of("350"), EXPORT, Locale.CY))
+        .verifyComplete();
+
+    assertThat(mockWebServer.takeRequest().getPath())
+        .isEqualTo("/api/v1/measure-type-descriptions?measureTypes=750,760&locale=EN&tradeType=IMPORT");
+    assertThat(mockWebServer.takeRequest().getPath())
+        .isEqualTo("/api/v1/measure-type-descriptions?measureTypes=350&locale=CY&tradeType=EXPORT");
+  }
+
+  @Test
+  void shouldPropagateRejectionsByTheConcurrencyLimit() {
+    WebClient overloadedWebClient =
+        WebClient.builder()
+            .filter((request, next) -> Mono.error(new UpstreamOverloadedException("contentApi")))
+            .build();
+
+    StepVerifier.create(
+            new MeasureTypeDescriptionContentClient(overloadedWebClient, applicationProperties)
+                .findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                    List.of("355"), IMPORT, Locale.EN))
+        .expectError(UpstreamOverloadedException.class)
+        .verify();
+  }
+
+  @Test
+  void shouldPropagateErrorsWhenFetchingWithoutFallback() {
+    mockWebServer.enqueue(
+        new MockResponse()
+            .setResponseCode(500)
+            .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE));
+
+    StepVerifier.create(
+            new MeasureTypeDescriptionContentClient(WebClient.builder().build(), applicationProperties)
+                .fetchMeasureTypeDescriptions(List.of("355"), IMPORT, Locale.EN))
+        .expectError(WebClientResponseException.class)
+        .verify();
   }
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.snapshot;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale.EN;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType.IMPORT;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ContentSnapshotProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.documentcodedescription.DocumentCodeDescriptionContentClient;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.DocumentCodeDescription;
+
+@ExtendWith(MockitoExtension.class)
+class SnapshotDocumentCodeDescriptionRepositoryTest {
+
+  private static final DocumentCodeDescription DOCUMENT_CODE_C644 =
+      DocumentCodeDescription.builder()
+          .documentCode("C644")
+          .descriptionOverlay("Certificate of inspection for organic products")
+          .locale(EN)
+          .tradeType(IMPORT)
+          .build();
+
+  @Mock private DocumentCodeDescriptionContentClient documentCodeDescriptionContentClient;
+
+  private final ContentSnapshotProperties contentSnapshotProperties =
+      new ContentSnapshotProperties();
+
+  private SnapshotDocumentCodeDescriptionRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    repository =
+        new SnapshotDocumentCodeDescriptionRepository(
+            documentCodeDescriptionContentClient,
+            contentSnapshotProperties,
+            new SimpleMeterRegistry(),
+            Clock.fixed(Instant.parse("2022-05-10T10:00:00Z"), ZoneOffset.UTC));
+  }
+
+  @Test
+  @DisplayName("should call the content api directly when the snapshot is disabled")
+  void shouldCallContentApiWhenDisabled() {
+    when(documentCodeDescriptionContentClient
+            .findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale(
+                List.of("C644"), IMPORT, EN))
+        .thenReturn(Flux.just(DOCUMENT_CODE_C644));
+
+    StepVerifier.create(
+            repository.findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale(
+                List.of("C644"), IMPORT, EN))
+        .expectNext(DOCUMENT_CODE_C644)
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("should serve preloaded document codes without calling the content api")
+  void shouldServePreloadedDocumentCodes() {
+    contentSnapshotProperties.setEnable(true);
+    contentSnapshotProperties.setPreloadDocumentCodes(List.of("C644"));
+    when(documentCodeDescriptionContentClient.fetchDocumentCodeDescriptions(
+            eq(List.of("C644")), any(), any()))
+        .thenReturn(Flux.empty());
+    when(documentCodeDescriptionContentClient.fetchDocumentCodeDescriptions(
+            List.of("C644"), IMPORT, EN))
+        .thenReturn(Flux.just(DOCUMENT_CODE_C644));
+
+    StepVerifier.create(repository.refresh()).verifyComplete();
+    StepVerifier.create(
+            repository.findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale(
+                List.of("C644"), IMPORT, EN))
+        .expectNext(DOCUMENT_CODE_C644)
+        .verifyComplete();
+
+    verify(documentCodeDescriptionContentClient)
+        .fetchDocumentCodeDescriptions(List.of("C644"), IMPORT, EN);
+  }
+
+  @Test
+  @DisplayName("should not load the snapshot on start up when it is disabled")
+  void shouldNotLoadWhenDisabled() {
+    repository.load();
+    repository.scheduledRefresh();
+
+    verifyNoMoreInteractions(documentCodeDescriptionContentClient);
+  }
+}
@@ -0,0 +1,419 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale.CY;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale.EN;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType.EXPORT;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType.IMPORT;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ContentSnapshotProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.measuretypedescription.MeasureTypeDescriptionContentClient;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.MeasureTypeDescription;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.UpstreamOverloadedException;
+
+@ExtendWith(MockitoExtension.class)
+class SnapshotMeasureTypeDescriptionRepositoryTest {
+
+  private static final Instant LOADED_AT = Instant.parse("2022-05-10T10:00:00Z");
+
+  private static final MeasureTypeDescription MEASURE_TYPE_750 =
+      MeasureTypeDescription.builder()
+          .measureTypeId("750")
+          .descriptionOverlay("Import control of organic products")
+          .build();
+  private static final MeasureTypeDescription MEASURE_TYPE_410 =
+      MeasureTypeDescription.builder()
+          .measureTypeId("410")
+          .descriptionOverlay("Veterinary control")
+          .build();
+
+  @Mock private MeasureTypeDescriptionContentClient measureTypeDescriptionContentClient;
+  @Mock private Clock clock;
+
+  private final ContentSnapshotProperties contentSnapshotProperties =
+      new ContentSnapshotProperties();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private SnapshotMeasureTypeDescriptionRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    repository =
+        new SnapshotMeasureTypeDescriptionRepository(
+            measureTypeDescriptionContentClient, contentSnapshotProperties, meterRegistry, clock);
+  }
+
+  @Test
+  @DisplayName("should call the content api directly when the snapshot is disabled")
+  void shouldCallContentApiWhenDisabled() {
+    when(measureTypeDescriptionContentClient
+            .findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                List.of("750"), IMPORT, EN))
+        .thenReturn(Flux.just(MEASURE_TYPE_750));
+
+    StepVerifier.create(
+            repository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                List.of("750"), IMPORT, EN))
+        .expectNext(MEASURE_TYPE_750)
+        .verifyComplete();
+    StepVerifier.create(
+            repository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                List.of("750"), IMPORT, EN))
+        .expectNext(MEASURE_TYPE_750)
+        .verifyComplete();
+
+    verify(measureTypeDescriptionContentClient, times(2))
+        .findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+            List.of("750"), IMPORT, EN);
+  }
+
+  @Test
+  @DisplayName("should have no version when the snapshot is disabled")
+  void shouldHaveNoVersionWhenDisabled() {
+    assertThat(repository.getVersion()).isEmpty();
+  }
+
+  @Nested
+  class WithSnapshotEnabled {
+
+    @BeforeEach
+    void enableSnapshot() {
+      contentSnapshotProperties.setEnable(true);
+    }
+
+    @Test
+    @DisplayName("should fetch ids missing from the snapshot once and then serve them from memory")
+    void shouldReadThroughMissingIds() {
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              List.of("750", "999"), IMPORT, EN))
+          .thenReturn(Flux.just(MEASURE_TYPE_750));
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              List.of("410"), IMPORT, EN))
+          .thenReturn(Flux.just(MEASURE_TYPE_410));
+
+      StepVerifier.create(
+              repository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                  List.of("750", "999"), IMPORT, EN))
+          .expectNext(MEASURE_TYPE_750)
+          .verifyComplete();
+      StepVerifier.create(
+              repository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                  List.of("999", "750", "410"), IMPORT, EN))
+          .expectNext(MEASURE_TYPE_750, MEASURE_TYPE_410)
+          .verifyComplete();
+      StepVerifier.create(
+              repository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                  List.of("750", "410", "999"), IMPORT, EN))
+          .expectNext(MEASURE_TYPE_750, MEASURE_TYPE_410)
+          .verifyComplete();
+
+      verify(measureTypeDescriptionContentClient)
+          .fetchMeasureTypeDescriptions(List.of("750", "999"), IMPORT, EN);
+      verify(measureTypeDescriptionContentClient)
+          .fetchMeasureTypeDescriptions(List.of("410"), IMPORT, EN);
+      verifyNoMoreInteractions(measureTypeDescriptionContentClient);
+    }
+
+    @Test
+    @DisplayName("should keep descriptions of different trade types and locales apart")
+    void shouldKeepTradeTypesAndLocalesApart() {
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              List.of("750"), IMPORT, EN))
+          .thenReturn(Flux.just(MEASURE_TYPE_750));
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              List.of("750"), EXPORT, CY))
+          .thenReturn(Flux.empty());
+
+      StepVerifier.create(
+              repository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                  List.of("750"), IMPORT, EN))
+          .expectNext(MEASURE_TYPE_750)
+          .verifyComplete();
+      StepVerifier.create(
+              repository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                  List.of("750"), EXPORT, CY))
+          .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should serve what is known and not remember ids which could not be fetched")
+    void shouldNotRememberIdsWhichCouldNotBeFetched() {
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              List.of("750"), IMPORT, EN))
+          .thenReturn(Flux.just(MEASURE_TYPE_750));
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              List.of("410"), IMPORT, EN))
+          .thenReturn(Flux.error(new IllegalStateException("content api unavailable")))
+          .thenReturn(Flux.just(MEASURE_TYPE_410));
+
+      StepVerifier.create(
+              repository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                  List.of("750"), IMPORT, EN))
+          .expectNext(MEASURE_TYPE_750)
+          .verifyComplete();
+      StepVerifier.create(
+              repository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                  List.of("750", "410"), IMPORT, EN))
+          .expectNext(MEASURE_TYPE_750)
+          .verifyComplete();
+      StepVerifier.create(
+              repository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                  List.of("750", "410"), IMPORT, EN))
+          .expectNext(MEASURE_TYPE_750, MEASURE_TYPE_410)
+          .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should pass on rejections by the concurrency limit of the content api")
+    void shouldPropagateRejectionsByTheConcurrencyLimit() {
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              List.of("410"), IMPORT, EN))
+          .thenReturn(Flux.error(new UpstreamOverloadedException("contentApi")));
+
+      StepVerifier.create(
+              repository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                  List.of("410"), IMPORT, EN))
+          .expectError(UpstreamOverloadedException.class)
+          .verify();
+    }
+
+    @Test
+    @DisplayName("should reload the preload ids and every id seen so far on refresh")
+    void shouldReloadKnownAndPreloadIdsOnRefresh() {
+      contentSnapshotProperties.setPreloadMeasureTypes(List.of("410"));
+      MeasureTypeDescription updated750 =
+          MeasureTypeDescription.builder()
+              .measureTypeId("750")
+              .descriptionOverlay("Updated organic products")
+              .build();
+      when(clock.instant()).thenReturn(LOADED_AT);
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              List.of("750"), IMPORT, EN))
+          .thenReturn(Flux.just(MEASURE_TYPE_750));
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              List.of("410", "750"), IMPORT, EN))
+          .thenReturn(Flux.just(MEASURE_TYPE_410, updated750));
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              eq(List.of("410")), any(), any()))
+          .thenReturn(Flux.empty());
+
+      StepVerifier.create(
+              repository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                  List.of("750"), IMPORT, EN))
+          .expectNext(MEASURE_TYPE_750)
+          .verifyComplete();
+
+      StepVerifier.create(repository.refresh()).verifyComplete();
+
+      StepVerifier.create(
+              repository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                  List.of("750", "410"), IMPORT, EN))
+          .expectNext(updated750, MEASURE_TYPE_410)
+          .verifyComplete();
+      StepVerifier.create(
+              repository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                  List.of("410"), EXPORT, CY))
+          .verifyComplete();
+      assertThat(
+              meterRegistry
+                  .get("content_snapshot_entries")
+                  .tag("name", "measureTypeDescriptions")
+                  .gauge()
+                  .value())
+          .isEqualTo(5.0);
+    }
+
+    @Test
+    @DisplayName("should keep serving the last good snapshot when a refresh fails")
+    void shouldKeepLastGoodSnapshotWhenRefreshFails() {
+      contentSnapshotProperties.setPreloadMeasureTypes(List.of("750"));
+      when(clock.instant()).thenReturn(LOADED_AT);
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              List.of("750"), IMPORT, EN))
+          .thenReturn(Flux.just(MEASURE_TYPE_750))
+          .thenReturn(Flux.error(new IllegalStateException("content api unavailable")));
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              eq(List.of("750")), eq(EXPORT), any()))
+          .thenReturn(Flux.empty());
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              List.of("750"), IMPORT, CY))
+          .thenReturn(Flux.empty());
+
+      StepVerifier.create(repository.refresh()).verifyComplete();
+      StepVerifier.create(repository.refresh()).verifyComplete();
+
+      StepVerifier.create(
+              repository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                  List.of("750"), IMPORT, EN))
+          .expectNext(MEASURE_TYPE_750)
+          .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should keep ids read through while a refresh is in flight")
+    void shouldKeepIdsReadThroughDuringRefresh() {
+      contentSnapshotProperties.setPreloadMeasureTypes(List.of("750"));
+      Sinks.One<MeasureTypeDescription> reloaded750 = Sinks.one();
+      when(clock.instant()).thenReturn(LOADED_AT);
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              eq(List.of("750")), any(), any()))
+          .thenReturn(Flux.empty());
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              List.of("750"), IMPORT, EN))
+          .thenReturn(reloaded750.asMono().flux());
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              List.of("410"), IMPORT, EN))
+          .thenReturn(Flux.just(MEASURE_TYPE_410));
+
+      StepVerifier.create(repository.refresh())
+          .then(
+              () ->
+                  StepVerifier.create(
+                          repository
+                              .findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                                  List.of("410"), IMPORT, EN))
+                      .expectNext(MEASURE_TYPE_410)
+                      .verifyComplete())
+          .then(() -> reloaded750.tryEmitValue(MEASURE_TYPE_750))
+          .verifyComplete();
+
+      StepVerifier.create(
+              repository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                  List.of("750", "410"), IMPORT, EN))
+          .expectNext(MEASURE_TYPE_750, MEASURE_TYPE_410)
+          .verifyComplete();
+      verify(measureTypeDescriptionContentClient)
+          .fetchMeasureTypeDescriptions(List.of("410"), IMPORT, EN);
+    }
+
+    @Test
+    @DisplayName("should not wait for a scheduled refresh to finish")
+    void shouldNotBlockOnScheduledRefresh() {
+      contentSnapshotProperties.setPreloadMeasureTypes(List.of("750"));
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              List.of("750"), IMPORT, EN))
+          .thenReturn(Flux.never());
+
+      assertTimeoutPreemptively(Duration.ofSeconds(5), repository::scheduledRefresh);
+
+      verify(measureTypeDescriptionContentClient)
+          .fetchMeasureTypeDescriptions(List.of("750"), IMPORT, EN);
+    }
+
+    @Test
+    @DisplayName("should change the version when a refresh loads different descriptions only")
+    void shouldVersionTheDescriptionsLoaded() {
+      contentSnapshotProperties.setPreloadMeasureTypes(List.of("750"));
+      when(clock.instant()).thenReturn(LOADED_AT);
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              eq(List.of("750")), any(), any()))
+          .thenReturn(Flux.just(MEASURE_TYPE_750));
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              List.of("410"), IMPORT, EN))
+          .thenReturn(Flux.just(MEASURE_TYPE_410));
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              List.of("750", "410"), IMPORT, EN))
+          .thenReturn(Flux.just(MEASURE_TYPE_750, MEASURE_TYPE_410));
+      String emptyVersion = repository.getVersion().orElseThrow();
+
+      StepVerifier.create(repository.refresh()).verifyComplete();
+      String loadedVersion = repository.getVersion().orElseThrow();
+      StepVerifier.create(
+              repository.findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                  List.of("410"), IMPORT, EN))
+          .expectNext(MEASURE_TYPE_410)
+          .verifyComplete();
+      assertThat(repository.getVersion()).contains(loadedVersion);
+
+      StepVerifier.create(repository.refresh()).verifyComplete();
+      String reloadedVersion = repository.getVersion().orElseThrow();
+      StepVerifier.create(repository.refresh()).verifyComplete();
+
+      assertThat(loadedVersion).isNotEqualTo(emptyVersion);
+      assertThat(reloadedVersion).isNotEqualTo(loadedVersion);
+      assertThat(repository.getVersion()).contains(reloadedVersion);
+    }
+
+    @Test
+    @DisplayName("should version the same descriptions alike in every repository")
+    void shouldVersionTheSameDescriptionsAlike() {
+      contentSnapshotProperties.setPreloadMeasureTypes(List.of("750", "410"));
+      when(clock.instant()).thenReturn(LOADED_AT);
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              eq(List.of("750", "410")), any(), any()))
+          .thenReturn(Flux.empty());
+      when(measureTypeDescriptionContentClient.fetchMeasureTypeDescriptions(
+              List.of("750", "410"), IMPORT, EN))
+          .thenReturn(Flux.just(MEASURE_TYPE_750, MEASURE_TYPE_410))
+          .thenReturn(Flux.just(MEASURE_TYPE_410, MEASURE_TYPE_750));
+      SnapshotMeasureTypeDescriptionRepository otherRepository =
+          new SnapshotMeasureTypeDescriptionRepository(
+              measureTypeDescriptionContentClient,
+              contentSnapshotProperties,
+              new SimpleMeterRegistry(),
+              clock);
+
+      StepVerifier.create(repository.refresh()).verifyComplete();
+      StepVerifier.create(otherRepository.refresh()).verifyComplete();
+
+      assertThat(otherRepository.getVersion()).isEqualTo(repository.getVersion());
+    }
+
+    @Test
+    @DisplayName("should report the age of the snapshot")
+    void shouldReportSnapshotAge() {
+      assertThat(snapshotAge()).isNaN();
+
+      when(clock.instant()).thenReturn(LOADED_AT).thenReturn(LOADED_AT.plusSeconds(90));
+      StepVerifier.create(repository.refresh()).verifyComplete();
+
+      assertThat(snapshotAge()).isEqualTo(90.0);
+    }
+
+    private double snapshotAge() {
+      return meterRegistry
+          .get("content_snapshot_age_seconds")
+          .tag("name", "measureTypeDescriptions")
+          .gauge()
+          .value();
+    }
+  }
+}
@@ -27,15 +27,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Mono;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponseData;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.AdditionalCode;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureType;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.ResourceNotFoundException;
-import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureBuilder;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
 
 @ExtendWith(MockitoExtension.class)
 class AdditionalCodesServiceTest {
@@ -71,33 +69,21 @@ class AdditionalCodesServiceTest {
           .additionalCode(AdditionalCode.builder().code("4999").description("Other").build())
           .build();
   private final String commodityCode = "4103900000";
-  private final TradeTariffCommodityResponse tariffCommodityResponse =
-      TradeTariffCommodityResponse.builder()
-          .data(
-              TradeTariffCommodityResponseData.builder()
-                  .id("1234")
-                  .type("commodity")
-                  .formattedDescription("description")
-                  .goodsNomenclatureItemId(commodityCode)
-                  .build())
-          .build();
   private final TradeType tradeType = TradeType.IMPORT;
   private final String origin = "TR";
   private final UkCountry destination = UkCountry.GB;
-  private @Mock TradeTariffApiGateway tradeTariffApiGateway;
-  private @Mock MeasureBuilder measureBuilder;
+  private @Mock MeasureViewService measureViewService;
   private @Mock MeasureFilterer measureFilterer;
   private @InjectMocks AdditionalCodesService additionalCodesService;
 
   @Test
   void shouldReturnAdditionalCodesForImports() {
     var tradeDate = LocalDate.now();
-    when(tradeTariffApiGateway.getCommodity(commodityCode, tradeDate, destination))
-        .thenReturn(Mono.just(tariffCommodityResponse));
-
     List<Measure> builtMeasures = List.of(MEASURE1, MEASURE2, MEASURE3, MEASURE4);
-    when(measureBuilder.from(tariffCommodityResponse, commodityCode)).thenReturn(builtMeasures);
-    when(measureFilterer.getRestrictiveMeasures(builtMeasures, tradeType, origin))
+    MeasureView measureView = MeasureView.of(builtMeasures);
+    when(measureViewService.getMeasureView(commodityCode, tradeDate, destination))
+        .thenReturn(Mono.just(measureView));
+    when(measureFilterer.getRestrictiveMeasures(measureView, tradeType, origin))
         .thenReturn(builtMeasures);
     List<AdditionalCode> additionalCodes =
         additionalCodesService
@@ -117,12 +103,11 @@ class AdditionalCodesServiceTest {
     UkCountry origin = UkCountry.XI;
     String destination = "CH";
     var tradeDate = LocalDate.now();
-    when(tradeTariffApiGateway.getCommodity(commodityCode, tradeDate, origin))
-        .thenReturn(Mono.just(tariffCommodityResponse));
-
     List<Measure> builtMeasures = List.of(MEASURE1, MEASURE2, MEASURE3, MEASURE4);
-    when(measureBuilder.from(tariffCommodityResponse, commodityCode)).thenReturn(builtMeasures);
-    when(measureFilterer.getRestrictiveMeasures(builtMeasures, TradeType.EXPORT, destination))
+    MeasureView measureView = MeasureView.of(builtMeasures);
+    when(measureViewService.getMeasureView(commodityCode, tradeDate, origin))
+        .thenReturn(Mono.just(measureView));
+    when(measureFilterer.getRestrictiveMeasures(measureView, TradeType.EXPORT, destination))
         .thenReturn(builtMeasures);
     List<AdditionalCode> additionalCodes =
         additionalCodesService
@@ -141,12 +126,10 @@ class AdditionalCodesServiceTest {
   @Test
   void shouldReturnEmptyWhenNoAdditionalCodesExist() {
     var importDate = LocalDate.now();
-    when(tradeTariffApiGateway.getCommodity(commodityCode, importDate, destination))
-        .thenReturn(Mono.just(tariffCommodityResponse));
-
-    List<Measure> builtMeasures = List.of(MEASURE1, MEASURE2, MEASURE3, MEASURE4);
-    when(measureBuilder.from(tariffCommodityResponse, commodityCode)).thenReturn(builtMeasures);
-    when(measureFilterer.getRestrictiveMeasures(builtMeasures, tradeType, origin))
+    MeasureView measureView = MeasureView.of(List.of(MEASURE1, MEASURE2, MEASURE3, MEASURE4));
+    when(measureViewService.getMeasureView(commodityCode, importDate, destination))
+        .thenReturn(Mono.just(measureView));
+    when(measureFilterer.getRestrictiveMeasures(measureView, tradeType, origin))
         .thenReturn(Collections.emptyList());
 
     List<AdditionalCode> additionalCodes =
@@ -160,7 +143,7 @@ class AdditionalCodesServiceTest {
   @Test
   void shouldThrowExceptionWhenCommodityNotFound() {
     var importDate = LocalDate.now();
-    when(tradeTariffApiGateway.getCommodity(commodityCode, importDate, destination))
+    when(measureViewService.getMeasureView(commodityCode, importDate, destination))
         .thenReturn(Mono.error(new ResourceNotFoundException("Commodity", "4103900000")));
 
     assertThatExceptionOfType(ResourceNotFoundException.class)
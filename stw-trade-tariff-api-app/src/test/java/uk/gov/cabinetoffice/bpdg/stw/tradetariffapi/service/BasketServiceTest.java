@@ -0,0 +1,310 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.util.function.Tuples;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.BasketProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.BasketLineResult;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.ConditionBasedRestrictiveMeasure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Duty;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.RestrictiveMeasure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TariffAndTaxes;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Tax;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.ResourceNotFoundException;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.BasketLine;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.BasketRequest;
+
+@ExtendWith(MockitoExtension.class)
+class BasketServiceTest {
+
+  private static final LocalDate DATE_OF_TRADE = LocalDate.of(2022, 5, 10);
+  private static final String COMMODITY_CODE = "0123456789";
+  private static final String UNKNOWN_COMMODITY_CODE = "9999999999";
+  private static final String FAILED_COMMODITY_CODE = "1111111111";
+
+  private static final Measure RESTRICTIVE_MEASURE =
+      Measure.builder()
+          .id("1")
+          .measureType(MeasureType.builder().id("350").seriesId("B").build())
+          .applicableTradeTypes(List.of(TradeType.IMPORT, TradeType.EXPORT))
+          .build();
+  private static final Measure DUTY_MEASURE =
+      Measure.builder()
+          .id("2")
+          .measureType(MeasureType.builder().id("305").seriesId("P").build())
+          .taxMeasure(true)
+          .applicableTradeTypes(List.of(TradeType.IMPORT))
+          .build();
+
+  @Mock private MeasureViewService measureViewService;
+  @Mock private MeasureFilterer measureFilterer;
+  @Mock private MeasureTypeService measureTypeService;
+  @Mock private ProhibitionContentService prohibitionContentService;
+  @Mock private DutyMeasureService dutyMeasureService;
+
+  private final MeasureView measureView =
+      MeasureView.of(List.of(RESTRICTIVE_MEASURE, DUTY_MEASURE));
+
+  private BasketService basketService;
+
+  @BeforeEach
+  void setUp() {
+    basketService =
+        new BasketService(
+            measureViewService,
+            measureFilterer,
+            measureTypeService,
+            prohibitionContentService,
+            dutyMeasureService,
+            new BasketProperties());
+  }
+
+  @Test
+  @DisplayName("should answer identical lines once and report lines of unknown commodities")
+  void shouldGetMeasuresAndDutiesOfEveryDistinctLine() {
+    BasketLine line = BasketLine.builder().commodityCode(COMMODITY_CODE).build();
+    BasketLine lineWithAdditionalCode =
+        BasketLine.builder().commodityCode(COMMODITY_CODE).additionalCode("4200").build();
+    BasketLine lineOfUnknownCommodity =
+        BasketLine.builder().commodityCode(UNKNOWN_COMMODITY_CODE).build();
+    BasketRequest request =
+        BasketRequest.builder()
+            .tradeType(TradeType.IMPORT)
+            .originCountry("CN")
+            .destinationCountry("GB")
+            .tradeDate(DATE_OF_TRADE)
+            .locale(Locale.EN)
+            .lines(List.of(line, lineOfUnknownCommodity, lineWithAdditionalCode, line))
+            .build();
+    RestrictiveMeasure restrictiveMeasure =
+        ConditionBasedRestrictiveMeasure.builder().id("350").build();
+    Tax tax = Tax.builder().measureTypeId("305").build();
+
+    when(measureViewService.getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+        .thenReturn(Mono.just(measureView));
+    when(measureViewService.getMeasureView(UNKNOWN_COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+        .thenReturn(Mono.error(new ResourceNotFoundException("Commodity", UNKNOWN_COMMODITY_CODE)));
+    when(measureFilterer.getRestrictiveMeasures(measureView, TradeType.IMPORT, "CN"))
+        .thenReturn(List.of(RESTRICTIVE_MEASURE));
+    when(measureFilterer.maybeFilterByAdditionalCode(
+            List.of(RESTRICTIVE_MEASURE), Optional.empty()))
+        .thenReturn(List.of(RESTRICTIVE_MEASURE));
+    when(measureFilterer.maybeFilterByAdditionalCode(
+            List.of(RESTRICTIVE_MEASURE), Optional.of("4200")))
+        .thenReturn(List.of());
+    when(measureFilterer.getTaxAndDutyMeasures(measureView, TradeType.IMPORT, "CN"))
+        .thenReturn(List.of(DUTY_MEASURE));
+    when(dutyMeasureService.getTariffsAndTaxesMeasuresInBatch(
+            Map.of(line, List.of(DUTY_MEASURE), lineWithAdditionalCode, List.of(DUTY_MEASURE)),
+            TradeType.IMPORT,
+            Locale.EN))
+        .thenReturn(
+            Mono.just(
+                Map.<BasketLine, List<Duty>>of(
+                    line, List.of(tax), lineWithAdditionalCode, List.of(tax))));
+    when(measureTypeService.getRestrictiveMeasuresInBatch(
+            eq(
+                Map.of(
+                    line,
+                    List.of(RESTRICTIVE_MEASURE),
+                    lineWithAdditionalCode,
+                    List.<Measure>of())),
+            any(),
+            eq(TradeType.IMPORT),
+            eq(Locale.EN)))
+        .thenReturn(
+            Flux.just(
+                Tuples.of(lineWithAdditionalCode, List.<RestrictiveMeasure>of()),
+                Tuples.of(line, List.of(restrictiveMeasure))));
+    when(prohibitionContentService.getProhibitions(
+            List.of(RESTRICTIVE_MEASURE), "CN", Locale.EN, TradeType.IMPORT))
+        .thenReturn(Mono.just(List.of()));
+    when(prohibitionContentService.getProhibitions(List.of(), "CN", Locale.EN, TradeType.IMPORT))
+        .thenReturn(Mono.just(List.of()));
+
+    StepVerifier.create(basketService.getBasket(request))
+        .expectNext(
+            BasketLineResult.builder()
+                .commodityCode(COMMODITY_CODE)
+                .additionalCode("4200")
+                .measures(List.of())
+                .tariffAndTaxes(TariffAndTaxes.builder().duties(List.of(tax)).build())
+                .build())
+        .expectNext(
+            BasketLineResult.builder()
+                .commodityCode(COMMODITY_CODE)
+                .measures(List.of(restrictiveMeasure))
+                .tariffAndTaxes(TariffAndTaxes.builder().duties(List.of(tax)).build())
+                .build())
+        .expectNext(
+            BasketLineResult.builder()
+                .commodityCode(UNKNOWN_COMMODITY_CODE)
+                .error("Resource 'Commodity' not found with id '9999999999'")
+                .build())
+        .verifyComplete();
+    verify(measureViewService, times(1))
+        .getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB);
+  }
+
+  @Test
+  @DisplayName("should answer the lines of a commodity without waiting for the other commodities")
+  void shouldAnswerTheLinesOfEachCommodityOnceReady() {
+    BasketLine line = BasketLine.builder().commodityCode(COMMODITY_CODE).build();
+    BasketLine lineOfFailedCommodity =
+        BasketLine.builder().commodityCode(FAILED_COMMODITY_CODE).build();
+    BasketLine lineOfFailedCommodityWithAdditionalCode =
+        BasketLine.builder().commodityCode(FAILED_COMMODITY_CODE).additionalCode("4200").build();
+    BasketRequest request =
+        BasketRequest.builder()
+            .tradeType(TradeType.EXPORT)
+            .originCountry("GB")
+            .destinationCountry("US")
+            .tradeDate(DATE_OF_TRADE)
+            .locale(Locale.EN)
+            .lines(List.of(lineOfFailedCommodity, line, lineOfFailedCommodityWithAdditionalCode))
+            .build();
+    Sinks.One<MeasureView> failedMeasureView = Sinks.one();
+
+    when(measureViewService.getMeasureView(FAILED_COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+        .thenReturn(failedMeasureView.asMono());
+    when(measureViewService.getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+        .thenReturn(Mono.just(measureView));
+    when(measureFilterer.getRestrictiveMeasures(measureView, TradeType.EXPORT, "US"))
+        .thenReturn(List.of());
+    when(measureFilterer.maybeFilterByAdditionalCode(List.of(), Optional.empty()))
+        .thenReturn(List.of());
+    when(dutyMeasureService.getTariffsAndTaxesMeasuresInBatch(
+            Map.of(line, List.<Measure>of()), TradeType.EXPORT, Locale.EN))
+        .thenReturn(Mono.just(Map.<BasketLine, List<Duty>>of(line, List.of())));
+    when(measureTypeService.getRestrictiveMeasuresInBatch(
+            eq(Map.of(line, List.<Measure>of())), any(), eq(TradeType.EXPORT), eq(Locale.EN)))
+        .thenReturn(Flux.just(Tuples.of(line, List.<RestrictiveMeasure>of())));
+    when(prohibitionContentService.getProhibitions(List.of(), "US", Locale.EN, TradeType.EXPORT))
+        .thenReturn(Mono.just(List.of()));
+
+    StepVerifier.create(basketService.getBasket(request))
+        .assertNext(
+            basketLineResult ->
+                assertThat(basketLineResult.getCommodityCode()).isEqualTo(COMMODITY_CODE))
+        .then(() -> failedMeasureView.tryEmitError(new IllegalStateException("ott unavailable")))
+        .expectNext(
+            BasketLineResult.builder()
+                .commodityCode(FAILED_COMMODITY_CODE)
+                .error("Measures and duties of commodity '1111111111' could not be fetched")
+                .build(),
+            BasketLineResult.builder()
+                .commodityCode(FAILED_COMMODITY_CODE)
+                .additionalCode("4200")
+                .error("Measures and duties of commodity '1111111111' could not be fetched")
+                .build())
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("should not get duties of exports")
+  void shouldNotGetDutiesOfExports() {
+    BasketLine line = BasketLine.builder().commodityCode(COMMODITY_CODE).build();
+    BasketRequest request =
+        BasketRequest.builder()
+            .tradeType(TradeType.EXPORT)
+            .originCountry("XI")
+            .destinationCountry("US")
+            .tradeDate(DATE_OF_TRADE)
+            .locale(Locale.CY)
+            .lines(List.of(line))
+            .build();
+
+    when(measureViewService.getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.XI))
+        .thenReturn(Mono.just(measureView));
+    when(measureFilterer.getRestrictiveMeasures(measureView, TradeType.EXPORT, "US"))
+        .thenReturn(List.of(RESTRICTIVE_MEASURE));
+    when(measureFilterer.maybeFilterByAdditionalCode(
+            List.of(RESTRICTIVE_MEASURE), Optional.empty()))
+        .thenReturn(List.of(RESTRICTIVE_MEASURE));
+    when(dutyMeasureService.getTariffsAndTaxesMeasuresInBatch(
+            Map.of(line, List.<Measure>of()), TradeType.EXPORT, Locale.CY))
+        .thenReturn(Mono.just(Map.<BasketLine, List<Duty>>of(line, List.of())));
+    when(measureTypeService.getRestrictiveMeasuresInBatch(
+            eq(Map.of(line, List.of(RESTRICTIVE_MEASURE))),
+            any(),
+            eq(TradeType.EXPORT),
+            eq(Locale.CY)))
+        .thenReturn(Flux.just(Tuples.of(line, List.<RestrictiveMeasure>of())));
+    when(prohibitionContentService.getProhibitions(
+            List.of(RESTRICTIVE_MEASURE), "US", Locale.CY, TradeType.EXPORT))
+        .thenReturn(Mono.just(List.of()));
+
+    StepVerifier.create(basketService.getBasket(request).collectList())
+        .assertNext(
+            basketLineResults ->
+                assertThat(basketLineResults)
+                    .singleElement()
+                    .satisfies(
+                        basketLineResult ->
+                            assertThat(basketLineResult.getTariffAndTaxes().getDuties())
+                                .isEmpty()))
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("should not look content up when no commodity of the basket is found")
+  void shouldOnlyReportLinesWhenNoCommodityIsFound() {
+    BasketRequest request =
+        BasketRequest.builder()
+            .tradeType(TradeType.IMPORT)
+            .originCountry("CN")
+            .destinationCountry("XI")
+            .tradeDate(DATE_OF_TRADE)
+            .locale(Locale.EN)
+            .lines(List.of(BasketLine.builder().commodityCode(UNKNOWN_COMMODITY_CODE).build()))
+            .build();
+
+    when(measureViewService.getMeasureView(UNKNOWN_COMMODITY_CODE, DATE_OF_TRADE, UkCountry.XI))
+        .thenReturn(Mono.error(new ResourceNotFoundException("Commodity", UNKNOWN_COMMODITY_CODE)));
+
+    StepVerifier.create(basketService.getBasket(request))
+        .expectNextMatches(basketLineResult -> basketLineResult.getError().isPresent())
+        .verifyComplete();
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.AdditionalCode;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.CommoditySummary;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.ConditionBasedRestrictiveMeasure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.RestrictiveMeasure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TariffAndTaxes;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Tax;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.CommoditySummaryRequest;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.MeasuresRequest;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.TariffAndTaxesRequest;
+
+@ExtendWith(MockitoExtension.class)
+class CommoditySummaryServiceTest {
+
+  private static final String COMMODITY_CODE = "0123456789";
+  private static final LocalDate DATE_OF_TRADE = LocalDate.of(2022, 5, 10);
+
+  @Mock private MeasureViewService measureViewService;
+  @Mock private AdditionalCodesService additionalCodesService;
+  @Mock private MeasuresService measuresService;
+  @Mock private TariffAndTaxesService tariffAndTaxesService;
+
+  @InjectMocks private CommoditySummaryService commoditySummaryService;
+
+  private final MeasureView measureView =
+      MeasureView.of(List.of(Measure.builder().id("1").build()));
+  private final AdditionalCode additionalCode =
+      AdditionalCode.builder().code("4200").description("Additional code 4200").build();
+  private final RestrictiveMeasure restrictiveMeasure =
+      ConditionBasedRestrictiveMeasure.builder().id("350").build();
+
+  @Test
+  @DisplayName("should run the three pipelines over one measure view of an import")
+  void shouldSummariseAnImport() {
+    CommoditySummaryRequest request =
+        CommoditySummaryRequest.builder()
+            .commodityCode(COMMODITY_CODE)
+            .originCountry("CN")
+            .destinationCountry("GB")
+            .tradeType(TradeType.IMPORT)
+            .additionalCode("4200")
+            .dateOfTrade(DATE_OF_TRADE)
+            .locale(Locale.CY)
+            .build();
+    TariffAndTaxes tariffAndTaxes =
+        TariffAndTaxes.builder()
+            .duties(List.of(Tax.builder().measureTypeId("305").build()))
+            .build();
+
+    when(measureViewService.getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+        .thenReturn(Mono.just(measureView));
+    when(additionalCodesService.getAdditionalCodes(measureView, TradeType.IMPORT, "CN", "GB"))
+        .thenReturn(List.of(additionalCode));
+    when(measuresService.getMeasures(
+            measureView,
+            MeasuresRequest.builder()
+                .commodityCode(COMMODITY_CODE)
+                .originCountry("CN")
+                .destinationCountry("GB")
+                .tradeType(TradeType.IMPORT)
+                .additionalCode("4200")
+                .dateOfTrade(DATE_OF_TRADE)
+                .locale(Locale.CY)
+                .build()))
+        .thenReturn(Flux.just(restrictiveMeasure));
+    when(tariffAndTaxesService.getTariffAndTaxes(
+            measureView,
+            TariffAndTaxesRequest.builder()
+                .commodityCode(COMMODITY_CODE)
+                .originCountry("CN")
+                .destinationCountry(UkCountry.GB)
+                .tradeType(TradeType.IMPORT)
+                .importDate(DATE_OF_TRADE)
+                .locale(Locale.CY)
+                .build()))
+        .thenReturn(Mono.just(tariffAndTaxes));
+
+    StepVerifier.create(commoditySummaryService.getCommoditySummary(request))
+        .expectNext(
+            CommoditySummary.builder()
+                .additionalCodes(List.of(additionalCode))
+                .measures(List.of(restrictiveMeasure))
+                .tariffAndTaxes(tariffAndTaxes)
+                .build())
+        .verifyComplete();
+
+    verify(measureViewService).getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB);
+  }
+
+  @Test
+  @DisplayName("should look the measure view up by origin country and leave duties out of exports")
+  void shouldSummariseAnExport() {
+    CommoditySummaryRequest request =
+        CommoditySummaryRequest.builder()
+            .commodityCode(COMMODITY_CODE)
+            .originCountry("XI")
+            .destinationCountry("CN")
+            .tradeType(TradeType.EXPORT)
+            .dateOfTrade(DATE_OF_TRADE)
+            .locale(Locale.EN)
+            .build();
+
+    when(measureViewService.getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.XI))
+        .thenReturn(Mono.just(measureView));
+    when(additionalCodesService.getAdditionalCodes(measureView, TradeType.EXPORT, "XI", "CN"))
+        .thenReturn(List.of());
+    when(measuresService.getMeasures(
+            measureView,
+            MeasuresRequest.builder()
+                .commodityCode(COMMODITY_CODE)
+                .originCountry("XI")
+                .destinationCountry("CN")
+                .tradeType(TradeType.EXPORT)
+                .dateOfTrade(DATE_OF_TRADE)
+                .locale(Locale.EN)
+                .build()))
+        .thenReturn(Flux.just(restrictiveMeasure));
+
+    StepVerifier.create(commoditySummaryService.getCommoditySummary(request))
+        .expectNext(
+            CommoditySummary.builder()
+                .additionalCodes(List.of())
+                .measures(List.of(restrictiveMeasure))
+                .tariffAndTaxes(TariffAndTaxes.builder().duties(List.of()).build())
+                .build())
+        .verifyComplete();
+
+    verifyNoInteractions(tariffAndTaxesService);
+  }
+}
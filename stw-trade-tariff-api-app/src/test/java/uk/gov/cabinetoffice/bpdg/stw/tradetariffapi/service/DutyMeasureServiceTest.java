@@ -17,9 +17,15 @@
 package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
 
 import static java.lang.String.format;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -382,4 +388,59 @@ class DutyMeasureServiceTest {
                                 measure.getMeasureType().getId(), LOCALE)))
         .verify();
   }
+
+  @DisplayName("should look the descriptions of the duties of all groups of measures up once")
+  @ParameterizedTest
+  @EnumSource(TradeType.class)
+  void shouldLookUpDescriptionsOfDutiesOfAllGroupsOnce(TradeType tradeType) {
+    Measure tariffMeasure =
+        Measure.builder()
+            .dutyValue("8.00 %")
+            .measureType(
+                MeasureType.builder().id(MEASURE_TYPE_ID).description(DEFAULT_DESCRIPTION).build())
+            .build();
+    Measure taxMeasure =
+        Measure.builder()
+            .dutyValue("20.00 %")
+            .taxMeasure(true)
+            .measureType(MeasureType.builder().id("305").description("VAT").build())
+            .build();
+    Measure measureWithoutDuty =
+        Measure.builder()
+            .measureType(MeasureType.builder().id("350").description("Licence").build())
+            .build();
+    Map<String, List<Measure>> measuresByOriginCountry = new LinkedHashMap<>();
+    measuresByOriginCountry.put("US", List.of(tariffMeasure, taxMeasure));
+    measuresByOriginCountry.put("CN", List.of(taxMeasure, measureWithoutDuty));
+
+    when(measureTypeDescriptionRepository
+            .findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                List.of(MEASURE_TYPE_ID, "305"), tradeType, LOCALE))
+        .thenReturn(
+            Flux.just(
+                MeasureTypeDescription.builder()
+                    .measureTypeId(MEASURE_TYPE_ID)
+                    .descriptionOverlay(DESCRIPTION_FROM_CONTENT_API)
+                    .build()));
+
+    Tariff tariff =
+        Tariff.builder()
+            .measureTypeId(MEASURE_TYPE_ID)
+            .text(DESCRIPTION_FROM_CONTENT_API)
+            .value("8.00 %")
+            .build();
+    Tax tax = Tax.builder().measureTypeId("305").text("VAT").value("20.00 %").build();
+    StepVerifier.create(
+            dutyMeasureService.getTariffsAndTaxesMeasuresInBatch(
+                measuresByOriginCountry, tradeType, LOCALE))
+        .assertNext(
+            dutiesByOriginCountry -> {
+              assertThat(dutiesByOriginCountry.keySet()).containsExactly("US", "CN");
+              assertThat(dutiesByOriginCountry.get("US")).containsExactly(tariff, tax);
+              assertThat(dutiesByOriginCountry.get("CN")).containsExactly(tax);
+            })
+        .verifyComplete();
+    verify(measureTypeDescriptionRepository, times(1))
+        .findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(any(), any(), any());
+  }
 }
@@ -30,6 +30,7 @@ import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.GeographicalArea;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureType;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
 
 public class MeasureFiltererTest {
 
@@ -712,4 +713,75 @@ public class MeasureFiltererTest {
       assertThat(filteredMeasures).containsExactlyInAnyOrder(seriesIdAMeasureWithNoAdditionalCode);
     }
   }
+
+  @Nested
+  class PrecomputedApplicableMeasures {
+
+    private final Measure measureRelatedToChina =
+        Measure.builder()
+            .id("1")
+            .applicableTradeTypes(List.of(TradeType.IMPORT))
+            .measureType(MeasureType.builder().id("1").seriesId("B").build())
+            .geographicalArea(GeographicalArea.builder().id("CN").build())
+            .build();
+    private final Measure restrictiveMeasureRelatedToErgaOmnes =
+        Measure.builder()
+            .id("2")
+            .applicableTradeTypes(List.of(TradeType.IMPORT, TradeType.EXPORT))
+            .measureType(MeasureType.builder().id("1").seriesId("B").build())
+            .excludedCountries(Set.of("US"))
+            .geographicalArea(
+                GeographicalArea.builder()
+                    .id("1011")
+                    .childrenGeographicalAreas(Set.of("CN", "US", "EU"))
+                    .build())
+            .build();
+    private final Measure dutyMeasureRelatedToErgaOmnes =
+        Measure.builder()
+            .id("3")
+            .applicableTradeTypes(List.of(TradeType.IMPORT))
+            .measureType(MeasureType.builder().id("103").seriesId("C").build())
+            .geographicalArea(
+                GeographicalArea.builder()
+                    .id("1011")
+                    .childrenGeographicalAreas(Set.of("CN", "US", "EU"))
+                    .build())
+            .build();
+
+    private final MeasureView measureView =
+        MeasureView.of(
+            List.of(
+                measureRelatedToChina,
+                restrictiveMeasureRelatedToErgaOmnes,
+                dutyMeasureRelatedToErgaOmnes));
+
+    @ParameterizedTest
+    @CsvSource({"IMPORT,CN", "IMPORT,US", "IMPORT,FR", "EXPORT,CN", "EXPORT,DE", "IMPORT,BR"})
+    @DisplayName("should look up the same measures as it would filter for every country")
+    void shouldLookUpTheFilteredMeasures(TradeType tradeType, String country) {
+      MeasureView precomputedMeasureView =
+          measureFilterer.precomputeApplicableMeasures(measureView);
+
+      assertThat(precomputedMeasureView.getApplicableMeasures()).isPresent();
+      assertThat(measureFilterer.getRestrictiveMeasures(precomputedMeasureView, tradeType, country))
+          .isEqualTo(measureFilterer.getRestrictiveMeasures(measureView, tradeType, country));
+      assertThat(measureFilterer.getTaxAndDutyMeasures(precomputedMeasureView, tradeType, country))
+          .isEqualTo(measureFilterer.getTaxAndDutyMeasures(measureView, tradeType, country));
+    }
+
+    @Test
+    @DisplayName("should share the measures of countries with the same applicable measures")
+    void shouldShareEqualResults() {
+      MeasureView precomputedMeasureView =
+          measureFilterer.precomputeApplicableMeasures(measureView);
+
+      assertThat(
+              measureFilterer.getTaxAndDutyMeasures(
+                  precomputedMeasureView, TradeType.IMPORT, "FR"))
+          .containsExactly(dutyMeasureRelatedToErgaOmnes)
+          .isSameAs(
+              measureFilterer.getTaxAndDutyMeasures(
+                  precomputedMeasureView, TradeType.IMPORT, "US"));
+    }
+  }
 }
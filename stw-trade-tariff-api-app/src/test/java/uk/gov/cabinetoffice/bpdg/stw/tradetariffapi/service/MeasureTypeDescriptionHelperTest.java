@@ -0,0 +1,101 @@
+// Copyright 2021 Crown Copyright (Single Trade Window)
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType.IMPORT;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.MeasureTypeDescription;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.repository.MeasureTypeDescriptionRepository;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureType;
+
+@ExtendWith(MockitoExtension.class)
+class MeasureTypeDescriptionHelperTest {
+
+  @Mock private MeasureTypeDescriptionRepository measureTypeDescriptionRepository;
+
+  @Test
+  @DisplayName("should look up the distinct measure types of all measures in one call")
+  void shouldLookUpDistinctMeasureTypesInOneCall() {
+    MeasureTypeDescription description750 =
+        MeasureTypeDescription.builder().measureTypeId("750").descriptionOverlay("750").build();
+    MeasureTypeDescription description410 =
+        MeasureTypeDescription.builder().measureTypeId("410").descriptionOverlay("410").build();
+    when(measureTypeDescriptionRepository
+            .findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                List.of("750", "410"), IMPORT, Locale.EN))
+        .thenReturn(Flux.just(description750, description410));
+
+    StepVerifier.create(
+            MeasureTypeDescriptionHelper.findMeasureTypeDescriptions(
+                measureTypeDescriptionRepository,
+                List.of(measure("750"), measure("410"), measure("750")),
+                IMPORT,
+                Locale.EN))
+        .expectNext(Map.of("750", description750, "410", description410))
+        .verifyComplete();
+
+    verify(measureTypeDescriptionRepository)
+        .findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+            List.of("750", "410"), IMPORT, Locale.EN);
+  }
+
+  @Test
+  @DisplayName("should not call the repository when there are no measures")
+  void shouldNotCallRepositoryForNoMeasures() {
+    StepVerifier.create(
+            MeasureTypeDescriptionHelper.findMeasureTypeDescriptions(
+                measureTypeDescriptionRepository, List.of(), IMPORT, Locale.EN))
+        .expectNext(Map.of())
+        .verifyComplete();
+
+    verifyNoInteractions(measureTypeDescriptionRepository);
+  }
+
+  @Test
+  @DisplayName("should fall back to the trade tariff description when none has been configured")
+  void shouldFallBackToTradeTariffDescription() {
+    assertThat(MeasureTypeDescriptionHelper.measureTypeDescription(Map.of(), measure("750")))
+        .isEqualTo(
+            MeasureTypeDescription.builder()
+                .measureTypeId("750")
+                .descriptionOverlay("trade tariff description")
+                .build());
+  }
+
+  private Measure measure(String measureTypeId) {
+    return Measure.builder()
+        .measureType(
+            MeasureType.builder()
+                .id(measureTypeId)
+                .description("trade tariff description")
+                .build())
+        .build();
+  }
+}
@@ -16,10 +16,17 @@ package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
 
 import static java.lang.String.format;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType.IMPORT;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -31,6 +38,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
+import reactor.util.function.Tuple2;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.DocumentCodeDescription;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.MeasureTypeDescription;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.repository.MeasureTypeDescriptionRepository;
@@ -44,6 +52,8 @@ import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureConditionCode;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureOptions;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureType;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.RestrictiveMeasure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.measureoptions.DocumentCodeDescriptionLookup;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.measureoptions.DocumentCodeDescriptionPrefetcher;
 
 @ExtendWith(MockitoExtension.class)
 public class MeasureTypeServiceTest {
@@ -56,9 +66,16 @@ public class MeasureTypeServiceTest {
 
   @Mock private MeasureTypeDescriptionRepository measureTypeDescriptionRepository;
   @Mock private MeasureOptionService measureOptionService;
+  @Mock private DocumentCodeDescriptionPrefetcher documentCodeDescriptionPrefetcher;
 
   @InjectMocks private MeasureTypeService measureTypeService;
 
+  @BeforeEach
+  void setUp() {
+    when(documentCodeDescriptionPrefetcher.prefetch(any(), any(), any()))
+        .thenReturn(Mono.just(new DocumentCodeDescriptionLookup(Set.of(), Map.of())));
+  }
+
   @Nested
   class GetRestrictiveMeasures {
 
@@ -89,19 +106,15 @@ public class MeasureTypeServiceTest {
 
       when(measureTypeDescriptionRepository
               .findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
-                  List.of(measure1.getMeasureType().getId()), IMPORT, locale))
+                  List.of(measure1.getMeasureType().getId(), measure2.getMeasureType().getId()),
+                  IMPORT,
+                  locale))
           .thenReturn(
               Flux.just(
                   MeasureTypeDescription.builder()
                       .measureTypeId(MEASURE_TYPE_ID)
                       .descriptionOverlay(DESCRIPTION_FROM_CONTENT_API)
-                      .build()));
-
-      when(measureTypeDescriptionRepository
-              .findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
-                  List.of(measure2.getMeasureType().getId()), IMPORT, locale))
-          .thenReturn(
-              Flux.just(
+                      .build(),
                   MeasureTypeDescription.builder()
                       .measureTypeId("2")
                       .descriptionOverlay("desc DB")
@@ -661,4 +674,80 @@ public class MeasureTypeServiceTest {
                   .build());
     }
   }
+
+  @Nested
+  class GetRestrictiveMeasuresInBatch {
+
+    @ParameterizedTest
+    @EnumSource(Locale.class)
+    @DisplayName("should look the descriptions of all groups of measures up once")
+    void shouldLookUpDescriptionsOfAllGroupsOnce(Locale locale) {
+      List<MeasureCondition> measureConditions =
+          List.of(DocumentaryMeasureCondition.builder().build());
+      Measure measure1 =
+          Measure.builder()
+              .measureType(
+                  MeasureType.builder()
+                      .id(MEASURE_TYPE_ID)
+                      .description(DEFAULT_DESCRIPTION)
+                      .build())
+              .measureConditions(measureConditions)
+              .build();
+      Measure measure2 =
+          Measure.builder()
+              .measureType(MeasureType.builder().id("2").description("desc").build())
+              .measureConditions(measureConditions)
+              .build();
+      Map<String, List<Measure>> measuresByOriginCountry = new LinkedHashMap<>();
+      measuresByOriginCountry.put("US", List.of(measure1, measure2));
+      measuresByOriginCountry.put("CN", List.of(measure1));
+      measuresByOriginCountry.put("FR", List.of());
+
+      when(measureTypeDescriptionRepository
+              .findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+                  List.of(MEASURE_TYPE_ID, "2"), IMPORT, locale))
+          .thenReturn(
+              Flux.just(
+                  MeasureTypeDescription.builder()
+                      .measureTypeId(MEASURE_TYPE_ID)
+                      .descriptionOverlay(DESCRIPTION_FROM_CONTENT_API)
+                      .build()));
+      MeasureOptions measureOptions = MeasureOptions.builder().build();
+      when(measureOptionService.getMeasureOptions(measureConditions, IMPORT, locale))
+          .thenReturn(Flux.just(measureOptions));
+
+      RestrictiveMeasure restrictiveMeasure1 =
+          ConditionBasedRestrictiveMeasure.builder()
+              .id(MEASURE_TYPE_ID)
+              .descriptionOverlay(DESCRIPTION_FROM_CONTENT_API)
+              .description(DESCRIPTION_FROM_CONTENT_API)
+              .measureOptions(List.of(measureOptions))
+              .build();
+      RestrictiveMeasure restrictiveMeasure2 =
+          ConditionBasedRestrictiveMeasure.builder()
+              .id("2")
+              .descriptionOverlay("desc")
+              .description("desc")
+              .measureOptions(List.of(measureOptions))
+              .build();
+      StepVerifier.create(
+              measureTypeService
+                  .getRestrictiveMeasuresInBatch(
+                      measuresByOriginCountry, originCountry -> commodityCode, IMPORT, locale)
+                  .collectMap(Tuple2::getT1, Tuple2::getT2))
+          .assertNext(
+              restrictiveMeasuresByOriginCountry -> {
+                assertThat(restrictiveMeasuresByOriginCountry).containsOnlyKeys("US", "CN", "FR");
+                assertThat(restrictiveMeasuresByOriginCountry.get("US"))
+                    .containsExactlyInAnyOrder(restrictiveMeasure1, restrictiveMeasure2);
+                assertThat(restrictiveMeasuresByOriginCountry.get("CN"))
+                    .containsExactly(restrictiveMeasure1);
+                assertThat(restrictiveMeasuresByOriginCountry.get("FR")).isEmpty();
+              })
+          .verifyComplete();
+      verify(measureTypeDescriptionRepository, times(1))
+          .findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(any(), any(), any());
+      verify(documentCodeDescriptionPrefetcher, times(1)).prefetch(any(), any(), any());
+    }
+  }
 }
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponseData;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.CachedCommodity;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.CommodityCacheKey;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.CommodityFreshnessTracker;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.Freshness;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedFreshness;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedVersions;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.MeasureViewCacheProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.ResourceNotFoundException;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureBuilder;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
+
+@ExtendWith(MockitoExtension.class)
+class MeasureViewServiceTest {
+
+  private static final String COMMODITY_CODE = "1234567890";
+  private static final LocalDate DATE_OF_TRADE = LocalDate.now();
+  private static final TradeTariffCommodityResponse COMMODITY_RESPONSE =
+      TradeTariffCommodityResponse.builder()
+          .data(
+              TradeTariffCommodityResponseData.builder()
+                  .id("1234")
+                  .type("commodity")
+                  .goodsNomenclatureItemId(COMMODITY_CODE)
+                  .build())
+          .build();
+  private static final Instant NOW = Instant.parse("2022-05-10T12:00:00Z");
+  private static final CachedCommodity CACHED_COMMODITY =
+      CachedCommodity.of(COMMODITY_RESPONSE, NOW, false);
+  private static final List<Measure> MEASURES = List.of(Measure.builder().id("1").build());
+
+  @Mock private TradeTariffApiGateway tradeTariffApiGateway;
+  @Mock private MeasureBuilder measureBuilder;
+
+  private final AsyncCache<CommodityCacheKey, MeasureView> measureViewCache =
+      Caffeine.newBuilder().buildAsync();
+  private final MeasureViewCacheProperties measureViewCacheProperties =
+      new MeasureViewCacheProperties();
+
+  private MeasureViewService measureViewService;
+
+  @BeforeEach
+  void setUp() {
+    measureViewService =
+        new MeasureViewService(
+            tradeTariffApiGateway,
+            measureBuilder,
+            new MeasureFilterer(),
+            measureViewCache,
+            measureViewCacheProperties,
+            new CommodityFreshnessTracker(
+                Duration.ofHours(1),
+                Clock.fixed(NOW, ZoneOffset.UTC),
+                "ottCommodities",
+                new SimpleMeterRegistry()));
+  }
+
+  @Test
+  @DisplayName("should build the measures of the commodity on every lookup without cache")
+  void shouldBuildMeasuresOnEveryLookupWithoutCache() {
+    when(tradeTariffApiGateway.getCommodity(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+        .thenReturn(Mono.just(CACHED_COMMODITY));
+    when(measureBuilder.from(COMMODITY_RESPONSE, COMMODITY_CODE)).thenReturn(MEASURES);
+
+    for (int lookup = 0; lookup < 2; lookup++) {
+      StepVerifier.create(
+              measureViewService.getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+          .expectNextMatches(measureView -> measureView.getMeasures().equals(MEASURES))
+          .verifyComplete();
+    }
+
+    verify(measureBuilder, times(2)).from(COMMODITY_RESPONSE, COMMODITY_CODE);
+    assertThat(measureViewCache.asMap()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("should precompute the measures of every partner country when enabled")
+  void shouldPrecomputeApplicableMeasures() {
+    measureViewCacheProperties.setPrecomputeApplicableMeasures(true);
+    when(tradeTariffApiGateway.getCommodity(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+        .thenReturn(Mono.just(CACHED_COMMODITY));
+    when(measureBuilder.from(COMMODITY_RESPONSE, COMMODITY_CODE)).thenReturn(MEASURES);
+
+    StepVerifier.create(
+            measureViewService.getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+        .expectNextMatches(
+            measureView ->
+                measureView.getMeasures().equals(MEASURES)
+                    && measureView.getApplicableMeasures().isPresent())
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("should record the freshness of the commodity the measures were built from")
+  void shouldRecordFreshness() {
+    when(tradeTariffApiGateway.getCommodity(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+        .thenReturn(
+            Mono.just(
+                CachedCommodity.of(COMMODITY_RESPONSE, NOW.minus(Duration.ofHours(2)), false)));
+    when(measureBuilder.from(COMMODITY_RESPONSE, COMMODITY_CODE)).thenReturn(MEASURES);
+    ServedFreshness servedFreshness = new ServedFreshness();
+
+    StepVerifier.create(
+            measureViewService
+                .getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB)
+                .contextWrite(Context.of(ServedFreshness.class, servedFreshness)))
+        .expectNextCount(1)
+        .verifyComplete();
+
+    assertThat(servedFreshness.getFreshness()).contains(Freshness.STALE);
+    assertThat(servedFreshness.getAge()).isEqualTo(Duration.ofHours(2));
+  }
+
+  @Test
+  @DisplayName("should record the version of the measures served")
+  void shouldRecordTheVersionOfTheMeasures() {
+    when(tradeTariffApiGateway.getCommodity(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+        .thenReturn(Mono.just(CACHED_COMMODITY));
+    when(measureBuilder.from(COMMODITY_RESPONSE, COMMODITY_CODE)).thenReturn(MEASURES);
+    ServedVersions servedVersions = new ServedVersions();
+
+    StepVerifier.create(
+            measureViewService
+                .getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB)
+                .contextWrite(Context.of(ServedVersions.class, servedVersions)))
+        .expectNextCount(1)
+        .verifyComplete();
+
+    assertThat(servedVersions.getCommodityVersions())
+        .containsExactly(MeasureView.of(MEASURES).getFingerprint());
+  }
+
+  @Test
+  @DisplayName("should pass on commodities which could not be found")
+  void shouldPassOnCommodityNotFound() {
+    when(tradeTariffApiGateway.getCommodity(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+        .thenReturn(Mono.error(new ResourceNotFoundException("Commodity", COMMODITY_CODE)));
+
+    StepVerifier.create(
+            measureViewService.getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+        .expectError(ResourceNotFoundException.class)
+        .verify();
+  }
+
+  @Nested
+  class WithMeasureViewCacheEnabled {
+
+    @BeforeEach
+    void enableCache() {
+      measureViewCacheProperties.setEnable(true);
+    }
+
+    @Test
+    @DisplayName("should build the measures of a commodity once for repeated lookups")
+    void shouldServeRepeatedLookupsFromCache() {
+      when(tradeTariffApiGateway.getCommodity(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+          .thenReturn(Mono.just(CACHED_COMMODITY));
+      when(measureBuilder.from(COMMODITY_RESPONSE, COMMODITY_CODE)).thenReturn(MEASURES);
+
+      MeasureView first =
+          measureViewService.getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB).block();
+
+      StepVerifier.create(
+              measureViewService.getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+          .expectNextMatches(measureView -> measureView == first)
+          .verifyComplete();
+      verify(tradeTariffApiGateway, times(1))
+          .getCommodity(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB);
+      verify(measureBuilder, times(1)).from(COMMODITY_RESPONSE, COMMODITY_CODE);
+    }
+
+    @Test
+    @DisplayName("should cache measures separately per UK country")
+    void shouldCacheMeasuresPerUkCountry() {
+      when(tradeTariffApiGateway.getCommodity(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+          .thenReturn(Mono.just(CACHED_COMMODITY));
+      when(tradeTariffApiGateway.getCommodity(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.XI))
+          .thenReturn(Mono.just(CACHED_COMMODITY));
+      when(measureBuilder.from(COMMODITY_RESPONSE, COMMODITY_CODE)).thenReturn(MEASURES);
+
+      MeasureView gb =
+          measureViewService.getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB).block();
+
+      StepVerifier.create(
+              measureViewService.getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.XI))
+          .expectNextMatches(xi -> xi != gb && xi.getMeasures().equals(MEASURES))
+          .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should serve stale measures while building them again from a refreshed commodity")
+    void shouldRebuildStaleMeasuresInBackground() {
+      CommodityCacheKey commodityCacheKey =
+          CommodityCacheKey.of(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB);
+      when(tradeTariffApiGateway.getCommodity(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+          .thenReturn(
+              Mono.just(
+                  CachedCommodity.of(COMMODITY_RESPONSE, NOW.minus(Duration.ofHours(2)), false)));
+      when(tradeTariffApiGateway.refreshCommodity(commodityCacheKey))
+          .thenReturn(Mono.just(CACHED_COMMODITY));
+      when(measureBuilder.from(COMMODITY_RESPONSE, COMMODITY_CODE)).thenReturn(MEASURES);
+
+      StepVerifier.create(
+              measureViewService.getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+          .expectNextMatches(
+              measureView ->
+                  measureView.getFetchedAt().get().equals(NOW.minus(Duration.ofHours(2))))
+          .verifyComplete();
+
+      assertThat(measureViewCache.synchronous().getIfPresent(commodityCacheKey).getFetchedAt())
+          .contains(NOW);
+    }
+
+    @Test
+    @DisplayName("should not keep measures built from the last good commodity")
+    void shouldNotCacheMeasuresOfFallbackCommodity() {
+      when(tradeTariffApiGateway.getCommodity(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+          .thenReturn(Mono.just(CACHED_COMMODITY.asFallback()));
+      when(measureBuilder.from(COMMODITY_RESPONSE, COMMODITY_CODE)).thenReturn(MEASURES);
+
+      StepVerifier.create(
+              measureViewService.getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+          .expectNextMatches(MeasureView::isFallback)
+          .verifyComplete();
+
+      assertThat(measureViewCache.asMap()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should not cache commodities which could not be found")
+    void shouldNotCacheFailedLookups() {
+      when(tradeTariffApiGateway.getCommodity(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+          .thenReturn(Mono.error(new ResourceNotFoundException("Commodity", COMMODITY_CODE)))
+          .thenReturn(Mono.just(CACHED_COMMODITY));
+      when(measureBuilder.from(COMMODITY_RESPONSE, COMMODITY_CODE)).thenReturn(MEASURES);
+
+      StepVerifier.create(
+              measureViewService.getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+          .expectError(ResourceNotFoundException.class)
+          .verify();
+      StepVerifier.create(
+              measureViewService.getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+          .expectNextMatches(measureView -> measureView.getMeasures().equals(MEASURES))
+          .verifyComplete();
+    }
+  }
+}
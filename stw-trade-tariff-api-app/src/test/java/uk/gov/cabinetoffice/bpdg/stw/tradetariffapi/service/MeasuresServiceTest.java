@@ -24,7 +24,6 @@ import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType.IMPO
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
@@ -34,39 +33,20 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponseData;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommodityChapter;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommodityGeographicalArea;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommodityHeading;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommodityMeasure;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommodityMeasureCondition;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommodityMeasureType;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.CommoditySection;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.relationships.TradeTariffCommodityResponseIncludedEntity;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.ConditionBasedRestrictiveMeasure;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Prohibition;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
-import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureBuilder;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.MeasuresRequest;
 
 @ExtendWith(MockitoExtension.class)
 class MeasuresServiceTest {
 
-  private static final String GEOGRAPHICAL_AREA_ID = "1011";
-  private static final Integer SECTION_ID = 1;
-  private static final Integer CHAPTER_ID = 10;
-  private static final Integer COMMODITY_HEADING_ID = 100;
-  private static final String MEASURE_TYPE_ID = "2";
-  private static final String MEASURE_TYPE_DESCRIPTION = "Measure Type 2";
-  private static final String MEASURE_TYPE_SERIES_ID = "B";
-
-  @Mock private TradeTariffApiGateway tradeTariffApiGateway;
+  @Mock private MeasureViewService measureViewService;
   @Mock private MeasureFilterer measureFilterer;
-  @Mock private MeasureBuilder measureBuilder;
   @Mock private MeasureTypeService measureTypeService;
   @Mock private ProhibitionContentService prohibitionContentService;
 
@@ -91,14 +71,9 @@ class MeasuresServiceTest {
             .locale(locale)
             .build();
 
-    TradeTariffCommodityResponse tradeTariffCommodityResponse =
-        TradeTariffCommodityResponse.builder()
-            .data(TradeTariffCommodityResponseData.builder().id("1234").type("commodity").build())
-            .included(includedEntities())
-            .build();
-
-    when(tradeTariffApiGateway.getCommodity(commodityCode, importDate, destinationCountry))
-        .thenReturn(Mono.just(tradeTariffCommodityResponse));
+    MeasureView measureView = mock(MeasureView.class);
+    when(measureViewService.getMeasureView(commodityCode, importDate, destinationCountry))
+        .thenReturn(Mono.just(measureView));
     ConditionBasedRestrictiveMeasure conditionBasedRestrictiveMeasure1 =
         ConditionBasedRestrictiveMeasure.builder().build();
     ConditionBasedRestrictiveMeasure conditionBasedRestrictiveMeasure2 =
@@ -108,8 +83,7 @@ class MeasuresServiceTest {
     List<Prohibition> prohibitions = List.of(prohibition);
     List<ConditionBasedRestrictiveMeasure> conditionBasedRestrictiveMeasureList =
         List.of(conditionBasedRestrictiveMeasure1, conditionBasedRestrictiveMeasure2);
-    when(measureBuilder.from(tradeTariffCommodityResponse, commodityCode)).thenReturn(measuresList);
-    when(measureFilterer.getRestrictiveMeasures(measuresList, tradeType, originCountry))
+    when(measureFilterer.getRestrictiveMeasures(measureView, tradeType, originCountry))
         .thenReturn(measuresList);
     when(prohibitionContentService.getProhibitions(measuresList, originCountry, locale, tradeType))
         .thenReturn(Mono.just(prohibitions));
@@ -144,14 +118,9 @@ class MeasuresServiceTest {
             .locale(locale)
             .build();
 
-    TradeTariffCommodityResponse tradeTariffCommodityResponse =
-        TradeTariffCommodityResponse.builder()
-            .data(TradeTariffCommodityResponseData.builder().id("1234").type("commodity").build())
-            .included(includedEntities())
-            .build();
-
-    when(tradeTariffApiGateway.getCommodity(commodityCode, importDate, originCountry))
-        .thenReturn(Mono.just(tradeTariffCommodityResponse));
+    MeasureView measureView = mock(MeasureView.class);
+    when(measureViewService.getMeasureView(commodityCode, importDate, originCountry))
+        .thenReturn(Mono.just(measureView));
     List<Measure> measuresList = mock(List.class);
 
     ConditionBasedRestrictiveMeasure conditionBasedRestrictiveMeasure1 =
@@ -163,8 +132,7 @@ class MeasuresServiceTest {
 
     List<ConditionBasedRestrictiveMeasure> conditionBasedRestrictiveMeasureList =
         List.of(conditionBasedRestrictiveMeasure1, conditionBasedRestrictiveMeasure2);
-    when(measureBuilder.from(tradeTariffCommodityResponse, commodityCode)).thenReturn(measuresList);
-    when(measureFilterer.getRestrictiveMeasures(measuresList, tradeType, destinationCountry))
+    when(measureFilterer.getRestrictiveMeasures(measureView, tradeType, destinationCountry))
         .thenReturn(measuresList);
     when(measureFilterer.maybeFilterByAdditionalCode(measuresList, Optional.empty()))
         .thenReturn(measuresList);
@@ -202,14 +170,9 @@ class MeasuresServiceTest {
             .locale(locale)
             .build();
 
-    TradeTariffCommodityResponse tradeTariffCommodityResponse =
-        TradeTariffCommodityResponse.builder()
-            .data(TradeTariffCommodityResponseData.builder().id("1234").type("commodity").build())
-            .included(includedEntities())
-            .build();
-
-    when(tradeTariffApiGateway.getCommodity(commodityCode, importDate, destinationCountry))
-        .thenReturn(Mono.just(tradeTariffCommodityResponse));
+    MeasureView measureView = mock(MeasureView.class);
+    when(measureViewService.getMeasureView(commodityCode, importDate, destinationCountry))
+        .thenReturn(Mono.just(measureView));
 
     List<Measure> measuresList = mock(List.class);
     ConditionBasedRestrictiveMeasure conditionBasedRestrictiveMeasure1 =
@@ -221,8 +184,7 @@ class MeasuresServiceTest {
 
     List<ConditionBasedRestrictiveMeasure> conditionBasedRestrictiveMeasureList =
         List.of(conditionBasedRestrictiveMeasure1, conditionBasedRestrictiveMeasure2);
-    when(measureBuilder.from(tradeTariffCommodityResponse, commodityCode)).thenReturn(measuresList);
-    when(measureFilterer.getRestrictiveMeasures(measuresList, tradeType, originCountry))
+    when(measureFilterer.getRestrictiveMeasures(measureView, tradeType, originCountry))
         .thenReturn(measuresList);
     when(measureFilterer.maybeFilterByAdditionalCode(measuresList, Optional.of(additionalCode)))
         .thenReturn(measuresList);
@@ -259,14 +221,9 @@ class MeasuresServiceTest {
             .locale(locale)
             .build();
 
-    TradeTariffCommodityResponse tradeTariffCommodityResponse =
-        TradeTariffCommodityResponse.builder()
-            .data(TradeTariffCommodityResponseData.builder().id("1234").type("commodity").build())
-            .included(includedEntities())
-            .build();
-
-    when(tradeTariffApiGateway.getCommodity(commodityCode, importDate, originCountry))
-        .thenReturn(Mono.just(tradeTariffCommodityResponse));
+    MeasureView measureView = mock(MeasureView.class);
+    when(measureViewService.getMeasureView(commodityCode, importDate, originCountry))
+        .thenReturn(Mono.just(measureView));
 
     List<Measure> measuresList = mock(List.class);
     ConditionBasedRestrictiveMeasure conditionBasedRestrictiveMeasure1 =
@@ -278,8 +235,7 @@ class MeasuresServiceTest {
 
     List<ConditionBasedRestrictiveMeasure> conditionBasedRestrictiveMeasureList =
         List.of(conditionBasedRestrictiveMeasure1, conditionBasedRestrictiveMeasure2);
-    when(measureBuilder.from(tradeTariffCommodityResponse, commodityCode)).thenReturn(measuresList);
-    when(measureFilterer.getRestrictiveMeasures(measuresList, tradeType, destinationCountry))
+    when(measureFilterer.getRestrictiveMeasures(measureView, tradeType, destinationCountry))
         .thenReturn(measuresList);
     when(measureFilterer.maybeFilterByAdditionalCode(measuresList, Optional.of(additionalCode)))
         .thenReturn(measuresList);
@@ -295,60 +251,4 @@ class MeasuresServiceTest {
         .expectNext(prohibition)
         .verifyComplete();
   }
-
-  private List<TradeTariffCommodityResponseIncludedEntity> includedEntities() {
-    return List.of(
-        CommoditySection.builder().id(String.valueOf(SECTION_ID)).build(),
-        CommodityChapter.builder().id(String.valueOf(CHAPTER_ID)).build(),
-        CommodityHeading.builder().id(String.valueOf(COMMODITY_HEADING_ID)).build(),
-        CommodityMeasure.builder()
-            .id("1")
-            .isImport(true)
-            .geographicalAreaId(GEOGRAPHICAL_AREA_ID)
-            .measureTypeId(MEASURE_TYPE_ID)
-            .excludedCountries(Set.of("CN"))
-            .measureConditionIds(Set.of("1", "2"))
-            .build(),
-        CommodityMeasureCondition.builder()
-            .id("1")
-            .conditionCode("B")
-            .condition("B: Presentation of a certificate/licence/document")
-            .documentCode("U088")
-            .requirement(
-                "Proofs of origin: Origin declaration stating European Union origin, in the context of the Canada-European Union Comprehensive Economic and Trade Agreement (CETA)")
-            .action("Apply the mentioned duty")
-            .dutyExpression("")
-            .build(),
-        CommodityMeasureCondition.builder()
-            .id("2")
-            .conditionCode("B")
-            .condition("B: Presentation of a certificate/licence/document")
-            .documentCode("")
-            .requirement(null)
-            .action("Measure not applicable")
-            .dutyExpression("")
-            .build(),
-        CommodityMeasureCondition.builder()
-            .id("1")
-            .conditionCode("Y")
-            .condition("Y: Other conditions")
-            .documentCode("C678")
-            .requirement(
-                "Other certificates: Common Health Entry Document for Feed and Food of Non-Animal Origin (CHED-D) (as set out in Part 2, Section D of Annex II to Commission Implementing Regulation (EU) 2019/1715 (OJ L 261))")
-            .action("Import/export allowed after control")
-            .dutyExpression("")
-            .build(),
-        CommodityMeasureType.builder().id("1").description("Measure Type 1").seriesId("O").build(),
-        CommodityMeasureType.builder()
-            .id(MEASURE_TYPE_ID)
-            .description(MEASURE_TYPE_DESCRIPTION)
-            .seriesId(MEASURE_TYPE_SERIES_ID)
-            .build(),
-        CommodityGeographicalArea.builder()
-            .id(GEOGRAPHICAL_AREA_ID)
-            .description("ERGA OMNES")
-            .childrenGeographicalAreas(Set.of("CN"))
-            .build(),
-        CommodityGeographicalArea.builder().id("CN").description("China").build());
-  }
 }
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.function.Tuples;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.ConditionBasedRestrictiveMeasure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Duty;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.OriginComparison;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Prohibition;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.RestrictiveMeasure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TariffAndTaxes;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Tax;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.OriginComparisonRequest;
+
+@ExtendWith(MockitoExtension.class)
+class OriginComparisonServiceTest {
+
+  private static final String COMMODITY_CODE = "0123456789";
+  private static final LocalDate DATE_OF_TRADE = LocalDate.of(2022, 5, 10);
+
+  private static final Measure RESTRICTIVE_MEASURE =
+      Measure.builder()
+          .id("1")
+          .measureType(MeasureType.builder().id("350").seriesId("B").build())
+          .applicableTradeTypes(List.of(TradeType.IMPORT))
+          .build();
+  private static final Measure PROHIBITIVE_MEASURE =
+      Measure.builder()
+          .id("2")
+          .measureType(MeasureType.builder().id("277").seriesId("A").build())
+          .applicableTradeTypes(List.of(TradeType.IMPORT))
+          .build();
+  private static final Measure DUTY_MEASURE =
+      Measure.builder()
+          .id("3")
+          .measureType(MeasureType.builder().id("305").seriesId("P").build())
+          .taxMeasure(true)
+          .applicableTradeTypes(List.of(TradeType.IMPORT))
+          .build();
+
+  @Mock private MeasureViewService measureViewService;
+  @Mock private MeasureFilterer measureFilterer;
+  @Mock private MeasureTypeService measureTypeService;
+  @Mock private ProhibitionContentService prohibitionContentService;
+  @Mock private DutyMeasureService dutyMeasureService;
+
+  @InjectMocks private OriginComparisonService originComparisonService;
+
+  private final MeasureView measureView =
+      MeasureView.of(List.of(RESTRICTIVE_MEASURE, PROHIBITIVE_MEASURE, DUTY_MEASURE));
+
+  @Test
+  @DisplayName("should build the measures once and compare every origin country in request order")
+  void shouldCompareOriginCountries() {
+    OriginComparisonRequest request =
+        OriginComparisonRequest.builder()
+            .commodityCode(COMMODITY_CODE)
+            .originCountries(List.of("US", "CN"))
+            .destinationCountry(UkCountry.GB)
+            .dateOfTrade(DATE_OF_TRADE)
+            .locale(Locale.EN)
+            .build();
+    RestrictiveMeasure restrictiveMeasure =
+        ConditionBasedRestrictiveMeasure.builder().id("350").build();
+    Prohibition prohibition = Prohibition.builder().id("277").measureTypeId("277").build();
+    Tax tax = Tax.builder().measureTypeId("305").build();
+
+    when(measureViewService.getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.GB))
+        .thenReturn(Mono.just(measureView));
+    when(measureFilterer.getRestrictiveMeasures(measureView, TradeType.IMPORT, "US"))
+        .thenReturn(List.of(RESTRICTIVE_MEASURE));
+    when(measureFilterer.getRestrictiveMeasures(measureView, TradeType.IMPORT, "CN"))
+        .thenReturn(List.of(RESTRICTIVE_MEASURE, PROHIBITIVE_MEASURE));
+    when(measureFilterer.maybeFilterByAdditionalCode(
+            List.of(RESTRICTIVE_MEASURE), Optional.empty()))
+        .thenReturn(List.of(RESTRICTIVE_MEASURE));
+    when(measureFilterer.maybeFilterByAdditionalCode(
+            List.of(RESTRICTIVE_MEASURE, PROHIBITIVE_MEASURE), Optional.empty()))
+        .thenReturn(List.of(RESTRICTIVE_MEASURE, PROHIBITIVE_MEASURE));
+    when(measureFilterer.getTaxAndDutyMeasures(measureView, TradeType.IMPORT, "US"))
+        .thenReturn(List.of(DUTY_MEASURE));
+    when(measureFilterer.getTaxAndDutyMeasures(measureView, TradeType.IMPORT, "CN"))
+        .thenReturn(List.of());
+
+    Map<String, List<Measure>> restrictiveMeasuresByOriginCountry = new LinkedHashMap<>();
+    restrictiveMeasuresByOriginCountry.put("US", List.of(RESTRICTIVE_MEASURE));
+    restrictiveMeasuresByOriginCountry.put("CN", List.of(RESTRICTIVE_MEASURE, PROHIBITIVE_MEASURE));
+    when(measureTypeService.getRestrictiveMeasuresInBatch(
+            eq(restrictiveMeasuresByOriginCountry), any(), eq(TradeType.IMPORT), eq(Locale.EN)))
+        .thenReturn(
+            Flux.just(
+                Tuples.of("CN", List.of(restrictiveMeasure)),
+                Tuples.of("US", List.of(restrictiveMeasure))));
+
+    Map<String, List<Measure>> dutyMeasuresByOriginCountry = new LinkedHashMap<>();
+    dutyMeasuresByOriginCountry.put("US", List.of(DUTY_MEASURE));
+    dutyMeasuresByOriginCountry.put("CN", List.of());
+    Map<String, List<Duty>> duties = new LinkedHashMap<>();
+    duties.put("US", List.of(tax));
+    duties.put("CN", List.of());
+    when(dutyMeasureService.getTariffsAndTaxesMeasuresInBatch(
+            dutyMeasuresByOriginCountry, TradeType.IMPORT, Locale.EN))
+        .thenReturn(Mono.just(duties));
+
+    when(prohibitionContentService.getProhibitions(
+            List.of(RESTRICTIVE_MEASURE), "US", Locale.EN, TradeType.IMPORT))
+        .thenReturn(Mono.just(List.of()));
+    when(prohibitionContentService.getProhibitions(
+            List.of(RESTRICTIVE_MEASURE, PROHIBITIVE_MEASURE), "CN", Locale.EN, TradeType.IMPORT))
+        .thenReturn(Mono.just(List.of(prohibition)));
+
+    StepVerifier.create(originComparisonService.getOriginComparison(request))
+        .assertNext(
+            originComparisons -> {
+              assertThat(originComparisons.keySet()).containsExactly("US", "CN");
+              assertThat(originComparisons.get("US"))
+                  .isEqualTo(
+                      OriginComparison.builder()
+                          .measures(List.of(restrictiveMeasure))
+                          .tariffAndTaxes(TariffAndTaxes.builder().duties(List.of(tax)).build())
+                          .build());
+              assertThat(originComparisons.get("CN"))
+                  .isEqualTo(
+                      OriginComparison.builder()
+                          .measures(List.of(restrictiveMeasure, prohibition))
+                          .tariffAndTaxes(TariffAndTaxes.builder().duties(List.of()).build())
+                          .build());
+            })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("should not look up duties for imports to XI")
+  void shouldNotLookUpDutiesForImportsToNorthernIreland() {
+    OriginComparisonRequest request =
+        OriginComparisonRequest.builder()
+            .commodityCode(COMMODITY_CODE)
+            .originCountries(List.of("US"))
+            .destinationCountry(UkCountry.XI)
+            .additionalCode("4200")
+            .dateOfTrade(DATE_OF_TRADE)
+            .locale(Locale.CY)
+            .build();
+
+    when(measureViewService.getMeasureView(COMMODITY_CODE, DATE_OF_TRADE, UkCountry.XI))
+        .thenReturn(Mono.just(measureView));
+    when(measureFilterer.getRestrictiveMeasures(measureView, TradeType.IMPORT, "US"))
+        .thenReturn(List.of(RESTRICTIVE_MEASURE));
+    when(measureFilterer.maybeFilterByAdditionalCode(
+            List.of(RESTRICTIVE_MEASURE), Optional.of("4200")))
+        .thenReturn(List.of());
+    when(measureTypeService.getRestrictiveMeasuresInBatch(
+            eq(Map.of("US", List.<Measure>of())), any(), eq(TradeType.IMPORT), eq(Locale.CY)))
+        .thenReturn(Flux.just(Tuples.of("US", List.<RestrictiveMeasure>of())));
+    when(dutyMeasureService.getTariffsAndTaxesMeasuresInBatch(
+            Map.of("US", List.<Measure>of()), TradeType.IMPORT, Locale.CY))
+        .thenReturn(Mono.just(Map.of("US", List.<Duty>of())));
+    when(prohibitionContentService.getProhibitions(List.of(), "US", Locale.CY, TradeType.IMPORT))
+        .thenReturn(Mono.just(List.of()));
+
+    StepVerifier.create(originComparisonService.getOriginComparison(request))
+        .expectNext(
+            Map.of(
+                "US",
+                OriginComparison.builder()
+                    .measures(List.of())
+                    .tariffAndTaxes(TariffAndTaxes.builder().duties(List.of()).build())
+                    .build()))
+        .verifyComplete();
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.ProhibitionDescription;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+
+class ProhibitionDescriptionIndexTest {
+
+  private static final ProhibitionDescription BANGLADESH =
+      prohibitionDescription("C2100260", "BD", Locale.EN, TradeType.IMPORT);
+  private static final ProhibitionDescription NIGERIA =
+      prohibitionDescription("C2100260", "NG", Locale.EN, TradeType.IMPORT);
+  private static final ProhibitionDescription ANY_ORIGIN =
+      prohibitionDescription("X1904110", null, Locale.EN, TradeType.IMPORT, TradeType.EXPORT);
+  private static final ProhibitionDescription WELSH =
+      prohibitionDescription("X1904110", null, Locale.CY, TradeType.IMPORT);
+  private static final ProhibitionDescription SEVERAL_LEGAL_ACTS =
+      prohibitionDescription("R1715092, R1715094", null, Locale.EN, TradeType.IMPORT);
+
+  private final ProhibitionDescriptionIndex index =
+      ProhibitionDescriptionIndex.of(
+          List.of(BANGLADESH, NIGERIA, ANY_ORIGIN, WELSH, SEVERAL_LEGAL_ACTS));
+
+  @Test
+  @DisplayName("should find the description for the origin country")
+  void shouldFindOriginCountrySpecificDescription() {
+    assertThat(index.find(TradeType.IMPORT, Locale.EN, "C2100260", "NG")).contains(NIGERIA);
+    assertThat(index.find(TradeType.IMPORT, Locale.EN, "C2100260", "BD")).contains(BANGLADESH);
+  }
+
+  @Test
+  @DisplayName("should fall back to the first description of the legal act for other countries")
+  void shouldFallBackToFirstDescriptionOfLegalAct() {
+    assertThat(index.find(TradeType.IMPORT, Locale.EN, "C2100260", "CN")).contains(BANGLADESH);
+    assertThat(index.find(TradeType.EXPORT, Locale.EN, "X1904110", "CN")).contains(ANY_ORIGIN);
+  }
+
+  @Test
+  @DisplayName("should find descriptions by locale and trade type")
+  void shouldFindDescriptionsByLocaleAndTradeType() {
+    assertThat(index.find(TradeType.IMPORT, Locale.CY, "X1904110", "CN")).contains(WELSH);
+    assertThat(index.find(TradeType.EXPORT, Locale.CY, "X1904110", "CN")).isEmpty();
+    assertThat(index.find(TradeType.EXPORT, Locale.EN, "C2100260", "NG")).isEmpty();
+  }
+
+  @Test
+  @DisplayName("should find descriptions naming several legal acts by each of them")
+  void shouldFindDescriptionsBySeveralLegalActs() {
+    assertThat(index.find(TradeType.IMPORT, Locale.EN, "R1715092", "CN"))
+        .contains(SEVERAL_LEGAL_ACTS);
+    assertThat(index.find(TradeType.IMPORT, Locale.EN, "R1715094", "CN"))
+        .contains(SEVERAL_LEGAL_ACTS);
+    assertThat(index.find(TradeType.IMPORT, Locale.EN, "R1715095", "CN")).isEmpty();
+  }
+
+  private static ProhibitionDescription prohibitionDescription(
+      String legalAct, String originCountry, Locale locale, TradeType... tradeTypes) {
+    return ProhibitionDescription.builder()
+        .legalAct(legalAct)
+        .originCountry(originCountry)
+        .locale(locale)
+        .description(legalAct + " " + originCountry + " " + locale)
+        .applicableTradeTypes(List.of(tradeTypes))
+        .build();
+  }
+}
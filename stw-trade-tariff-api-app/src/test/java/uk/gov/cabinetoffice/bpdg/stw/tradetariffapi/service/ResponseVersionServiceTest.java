@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.info.BuildProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.snapshot.SnapshotDocumentCodeDescriptionRepository;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.snapshot.SnapshotMeasureTypeDescriptionRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ResponseVersionServiceTest {
+
+  private static final Clock CLOCK =
+      Clock.fixed(Instant.parse("2022-05-10T20:00:00Z"), ZoneId.of("Europe/London"));
+
+  @Mock private SnapshotMeasureTypeDescriptionRepository measureTypeDescriptionRepository;
+  @Mock private SnapshotDocumentCodeDescriptionRepository documentCodeDescriptionRepository;
+  @Mock private ObjectProvider<BuildProperties> buildProperties;
+
+  private ResponseVersionService responseVersionService;
+
+  @BeforeEach
+  void setUp() {
+    responseVersionService = responseVersionService(build("1.0.0"));
+  }
+
+  @Test
+  @DisplayName("should version responses by the measures they were built from")
+  void shouldVersionByTheMeasures() {
+    when(measureTypeDescriptionRepository.getVersion()).thenReturn(Optional.of("m1"));
+    when(documentCodeDescriptionRepository.getVersion()).thenReturn(Optional.of("d1"));
+
+    String version = responseVersionService.getVersion(List.of("2-a1", "3-b2"));
+
+    assertThat(version)
+        .isNotBlank()
+        .isEqualTo(responseVersionService.getVersion(List.of("3-b2", "2-a1")))
+        .isNotEqualTo(responseVersionService.getVersion(List.of("2-a1")))
+        .isNotEqualTo(responseVersionService.getVersion());
+    assertThat(responseVersionService.getVersion(List.of()))
+        .isEqualTo(responseVersionService.getVersion());
+  }
+
+  @Test
+  @DisplayName("should version responses by the content snapshots")
+  void shouldVersionByTheContentSnapshots() {
+    when(measureTypeDescriptionRepository.getVersion())
+        .thenReturn(Optional.of("m1"))
+        .thenReturn(Optional.of("m2"));
+    when(documentCodeDescriptionRepository.getVersion()).thenReturn(Optional.empty());
+
+    assertThat(responseVersionService.getVersion())
+        .isNotEqualTo(responseVersionService.getVersion());
+  }
+
+  @Test
+  @DisplayName("should version responses by the build of the service")
+  void shouldVersionByTheBuild() {
+    when(measureTypeDescriptionRepository.getVersion()).thenReturn(Optional.of("m1"));
+    when(documentCodeDescriptionRepository.getVersion()).thenReturn(Optional.of("d1"));
+
+    assertThat(responseVersionService.getVersion())
+        .isEqualTo(responseVersionService(build("1.0.0")).getVersion())
+        .isNotEqualTo(responseVersionService(build("1.0.1")).getVersion())
+        .isNotEqualTo(responseVersionService(null).getVersion());
+  }
+
+  @Test
+  @DisplayName("should let responses be cached until the next tariff day")
+  void shouldBeCachedUntilTheNextTariffDay() {
+    assertThat(responseVersionService.getTimeToLive()).isEqualTo(Duration.ofHours(3));
+  }
+
+  private ResponseVersionService responseVersionService(BuildProperties build) {
+    when(buildProperties.getIfAvailable()).thenReturn(build);
+    return new ResponseVersionService(
+        measureTypeDescriptionRepository,
+        documentCodeDescriptionRepository,
+        buildProperties,
+        CLOCK);
+  }
+
+  private static BuildProperties build(String version) {
+    Properties properties = new Properties();
+    properties.setProperty("version", version);
+    properties.setProperty("time", "2022-05-01T10:00:00Z");
+    return new BuildProperties(properties);
+  }
+}
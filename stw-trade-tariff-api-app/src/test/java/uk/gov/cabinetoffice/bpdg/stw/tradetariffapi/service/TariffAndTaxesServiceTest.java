@@ -31,8 +31,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
-import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponseData;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureType;
@@ -41,7 +39,7 @@ import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Tax;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.ResourceNotFoundException;
-import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureBuilder;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.TariffAndTaxesRequest;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,9 +47,8 @@ class TariffAndTaxesServiceTest {
 
   private static final String COMMODITY_CODE = "0123456789";
 
-  @Mock private TradeTariffApiGateway tradeTariffApiGateway;
+  @Mock private MeasureViewService measureViewService;
   @Mock private MeasureFilterer measureFilterer;
-  @Mock private MeasureBuilder measureBuilder;
   @Mock private DutyMeasureService dutyMeasureService;
 
   @InjectMocks private TariffAndTaxesService tariffAndTaxesService;
@@ -72,11 +69,6 @@ class TariffAndTaxesServiceTest {
             .locale(locale)
             .build();
 
-    TradeTariffCommodityResponse tradeTariffCommodityResponse =
-        TradeTariffCommodityResponse.builder()
-            .data(TradeTariffCommodityResponseData.builder().id("1234").type("commodity").build())
-            .build();
-
     Measure restrictiveMeasure =
         Measure.builder()
             .measureType(MeasureType.builder().seriesId("A").build())
@@ -91,13 +83,12 @@ class TariffAndTaxesServiceTest {
             .build();
     Tax tax = Tax.builder().build();
 
-    List<Measure> measures = List.of(restrictiveMeasure, dutyMeasure);
+    MeasureView measureView = MeasureView.of(List.of(restrictiveMeasure, dutyMeasure));
 
-    when(tradeTariffApiGateway.getCommodity(COMMODITY_CODE, dateOfImport, destinationCountry))
-        .thenReturn(Mono.just(tradeTariffCommodityResponse));
-    when(measureBuilder.from(tradeTariffCommodityResponse, COMMODITY_CODE)).thenReturn(measures);
+    when(measureViewService.getMeasureView(COMMODITY_CODE, dateOfImport, destinationCountry))
+        .thenReturn(Mono.just(measureView));
     when(measureFilterer.getTaxAndDutyMeasures(
-            measures,
+            measureView,
             tariffAndTaxesRequest.getTradeType(),
             tariffAndTaxesRequest.getOriginCountry()))
         .thenReturn(List.of(dutyMeasure));
@@ -129,6 +120,27 @@ class TariffAndTaxesServiceTest {
         .verifyComplete();
   }
 
+  @ParameterizedTest
+  @EnumSource(Locale.class)
+  @DisplayName("Taxes should not be taken from the measure view of commodities imported to XI")
+  void shouldReturnEmptyTaxesFromTheMeasureViewForImportsToNorthernIreland(Locale locale) {
+    // given
+    TariffAndTaxesRequest tariffAndTaxesRequest =
+        TariffAndTaxesRequest.builder()
+            .destinationCountry(UkCountry.XI)
+            .commodityCode(COMMODITY_CODE)
+            .importDate(LocalDate.now())
+            .locale(locale)
+            .build();
+
+    // when and then
+    StepVerifier.create(
+            tariffAndTaxesService.getTariffAndTaxes(
+                MeasureView.of(List.of()), tariffAndTaxesRequest))
+        .expectNext(TariffAndTaxes.builder().duties(List.of()).build())
+        .verifyComplete();
+  }
+
   @ParameterizedTest
   @EnumSource(Locale.class)
   void shouldReturnResourceNotFoundExceptionWhenCommodityNotFound(Locale locale) {
@@ -143,7 +155,7 @@ class TariffAndTaxesServiceTest {
             .locale(locale)
             .build();
 
-    when(tradeTariffApiGateway.getCommodity(COMMODITY_CODE, dateOfImport, destinationCountry))
+    when(measureViewService.getMeasureView(COMMODITY_CODE, dateOfImport, destinationCountry))
         .thenReturn(Mono.error(new ResourceNotFoundException("Commodity", COMMODITY_CODE)));
 
     // when and then
@@ -16,32 +16,87 @@
 
 package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.CommoditiesApiVersion;
 import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.TradeTariffApi;
 import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.TradeTariffError;
 import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
 import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponseData;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.CachedCommodity;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.CommodityCacheKey;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.CommodityFreshnessTracker;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.SingleFlight;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.client.Hedger;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.CommodityCacheProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.HedgingProperties;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.ResourceNotFoundException;
 
 @ExtendWith(MockitoExtension.class)
 class TradeTariffApiGatewayTest {
 
+  private static final Instant NOW = Instant.parse("2022-05-10T12:00:00Z");
+
   @Mock private TradeTariffApi tradeTariffApi;
 
-  @InjectMocks private TradeTariffApiGateway tradeTariffApiGateway;
+  private final AsyncCache<CommodityCacheKey, CachedCommodity> commodityCache =
+      Caffeine.newBuilder().buildAsync();
+  private final Cache<CommodityCacheKey, CachedCommodity> lastGoodCommodityCache =
+      Caffeine.newBuilder().build();
+  private final CommodityCacheProperties commodityCacheProperties = new CommodityCacheProperties();
+
+  private TradeTariffApiGateway tradeTariffApiGateway;
+
+  @BeforeEach
+  void setUp() {
+    tradeTariffApiGateway =
+        new TradeTariffApiGateway(
+            tradeTariffApi,
+            commodityCache,
+            lastGoodCommodityCache,
+            commodityCacheProperties,
+            new SingleFlight<>("ottCommodities", new SimpleMeterRegistry()),
+            new CommodityFreshnessTracker(
+                Duration.ofHours(1),
+                Clock.fixed(NOW, ZoneOffset.UTC),
+                "ottCommodities",
+                new SimpleMeterRegistry()),
+            new Hedger("ottApi", new HedgingProperties(), new SimpleMeterRegistry()));
+  }
+
+  private Mono<TradeTariffCommodityResponse> getCommodity(
+      String commodityCode, LocalDate dateOfTrade, UkCountry ukCountry) {
+    return tradeTariffApiGateway
+        .getCommodity(commodityCode, dateOfTrade, ukCountry)
+        .map(CachedCommodity::getCommodity);
+  }
 
   @ParameterizedTest
   @EnumSource(
@@ -62,8 +117,7 @@ class TradeTariffApiGatewayTest {
                         List.of(TradeTariffError.builder().detail("commodity not found").build()))
                     .build()));
 
-    StepVerifier.create(
-            tradeTariffApiGateway.getCommodity(commodityCode, importDate, destinationCountry))
+    StepVerifier.create(getCommodity(commodityCode, importDate, destinationCountry))
         .expectErrorMatches(
             ex ->
                 ex instanceof ResourceNotFoundException
@@ -96,9 +150,192 @@ class TradeTariffApiGatewayTest {
     when(tradeTariffApi.getCommodity(commodityCode, importDate, commoditiesApiVersion))
         .thenReturn(Mono.just(tariffCommodityResponse));
 
-    StepVerifier.create(
-            tradeTariffApiGateway.getCommodity(commodityCode, importDate, destinationCountry))
+    StepVerifier.create(getCommodity(commodityCode, importDate, destinationCountry))
         .expectNext(tariffCommodityResponse)
         .verifyComplete();
   }
+
+  @Test
+  @DisplayName("should share one trade tariff api call between concurrent lookups of a commodity")
+  void shouldShareConcurrentLookupsWithoutCache() {
+    var importDate = LocalDate.now();
+    String commodityCode = "1234567890";
+    TradeTariffCommodityResponse tariffCommodityResponse =
+        TradeTariffCommodityResponse.builder()
+            .data(
+                TradeTariffCommodityResponseData.builder()
+                    .id("1234")
+                    .type("commodity")
+                    .goodsNomenclatureItemId(commodityCode)
+                    .build())
+            .build();
+    Sinks.One<TradeTariffCommodityResponse> upstreamResponse = Sinks.one();
+    when(tradeTariffApi.getCommodity(
+            commodityCode, importDate, CommoditiesApiVersion.COMMODITIES_GB_V2))
+        .thenReturn(upstreamResponse.asMono());
+
+    StepVerifier.create(
+            Mono.zip(
+                getCommodity(commodityCode, importDate, UkCountry.GB),
+                getCommodity(commodityCode, importDate, UkCountry.GB)))
+        .then(() -> upstreamResponse.tryEmitValue(tariffCommodityResponse))
+        .expectNextMatches(
+            responses ->
+                responses.getT1() == tariffCommodityResponse
+                    && responses.getT2() == tariffCommodityResponse)
+        .verifyComplete();
+
+    verify(tradeTariffApi, times(1))
+        .getCommodity(commodityCode, importDate, CommoditiesApiVersion.COMMODITIES_GB_V2);
+  }
+
+  @Nested
+  class WithCommodityCacheEnabled {
+
+    private final LocalDate importDate = LocalDate.now();
+    private final String commodityCode = "1234567890";
+
+    @BeforeEach
+    void enableCache() {
+      commodityCacheProperties.setEnable(true);
+    }
+
+    @Test
+    @DisplayName("should call the trade tariff api once for repeated lookups of the same commodity")
+    void shouldServeRepeatedLookupsFromCache() {
+      TradeTariffCommodityResponse tariffCommodityResponse = commodityResponse(commodityCode);
+      when(tradeTariffApi.getCommodity(
+              commodityCode, importDate, CommoditiesApiVersion.COMMODITIES_GB_V2))
+          .thenReturn(Mono.just(tariffCommodityResponse));
+
+      StepVerifier.create(getCommodity(commodityCode, importDate, UkCountry.GB))
+          .expectNext(tariffCommodityResponse)
+          .verifyComplete();
+      StepVerifier.create(getCommodity(commodityCode, importDate, UkCountry.GB))
+          .expectNext(tariffCommodityResponse)
+          .verifyComplete();
+
+      verify(tradeTariffApi, times(1))
+          .getCommodity(commodityCode, importDate, CommoditiesApiVersion.COMMODITIES_GB_V2);
+    }
+
+    @Test
+    @DisplayName("should cache commodities separately per UK country and trade date")
+    void shouldCacheCommoditiesPerCountryAndDate() {
+      TradeTariffCommodityResponse gbResponse = commodityResponse(commodityCode);
+      TradeTariffCommodityResponse xiResponse = commodityResponse(commodityCode);
+      TradeTariffCommodityResponse tomorrowResponse = commodityResponse(commodityCode);
+      when(tradeTariffApi.getCommodity(
+              commodityCode, importDate, CommoditiesApiVersion.COMMODITIES_GB_V2))
+          .thenReturn(Mono.just(gbResponse));
+      when(tradeTariffApi.getCommodity(
+              commodityCode, importDate, CommoditiesApiVersion.COMMODITIES_XI_V2))
+          .thenReturn(Mono.just(xiResponse));
+      when(tradeTariffApi.getCommodity(
+              commodityCode, importDate.plusDays(1), CommoditiesApiVersion.COMMODITIES_GB_V2))
+          .thenReturn(Mono.just(tomorrowResponse));
+
+      StepVerifier.create(getCommodity(commodityCode, importDate, UkCountry.GB))
+          .expectNextMatches(response -> response == gbResponse)
+          .verifyComplete();
+      StepVerifier.create(getCommodity(commodityCode, importDate, UkCountry.XI))
+          .expectNextMatches(response -> response == xiResponse)
+          .verifyComplete();
+      StepVerifier.create(getCommodity(commodityCode, importDate.plusDays(1), UkCountry.GB))
+          .expectNextMatches(response -> response == tomorrowResponse)
+          .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should not cache commodities which could not be found")
+    void shouldNotCacheFailedLookups() {
+      TradeTariffCommodityResponse tariffCommodityResponse = commodityResponse(commodityCode);
+      when(tradeTariffApi.getCommodity(
+              commodityCode, importDate, CommoditiesApiVersion.COMMODITIES_GB_V2))
+          .thenReturn(
+              Mono.just(
+                  TradeTariffCommodityResponse.builder()
+                      .errors(
+                          List.of(
+                              TradeTariffError.builder().detail("commodity not found").build()))
+                      .build()))
+          .thenReturn(Mono.just(tariffCommodityResponse));
+
+      StepVerifier.create(getCommodity(commodityCode, importDate, UkCountry.GB))
+          .expectError(ResourceNotFoundException.class)
+          .verify();
+      StepVerifier.create(getCommodity(commodityCode, importDate, UkCountry.GB))
+          .expectNext(tariffCommodityResponse)
+          .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should serve a stale commodity while fetching it again in the background")
+    void shouldServeStaleCommodityWhileRefreshing() {
+      CommodityCacheKey commodityCacheKey =
+          CommodityCacheKey.of(commodityCode, importDate, UkCountry.GB);
+      CachedCommodity staleCommodity =
+          CachedCommodity.of(
+              commodityResponse(commodityCode), NOW.minus(Duration.ofHours(2)), false);
+      commodityCache.put(commodityCacheKey, CompletableFuture.completedFuture(staleCommodity));
+      TradeTariffCommodityResponse refreshedResponse = commodityResponse(commodityCode);
+      when(tradeTariffApi.getCommodity(
+              commodityCode, importDate, CommoditiesApiVersion.COMMODITIES_GB_V2))
+          .thenReturn(Mono.just(refreshedResponse));
+
+      StepVerifier.create(
+              tradeTariffApiGateway.getCommodity(commodityCode, importDate, UkCountry.GB))
+          .expectNext(staleCommodity)
+          .verifyComplete();
+
+      CachedCommodity refreshedCommodity = CachedCommodity.of(refreshedResponse, NOW, false);
+      assertThat(commodityCache.synchronous().getIfPresent(commodityCacheKey))
+          .isEqualTo(refreshedCommodity);
+      assertThat(lastGoodCommodityCache.getIfPresent(commodityCacheKey))
+          .isEqualTo(refreshedCommodity);
+    }
+
+    @Test
+    @DisplayName("should serve the last good commodity when fetching it fails")
+    void shouldFallBackToLastGoodCommodity() {
+      CommodityCacheKey commodityCacheKey =
+          CommodityCacheKey.of(commodityCode, importDate, UkCountry.GB);
+      CachedCommodity lastGood =
+          CachedCommodity.of(
+              commodityResponse(commodityCode), NOW.minus(Duration.ofHours(3)), false);
+      lastGoodCommodityCache.put(commodityCacheKey, lastGood);
+      when(tradeTariffApi.getCommodity(
+              commodityCode, importDate, CommoditiesApiVersion.COMMODITIES_GB_V2))
+          .thenReturn(Mono.error(new IllegalStateException("circuit breaker is open")));
+
+      StepVerifier.create(
+              tradeTariffApiGateway.getCommodity(commodityCode, importDate, UkCountry.GB))
+          .expectNext(lastGood.asFallback())
+          .verifyComplete();
+      assertThat(commodityCache.synchronous().getIfPresent(commodityCacheKey)).isNull();
+    }
+
+    @Test
+    @DisplayName("should pass on failures when there is no last good commodity")
+    void shouldFailWithoutLastGoodCommodity() {
+      when(tradeTariffApi.getCommodity(
+              commodityCode, importDate, CommoditiesApiVersion.COMMODITIES_GB_V2))
+          .thenReturn(Mono.error(new IllegalStateException("circuit breaker is open")));
+
+      StepVerifier.create(getCommodity(commodityCode, importDate, UkCountry.GB))
+          .expectError(IllegalStateException.class)
+          .verify();
+    }
+
+    private TradeTariffCommodityResponse commodityResponse(String commodityCode) {
+      return TradeTariffCommodityResponse.builder()
+          .data(
+              TradeTariffCommodityResponseData.builder()
+                  .id("1234")
+                  .type("commodity")
+                  .goodsNomenclatureItemId(commodityCode)
+                  .build())
+          .build();
+    }
+  }
 }
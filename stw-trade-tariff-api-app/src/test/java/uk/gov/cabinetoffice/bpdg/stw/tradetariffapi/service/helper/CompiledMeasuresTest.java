@@ -0,0 +1,123 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.GeographicalArea;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+
+class CompiledMeasuresTest {
+
+  private static final Measure ERGA_OMNES_CONTROL =
+      Measure.builder()
+          .id("1")
+          .applicableTradeTypes(List.of(TradeType.IMPORT))
+          .measureType(MeasureType.builder().id("277").seriesId("B").build())
+          .geographicalArea(
+              GeographicalArea.builder()
+                  .id("1011")
+                  .childrenGeographicalAreas(Set.of("CN", "US", "EU"))
+                  .build())
+          .excludedCountries(Set.of("US"))
+          .build();
+  private static final Measure CHINA_CONTROL =
+      Measure.builder()
+          .id("2")
+          .applicableTradeTypes(List.of(TradeType.IMPORT, TradeType.EXPORT))
+          .measureType(MeasureType.builder().id("277").seriesId("B").build())
+          .geographicalArea(GeographicalArea.builder().id("CN").build())
+          .build();
+  private static final Measure THIRD_COUNTRY_DUTY =
+      Measure.builder()
+          .id("3")
+          .applicableTradeTypes(List.of(TradeType.IMPORT))
+          .measureType(MeasureType.builder().id("103").seriesId("C").build())
+          .geographicalArea(GeographicalArea.builder().id("1011").build())
+          .build();
+  private static final Measure INCOMPLETE_MEASURE = Measure.builder().id("4").build();
+
+  private final CompiledMeasures compiledMeasures =
+      MeasureView.of(
+              List.of(ERGA_OMNES_CONTROL, CHINA_CONTROL, THIRD_COUNTRY_DUTY, INCOMPLETE_MEASURE))
+          .getCompiledMeasures();
+
+  @Test
+  @DisplayName("should select measures by trade type, series and measure type")
+  void shouldSelectMeasuresByPosition() {
+    assertThat(compiledMeasures.measuresOf(TradeType.IMPORT)).isEqualTo(bits(0, 1, 2));
+    assertThat(compiledMeasures.measuresOf(TradeType.EXPORT)).isEqualTo(bits(1));
+    assertThat(compiledMeasures.measuresOfSeries(Set.of("B", "A"))).isEqualTo(bits(0, 1));
+    assertThat(compiledMeasures.measuresOfMeasureTypes(Set.of("103"))).isEqualTo(bits(2));
+    assertThat(compiledMeasures.measuresOfMeasureTypes(Set.of("999"))).isEqualTo(bits());
+  }
+
+  @Test
+  @DisplayName("should hand out copies so the selections can be combined in place")
+  void shouldHandOutCopies() {
+    compiledMeasures.measuresOf(TradeType.IMPORT).clear();
+
+    assertThat(compiledMeasures.measuresOf(TradeType.IMPORT)).isEqualTo(bits(0, 1, 2));
+  }
+
+  @Test
+  @DisplayName("should match measures assigned to a country or to a group the country belongs to")
+  void shouldMatchCountries() {
+    int china = compiledMeasures.countryId("CN");
+    int usa = compiledMeasures.countryId("US");
+
+    assertThat(compiledMeasures.isAssignedTo(0, china)).isFalse();
+    assertThat(compiledMeasures.isAssignedTo(1, china)).isTrue();
+    assertThat(compiledMeasures.appliesToMemberCountry(0, china)).isTrue();
+    assertThat(compiledMeasures.appliesToMemberCountry(0, usa)).isFalse();
+    assertThat(compiledMeasures.appliesToMemberCountry(2, china)).isFalse();
+    assertThat(compiledMeasures.appliesToMemberCountry(3, china)).isFalse();
+  }
+
+  @Test
+  @DisplayName("should match no measures for a country none of them refer to")
+  void shouldNotMatchUnknownCountries() {
+    int france = compiledMeasures.countryId("FR");
+
+    assertThat(france).isEqualTo(CompiledMeasures.UNKNOWN);
+    assertThat(compiledMeasures.isAssignedTo(3, france)).isFalse();
+    assertThat(compiledMeasures.appliesToMemberCountry(0, france)).isFalse();
+  }
+
+  @Test
+  @DisplayName("should share a measure type id between measures with equal measure types")
+  void shouldShareMeasureTypeIds() {
+    assertThat(compiledMeasures.measureTypeId(0)).isEqualTo(compiledMeasures.measureTypeId(1));
+    assertThat(compiledMeasures.measureTypeId(0)).isNotEqualTo(compiledMeasures.measureTypeId(2));
+    assertThat(compiledMeasures.measureTypeId(3)).isEqualTo(CompiledMeasures.UNKNOWN);
+  }
+
+  private static BitSet bits(int... measures) {
+    BitSet bits = new BitSet();
+    for (int measure : measures) {
+      bits.set(measure);
+    }
+    return bits;
+  }
+}
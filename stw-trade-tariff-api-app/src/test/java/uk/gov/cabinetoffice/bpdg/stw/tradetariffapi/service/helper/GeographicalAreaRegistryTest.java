@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.GeographicalArea;
+
+class GeographicalAreaRegistryTest {
+
+  private final GeographicalAreaRegistry geographicalAreaRegistry = new GeographicalAreaRegistry();
+
+  @Test
+  @DisplayName("should share one geographical area between lookups with the same members")
+  void shouldShareEqualGeographicalAreas() {
+    GeographicalArea ergaOmnes =
+        geographicalAreaRegistry.get("1011", "ERGA OMNES", List.of("CN", "US"));
+
+    assertThat(ergaOmnes.getId()).isEqualTo("1011");
+    assertThat(ergaOmnes.getDescription()).isEqualTo("ERGA OMNES");
+    assertThat(ergaOmnes.getChildrenGeographicalAreas()).containsExactlyInAnyOrder("CN", "US");
+    assertThat(geographicalAreaRegistry.get("1011", "ERGA OMNES", List.of("US", "CN")))
+        .isSameAs(ergaOmnes);
+    assertThat(geographicalAreaRegistry.get("1011", "ERGA OMNES", List.of("US", "CN", "US")))
+        .isSameAs(ergaOmnes);
+    assertThat(geographicalAreaRegistry.get("1011", "ERGA OMNES", Set.of("CN", "US")))
+        .isSameAs(ergaOmnes);
+  }
+
+  @Test
+  @DisplayName("should not share a geographical area with members which were only repeated")
+  void shouldNotShareGeographicalAreasWithRepeatedMembers() {
+    GeographicalArea ergaOmnes =
+        geographicalAreaRegistry.get("1011", "ERGA OMNES", List.of("CN", "US"));
+
+    GeographicalArea repeatedChina =
+        geographicalAreaRegistry.get("1011", "ERGA OMNES", List.of("CN", "CN"));
+
+    assertThat(repeatedChina).isNotSameAs(ergaOmnes);
+    assertThat(repeatedChina.getChildrenGeographicalAreas()).containsExactly("CN");
+  }
+
+  @Test
+  @DisplayName("should register geographical areas without members")
+  void shouldRegisterGeographicalAreasWithoutMembers() {
+    GeographicalArea china = geographicalAreaRegistry.get("CN", "China", null);
+
+    assertThat(china.getChildrenGeographicalAreas()).isEmpty();
+    assertThat(geographicalAreaRegistry.get("CN", "China", List.of())).isSameAs(china);
+  }
+
+  @Test
+  @DisplayName("should keep the variants of a geographical area which changed")
+  void shouldKeepVariantsOfChangedGeographicalAreas() {
+    GeographicalArea gbErgaOmnes =
+        geographicalAreaRegistry.get("1011", "ERGA OMNES", List.of("CN", "US"));
+    GeographicalArea xiErgaOmnes =
+        geographicalAreaRegistry.get("1011", "ERGA OMNES", List.of("CN", "US", "GB"));
+    GeographicalArea renamedErgaOmnes =
+        geographicalAreaRegistry.get("1011", "All third countries", List.of("CN", "US"));
+
+    assertThat(xiErgaOmnes).isNotSameAs(gbErgaOmnes);
+    assertThat(xiErgaOmnes.getChildrenGeographicalAreas()).contains("GB");
+    assertThat(renamedErgaOmnes).isNotSameAs(gbErgaOmnes);
+    assertThat(geographicalAreaRegistry.get("1011", "ERGA OMNES", List.of("CN", "US")))
+        .isSameAs(gbErgaOmnes);
+    assertThat(geographicalAreaRegistry.get("1011", "ERGA OMNES", List.of("CN", "US", "GB")))
+        .isSameAs(xiErgaOmnes);
+  }
+
+  @Test
+  @DisplayName("should only keep the most recently registered variants of a geographical area")
+  void shouldBoundTheVariantsOfAGeographicalArea() {
+    GeographicalArea oldest = geographicalAreaRegistry.get("1011", "ERGA OMNES", List.of("C0"));
+    for (int variant = 1; variant <= GeographicalAreaRegistry.MAX_VARIANTS_PER_AREA; variant++) {
+      geographicalAreaRegistry.get("1011", "ERGA OMNES", List.of("C" + variant));
+    }
+
+    assertThat(geographicalAreaRegistry.size())
+        .isEqualTo(GeographicalAreaRegistry.MAX_VARIANTS_PER_AREA);
+    assertThat(geographicalAreaRegistry.get("1011", "ERGA OMNES", List.of("C0")))
+        .isNotSameAs(oldest)
+        .isEqualTo(oldest);
+  }
+}
@@ -159,7 +159,7 @@ class MeasureBuilderTest {
 
   @BeforeEach
   void setUp() {
-    measureBuilder = new MeasureBuilder();
+    measureBuilder = new MeasureBuilder(new GeographicalAreaRegistry());
   }
 
   @Test
@@ -617,4 +617,63 @@ class MeasureBuilderTest {
                 .description(additionalCodeOverlayText)
                 .build());
   }
+
+  @Test
+  @DisplayName(
+      "references shared by several measures should resolve to the first included entity with that id")
+  void measuresSharingReferences() {
+    List<TradeTariffCommodityResponseIncludedEntity> includedEntities =
+        List.of(
+            CommodityMeasure.builder()
+                .id("1")
+                .isImport(true)
+                .geographicalAreaId(GEOGRAPHICAL_AREA_ID)
+                .measureTypeId(EXPECTED_MEASURE_TYPE_ID)
+                .dutyExpressionId("1-duty_expression")
+                .build(),
+            CommodityMeasure.builder()
+                .id("2")
+                .isImport(true)
+                .geographicalAreaId(GEOGRAPHICAL_AREA_ID)
+                .measureTypeId(EXPECTED_MEASURE_TYPE_ID)
+                .dutyExpressionId("1-duty_expression")
+                .build(),
+            CommodityMeasureType.builder()
+                .id(EXPECTED_MEASURE_TYPE_ID)
+                .description(EXPECTED_MEASURE_TYPE_DESCRIPTION)
+                .build(),
+            CommodityMeasureType.builder()
+                .id(EXPECTED_MEASURE_TYPE_ID)
+                .description("Duplicate measure type")
+                .build(),
+            CommodityGeographicalArea.builder()
+                .id(GEOGRAPHICAL_AREA_ID)
+                .description("ERGA OMNES")
+                .build(),
+            DutyExpression.builder().id("1-duty_expression").base("2.00 %").build());
+    TradeTariffCommodityResponse tradeTariffCommodityResponse =
+        TradeTariffCommodityResponse.builder()
+            .data(TradeTariffCommodityResponseData.builder().id("1234").type("commodity").build())
+            .included(includedEntities)
+            .build();
+
+    List<Measure> measures = measureBuilder.from(tradeTariffCommodityResponse, COMMODITY_CODE);
+
+    assertThat(measures).hasSize(2);
+    assertThat(measures)
+        .allSatisfy(
+            measure -> {
+              assertThat(measure.getMeasureType().getDescription())
+                  .isEqualTo(EXPECTED_MEASURE_TYPE_DESCRIPTION);
+              assertThat(measure.getGeographicalArea().getDescription()).isEqualTo("ERGA OMNES");
+              assertThat(measure.getDutyValue()).isEqualTo("2.00 %");
+            });
+    assertThat(measures.get(0).getGeographicalArea())
+        .isSameAs(measures.get(1).getGeographicalArea())
+        .isSameAs(
+            measureBuilder
+                .from(tradeTariffCommodityResponse, COMMODITY_CODE)
+                .get(0)
+                .getGeographicalArea());
+  }
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.DigestUtils;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.DocumentaryMeasureCondition;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.GeographicalArea;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureConditionCode;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+
+class MeasureViewTest {
+
+  private static final Measure IMPORT_CONTROL =
+      Measure.builder()
+          .id("1")
+          .applicableTradeTypes(List.of(TradeType.IMPORT))
+          .measureType(MeasureType.builder().id("277").seriesId("B").build())
+          .geographicalArea(GeographicalArea.builder().id("1011").build())
+          .build();
+  private static final Measure EXPORT_CONTROL =
+      Measure.builder()
+          .id("2")
+          .applicableTradeTypes(List.of(TradeType.EXPORT))
+          .measureType(MeasureType.builder().id("278").seriesId("B").build())
+          .geographicalArea(GeographicalArea.builder().id("CN").build())
+          .build();
+  private static final Measure THIRD_COUNTRY_DUTY =
+      Measure.builder()
+          .id("3")
+          .applicableTradeTypes(List.of(TradeType.IMPORT, TradeType.EXPORT))
+          .measureType(MeasureType.builder().id("103").seriesId("C").build())
+          .geographicalArea(GeographicalArea.builder().id("1011").build())
+          .build();
+
+  private final MeasureView measureView =
+      MeasureView.of(List.of(IMPORT_CONTROL, EXPORT_CONTROL, THIRD_COUNTRY_DUTY));
+
+  @Test
+  @DisplayName("should keep all measures in the order they were built")
+  void shouldKeepAllMeasures() {
+    assertThat(measureView.getMeasures())
+        .containsExactly(IMPORT_CONTROL, EXPORT_CONTROL, THIRD_COUNTRY_DUTY);
+  }
+
+  @Test
+  @DisplayName("should look measures up by trade type")
+  void shouldLookUpMeasuresByTradeType() {
+    assertThat(measureView.getMeasures(TradeType.IMPORT))
+        .containsExactly(IMPORT_CONTROL, THIRD_COUNTRY_DUTY);
+    assertThat(measureView.getMeasures(TradeType.EXPORT))
+        .containsExactly(EXPORT_CONTROL, THIRD_COUNTRY_DUTY);
+  }
+
+  @Test
+  @DisplayName("should look measures up by measure type series")
+  void shouldLookUpMeasuresBySeries() {
+    assertThat(measureView.getMeasuresOfSeries("B"))
+        .containsExactly(IMPORT_CONTROL, EXPORT_CONTROL);
+    assertThat(measureView.getMeasuresOfSeries("C")).containsExactly(THIRD_COUNTRY_DUTY);
+    assertThat(measureView.getMeasuresOfSeries("A")).isEmpty();
+  }
+
+  @Test
+  @DisplayName("should look measures up by geographical area")
+  void shouldLookUpMeasuresByGeographicalArea() {
+    assertThat(measureView.getMeasuresForGeographicalArea("1011"))
+        .containsExactly(IMPORT_CONTROL, THIRD_COUNTRY_DUTY);
+    assertThat(measureView.getMeasuresForGeographicalArea("CN")).containsExactly(EXPORT_CONTROL);
+    assertThat(measureView.getMeasuresForGeographicalArea("FR")).isEmpty();
+  }
+
+  @Test
+  @DisplayName("should leave measures without a type, area or trade types out of the lookups")
+  void shouldSkipMeasuresWithoutLookupKeys() {
+    MeasureView view = MeasureView.of(List.of(Measure.builder().id("1").build()));
+
+    assertThat(view.getMeasures()).hasSize(1);
+    assertThat(view.getMeasures(TradeType.IMPORT)).isEmpty();
+    assertThat(view.getMeasuresOfSeries("B")).isEmpty();
+    assertThat(view.getMeasuresForGeographicalArea("1011")).isEmpty();
+  }
+
+  @Test
+  @DisplayName("should fingerprint views of equal measures alike and of other measures apart")
+  void shouldFingerprintTheMeasures() {
+    MeasureView importControl = MeasureView.of(List.of(IMPORT_CONTROL));
+    MeasureView equalImportControl =
+        MeasureView.of(
+            List.of(
+                Measure.builder()
+                    .id("1")
+                    .applicableTradeTypes(List.of(TradeType.IMPORT))
+                    .measureType(MeasureType.builder().id("277").seriesId("B").build())
+                    .geographicalArea(GeographicalArea.builder().id("1011").build())
+                    .build()));
+
+    assertThat(equalImportControl.getFingerprint()).isEqualTo(importControl.getFingerprint());
+    assertThat(measureView.getFingerprint())
+        .isEqualTo(measureView.getFingerprint())
+        .isNotEqualTo(importControl.getFingerprint());
+  }
+
+  @Test
+  @DisplayName("should fingerprint separately built views of the same measures by their content")
+  void shouldFingerprintTheContentOfTheMeasures() {
+    MeasureView measureView = MeasureView.of(List.of(certificateControl()));
+    MeasureView sameMeasureView = MeasureView.of(List.of(certificateControl()));
+
+    assertThat(sameMeasureView.getFingerprint()).isEqualTo(measureView.getFingerprint());
+    // the string form names the enums of the measures, so it is the same on every instance
+    assertThat(measureView.getFingerprint())
+        .isEqualTo(
+            DigestUtils.md5DigestAsHex(
+                measureView.getMeasures().toString().getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  @DisplayName("should not be affected by changes to the built measures or its lookups")
+  void shouldBeImmutable() {
+    List<Measure> builtMeasures = new ArrayList<>(List.of(IMPORT_CONTROL));
+    MeasureView view = MeasureView.of(builtMeasures);
+    builtMeasures.add(EXPORT_CONTROL);
+
+    assertThat(view.getMeasures()).containsExactly(IMPORT_CONTROL);
+    assertThatExceptionOfType(UnsupportedOperationException.class)
+        .isThrownBy(() -> view.getMeasures(TradeType.IMPORT).add(EXPORT_CONTROL));
+  }
+
+  private static Measure certificateControl() {
+    return Measure.builder()
+        .id("4")
+        .applicableTradeTypes(List.of(TradeType.IMPORT))
+        .measureType(MeasureType.builder().id("350").seriesId("B").build())
+        .geographicalArea(GeographicalArea.builder().id("1011").build())
+        .measureCondition(
+            DocumentaryMeasureCondition.builder()
+                .id("41")
+                .conditionCode(MeasureConditionCode.B)
+                .documentCode("C644")
+                .build())
+        .build();
+  }
+}
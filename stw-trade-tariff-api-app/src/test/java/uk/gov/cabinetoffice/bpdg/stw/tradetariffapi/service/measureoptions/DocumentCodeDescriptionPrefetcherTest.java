@@ -0,0 +1,154 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.measureoptions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType.IMPORT;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.DocumentCodeDescription;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.repository.DocumentCodeDescriptionRepository;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.DocumentaryMeasureCondition;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureCondition;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureConditionCode;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.NegativeMeasureCondition;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentCodeDescriptionPrefetcherTest {
+
+  @Mock private DocumentCodeDescriptionRepository documentCodeDescriptionRepository;
+
+  @InjectMocks private DocumentCodeDescriptionPrefetcher documentCodeDescriptionPrefetcher;
+
+  @Test
+  @DisplayName("should fetch the distinct document codes of all measures in one call")
+  void shouldFetchDistinctDocumentCodesOfAllMeasuresInOneCall() {
+    DocumentCodeDescription c014 = documentCodeDescription("C014");
+    DocumentCodeDescription y929 = documentCodeDescription("Y929");
+    when(documentCodeDescriptionRepository
+            .findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale(
+                List.of("C014", "Y929", "N853"), IMPORT, Locale.EN))
+        .thenReturn(Flux.just(c014, y929));
+
+    List<Measure> measures =
+        List.of(
+            measure(documentaryCondition("C014"), documentaryCondition("Y929")),
+            measure(
+                documentaryCondition("C014"),
+                NegativeMeasureCondition.builder().conditionCode(MeasureConditionCode.B).build()),
+            measure(documentaryCondition("N853")));
+
+    StepVerifier.create(documentCodeDescriptionPrefetcher.prefetch(measures, IMPORT, Locale.EN))
+        .assertNext(
+            lookup -> {
+              assertThat(lookup.covers(List.of(documentaryCondition("N853")))).isTrue();
+              assertThat(
+                      lookup.getDocumentCodeDescriptions(
+                          List.of(documentaryCondition("Y929"), documentaryCondition("N853"))))
+                  .containsExactly(
+                      y929,
+                      DocumentCodeDescription.builder()
+                          .documentCode("N853")
+                          .descriptionOverlay("N853 trade tariff description")
+                          .build());
+            })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("should split large numbers of document codes into several calls")
+  void shouldChunkDocumentCodes() {
+    List<String> documentCodes =
+        IntStream.range(0, DocumentCodeDescriptionPrefetcher.MAX_DOCUMENT_CODES_PER_CALL + 1)
+            .mapToObj(i -> String.format("C%03d", i))
+            .collect(Collectors.toList());
+    List<String> firstChunk =
+        documentCodes.subList(0, DocumentCodeDescriptionPrefetcher.MAX_DOCUMENT_CODES_PER_CALL);
+    String lastDocumentCode = documentCodes.get(documentCodes.size() - 1);
+    when(documentCodeDescriptionRepository
+            .findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale(
+                eq(firstChunk), eq(IMPORT), eq(Locale.EN)))
+        .thenReturn(Flux.just(documentCodeDescription(firstChunk.get(0))));
+    when(documentCodeDescriptionRepository
+            .findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale(
+                List.of(lastDocumentCode), IMPORT, Locale.EN))
+        .thenReturn(Flux.just(documentCodeDescription(lastDocumentCode)));
+
+    List<Measure> measures =
+        documentCodes.stream()
+            .map(documentCode -> measure(documentaryCondition(documentCode)))
+            .collect(Collectors.toList());
+
+    StepVerifier.create(documentCodeDescriptionPrefetcher.prefetch(measures, IMPORT, Locale.EN))
+        .assertNext(
+            lookup ->
+                assertThat(
+                        lookup.getDocumentCodeDescriptions(
+                            List.of(
+                                documentaryCondition(firstChunk.get(0)),
+                                documentaryCondition(lastDocumentCode))))
+                    .containsExactly(
+                        documentCodeDescription(firstChunk.get(0)),
+                        documentCodeDescription(lastDocumentCode)))
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("should not call the repository when no measure has a document code")
+  void shouldNotCallRepositoryWithoutDocumentCodes() {
+    StepVerifier.create(
+            documentCodeDescriptionPrefetcher.prefetch(List.of(measure()), IMPORT, Locale.EN))
+        .assertNext(lookup -> assertThat(lookup.covers(List.of())).isTrue())
+        .verifyComplete();
+
+    verifyNoInteractions(documentCodeDescriptionRepository);
+  }
+
+  private Measure measure(MeasureCondition... measureConditions) {
+    return Measure.builder().measureConditions(List.of(measureConditions)).build();
+  }
+
+  private DocumentaryMeasureCondition documentaryCondition(String documentCode) {
+    return DocumentaryMeasureCondition.builder()
+        .conditionCode(MeasureConditionCode.B)
+        .documentCode(documentCode)
+        .description(documentCode + " trade tariff description")
+        .build();
+  }
+
+  private DocumentCodeDescription documentCodeDescription(String documentCode) {
+    return DocumentCodeDescription.builder()
+        .documentCode(documentCode)
+        .descriptionOverlay(documentCode + " from content api")
+        .build();
+  }
+}
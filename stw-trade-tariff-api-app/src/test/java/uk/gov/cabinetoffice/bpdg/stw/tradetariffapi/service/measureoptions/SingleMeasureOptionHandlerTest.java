@@ -14,10 +14,13 @@
 
 package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.measureoptions;
 
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType.IMPORT;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -767,4 +770,116 @@ public class SingleMeasureOptionHandlerTest {
           .verifyComplete();
     }
   }
+
+  @Nested
+  class WithPrefetchedDocumentCodeDescriptions {
+
+    private final MeasureCondition certificateMeasureCondition =
+        DocumentaryMeasureCondition.builder()
+            .conditionCode(MeasureConditionCode.A)
+            .documentCode(CERTIFICATE_DOCUMENT_CODE1)
+            .requirement(CERTIFICATE_DEFAULT_REQUIREMENT)
+            .description(CERTIFICATE_DEFAULT_DESCRIPTION)
+            .build();
+
+    @ParameterizedTest
+    @EnumSource(Locale.class)
+    @DisplayName("should use the prefetched descriptions instead of calling the repository")
+    void shouldUsePrefetchedDocumentCodeDescriptions(Locale locale) {
+      DocumentCodeDescription documentCodeDescription =
+          DocumentCodeDescription.builder()
+              .documentCode(CERTIFICATE_DOCUMENT_CODE1)
+              .descriptionOverlay(CERTIFICATE1_DESCRIPTION_IN_DB)
+              .build();
+      DocumentCodeDescriptionLookup lookup =
+          new DocumentCodeDescriptionLookup(
+              Set.of(CERTIFICATE_DOCUMENT_CODE1),
+              Map.of(CERTIFICATE_DOCUMENT_CODE1, documentCodeDescription));
+
+      StepVerifier.create(
+              singleMeasureOptionHandler
+                  .getMeasureOption(List.of(certificateMeasureCondition), IMPORT, locale)
+                  .contextWrite(
+                      context -> context.put(DocumentCodeDescriptionLookup.CONTEXT_KEY, lookup)))
+          .expectNext(
+              MeasureOptions.builder()
+                  .options(
+                      List.of(
+                          DocumentCodeMeasureOption.builder()
+                              .totalNumberOfCertificates(1)
+                              .documentCodeDescription(documentCodeDescription)
+                              .build()))
+                  .build())
+          .verifyComplete();
+
+      verifyNoInteractions(documentCodeDescriptionRepository);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Locale.class)
+    @DisplayName("should fall back to the trade tariff description when none was prefetched")
+    void shouldFallBackToTradeTariffDescriptionWhenNotConfigured(Locale locale) {
+      DocumentCodeDescriptionLookup lookup =
+          new DocumentCodeDescriptionLookup(Set.of(CERTIFICATE_DOCUMENT_CODE1), Map.of());
+
+      StepVerifier.create(
+              singleMeasureOptionHandler
+                  .getMeasureOption(List.of(certificateMeasureCondition), IMPORT, locale)
+                  .contextWrite(
+                      context -> context.put(DocumentCodeDescriptionLookup.CONTEXT_KEY, lookup)))
+          .expectNext(
+              MeasureOptions.builder()
+                  .options(
+                      List.of(
+                          DocumentCodeMeasureOption.builder()
+                              .totalNumberOfCertificates(1)
+                              .documentCodeDescription(
+                                  DocumentCodeDescription.builder()
+                                      .documentCode(CERTIFICATE_DOCUMENT_CODE1)
+                                      .descriptionOverlay(CERTIFICATE_DEFAULT_DESCRIPTION)
+                                      .build())
+                              .build()))
+                  .build())
+          .verifyComplete();
+
+      verifyNoInteractions(documentCodeDescriptionRepository);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Locale.class)
+    @DisplayName("should call the repository for document codes which were not prefetched")
+    void shouldCallRepositoryForDocumentCodesNotPrefetched(Locale locale) {
+      DocumentCodeDescriptionLookup lookup =
+          new DocumentCodeDescriptionLookup(Set.of(CERTIFICATE_DOCUMENT_CODE2), Map.of());
+      when(documentCodeDescriptionRepository
+              .findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale(
+                  List.of(CERTIFICATE_DOCUMENT_CODE1), IMPORT, locale))
+          .thenReturn(
+              Flux.just(
+                  DocumentCodeDescription.builder()
+                      .documentCode(CERTIFICATE_DOCUMENT_CODE1)
+                      .descriptionOverlay(CERTIFICATE1_DESCRIPTION_IN_DB)
+                      .build()));
+
+      StepVerifier.create(
+              singleMeasureOptionHandler
+                  .getMeasureOption(List.of(certificateMeasureCondition), IMPORT, locale)
+                  .contextWrite(
+                      context -> context.put(DocumentCodeDescriptionLookup.CONTEXT_KEY, lookup)))
+          .expectNext(
+              MeasureOptions.builder()
+                  .options(
+                      List.of(
+                          DocumentCodeMeasureOption.builder()
+                              .totalNumberOfCertificates(1)
+                              .documentCodeDescription(
+                                  DocumentCodeDescription.builder()
+                                      .documentCode(CERTIFICATE_DOCUMENT_CODE1)
+                                      .descriptionOverlay(CERTIFICATE1_DESCRIPTION_IN_DB)
+                                      .build())
+                              .build()))
+                  .build())
+          .verifyComplete();
+    }
+  }
 }
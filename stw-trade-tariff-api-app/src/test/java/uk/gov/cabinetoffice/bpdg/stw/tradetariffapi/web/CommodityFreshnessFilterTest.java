@@ -0,0 +1,73 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.Freshness;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedFreshness;
+
+class CommodityFreshnessFilterTest {
+
+  private final CommodityFreshnessFilter commodityFreshnessFilter = new CommodityFreshnessFilter();
+
+  @Test
+  @DisplayName("should tell how fresh the commodities of the response were")
+  void shouldAddFreshnessHeaders() {
+    MockServerWebExchange exchange =
+        MockServerWebExchange.from(MockServerHttpRequest.get("/api/commodities/1/duties"));
+
+    commodityFreshnessFilter
+        .filter(
+            exchange,
+            filteredExchange ->
+                Mono.deferContextual(
+                        context -> {
+                          ServedFreshness servedFreshness = context.get(ServedFreshness.class);
+                          servedFreshness.record(Freshness.STALE, Duration.ofMinutes(90));
+                          servedFreshness.record(Freshness.FRESH, Duration.ofMinutes(5));
+                          return Mono.empty();
+                        })
+                    .then(filteredExchange.getResponse().setComplete()))
+        .block();
+
+    assertThat(exchange.getResponse().getHeaders().getFirst("X-Commodity-Freshness"))
+        .isEqualTo("stale-while-revalidate");
+    assertThat(exchange.getResponse().getHeaders().getFirst("X-Commodity-Age")).isEqualTo("5400");
+    assertThat(exchange.<ServedFreshness>getAttribute(ServedFreshness.ATTRIBUTE)).isNotNull();
+  }
+
+  @Test
+  @DisplayName("should leave the headers out of responses not built from commodities")
+  void shouldLeaveHeadersOutWithoutCommodities() {
+    MockServerWebExchange exchange =
+        MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/basket"));
+
+    commodityFreshnessFilter
+        .filter(exchange, filteredExchange -> filteredExchange.getResponse().setComplete())
+        .block();
+
+    assertThat(exchange.getResponse().getHeaders().containsKey("X-Commodity-Freshness")).isFalse();
+    assertThat(exchange.getResponse().getHeaders().containsKey("X-Commodity-Age")).isFalse();
+  }
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.EncodedResponse;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.EncodedResponseExpiry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.Freshness;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedFreshness;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedVersions;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ResponseCacheProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.ResponseVersionService;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.time.Clock;
+
+@ExtendWith(MockitoExtension.class)
+class ResponseCacheFilterTest {
+
+  private static final String MEASURES_PATH =
+      "/api/v1/commodities/{commodityCode}/restrictive-measures";
+  private static final String DUTIES_PATH = "/api/commodities/{commodityCode}/duties";
+  private static final String MEASURES_URI =
+      "/api/v1/commodities/0123456789/restrictive-measures?tradeType=IMPORT&originCountry=CN";
+  private static final String JSON = "{\"measures\":[]}";
+  private static final String E_TAG = "\"v1\"";
+  private static final LocalDate TODAY = LocalDate.of(2022, 5, 10);
+
+  @Mock private ResponseVersionService responseVersionService;
+  @Mock private Clock clock;
+
+  private final Cache<String, EncodedResponse> responseCache = Caffeine.newBuilder().build();
+  private final ResponseCacheProperties responseCacheProperties = new ResponseCacheProperties();
+  private final AtomicInteger handledRequests = new AtomicInteger();
+
+  private ResponseCacheFilter responseCacheFilter;
+
+  @BeforeEach
+  void setUp() {
+    responseCacheProperties.setEnable(true);
+    responseCacheProperties.setPaths(
+        List.of(cachedPath(MEASURES_PATH, "tradeDate"), cachedPath(DUTIES_PATH, "importDate")));
+    responseCacheFilter =
+        new ResponseCacheFilter(
+            responseCache, responseCacheProperties, responseVersionService, clock);
+  }
+
+  @Test
+  @DisplayName("should serve repeated requests from the encoded json of the first response")
+  void shouldServeRepeatedRequestsFromTheCache() {
+    stubVersion("v1");
+
+    MockServerWebExchange first = exchange(MockServerHttpRequest.get(MEASURES_URI));
+    responseCacheFilter.filter(first, chain(HttpStatus.OK)).block();
+    MockServerWebExchange second = exchange(MockServerHttpRequest.get(MEASURES_URI));
+    responseCacheFilter.filter(second, chain(HttpStatus.OK)).block();
+
+    assertThat(handledRequests).hasValue(1);
+    assertThat(first.getResponse().getBodyAsString().block()).isEqualTo(JSON);
+    assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(second.getResponse().getHeaders().getContentType())
+        .isEqualTo(MediaType.APPLICATION_JSON);
+    assertThat(second.getResponse().getHeaders().getContentLength()).isEqualTo(JSON.length());
+    assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(JSON);
+  }
+
+  @Test
+  @DisplayName("should share responses between requests which only differ by defaulted parameters")
+  void shouldNormaliseRequests() {
+    stubVersion("v1");
+
+    responseCacheFilter
+        .filter(
+            exchange(
+                MockServerHttpRequest.get(
+                    "/api/v1/commodities/01234567/restrictive-measures"
+                        + "?tradeType=import&originCountry=CN&tradeDate=2022-05-10")),
+            chain(HttpStatus.OK))
+        .block();
+    responseCacheFilter
+        .filter(
+            exchange(
+                MockServerHttpRequest.get(
+                    "/api/v1/commodities/0123456700/restrictive-measures"
+                        + "?originCountry=CN&locale=en&tradeType=IMPORT")),
+            chain(HttpStatus.OK))
+        .block();
+
+    assertThat(handledRequests).hasValue(1);
+    assertThat(responseCache.estimatedSize()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should not take the import date of duties for the trade date of measures")
+  void shouldOnlyTakeTheTradeDateForTheDateOfMeasures() {
+    when(clock.currentLocalDate()).thenReturn(TODAY);
+    when(responseVersionService.getVersion()).thenReturn("v1");
+
+    responseCacheFilter
+        .filter(
+            exchange(
+                MockServerHttpRequest.get(
+                    MEASURES_URI + "&tradeDate=2020-01-01&importDate=2021-01-01")),
+            chain(HttpStatus.OK))
+        .block();
+    responseCacheFilter
+        .filter(
+            exchange(MockServerHttpRequest.get(MEASURES_URI + "&tradeDate=2021-01-01")),
+            chain(HttpStatus.OK))
+        .block();
+
+    assertThat(handledRequests).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("should not take the trade date of measures for the import date of duties")
+  void shouldOnlyTakeTheImportDateForTheDateOfDuties() {
+    when(clock.currentLocalDate()).thenReturn(TODAY);
+    when(responseVersionService.getVersion()).thenReturn("v1");
+
+    responseCacheFilter
+        .filter(
+            exchange(
+                MockServerHttpRequest.get(
+                    "/api/commodities/0123456789/duties?originCountry=CN&tradeDate=2020-01-01")),
+            chain(HttpStatus.OK))
+        .block();
+    responseCacheFilter
+        .filter(
+            exchange(
+                MockServerHttpRequest.get(
+                    "/api/commodities/0123456789/duties?originCountry=CN&importDate=2020-01-01")),
+            chain(HttpStatus.OK))
+        .block();
+
+    assertThat(handledRequests).hasValue(2);
+    assertThat(responseCache.estimatedSize()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("should not serve responses built from older content snapshots")
+  void shouldKeepResponsesPerVersion() {
+    when(clock.currentLocalDate()).thenReturn(TODAY);
+    when(responseVersionService.getVersion()).thenReturn("v1", "v2");
+
+    responseCacheFilter
+        .filter(exchange(MockServerHttpRequest.get(MEASURES_URI)), chain(HttpStatus.OK))
+        .block();
+    responseCacheFilter
+        .filter(exchange(MockServerHttpRequest.get(MEASURES_URI)), chain(HttpStatus.OK))
+        .block();
+
+    assertThat(handledRequests).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("should answer conditional requests from the cached response")
+  void shouldAnswerConditionalRequestsFromTheCache() {
+    stubVersion("v1");
+
+    responseCacheFilter
+        .filter(exchange(MockServerHttpRequest.get(MEASURES_URI)), chain(HttpStatus.OK))
+        .block();
+    MockServerWebExchange conditional =
+        exchange(MockServerHttpRequest.get(MEASURES_URI).ifNoneMatch(E_TAG));
+    responseCacheFilter.filter(conditional, chain(HttpStatus.OK)).block();
+    MockServerWebExchange unconditional = exchange(MockServerHttpRequest.get(MEASURES_URI));
+    responseCacheFilter.filter(unconditional, chain(HttpStatus.OK)).block();
+
+    assertThat(handledRequests).hasValue(1);
+    assertThat(conditional.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    assertThat(conditional.getResponse().getHeaders().getETag()).isEqualTo(E_TAG);
+    assertThat(conditional.getResponse().getHeaders().getCacheControl())
+        .isEqualTo("max-age=7200, public");
+    assertThat(unconditional.getResponse().getHeaders().getETag()).isEqualTo(E_TAG);
+    assertThat(unconditional.getResponse().getBodyAsString().block()).isEqualTo(JSON);
+  }
+
+  @Test
+  @DisplayName("should keep responses compressed and only decompress them for clients without gzip")
+  void shouldKeepResponsesCompressed() throws IOException {
+    responseCacheProperties.setCompress(true);
+    stubVersion("v1");
+
+    responseCacheFilter
+        .filter(exchange(MockServerHttpRequest.get(MEASURES_URI)), chain(HttpStatus.OK))
+        .block();
+    MockServerWebExchange gzip =
+        exchange(
+            MockServerHttpRequest.get(MEASURES_URI)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"));
+    responseCacheFilter.filter(gzip, chain(HttpStatus.OK)).block();
+    MockServerWebExchange identity = exchange(MockServerHttpRequest.get(MEASURES_URI));
+    responseCacheFilter.filter(identity, chain(HttpStatus.OK)).block();
+
+    assertThat(handledRequests).hasValue(1);
+    assertThat(gzip.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))
+        .isEqualTo("gzip");
+    assertThat(gunzip(gzip.getResponse())).isEqualTo(JSON);
+    assertThat(identity.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING))
+        .isFalse();
+    assertThat(identity.getResponse().getHeaders().getVary())
+        .containsExactly(HttpHeaders.ACCEPT_ENCODING);
+    assertThat(identity.getResponse().getBodyAsString().block()).isEqualTo(JSON);
+  }
+
+  @Test
+  @DisplayName("should not cache unsuccessful responses")
+  void shouldNotCacheUnsuccessfulResponses() {
+    when(clock.currentLocalDate()).thenReturn(TODAY);
+    when(responseVersionService.getVersion()).thenReturn("v1");
+
+    responseCacheFilter
+        .filter(exchange(MockServerHttpRequest.get(MEASURES_URI)), chain(HttpStatus.BAD_REQUEST))
+        .block();
+    responseCacheFilter
+        .filter(exchange(MockServerHttpRequest.get(MEASURES_URI)), chain(HttpStatus.BAD_REQUEST))
+        .block();
+
+    assertThat(handledRequests).hasValue(2);
+    assertThat(responseCache.estimatedSize()).isZero();
+  }
+
+  @Test
+  @DisplayName("should not cache responses built from stale commodities")
+  void shouldNotCacheStaleResponses() {
+    when(clock.currentLocalDate()).thenReturn(TODAY);
+    when(responseVersionService.getVersion()).thenReturn("v1");
+    ServedFreshness servedFreshness = new ServedFreshness();
+    servedFreshness.record(Freshness.STALE_IF_ERROR, Duration.ofHours(3));
+    MockServerWebExchange exchange = exchange(MockServerHttpRequest.get(MEASURES_URI));
+    exchange.getAttributes().put(ServedFreshness.ATTRIBUTE, servedFreshness);
+
+    responseCacheFilter.filter(exchange, chain(HttpStatus.OK)).block();
+
+    assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(JSON);
+    assertThat(responseCache.estimatedSize()).isZero();
+  }
+
+  @Test
+  @DisplayName("should keep responses until their commodities are due to be refreshed")
+  void shouldKeepResponsesUntilTheirCommoditiesAreDueToBeRefreshed() {
+    when(clock.currentLocalDate()).thenReturn(TODAY);
+    when(responseVersionService.getVersion()).thenReturn("v1");
+    ServedFreshness servedFreshness = new ServedFreshness();
+    servedFreshness.record(Freshness.FRESH, Duration.ofMinutes(20));
+    servedFreshness.recordFreshFor(Duration.ofMinutes(40));
+    MockServerWebExchange exchange = exchange(MockServerHttpRequest.get(MEASURES_URI));
+    exchange.getAttributes().put(ServedFreshness.ATTRIBUTE, servedFreshness);
+
+    responseCacheFilter.filter(exchange, chain(HttpStatus.OK)).block();
+
+    assertThat(responseCache.asMap().values())
+        .singleElement()
+        .satisfies(
+            response -> assertThat(response.getTimeToLive()).contains(Duration.ofMinutes(40)));
+  }
+
+  @Test
+  @DisplayName("should let clients keep cached responses for no longer than they are kept")
+  void shouldLetClientsKeepCachedResponsesForAsLongAsTheyAreKept() {
+    Cache<String, EncodedResponse> expiringResponseCache =
+        Caffeine.newBuilder()
+            .ticker(() -> 0L)
+            .expireAfter(
+                new EncodedResponseExpiry(
+                    java.time.Clock.fixed(Instant.parse("2022-05-10T12:00:00Z"), ZoneOffset.UTC)))
+            .build();
+    responseCacheFilter =
+        new ResponseCacheFilter(
+            expiringResponseCache, responseCacheProperties, responseVersionService, clock);
+    when(clock.currentLocalDate()).thenReturn(TODAY);
+    when(responseVersionService.getVersion()).thenReturn("v1");
+    ServedFreshness servedFreshness = new ServedFreshness();
+    servedFreshness.record(Freshness.FRESH, Duration.ofMinutes(20));
+    servedFreshness.recordFreshFor(Duration.ofMinutes(40));
+    MockServerWebExchange first = exchange(MockServerHttpRequest.get(MEASURES_URI));
+    first.getAttributes().put(ServedFreshness.ATTRIBUTE, servedFreshness);
+
+    responseCacheFilter.filter(first, chain(HttpStatus.OK)).block();
+    MockServerWebExchange conditional =
+        exchange(MockServerHttpRequest.get(MEASURES_URI).ifNoneMatch(E_TAG));
+    responseCacheFilter.filter(conditional, chain(HttpStatus.OK)).block();
+
+    assertThat(handledRequests).hasValue(1);
+    assertThat(conditional.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    assertThat(conditional.getResponse().getHeaders().getCacheControl())
+        .isEqualTo("max-age=2400, public");
+  }
+
+  @Test
+  @DisplayName("should not cache responses built while a content lookup failed")
+  void shouldNotCacheResponsesMissingContent() {
+    when(clock.currentLocalDate()).thenReturn(TODAY);
+    when(responseVersionService.getVersion()).thenReturn("v1");
+    ServedVersions servedVersions = new ServedVersions();
+    ServedVersions.recordMissingContent()
+        .contextWrite(Context.of(ServedVersions.class, servedVersions))
+        .block();
+    WebFilterChain chain =
+        exchange -> {
+          // as put by the controller, on the exchange passed down the chain
+          exchange.getAttributes().put(ServedVersions.ATTRIBUTE, servedVersions);
+          return chain(HttpStatus.OK).filter(exchange);
+        };
+
+    MockServerWebExchange exchange = exchange(MockServerHttpRequest.get(MEASURES_URI));
+    responseCacheFilter.filter(exchange, chain).block();
+
+    assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(JSON);
+    assertThat(responseCache.estimatedSize()).isZero();
+  }
+
+  @Test
+  @DisplayName("should pass other requests through without caching them")
+  void shouldPassOtherRequestsThrough() {
+    responseCacheFilter
+        .filter(
+            exchange(MockServerHttpRequest.get("/api/commodities/0123456789/additional-codes")),
+            chain(HttpStatus.OK))
+        .block();
+    responseCacheFilter
+        .filter(exchange(MockServerHttpRequest.post(MEASURES_URI)), chain(HttpStatus.OK))
+        .block();
+
+    assertThat(handledRequests).hasValue(2);
+    assertThat(responseCache.estimatedSize()).isZero();
+  }
+
+  private void stubVersion(String version) {
+    when(clock.currentLocalDate()).thenReturn(TODAY);
+    when(responseVersionService.getVersion()).thenReturn(version);
+    when(responseVersionService.getTimeToLive()).thenReturn(Duration.ofHours(2));
+  }
+
+  private static ResponseCacheProperties.CachedPath cachedPath(
+      String pattern, String dateParameter) {
+    ResponseCacheProperties.CachedPath cachedPath = new ResponseCacheProperties.CachedPath();
+    cachedPath.setPattern(pattern);
+    cachedPath.setDateParameter(dateParameter);
+    return cachedPath;
+  }
+
+  private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+    return MockServerWebExchange.from(request);
+  }
+
+  private WebFilterChain chain(HttpStatus status) {
+    return exchange -> {
+      handledRequests.incrementAndGet();
+      ServerHttpResponse response = exchange.getResponse();
+      response.setStatusCode(status);
+      response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+      response.getHeaders().setETag(E_TAG);
+      return response.writeWith(
+          Mono.just(response.bufferFactory().wrap(JSON.getBytes(StandardCharsets.UTF_8))));
+    };
+  }
+
+  private static String gunzip(MockServerHttpResponse response) throws IOException {
+    DataBuffer body = DataBufferUtils.join(response.getBody()).block();
+    byte[] compressed = new byte[body.readableByteCount()];
+    body.read(compressed);
+    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+}
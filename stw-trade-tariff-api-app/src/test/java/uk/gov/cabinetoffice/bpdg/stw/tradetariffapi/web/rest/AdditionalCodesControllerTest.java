@@ -36,21 +36,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.security.reactive.ReactiveSecurityAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.util.UriBuilder;
 import reactor.core.publisher.Mono;
 import uk.gov.cabinetoffice.bpdg.stw.monitoring.prometheus.metrics.application.InboundRequestMetrics;
 import uk.gov.cabinetoffice.bpdg.stw.monitoring.prometheus.metrics.application.ResourceNameLabelResolver;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.HttpCachingProperties;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.AdditionalCode;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.ResourceNotFoundException;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.AdditionalCodesService;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.ResponseVersionService;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.time.Clock;
 
 @WebFluxTest(
     controllers = AdditionalCodesController.class,
     excludeAutoConfiguration = ReactiveSecurityAutoConfiguration.class)
+@Import(ConditionalResponses.class)
 class AdditionalCodesControllerTest {
 
   @Autowired private WebTestClient webTestClient;
@@ -58,6 +62,8 @@ class AdditionalCodesControllerTest {
   @MockBean private AdditionalCodesService additionalCodesService;
   @MockBean private Clock clock;
 
+  @MockBean private ResponseVersionService responseVersionService;
+  @MockBean private HttpCachingProperties httpCachingProperties;
   @MockBean private InboundRequestMetrics inboundRequestMetrics;
   @MockBean private ResourceNameLabelResolver resourceNameLabelResolver;
 
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ApplicationProperties.CONTEXT_ROOT;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveSecurityAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import uk.gov.cabinetoffice.bpdg.stw.monitoring.prometheus.metrics.application.InboundRequestMetrics;
+import uk.gov.cabinetoffice.bpdg.stw.monitoring.prometheus.metrics.application.ResourceNameLabelResolver;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.BasketProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.BasketLineResult;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.ConditionBasedRestrictiveMeasure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.GeographicalArea;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Tariff;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TariffAndTaxes;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.BasketService;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.time.Clock;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.BasketLine;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.BasketRequest;
+
+@WebFluxTest(
+    controllers = BasketController.class,
+    excludeAutoConfiguration = ReactiveSecurityAutoConfiguration.class)
+class BasketControllerTest {
+
+  private static final String BASKET_PATH = CONTEXT_ROOT + "/v1/basket";
+
+  LocalDate currentLocalDate = LocalDate.now();
+  @MockBean private BasketService basketService;
+  @MockBean private BasketProperties basketProperties;
+  @MockBean private Clock clock;
+  @MockBean private InboundRequestMetrics inboundRequestMetrics;
+  @MockBean private ResourceNameLabelResolver resourceNameLabelResolver;
+  @Autowired private WebTestClient webTestClient;
+
+  @BeforeEach
+  public void setUp() {
+    when(clock.currentLocalDate()).thenReturn(currentLocalDate);
+    when(basketProperties.getMaxLines()).thenReturn(2);
+  }
+
+  @Test
+  void shouldStreamMeasuresAndDutiesOfEveryLine() {
+    BasketRequest request =
+        BasketRequest.builder()
+            .tradeType(TradeType.IMPORT)
+            .originCountry("CN")
+            .destinationCountry("GB")
+            .lines(
+                List.of(
+                    BasketLine.builder().commodityCode("12345678").additionalCode("4200").build(),
+                    BasketLine.builder().commodityCode("9999999999").build()))
+            .build();
+    BasketRequest expectedRequest =
+        request.toBuilder()
+            .lines(
+                List.of(
+                    BasketLine.builder()
+                        .commodityCode("1234567800")
+                        .additionalCode("4200")
+                        .build(),
+                    BasketLine.builder().commodityCode("9999999999").build()))
+            .tradeDate(currentLocalDate)
+            .locale(Locale.EN)
+            .build();
+    given(basketService.getBasket(expectedRequest))
+        .willReturn(
+            Flux.just(
+                BasketLineResult.builder()
+                    .commodityCode("9999999999")
+                    .error("Resource 'Commodity' not found with id '9999999999'")
+                    .build(),
+                BasketLineResult.builder()
+                    .commodityCode("1234567800")
+                    .additionalCode("4200")
+                    .measures(List.of(ConditionBasedRestrictiveMeasure.builder().id("350").build()))
+                    .tariffAndTaxes(
+                        TariffAndTaxes.builder()
+                            .duties(
+                                List.of(
+                                    Tariff.builder()
+                                        .measureTypeId("103")
+                                        .geographicalArea(
+                                            GeographicalArea.builder().id("1011").build())
+                                        .build()))
+                            .build())
+                    .build()));
+
+    webTestClient
+        .post()
+        .uri(BASKET_PATH)
+        .accept(MediaType.APPLICATION_JSON)
+        .bodyValue(request)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.length()")
+        .isEqualTo(2)
+        .jsonPath("$[0].commodityCode")
+        .isEqualTo("9999999999")
+        .jsonPath("$[0].error")
+        .isEqualTo("Resource 'Commodity' not found with id '9999999999'")
+        .jsonPath("$[0].measures")
+        .doesNotExist()
+        .jsonPath("$[1].commodityCode")
+        .isEqualTo("1234567800")
+        .jsonPath("$[1].additionalCode")
+        .isEqualTo("4200")
+        .jsonPath("$[1].measures[0].id")
+        .isEqualTo("350")
+        .jsonPath("$[1].tariffs[0].measureTypeId")
+        .isEqualTo("103")
+        .jsonPath("$[1].taxes.length()")
+        .isEqualTo(0)
+        .jsonPath("$[1].error")
+        .doesNotExist();
+  }
+
+  @Test
+  void shouldStreamEveryLineAsNewlineDelimitedJson() {
+    BasketLine line = BasketLine.builder().commodityCode("1234567890").build();
+    BasketLine otherLine = BasketLine.builder().commodityCode("1234567891").build();
+    BasketRequest request =
+        BasketRequest.builder()
+            .tradeType(TradeType.IMPORT)
+            .originCountry("CN")
+            .destinationCountry("GB")
+            .tradeDate(currentLocalDate)
+            .locale(Locale.CY)
+            .lines(List.of(line, otherLine))
+            .build();
+    given(basketService.getBasket(request))
+        .willReturn(
+            Flux.just(
+                BasketLineResult.builder().commodityCode("1234567890").error("error").build(),
+                BasketLineResult.builder().commodityCode("1234567891").error("error").build()));
+
+    webTestClient
+        .post()
+        .uri(BASKET_PATH)
+        .accept(MediaType.APPLICATION_NDJSON)
+        .bodyValue(request)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        .expectBody(String.class)
+        .value(body -> assertThat(body.lines()).hasSize(2));
+  }
+
+  @Test
+  void shouldRejectAnInvalidLine() {
+    BasketRequest request =
+        BasketRequest.builder()
+            .tradeType(TradeType.IMPORT)
+            .originCountry("CN")
+            .destinationCountry("GB")
+            .lines(List.of(BasketLine.builder().commodityCode("123").build()))
+            .build();
+
+    webTestClient
+        .post()
+        .uri(BASKET_PATH)
+        .bodyValue(request)
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.validationErrors.length()")
+        .isEqualTo(1)
+        .jsonPath("$.validationErrors[0].fieldName")
+        .isEqualTo("lines[0].commodityCode");
+    verifyNoInteractions(basketService);
+  }
+
+  @Test
+  void shouldRejectABasketWithTooManyLines() {
+    BasketLine line = BasketLine.builder().commodityCode("1234567890").build();
+    BasketRequest request =
+        BasketRequest.builder()
+            .tradeType(TradeType.IMPORT)
+            .originCountry("CN")
+            .destinationCountry("GB")
+            .lines(List.of(line, line, line))
+            .build();
+
+    webTestClient
+        .post()
+        .uri(BASKET_PATH)
+        .bodyValue(request)
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.validationErrors[0].fieldName")
+        .isEqualTo("lines")
+        .jsonPath("$.validationErrors[0].message")
+        .isEqualTo("A basket can have at most 2 lines");
+    verifyNoInteractions(basketService);
+  }
+
+  @Test
+  void shouldRejectAnImportToACountryOutsideTheUk() {
+    BasketRequest request =
+        BasketRequest.builder()
+            .tradeType(TradeType.IMPORT)
+            .originCountry("CN")
+            .destinationCountry("FR")
+            .lines(List.of(BasketLine.builder().commodityCode("1234567890").build()))
+            .build();
+
+    webTestClient
+        .post()
+        .uri(BASKET_PATH)
+        .bodyValue(request)
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.validationErrors[0].fieldName")
+        .isEqualTo("destinationCountry")
+        .jsonPath("$.validationErrors[0].message")
+        .isEqualTo("Destination country FR is not a valid UK country");
+  }
+
+  @Test
+  void shouldRejectAnExportFromACountryOutsideTheUk() {
+    BasketRequest request =
+        BasketRequest.builder()
+            .tradeType(TradeType.EXPORT)
+            .originCountry("CN")
+            .destinationCountry("FR")
+            .lines(List.of(BasketLine.builder().commodityCode("1234567890").build()))
+            .build();
+
+    webTestClient
+        .post()
+        .uri(BASKET_PATH)
+        .bodyValue(request)
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.validationErrors[0].fieldName")
+        .isEqualTo("originCountry")
+        .jsonPath("$.validationErrors[0].message")
+        .isEqualTo("Origin country CN is not a valid UK country");
+  }
+}
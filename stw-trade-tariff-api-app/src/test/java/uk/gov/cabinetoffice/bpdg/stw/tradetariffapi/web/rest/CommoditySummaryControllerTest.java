@@ -0,0 +1,257 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ApplicationProperties.CONTEXT_ROOT;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveSecurityAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.util.UriBuilder;
+import reactor.core.publisher.Mono;
+import uk.gov.cabinetoffice.bpdg.stw.monitoring.prometheus.metrics.application.InboundRequestMetrics;
+import uk.gov.cabinetoffice.bpdg.stw.monitoring.prometheus.metrics.application.ResourceNameLabelResolver;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.HttpCachingProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.AdditionalCode;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.CommoditySummary;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.ConditionBasedRestrictiveMeasure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.GeographicalArea;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Tariff;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TariffAndTaxes;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Tax;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.CommoditySummaryService;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.ResponseVersionService;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.time.Clock;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.CommoditySummaryRequest;
+
+@WebFluxTest(
+    controllers = CommoditySummaryController.class,
+    excludeAutoConfiguration = ReactiveSecurityAutoConfiguration.class)
+@Import(ConditionalResponses.class)
+class CommoditySummaryControllerTest {
+
+  private static final String COMMODITY_CODE = "1234567890";
+  private static final GeographicalArea ERGA_OMNES =
+      GeographicalArea.builder().id("1011").description("ERGA OMNES").build();
+
+  LocalDate currentLocalDate = LocalDate.now();
+  @MockBean private CommoditySummaryService commoditySummaryService;
+  @MockBean private Clock clock;
+  @MockBean private ResponseVersionService responseVersionService;
+  @MockBean private HttpCachingProperties httpCachingProperties;
+  @MockBean private InboundRequestMetrics inboundRequestMetrics;
+  @MockBean private ResourceNameLabelResolver resourceNameLabelResolver;
+  @Autowired private WebTestClient webTestClient;
+
+  @BeforeEach
+  public void setUp() {
+    when(clock.currentLocalDate()).thenReturn(currentLocalDate);
+  }
+
+  @Test
+  void shouldReturnAllSectionsOfTheSummary() {
+    CommoditySummaryRequest request =
+        CommoditySummaryRequest.builder()
+            .commodityCode(COMMODITY_CODE)
+            .originCountry("CN")
+            .destinationCountry("GB")
+            .tradeType(TradeType.IMPORT)
+            .additionalCode("4200")
+            .dateOfTrade(LocalDate.of(2022, 5, 10))
+            .locale(Locale.CY)
+            .build();
+    given(commoditySummaryService.getCommoditySummary(request))
+        .willReturn(
+            Mono.just(
+                CommoditySummary.builder()
+                    .additionalCodes(
+                        List.of(AdditionalCode.builder().code("4200").description("4200").build()))
+                    .measures(
+                        List.of(
+                            ConditionBasedRestrictiveMeasure.builder()
+                                .id("350")
+                                .descriptionOverlay("description 350")
+                                .build()))
+                    .tariffAndTaxes(
+                        TariffAndTaxes.builder()
+                            .duties(
+                                List.of(
+                                    Tax.builder()
+                                        .measureTypeId("305")
+                                        .text("VAT")
+                                        .value("20.00 %")
+                                        .geographicalArea(ERGA_OMNES)
+                                        .build(),
+                                    Tariff.builder()
+                                        .measureTypeId("103")
+                                        .text("Third country duty")
+                                        .value("8.00 %")
+                                        .geographicalArea(ERGA_OMNES)
+                                        .build()))
+                            .build())
+                    .build()));
+
+    webTestClient
+        .get()
+        .uri(createRequest(request))
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.additionalCodes.data.length()")
+        .isEqualTo(1)
+        .jsonPath("$.additionalCodes.data[0].code")
+        .isEqualTo("4200")
+        .jsonPath("$.restrictiveMeasures.measures.length()")
+        .isEqualTo(1)
+        .jsonPath("$.restrictiveMeasures.measures[0].id")
+        .isEqualTo("350")
+        .jsonPath("$.duties.tariffs.length()")
+        .isEqualTo(1)
+        .jsonPath("$.duties.tariffs[0].measureTypeId")
+        .isEqualTo("103")
+        .jsonPath("$.duties.taxes.length()")
+        .isEqualTo(1)
+        .jsonPath("$.duties.taxes[0].measureTypeId")
+        .isEqualTo("305");
+  }
+
+  @Test
+  void shouldDefaultTheDateOfTradeAndLocale() {
+    CommoditySummaryRequest request =
+        CommoditySummaryRequest.builder()
+            .commodityCode(COMMODITY_CODE)
+            .originCountry("GB")
+            .destinationCountry("CN")
+            .tradeType(TradeType.EXPORT)
+            .build();
+    CommoditySummaryRequest expectedRequest =
+        CommoditySummaryRequest.builder()
+            .commodityCode(COMMODITY_CODE)
+            .originCountry("GB")
+            .destinationCountry("CN")
+            .tradeType(TradeType.EXPORT)
+            .dateOfTrade(currentLocalDate)
+            .locale(Locale.EN)
+            .build();
+    given(commoditySummaryService.getCommoditySummary(expectedRequest))
+        .willReturn(
+            Mono.just(
+                CommoditySummary.builder()
+                    .additionalCodes(List.of())
+                    .measures(List.of())
+                    .tariffAndTaxes(TariffAndTaxes.builder().duties(List.of()).build())
+                    .build()));
+
+    webTestClient
+        .get()
+        .uri(createRequest(request))
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.additionalCodes.data.length()")
+        .isEqualTo(0)
+        .jsonPath("$.restrictiveMeasures.measures.length()")
+        .isEqualTo(0)
+        .jsonPath("$.duties.tariffs.length()")
+        .isEqualTo(0);
+  }
+
+  @Test
+  void shouldRejectAnImportToACountryOutsideTheUk() {
+    CommoditySummaryRequest request =
+        CommoditySummaryRequest.builder()
+            .commodityCode(COMMODITY_CODE)
+            .originCountry("CN")
+            .destinationCountry("FR")
+            .tradeType(TradeType.IMPORT)
+            .build();
+
+    assertBadRequest(
+        request, "destinationCountry", "Destination country FR is not a valid UK country");
+  }
+
+  @Test
+  void shouldRejectAnExportFromACountryOutsideTheUk() {
+    CommoditySummaryRequest request =
+        CommoditySummaryRequest.builder()
+            .commodityCode(COMMODITY_CODE)
+            .originCountry("FR")
+            .destinationCountry("CN")
+            .tradeType(TradeType.EXPORT)
+            .build();
+
+    assertBadRequest(request, "originCountry", "Origin country FR is not a valid UK country");
+  }
+
+  private void assertBadRequest(CommoditySummaryRequest request, String fieldName, String message) {
+    webTestClient
+        .get()
+        .uri(createRequest(request))
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.validationErrors.length()")
+        .isEqualTo(1)
+        .jsonPath("$.validationErrors[0].fieldName")
+        .isEqualTo(fieldName)
+        .jsonPath("$.validationErrors[0].message")
+        .isEqualTo(message);
+    verifyNoInteractions(commoditySummaryService);
+  }
+
+  private Function<UriBuilder, URI> createRequest(CommoditySummaryRequest request) {
+    return builder -> {
+      UriBuilder uriBuilder =
+          builder
+              .path(
+                  String.format(
+                      CONTEXT_ROOT + "/v1/commodities/%s/summary", request.getCommodityCode()))
+              .queryParam("tradeType", request.getTradeType())
+              .queryParam("originCountry", request.getOriginCountry())
+              .queryParam("destinationCountry", request.getDestinationCountry());
+
+      if (Objects.nonNull(request.getDateOfTrade())) {
+        uriBuilder.queryParam("tradeDate", request.getDateOfTrade().toString());
+      }
+      request
+          .getAdditionalCode()
+          .ifPresent(additionalCode -> uriBuilder.queryParam("additionalCode", additionalCode));
+      if (Objects.nonNull(request.getLocale())) {
+        uriBuilder.queryParam("locale", request.getLocale().name());
+      }
+      return uriBuilder.build();
+    };
+  }
+}
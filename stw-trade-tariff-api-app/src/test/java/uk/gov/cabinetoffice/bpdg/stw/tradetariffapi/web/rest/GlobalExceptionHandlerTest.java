@@ -29,6 +29,7 @@ import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.LoggerFactory;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.ResourceNotFoundException;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.exception.UpstreamOverloadedException;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.error.ErrorResponse;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.error.ValidationErrorResponse;
 
@@ -58,6 +59,27 @@ class GlobalExceptionHandlerTest {
       .isEqualTo("Resource 'Commodity' not found with id '8079909999'");
   }
 
+  @Test
+  void shouldLogTheUpstreamOverloadedExceptionAtWarnLevel() {
+    // given
+    Logger logger = (Logger) LoggerFactory.getLogger(GlobalExceptionHandler.class);
+    ListAppender<ILoggingEvent> listAppender = new ListAppender<>();
+    listAppender.start();
+    logger.addAppender(listAppender);
+
+    // when
+    ErrorResponse result =
+      globalExceptionHandler.handleUpstreamOverloadedException(
+        new UpstreamOverloadedException("ott"));
+
+    // then
+    List<ILoggingEvent> logsList = listAppender.list;
+    assertThat(logsList.get(0).getMessage()).isEqualTo("Handling UpstreamOverloadedException");
+    assertThat(logsList.get(0).getLevel()).isEqualTo(Level.WARN);
+    assertThat(result.getMessage())
+      .isEqualTo("Too many concurrent requests to the 'ott' api");
+  }
+
   @Test
   void shouldLogExceptionErrorLevel() {
     // given
@@ -22,6 +22,7 @@ import static org.mockito.Mockito.when;
 import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ApplicationProperties.CONTEXT_ROOT;
 
 import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Objects;
@@ -35,11 +36,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.security.reactive.ReactiveSecurityAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.util.UriBuilder;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import uk.gov.cabinetoffice.bpdg.stw.monitoring.prometheus.metrics.application.InboundRequestMetrics;
 import uk.gov.cabinetoffice.bpdg.stw.monitoring.prometheus.metrics.application.ResourceNameLabelResolver;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.Freshness;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedFreshness;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedVersions;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.HttpCachingProperties;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.DocumentCodeDescription;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.ConditionBasedRestrictiveMeasure;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.DocumentCodeMeasureOption;
@@ -48,6 +56,7 @@ import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureOptions;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.MeasuresService;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.ResponseVersionService;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.time.Clock;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.MeasuresRequest;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.MeasuresRequest.MeasuresRequestBuilder;
@@ -55,11 +64,14 @@ import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.MeasuresReque
 @WebFluxTest(
     controllers = MeasuresController.class,
     excludeAutoConfiguration = ReactiveSecurityAutoConfiguration.class)
+@Import(ConditionalResponses.class)
 class MeasuresControllerTest {
 
   LocalDate currentLocalDate = LocalDate.now();
   @MockBean private MeasuresService measuresService;
   @MockBean private Clock clock;
+  @MockBean private ResponseVersionService responseVersionService;
+  @MockBean private HttpCachingProperties httpCachingProperties;
   @MockBean private InboundRequestMetrics inboundRequestMetrics;
   @MockBean private ResourceNameLabelResolver resourceNameLabelResolver;
   @Autowired private WebTestClient webTestClient;
@@ -353,6 +365,154 @@ class MeasuresControllerTest {
         .isEqualTo("Origin country CN is not a valid UK country");
   }
 
+  @Test
+  void shouldTagTheMeasuresWithTheirVersionAndLetThemBeCachedUntilTheNextTariffDay() {
+    MeasuresRequest request = conditionalRequest();
+    when(httpCachingProperties.isEnable()).thenReturn(true);
+    when(responseVersionService.getVersion(List.of("1-a1"))).thenReturn("version1");
+    when(responseVersionService.getTimeToLive()).thenReturn(Duration.ofHours(2));
+    given(measuresService.getMeasures(request))
+        .willReturn(
+            ServedVersions.recordCommodity("1-a1")
+                .thenMany(Flux.just(ConditionBasedRestrictiveMeasure.builder().id("1").build())));
+
+    webTestClient
+        .get()
+        .uri(createRequest(request))
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .valueEquals(HttpHeaders.ETAG, "\"version1\"")
+        .expectHeader()
+        .valueEquals(HttpHeaders.CACHE_CONTROL, "max-age=7200, public")
+        .expectBody()
+        .jsonPath("$.measures.length()")
+        .isEqualTo(1);
+  }
+
+  @Test
+  void shouldReturnNotModifiedWhenTheVersionIsUnchanged() {
+    MeasuresRequest request = conditionalRequest();
+    when(httpCachingProperties.isEnable()).thenReturn(true);
+    when(responseVersionService.getVersion(List.of("1-a1"))).thenReturn("version1");
+    when(responseVersionService.getTimeToLive()).thenReturn(Duration.ofHours(2));
+    given(measuresService.getMeasures(request))
+        .willReturn(
+            ServedVersions.recordCommodity("1-a1")
+                .thenMany(Flux.just(ConditionBasedRestrictiveMeasure.builder().id("1").build())));
+
+    webTestClient
+        .get()
+        .uri(createRequest(request))
+        .header(HttpHeaders.IF_NONE_MATCH, "\"version0\", \"version1\"")
+        .exchange()
+        .expectStatus()
+        .isNotModified()
+        .expectHeader()
+        .valueEquals(HttpHeaders.ETAG, "\"version1\"")
+        .expectHeader()
+        .valueEquals(HttpHeaders.CACHE_CONTROL, "max-age=7200, public")
+        .expectBody()
+        .isEmpty();
+  }
+
+  @Test
+  void shouldLetTheMeasuresBeCachedUntilTheirCommodityIsDueToBeRefreshed() {
+    MeasuresRequest request = conditionalRequest();
+    when(httpCachingProperties.isEnable()).thenReturn(true);
+    when(responseVersionService.getVersion(List.of("1-a1"))).thenReturn("version1");
+    when(responseVersionService.getTimeToLive()).thenReturn(Duration.ofHours(2));
+    given(measuresService.getMeasures(request))
+        .willReturn(
+            Mono.deferContextual(
+                    context -> {
+                      ServedFreshness servedFreshness = context.get(ServedFreshness.class);
+                      servedFreshness.record(Freshness.FRESH, Duration.ofMinutes(20));
+                      servedFreshness.recordFreshFor(Duration.ofMinutes(40));
+                      return ServedVersions.recordCommodity("1-a1");
+                    })
+                .thenMany(Flux.just(ConditionBasedRestrictiveMeasure.builder().id("1").build())));
+
+    webTestClient
+        .get()
+        .uri(createRequest(request))
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .valueEquals(HttpHeaders.ETAG, "\"version1\"")
+        .expectHeader()
+        .valueEquals(HttpHeaders.CACHE_CONTROL, "max-age=2400, public");
+  }
+
+  @Test
+  void shouldNotTagNorLetTheMeasuresBeCachedWhenTheirContentIsMissing() {
+    MeasuresRequest request = conditionalRequest();
+    when(httpCachingProperties.isEnable()).thenReturn(true);
+    given(measuresService.getMeasures(request))
+        .willReturn(
+            ServedVersions.recordMissingContent()
+                .thenMany(Flux.just(ConditionBasedRestrictiveMeasure.builder().id("1").build())));
+
+    webTestClient
+        .get()
+        .uri(createRequest(request))
+        .header(HttpHeaders.IF_NONE_MATCH, "\"version1\"")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .doesNotExist(HttpHeaders.ETAG)
+        .expectHeader()
+        .valueEquals(HttpHeaders.CACHE_CONTROL, "no-store")
+        .expectBody()
+        .jsonPath("$.measures.length()")
+        .isEqualTo(1);
+  }
+
+  @Test
+  void shouldNotTagNorLetTheMeasuresBeCachedWhenTheirCommodityIsStale() {
+    MeasuresRequest request = conditionalRequest();
+    when(httpCachingProperties.isEnable()).thenReturn(true);
+    given(measuresService.getMeasures(request))
+        .willReturn(
+            Mono.deferContextual(
+                    context -> {
+                      context
+                          .get(ServedFreshness.class)
+                          .record(Freshness.STALE_IF_ERROR, Duration.ofHours(3));
+                      return ServedVersions.recordCommodity("1-a1");
+                    })
+                .thenMany(Flux.just(ConditionBasedRestrictiveMeasure.builder().id("1").build())));
+
+    webTestClient
+        .get()
+        .uri(createRequest(request))
+        .header(HttpHeaders.IF_NONE_MATCH, "\"version1\"")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .doesNotExist(HttpHeaders.ETAG)
+        .expectHeader()
+        .valueEquals(HttpHeaders.CACHE_CONTROL, "no-store")
+        .expectBody()
+        .jsonPath("$.measures.length()")
+        .isEqualTo(1);
+  }
+
+  private MeasuresRequest conditionalRequest() {
+    return MeasuresRequest.builder()
+        .tradeType(TradeType.IMPORT)
+        .dateOfTrade(LocalDate.of(2022, 5, 10))
+        .originCountry("CN")
+        .destinationCountry(UkCountry.GB.name())
+        .commodityCode("1234567890")
+        .locale(Locale.EN)
+        .build();
+  }
+
   private Function<UriBuilder, URI> createRequest(MeasuresRequest request) {
     return builder -> {
       UriBuilder uriBuilder =
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ApplicationProperties.CONTEXT_ROOT;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveSecurityAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.util.UriBuilder;
+import reactor.core.publisher.Mono;
+import uk.gov.cabinetoffice.bpdg.stw.monitoring.prometheus.metrics.application.InboundRequestMetrics;
+import uk.gov.cabinetoffice.bpdg.stw.monitoring.prometheus.metrics.application.ResourceNameLabelResolver;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.HttpCachingProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.ConditionBasedRestrictiveMeasure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.GeographicalArea;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.OriginComparison;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Tariff;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TariffAndTaxes;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Tax;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.OriginComparisonService;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.ResponseVersionService;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.time.Clock;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.OriginComparisonRequest;
+
+@WebFluxTest(
+    controllers = OriginComparisonController.class,
+    excludeAutoConfiguration = ReactiveSecurityAutoConfiguration.class)
+@Import(ConditionalResponses.class)
+class OriginComparisonControllerTest {
+
+  private static final String COMMODITY_CODE = "1234567890";
+  private static final GeographicalArea ERGA_OMNES =
+      GeographicalArea.builder().id("1011").description("ERGA OMNES").build();
+
+  LocalDate currentLocalDate = LocalDate.now();
+  @MockBean private OriginComparisonService originComparisonService;
+  @MockBean private Clock clock;
+  @MockBean private ResponseVersionService responseVersionService;
+  @MockBean private HttpCachingProperties httpCachingProperties;
+  @MockBean private InboundRequestMetrics inboundRequestMetrics;
+  @MockBean private ResourceNameLabelResolver resourceNameLabelResolver;
+  @Autowired private WebTestClient webTestClient;
+
+  @BeforeEach
+  public void setUp() {
+    when(clock.currentLocalDate()).thenReturn(currentLocalDate);
+  }
+
+  @Test
+  void shouldReturnMeasuresAndDutiesPerOriginCountry() {
+    OriginComparisonRequest request =
+        OriginComparisonRequest.builder()
+            .commodityCode(COMMODITY_CODE)
+            .originCountries(List.of("US", "CN"))
+            .destinationCountry(UkCountry.GB)
+            .additionalCode("1234")
+            .dateOfTrade(LocalDate.of(2022, 5, 10))
+            .locale(Locale.CY)
+            .build();
+    Map<String, OriginComparison> originComparisons = new LinkedHashMap<>();
+    originComparisons.put(
+        "US",
+        OriginComparison.builder()
+            .measures(
+                List.of(
+                    ConditionBasedRestrictiveMeasure.builder()
+                        .id("350")
+                        .descriptionOverlay("description 350")
+                        .build()))
+            .tariffAndTaxes(
+                TariffAndTaxes.builder()
+                    .duties(
+                        List.of(
+                            Tax.builder()
+                                .measureTypeId("305")
+                                .text("VAT")
+                                .value("20.00 %")
+                                .geographicalArea(ERGA_OMNES)
+                                .build(),
+                            Tariff.builder()
+                                .measureTypeId("103")
+                                .text("Third country duty")
+                                .value("8.00 %")
+                                .geographicalArea(ERGA_OMNES)
+                                .build()))
+                    .build())
+            .build());
+    originComparisons.put(
+        "CN",
+        OriginComparison.builder()
+            .measures(List.of())
+            .tariffAndTaxes(TariffAndTaxes.builder().duties(List.of()).build())
+            .build());
+    given(originComparisonService.getOriginComparison(request))
+        .willReturn(Mono.just(originComparisons));
+
+    webTestClient
+        .get()
+        .uri(createRequest(request))
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.originCountries.length()")
+        .isEqualTo(2)
+        .jsonPath("$.originCountries.US.measures.length()")
+        .isEqualTo(1)
+        .jsonPath("$.originCountries.US.measures[0].id")
+        .isEqualTo("350")
+        .jsonPath("$.originCountries.US.tariffs.length()")
+        .isEqualTo(1)
+        .jsonPath("$.originCountries.US.tariffs[0].measureTypeId")
+        .isEqualTo("103")
+        .jsonPath("$.originCountries.US.taxes.length()")
+        .isEqualTo(1)
+        .jsonPath("$.originCountries.US.taxes[0].measureTypeId")
+        .isEqualTo("305")
+        .jsonPath("$.originCountries.CN.measures.length()")
+        .isEqualTo(0)
+        .jsonPath("$.originCountries.CN.tariffs.length()")
+        .isEqualTo(0);
+  }
+
+  @Test
+  void shouldDefaultTheDateOfTradeAndLocaleAndIgnoreRepeatedOriginCountries() {
+    OriginComparisonRequest request =
+        OriginComparisonRequest.builder()
+            .commodityCode(COMMODITY_CODE)
+            .originCountries(List.of("CN", "US", "CN"))
+            .destinationCountry(UkCountry.XI)
+            .build();
+    OriginComparisonRequest expectedRequest =
+        OriginComparisonRequest.builder()
+            .commodityCode(COMMODITY_CODE)
+            .originCountries(List.of("CN", "US"))
+            .destinationCountry(UkCountry.XI)
+            .dateOfTrade(currentLocalDate)
+            .locale(Locale.EN)
+            .build();
+    given(originComparisonService.getOriginComparison(expectedRequest))
+        .willReturn(Mono.just(Map.of()));
+
+    webTestClient
+        .get()
+        .uri(createRequest(request))
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.originCountries.length()")
+        .isEqualTo(0);
+  }
+
+  @Test
+  void shouldRejectARequestWithoutOriginCountries() {
+    OriginComparisonRequest request =
+        OriginComparisonRequest.builder()
+            .commodityCode(COMMODITY_CODE)
+            .originCountries(List.of())
+            .destinationCountry(UkCountry.GB)
+            .build();
+
+    assertBadRequest(request, "At least one origin country is required");
+  }
+
+  @Test
+  void shouldRejectTooManyOriginCountries() {
+    OriginComparisonRequest request =
+        OriginComparisonRequest.builder()
+            .commodityCode(COMMODITY_CODE)
+            .originCountries(
+                IntStream.range(0, OriginComparisonController.MAX_ORIGIN_COUNTRIES + 1)
+                    .mapToObj(index -> String.format("%02d", index))
+                    .collect(Collectors.toList()))
+            .destinationCountry(UkCountry.GB)
+            .build();
+
+    assertBadRequest(request, "At most 20 origin countries can be compared");
+  }
+
+  @Test
+  void shouldRejectAnInvalidOriginCountry() {
+    OriginComparisonRequest request =
+        OriginComparisonRequest.builder()
+            .commodityCode(COMMODITY_CODE)
+            .originCountries(List.of("CN", "USA"))
+            .destinationCountry(UkCountry.GB)
+            .build();
+
+    assertBadRequest(request, "Origin country USA is not a valid country code");
+  }
+
+  private void assertBadRequest(OriginComparisonRequest request, String message) {
+    webTestClient
+        .get()
+        .uri(createRequest(request))
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.validationErrors.length()")
+        .isEqualTo(1)
+        .jsonPath("$.validationErrors[0].fieldName")
+        .isEqualTo("originCountries")
+        .jsonPath("$.validationErrors[0].message")
+        .isEqualTo(message);
+    verifyNoInteractions(originComparisonService);
+  }
+
+  private Function<UriBuilder, URI> createRequest(OriginComparisonRequest request) {
+    return builder -> {
+      UriBuilder uriBuilder =
+          builder
+              .path(
+                  String.format(
+                      CONTEXT_ROOT + "/v1/commodities/%s/origin-comparison",
+                      request.getCommodityCode()))
+              .queryParam("originCountries", request.getOriginCountries().toArray())
+              .queryParam("destinationCountry", request.getDestinationCountry());
+
+      if (Objects.nonNull(request.getDateOfTrade())) {
+        uriBuilder.queryParam("tradeDate", request.getDateOfTrade().toString());
+      }
+      request
+          .getAdditionalCode()
+          .ifPresent(additionalCode -> uriBuilder.queryParam("additionalCode", additionalCode));
+      if (Objects.nonNull(request.getLocale())) {
+        uriBuilder.queryParam("locale", request.getLocale().name());
+      }
+      return uriBuilder.build();
+    };
+  }
+}
@@ -22,6 +22,7 @@ import static org.mockito.Mockito.when;
 import static uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ApplicationProperties.CONTEXT_ROOT;
 
 import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
@@ -36,11 +37,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.security.reactive.ReactiveSecurityAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.util.UriBuilder;
 import reactor.core.publisher.Mono;
 import uk.gov.cabinetoffice.bpdg.stw.monitoring.prometheus.metrics.application.InboundRequestMetrics;
 import uk.gov.cabinetoffice.bpdg.stw.monitoring.prometheus.metrics.application.ResourceNameLabelResolver;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.ServedVersions;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.HttpCachingProperties;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.AdditionalCode;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.GeographicalArea;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
@@ -50,6 +55,7 @@ import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TariffAndTaxes;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Tax;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.ResponseVersionService;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.TariffAndTaxesService;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.TariffAndTaxesRequest;
 import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.TariffAndTaxesRequest.TariffAndTaxesRequestBuilder;
@@ -57,11 +63,14 @@ import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.TariffAndTaxe
 @WebFluxTest(
     controllers = TariffAndTaxesController.class,
     excludeAutoConfiguration = ReactiveSecurityAutoConfiguration.class)
+@Import(ConditionalResponses.class)
 class TariffAndTaxesControllerTest {
 
   @Autowired private WebTestClient webTestClient;
   @MockBean private TariffAndTaxesService tariffAndTaxesService;
 
+  @MockBean private ResponseVersionService responseVersionService;
+  @MockBean private HttpCachingProperties httpCachingProperties;
   @MockBean private InboundRequestMetrics inboundRequestMetrics;
   @MockBean private ResourceNameLabelResolver resourceNameLabelResolver;
 
@@ -511,6 +520,35 @@ class TariffAndTaxesControllerTest {
     assertThat(TariffAndTaxesRequestArgumentCaptor.getValue()).isEqualTo(expectedRequest);
   }
 
+  @Test
+  void shouldReturnNotModifiedWhenTheVersionIsUnchanged() {
+    TariffAndTaxesRequest request =
+        TariffAndTaxesRequest.builder()
+            .commodityCode("1006101000")
+            .tradeType(TradeType.IMPORT)
+            .originCountry("CN")
+            .destinationCountry(UkCountry.XI)
+            .importDate(LocalDate.of(2022, 5, 10))
+            .locale(Locale.EN)
+            .build();
+    TariffAndTaxes tariffAndTaxes = TariffAndTaxes.builder().duties(Collections.emptyList()).build();
+    when(httpCachingProperties.isEnable()).thenReturn(true);
+    when(responseVersionService.getVersion(List.of("1-a1"))).thenReturn("version1");
+    when(responseVersionService.getTimeToLive()).thenReturn(Duration.ofMinutes(30));
+    when(tariffAndTaxesService.getTariffAndTaxes(request))
+        .thenReturn(ServedVersions.recordCommodity("1-a1").thenReturn(tariffAndTaxes));
+
+    webTestClient
+        .get()
+        .uri(createRequest(request))
+        .header(HttpHeaders.IF_NONE_MATCH, "\"version1\"")
+        .exchange()
+        .expectStatus()
+        .isNotModified()
+        .expectHeader()
+        .valueEquals(HttpHeaders.CACHE_CONTROL, "max-age=1800, public");
+  }
+
   private Function<UriBuilder, URI> createRequest(TariffAndTaxesRequest request) {
     return builder -> {
       UriBuilder uriBuilder =
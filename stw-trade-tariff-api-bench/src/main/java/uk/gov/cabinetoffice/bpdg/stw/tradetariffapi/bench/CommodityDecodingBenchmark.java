@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import reactor.core.publisher.Flux;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.codec.StreamingCommodityResponseDecoder;
+
+/**
+ * Compares decoding a commodity body with the default json decoder, which aggregates the body and
+ * binds every included entity, against the projected streaming decoder. The body is split into
+ * buffers of the size reactor netty hands to the decoders.
+ *
+ * <p>Run with the gc profiler (the default of {@link BenchmarkRunner}) to compare allocation per
+ * decoded commodity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommodityDecodingBenchmark {
+
+  private static final int BUFFER_SIZE = 8192;
+  private static final int MAX_RESPONSE_SIZE = 30 * 1024 * 1000;
+  private static final ResolvableType COMMODITY_RESPONSE =
+      ResolvableType.forClass(TradeTariffCommodityResponse.class);
+
+  @Param({"frogs-legs-ni", "tableware-and-kitchenware-large-data"})
+  private String fixture;
+
+  private byte[][] chunks;
+
+  private final Jackson2JsonDecoder defaultDecoder = new Jackson2JsonDecoder();
+  private final StreamingCommodityResponseDecoder projectingDecoder =
+      new StreamingCommodityResponseDecoder(MAX_RESPONSE_SIZE);
+
+  @Setup
+  public void loadCommodity() {
+    byte[] body = Fixtures.commodityBytes(fixture);
+    chunks = new byte[(body.length + BUFFER_SIZE - 1) / BUFFER_SIZE][];
+    for (int i = 0; i < chunks.length; i++) {
+      chunks[i] =
+          Arrays.copyOfRange(body, i * BUFFER_SIZE, Math.min(body.length, (i + 1) * BUFFER_SIZE));
+    }
+    defaultDecoder.setMaxInMemorySize(MAX_RESPONSE_SIZE);
+  }
+
+  @Benchmark
+  public Object aggregated() {
+    return defaultDecoder
+        .decodeToMono(body(), COMMODITY_RESPONSE, MediaType.APPLICATION_JSON, null)
+        .block();
+  }
+
+  @Benchmark
+  public Object projected() {
+    return projectingDecoder
+        .decodeToMono(body(), COMMODITY_RESPONSE, MediaType.APPLICATION_JSON, null)
+        .block();
+  }
+
+  private Flux<DataBuffer> body() {
+    return Flux.fromArray(chunks).map(DefaultDataBufferFactory.sharedInstance::wrap);
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.ApplicationProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.ContentApiConfiguration;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.measuretypedescription.MeasureTypeDescriptionContentClient;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.MeasureTypeDescription;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+
+/**
+ * Compares the per call overhead of the measure type description content client, which reuses
+ * the web client and a parsed uri template, against building a web client and the uri on every
+ * call. The content api is answered from memory, so only the client side work is measured.
+ *
+ * <p>Run with the gc profiler (the default of {@link BenchmarkRunner}) to compare allocation per
+ * call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentClientBenchmark {
+
+  private static final String BASE_URL = "http://content-api";
+  private static final String BODY =
+      "{\"measureTypeDescriptions\":[{\"measureType\":\"750\","
+          + "\"descriptionOverlay\":\"## Organic products: import control\",\"locale\":\"EN\"}]}";
+  private static final List<String> MEASURE_TYPES = List.of("750", "760", "350");
+
+  private MeasureTypeDescriptionContentClient contentClient;
+  private PerCallWebClientMeasureTypeDescriptionClient perCallWebClientClient;
+
+  @Setup
+  public void setUp() {
+    WebClient webClient =
+        WebClient.builder()
+            .exchangeFunction(
+                request ->
+                    Mono.just(
+                        ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body(BODY)
+                            .build()))
+            .build();
+    ContentApiConfiguration contentApiConfiguration = new ContentApiConfiguration();
+    contentApiConfiguration.setUrl(BASE_URL);
+    contentClient =
+        new MeasureTypeDescriptionContentClient(
+            webClient, new ApplicationProperties(null, contentApiConfiguration));
+    perCallWebClientClient = new PerCallWebClientMeasureTypeDescriptionClient(webClient, BASE_URL);
+  }
+
+  @Benchmark
+  public List<MeasureTypeDescription> preBuiltClient() {
+    return contentClient
+        .fetchMeasureTypeDescriptions(MEASURE_TYPES, TradeType.IMPORT, Locale.EN)
+        .collectList()
+        .block();
+  }
+
+  @Benchmark
+  public List<MeasureTypeDescription> perCallWebClient() {
+    return perCallWebClientClient
+        .fetchMeasureTypeDescriptions(MEASURE_TYPES, TradeType.IMPORT, Locale.EN)
+        .collectList()
+        .block();
+  }
+}
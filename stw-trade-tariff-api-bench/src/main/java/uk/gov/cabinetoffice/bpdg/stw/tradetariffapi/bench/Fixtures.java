@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
+
+/**
+ * Loads the response bodies used by the wiremock stubs in {@code mocks/response-body}.
+ *
+ * <p>The directory is looked up from the working directory and its parents, so benchmarks can be
+ * run from the repository root or from this module. Set {@code stw.bench.response-body-dir} to
+ * use another directory.
+ */
+final class Fixtures {
+
+  private static final String RESPONSE_BODY_DIR_PROPERTY = "stw.bench.response-body-dir";
+  private static final Path RESPONSE_BODY_DIR = Paths.get("mocks", "response-body");
+
+  // the same mapper the WebClient json codec of the trade tariff api client is configured with
+  private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+  private Fixtures() {
+    // only static methods
+  }
+
+  static byte[] commodityBytes(String fixture) {
+    return readBytes(Paths.get("commodities", fixture + ".json"));
+  }
+
+  static TradeTariffCommodityResponse commodity(String fixture) {
+    try {
+      return OBJECT_MAPPER.readValue(commodityBytes(fixture), TradeTariffCommodityResponse.class);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not parse commodity fixture " + fixture, e);
+    }
+  }
+
+  static JsonNode json(Path fixture) {
+    try {
+      return OBJECT_MAPPER.readTree(readBytes(fixture));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not parse fixture " + fixture, e);
+    }
+  }
+
+  static boolean exists(Path fixture) {
+    return Files.exists(responseBodyDir().resolve(fixture));
+  }
+
+  private static byte[] readBytes(Path fixture) {
+    try {
+      return Files.readAllBytes(responseBodyDir().resolve(fixture));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read fixture " + fixture, e);
+    }
+  }
+
+  private static Path responseBodyDir() {
+    String configuredDir = System.getProperty(RESPONSE_BODY_DIR_PROPERTY);
+    if (configuredDir != null) {
+      return Paths.get(configuredDir);
+    }
+    Path workingDir = Paths.get("").toAbsolutePath();
+    for (Path dir = workingDir; dir != null; dir = dir.getParent()) {
+      if (Files.isDirectory(dir.resolve(RESPONSE_BODY_DIR))) {
+        return dir.resolve(RESPONSE_BODY_DIR);
+      }
+    }
+    throw new IllegalStateException(
+        String.format(
+            "Could not find %s from %s, set -D%s",
+            RESPONSE_BODY_DIR, workingDir, RESPONSE_BODY_DIR_PROPERTY));
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import reactor.core.publisher.Flux;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.DocumentCodeDescription;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.MeasureTypeDescription;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.repository.DocumentCodeDescriptionRepository;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.repository.MeasureTypeDescriptionRepository;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+
+/**
+ * Serves the content api descriptions of the wiremock stubs from memory, so that benchmarks
+ * measure the service code rather than the network.
+ */
+class InMemoryContentRepository
+    implements MeasureTypeDescriptionRepository, DocumentCodeDescriptionRepository {
+
+  private final Map<String, List<MeasureTypeDescription>> measureTypeDescriptions =
+      new HashMap<>();
+  private final Map<String, List<DocumentCodeDescription>> documentCodeDescriptions =
+      new HashMap<>();
+
+  InMemoryContentRepository() {
+    for (TradeType tradeType : TradeType.values()) {
+      for (Locale locale : Locale.values()) {
+        String suffix = String.format("_%s_%s.json", tradeType.name().toLowerCase(), locale);
+        measureTypeDescriptions.put(
+            key(tradeType, locale),
+            load(
+                Paths.get("measure-type-descriptions", "measure_type_descriptions" + suffix),
+                "measureTypeDescriptions",
+                description ->
+                    MeasureTypeDescription.builder()
+                        .measureTypeId(description.get("measureType").asText())
+                        .descriptionOverlay(description.get("descriptionOverlay").asText())
+                        .locale(locale)
+                        .tradeType(tradeType)
+                        .build()));
+        documentCodeDescriptions.put(
+            key(tradeType, locale),
+            load(
+                Paths.get("document-code-descriptions", "document_code_descriptions" + suffix),
+                "documentCodeDescriptions",
+                description ->
+                    DocumentCodeDescription.builder()
+                        .documentCode(description.get("documentCode").asText())
+                        .descriptionOverlay(description.get("descriptionOverlay").asText())
+                        .locale(locale)
+                        .tradeType(tradeType)
+                        .build()));
+      }
+    }
+  }
+
+  @Override
+  public Flux<MeasureTypeDescription> findMeasureTypeDescriptionsByMeasureTypeIdsAndTradeTypeAndLocale(
+      List<String> measureTypeIds, TradeType tradeType, Locale locale) {
+    return Flux.fromIterable(measureTypeDescriptions.get(key(tradeType, locale)))
+        .filter(description -> measureTypeIds.contains(description.getMeasureTypeId()));
+  }
+
+  @Override
+  public Flux<DocumentCodeDescription> findDocumentCodeDescriptionsByDocumentCodesAndTradeTypeAndLocale(
+      List<String> documentCodes, TradeType tradeType, Locale locale) {
+    return Flux.fromIterable(documentCodeDescriptions.get(key(tradeType, locale)))
+        .filter(description -> documentCodes.contains(description.getDocumentCode()));
+  }
+
+  private static <T> List<T> load(
+      Path fixture, String field, Function<JsonNode, T> toDescription) {
+    List<T> descriptions = new ArrayList<>();
+    if (Fixtures.exists(fixture)) {
+      Fixtures.json(fixture)
+          .get(field)
+          .forEach(description -> descriptions.add(toDescription.apply(description)));
+    }
+    return descriptions;
+  }
+
+  private static String key(TradeType tradeType, Locale locale) {
+    return tradeType + "_" + locale;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.GeographicalAreaRegistry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureBuilder;
+
+/**
+ * Compares building the measures of a commodity through the id index of {@link MeasureBuilder}
+ * with the linear scans it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MeasureBuilderBenchmark {
+
+  @Param({"tableware-and-kitchenware-large-data", "frogs-legs-ni", "white-wine"})
+  private String fixture;
+
+  private TradeTariffCommodityResponse commodity;
+  private String commodityCode;
+
+  private final MeasureBuilder measureBuilder = new MeasureBuilder(new GeographicalAreaRegistry());
+  private final LinearScanMeasureBuilder linearScanMeasureBuilder = new LinearScanMeasureBuilder();
+
+  @Setup
+  public void loadCommodity() {
+    commodity = Fixtures.commodity(fixture);
+    commodityCode = commodity.getData().getGoodsNomenclatureItemId();
+  }
+
+  @Benchmark
+  public List<Measure> indexed() {
+    return measureBuilder.from(commodity, commodityCode);
+  }
+
+  @Benchmark
+  public List<Measure> linearScan() {
+    return linearScanMeasureBuilder.from(commodity, commodityCode);
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.MeasureFilterer;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.GeographicalAreaRegistry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureBuilder;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
+
+/**
+ * Compares filtering the measures of a cached {@link MeasureView} through its compiled bitsets,
+ * and looking them up in the measures precomputed for every country, with the stream filters they
+ * replaced. Compiling and precomputing are left out, as they happen once per commodity when the
+ * view is cached; {@link #precompute()} measures the latter on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MeasureFilterBenchmark {
+
+  @Param({"tableware-and-kitchenware-large-data", "frogs-legs-ni", "white-wine"})
+  private String fixture;
+
+  @Param({"CN", "FR"})
+  private String originCountry;
+
+  private final TradeType tradeType = TradeType.IMPORT;
+
+  private List<Measure> measures;
+  private MeasureView measureView;
+  private MeasureView precomputedMeasureView;
+
+  private final MeasureFilterer measureFilterer = new MeasureFilterer();
+  private final StreamMeasureFilterer streamMeasureFilterer = new StreamMeasureFilterer();
+
+  @Setup
+  public void buildMeasures() {
+    TradeTariffCommodityResponse commodity = Fixtures.commodity(fixture);
+    measures =
+        new MeasureBuilder(new GeographicalAreaRegistry())
+            .from(commodity, commodity.getData().getGoodsNomenclatureItemId());
+    measureView = MeasureView.of(measures);
+    precomputedMeasureView = measureFilterer.precomputeApplicableMeasures(measureView);
+  }
+
+  @Benchmark
+  public List<Measure> compiledRestrictiveMeasures() {
+    return measureFilterer.getRestrictiveMeasures(measureView, tradeType, originCountry);
+  }
+
+  @Benchmark
+  public List<Measure> precomputedRestrictiveMeasures() {
+    return measureFilterer.getRestrictiveMeasures(precomputedMeasureView, tradeType, originCountry);
+  }
+
+  @Benchmark
+  public List<Measure> streamRestrictiveMeasures() {
+    return streamMeasureFilterer.getRestrictiveMeasures(measures, tradeType, originCountry);
+  }
+
+  @Benchmark
+  public List<Measure> compiledTaxAndDutyMeasures() {
+    return measureFilterer.getTaxAndDutyMeasures(measureView, tradeType, originCountry);
+  }
+
+  @Benchmark
+  public List<Measure> precomputedTaxAndDutyMeasures() {
+    return measureFilterer.getTaxAndDutyMeasures(precomputedMeasureView, tradeType, originCountry);
+  }
+
+  @Benchmark
+  public List<Measure> streamTaxAndDutyMeasures() {
+    return streamMeasureFilterer.getTaxAndDutyMeasures(measures, tradeType, originCountry);
+  }
+
+  @Benchmark
+  public MeasureView precompute() {
+    return measureFilterer.precomputeApplicableMeasures(measureView);
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.bench;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import uk.gov.cabinetoffice.bpdg.stw.external.hmrc.tradetariff.model.commodity.TradeTariffCommodityResponse;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.CachedCommodity;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.CommodityCacheKey;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.CommodityFreshnessTracker;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.cache.SingleFlight;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.client.Hedger;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.CommodityCacheProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.HedgingProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.config.MeasureViewCacheProperties;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.repository.InMemoryProhibitionContentRepository;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Measure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.MeasureOptions;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.RestrictiveMeasure;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.UkCountry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.MeasureFilterer;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.MeasureOptionService;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.MeasureTypeService;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.MeasureViewService;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.MeasuresService;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.ProhibitionContentService;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.TradeTariffApiGateway;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.GeographicalAreaRegistry;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureBuilder;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.helper.MeasureView;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.measureoptions.ComplexMeasureOptionHandler;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.measureoptions.DocumentCodeDescriptionPrefetcher;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.measureoptions.MultipleMeasureOptionsHandler;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.service.measureoptions.SingleMeasureOptionHandler;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.web.rest.model.MeasuresRequest;
+
+/**
+ * Benchmarks each stage of the restrictive measures pipeline, and the pipeline as a whole, on the
+ * OTT commodity responses of the wiremock stubs. The content api is served from memory and the
+ * commodity from a pre-populated commodity cache, so no network calls are made.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MeasurePipelineBenchmark {
+
+  private static final LocalDate DATE_OF_TRADE = LocalDate.of(2022, 5, 10);
+
+  @Param({"tableware-and-kitchenware-large-data", "frogs-legs-ni", "white-wine"})
+  private String fixture;
+
+  @Param({"CN", "FR"})
+  private String originCountry;
+
+  private final TradeType tradeType = TradeType.IMPORT;
+  private final Locale locale = Locale.EN;
+
+  private TradeTariffCommodityResponse commodity;
+  private String commodityCode;
+  private MeasureView measureView;
+  private List<Measure> restrictiveMeasures;
+  private MeasuresRequest measuresRequest;
+
+  private MeasureBuilder measureBuilder;
+  private MeasureFilterer measureFilterer;
+  private MeasureOptionService measureOptionService;
+  private MeasuresService measuresService;
+
+  @Setup
+  public void setUp() {
+    commodity = Fixtures.commodity(fixture);
+    commodityCode = commodity.getData().getGoodsNomenclatureItemId();
+
+    InMemoryContentRepository contentRepository = new InMemoryContentRepository();
+    SingleMeasureOptionHandler singleMeasureOptionHandler =
+        new SingleMeasureOptionHandler(contentRepository);
+    measureBuilder = new MeasureBuilder(new GeographicalAreaRegistry());
+    measureFilterer = new MeasureFilterer();
+    measureOptionService =
+        new MeasureOptionService(
+            new MultipleMeasureOptionsHandler(singleMeasureOptionHandler),
+            singleMeasureOptionHandler,
+            new ComplexMeasureOptionHandler(contentRepository));
+    ProhibitionContentService prohibitionContentService =
+        new ProhibitionContentService(new InMemoryProhibitionContentRepository());
+    prohibitionContentService.initializeProhibitionContent();
+    measuresService =
+        new MeasuresService(
+            measureViewService(),
+            measureFilterer,
+            new MeasureTypeService(
+                contentRepository,
+                measureOptionService,
+                new DocumentCodeDescriptionPrefetcher(contentRepository)),
+            prohibitionContentService);
+
+    measureView = MeasureView.of(measureBuilder.from(commodity, commodityCode));
+    restrictiveMeasures =
+        measureFilterer.getRestrictiveMeasures(measureView, tradeType, originCountry);
+    measuresRequest =
+        MeasuresRequest.builder()
+            .commodityCode(commodityCode)
+            .originCountry(originCountry)
+            .destinationCountry(UkCountry.GB.name())
+            .tradeType(tradeType)
+            .dateOfTrade(DATE_OF_TRADE)
+            .locale(locale)
+            .build();
+  }
+
+  @Benchmark
+  public List<Measure> buildMeasures() {
+    return measureBuilder.from(commodity, commodityCode);
+  }
+
+  @Benchmark
+  public List<Measure> restrictiveMeasures() {
+    return measureFilterer.getRestrictiveMeasures(measureView, tradeType, originCountry);
+  }
+
+  @Benchmark
+  public List<Measure> taxAndDutyMeasures() {
+    return measureFilterer.getTaxAndDutyMeasures(measureView, tradeType, originCountry);
+  }
+
+  @Benchmark
+  public List<MeasureOptions> measureOptions() {
+    return Flux.fromIterable(restrictiveMeasures)
+        .concatMap(
+            measure ->
+                measureOptionService.getMeasureOptions(
+                    measure.getMeasureConditions(), tradeType, locale))
+        .collectList()
+        .block();
+  }
+
+  @Benchmark
+  public List<RestrictiveMeasure> measures() {
+    return measuresService.getMeasures(measuresRequest).collectList().block();
+  }
+
+  private MeasureViewService measureViewService() {
+    // the measure view cache is left disabled so that building the measures stays part of the
+    // measured pipeline
+    CommodityFreshnessTracker commodityFreshnessTracker =
+        new CommodityFreshnessTracker(
+            null, Clock.systemUTC(), "ottCommodities", new SimpleMeterRegistry());
+    return new MeasureViewService(
+        tradeTariffApiGateway(commodityFreshnessTracker),
+        measureBuilder,
+        measureFilterer,
+        Caffeine.newBuilder().buildAsync(),
+        new MeasureViewCacheProperties(),
+        commodityFreshnessTracker);
+  }
+
+  private TradeTariffApiGateway tradeTariffApiGateway(
+      CommodityFreshnessTracker commodityFreshnessTracker) {
+    CommodityCacheProperties commodityCacheProperties = new CommodityCacheProperties();
+    commodityCacheProperties.setEnable(true);
+    AsyncCache<CommodityCacheKey, CachedCommodity> commodityCache =
+        Caffeine.newBuilder().buildAsync();
+    commodityCache.put(
+        CommodityCacheKey.of(commodityCode, DATE_OF_TRADE, UkCountry.GB),
+        CompletableFuture.completedFuture(
+            CachedCommodity.of(commodity, commodityFreshnessTracker.now(), false)));
+    // every lookup is served from the commodity cache, so the OTT api client is never used
+    return new TradeTariffApiGateway(
+        null,
+        commodityCache,
+        Caffeine.newBuilder().build(),
+        commodityCacheProperties,
+        new SingleFlight<>("ottCommodities", new SimpleMeterRegistry()),
+        commodityFreshnessTracker,
+        new Hedger("ottApi", new HedgingProperties(), new SimpleMeterRegistry()));
+  }
+}
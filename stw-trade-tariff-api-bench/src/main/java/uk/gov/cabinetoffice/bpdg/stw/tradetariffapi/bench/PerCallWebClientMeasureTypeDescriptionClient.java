@@ -0,0 +1,76 @@
+/*
+ * Copyright 2022 Crown Copyright (Single Trade Window)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.bench;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.contentclient.measuretypedescription.MeasureTypeDescriptionResponseDTO;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.dao.model.MeasureTypeDescription;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.Locale;
+import uk.gov.cabinetoffice.bpdg.stw.tradetariffapi.domain.TradeType;
+
+/**
+ * The measure type description content client as it was before it kept its uri template, building
+ * a web client for the content api base url and the uri from scratch on every call. Kept as the
+ * baseline of {@link ContentClientBenchmark}.
+ */
+class PerCallWebClientMeasureTypeDescriptionClient {
+
+  private final WebClient webClient;
+  private final String baseUrl;
+
+  PerCallWebClientMeasureTypeDescriptionClient(WebClient webClient, String baseUrl) {
+    this.webClient = webClient;
+    this.baseUrl = baseUrl;
+  }
+
+  Flux<MeasureTypeDescription> fetchMeasureTypeDescriptions(
+      List<String> measureTypes, TradeType tradeType, Locale locale) {
+    return webClient
+        .mutate()
+        .baseUrl(baseUrl)
+        .build()
+        .get()
+        .uri(
+            uriBuilder ->
+                uriBuilder
+                    .path("/api/v1/measure-type-descriptions")
+                    .queryParam("measureTypes", String.join(",", measureTypes))
+                    .queryParam("locale", locale.name())
+                    .queryParam("tradeType", tradeType.name())
+                    .build())
+        .accept(MediaType.APPLICATION_JSON)
+        .retrieve()
+        .bodyToMono(MeasureTypeDescriptionResponseDTO.class)
+        .flatMapMany(
+            response ->
+                Flux.fromIterable(
+                    response.getMeasureTypeDescriptions().stream()
+                        .map(
+                            measureTypeDescriptionDTO ->
+                                MeasureTypeDescription.builder()
+                                    .measureTypeId(measureTypeDescriptionDTO.getMeasureType())
+                                    .locale(Locale.valueOf(measureTypeDescriptionDTO.getLocale()))
+                                    .descriptionOverlay(
+                                        measureTypeDescriptionDTO.getDescriptionOverlay())
+                                    .build())
+                        .collect(Collectors.toList())));
+  }
+}